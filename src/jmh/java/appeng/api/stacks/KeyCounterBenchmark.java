@@ -0,0 +1,91 @@
+package appeng.api.stacks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import appeng.api.config.FuzzyMode;
+import appeng.benchmark.BenchmarkKeys;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class KeyCounterBenchmark {
+    @Param({ "100", "10000" })
+    int keyCount;
+
+    private AEKey[] keys;
+    private KeyCounter counter;
+    private KeyCounter other;
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkKeys.items(keyCount);
+        counter = new KeyCounter();
+        other = new KeyCounter();
+        for (int i = 0; i < keys.length; i++) {
+            counter.add(keys[i], i + 1);
+            other.add(keys[i], 1);
+        }
+    }
+
+    @Benchmark
+    public KeyCounter add() {
+        var result = new KeyCounter();
+        for (var key : keys) {
+            result.add(key, 1);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long get() {
+        long total = 0;
+        for (var key : keys) {
+            total += counter.get(key);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long iterate() {
+        long total = 0;
+        for (var entry : counter) {
+            total += entry.getLongValue();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void forEach(Blackhole blackhole) {
+        counter.forEach((key, amount) -> blackhole.consume(amount));
+    }
+
+    @Benchmark
+    public int findFuzzy() {
+        int found = 0;
+        for (var key : keys) {
+            found += counter.findFuzzy(key, FuzzyMode.IGNORE_ALL).size();
+        }
+        return found;
+    }
+
+    @Benchmark
+    public KeyCounter addAllRemoveAll() {
+        counter.addAll(other);
+        counter.removeAll(other);
+        return counter;
+    }
+}
@@ -0,0 +1,49 @@
+package appeng.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import net.minecraft.world.item.ItemStack;
+
+import appeng.api.config.Actionable;
+import appeng.api.stacks.AEKey;
+import appeng.api.storage.StorageCells;
+import appeng.api.storage.cells.StorageCell;
+import appeng.core.definitions.AEItems;
+import appeng.me.helpers.BaseActionSource;
+
+/**
+ * Creates storage cells for benchmarks that need mounted storage.
+ */
+public final class BenchmarkCells {
+    private BenchmarkCells() {
+    }
+
+    /**
+     * Creates the given number of 64k item cells, and spreads the given keys across them. One fluid cell is added for
+     * every four item cells, so that storages of different key types are mounted alongside each other.
+     */
+    public static List<StorageCell> createCells(int itemCellCount, AEKey[] keys) {
+        var cells = new ArrayList<StorageCell>();
+        for (int i = 0; i < itemCellCount; i++) {
+            cells.add(createCell(new ItemStack(AEItems.ITEM_CELL_64K)));
+            if (i % 4 == 3) {
+                cells.add(createCell(new ItemStack(AEItems.FLUID_CELL_64K)));
+            }
+        }
+
+        var src = new BaseActionSource();
+        for (int i = 0; i < keys.length; i++) {
+            var cell = cells.get(i % cells.size());
+            for (int j = 0; j < cells.size() && cell.insert(keys[i], 64, Actionable.MODULATE, src) == 0; j++) {
+                cell = cells.get((i + j + 1) % cells.size());
+            }
+        }
+        return cells;
+    }
+
+    private static StorageCell createCell(ItemStack stack) {
+        return Objects.requireNonNull(StorageCells.getCellInventory(stack, null));
+    }
+}
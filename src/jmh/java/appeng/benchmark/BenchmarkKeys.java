@@ -0,0 +1,45 @@
+package appeng.benchmark;
+
+import java.util.ArrayList;
+
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+
+import appeng.api.stacks.AEItemKey;
+
+/**
+ * Generates keys for benchmarks that resemble the content of a real network: many different items, some of which
+ * appear with several variants.
+ */
+public final class BenchmarkKeys {
+    private BenchmarkKeys() {
+    }
+
+    /**
+     * @return The given number of distinct item keys. Every registered item is used once before variants with a custom
+     *         name are added.
+     */
+    public static AEItemKey[] items(int count) {
+        var items = new ArrayList<Item>();
+        for (var item : BuiltInRegistries.ITEM) {
+            if (item != Items.AIR) {
+                items.add(item);
+            }
+        }
+
+        var keys = new AEItemKey[count];
+        for (int i = 0; i < count; i++) {
+            var stack = new ItemStack(items.get(i % items.size()));
+            var variant = i / items.size();
+            if (variant > 0) {
+                stack.set(DataComponents.CUSTOM_NAME, Component.literal("variant " + variant));
+            }
+            keys[i] = AEItemKey.of(stack);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,28 @@
+package appeng.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import appeng.util.BootstrapMinecraft;
+
+/**
+ * Entrypoint for the {@code jmh} Gradle task. The benchmarks are run in the JVM of this test, since they need the same
+ * bootstrapped game environment as the unit tests.
+ */
+@BootstrapMinecraft
+class RunBenchmarks {
+    @Test
+    void runBenchmarks() throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(System.getProperty("appeng.jmh.includes", ""))
+                .forks(0)
+                .shouldFailOnError(true)
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("appeng.jmh.resultFile", "jmh-results.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
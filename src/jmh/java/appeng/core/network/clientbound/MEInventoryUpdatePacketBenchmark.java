@@ -0,0 +1,95 @@
+package appeng.core.network.clientbound;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.Unpooled;
+
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.KeyCounter;
+import appeng.benchmark.BenchmarkKeys;
+import appeng.menu.me.common.IncrementalUpdateHelper;
+
+/**
+ * Builds and encodes the inventory update packets sent to terminals, both for the initial full update and for an
+ * incremental update of a few changed keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MEInventoryUpdatePacketBenchmark {
+    private static final int CHANGED_KEYS = 100;
+
+    @Param({ "1000", "20000" })
+    int keyCount;
+
+    private final RegistryAccess registryAccess = RegistryAccess.fromRegistryOfRegistries(BuiltInRegistries.REGISTRY);
+    private AEKey[] keys;
+    private final KeyCounter storage = new KeyCounter();
+    private final Set<AEKey> craftables = new HashSet<>();
+    private final KeyCounter requestables = new KeyCounter();
+    private IncrementalUpdateHelper syncedHelper;
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkKeys.items(keyCount);
+        for (int i = 0; i < keys.length; i++) {
+            storage.add(keys[i], i + 1);
+            if (i % 10 == 0) {
+                craftables.add(keys[i]);
+            }
+        }
+
+        // A helper that has already sent all keys to the client, so that changes are sent by serial
+        syncedHelper = new IncrementalUpdateHelper();
+        var builder = MEInventoryUpdatePacket.builder(0, true, registryAccess);
+        builder.addFull(syncedHelper, storage, craftables, requestables);
+        builder.build();
+    }
+
+    @Benchmark
+    public int fullUpdate() {
+        var builder = MEInventoryUpdatePacket.builder(0, true, registryAccess);
+        builder.addFull(new IncrementalUpdateHelper(), storage, craftables, requestables);
+        return encode(builder.build());
+    }
+
+    @Benchmark
+    public int incrementalUpdate() {
+        for (int i = 0; i < CHANGED_KEYS; i++) {
+            syncedHelper.addChange(keys[i * keys.length / CHANGED_KEYS]);
+        }
+        var builder = MEInventoryUpdatePacket.builder(0, false, registryAccess);
+        builder.addChanges(syncedHelper, storage, craftables, requestables);
+        return encode(builder.build());
+    }
+
+    private int encode(List<MEInventoryUpdatePacket> packets) {
+        var size = 0;
+        for (var packet : packets) {
+            var buffer = new RegistryFriendlyByteBuf(Unpooled.buffer(), registryAccess);
+            packet.write(buffer);
+            size += buffer.writerIndex();
+        }
+        return size;
+    }
+}
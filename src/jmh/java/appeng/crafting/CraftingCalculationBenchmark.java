@@ -0,0 +1,107 @@
+package appeng.crafting;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.api.networking.crafting.CalculationStrategy;
+import appeng.api.networking.crafting.ICraftingPlan;
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.GenericStack;
+import appeng.benchmark.BenchmarkKeys;
+import appeng.crafting.simulation.helpers.ProcessingPatternBuilder;
+import appeng.crafting.simulation.helpers.SimulationEnv;
+
+/**
+ * Calculates crafting plans for a synthetic pattern tree, in which every craftable key is made from {@link #fanOut}
+ * inputs of the next level. The network only stores half of the keys of the last level that are needed, so every
+ * calculation goes through multiple attempts.
+ * <p/>
+ * With {@link #sharedInputs}, all inputs of a pattern are the same key, so the tree consists of identical subtrees that
+ * are expanded from a single pattern per level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CraftingCalculationBenchmark {
+    @Param({ "3", "5" })
+    int depth;
+
+    @Param({ "3" })
+    int fanOut;
+
+    @Param({ "64" })
+    long amount;
+
+    @Param({ "false", "true" })
+    boolean sharedInputs;
+
+    @Param({ "REPORT_MISSING_ITEMS", "CRAFT_LESS" })
+    CalculationStrategy strategy;
+
+    private SimulationEnv env;
+    private GenericStack request;
+
+    @Setup
+    public void setup() {
+        env = new SimulationEnv();
+        var keys = sharedInputs ? setupSharedInputs() : setupTree();
+        request = new GenericStack(keys[0], amount);
+    }
+
+    private AEKey[] setupTree() {
+        var keyCount = 0;
+        for (int level = 0, levelSize = 1; level <= depth; level++, levelSize *= fanOut) {
+            keyCount += levelSize;
+        }
+        var keys = BenchmarkKeys.items(keyCount);
+
+        // Keys are laid out level by level, so the inputs of key i are the keys fanOut * i + 1 to fanOut * i + fanOut
+        for (int i = 0; i < keys.length; i++) {
+            var firstInput = fanOut * i + 1;
+            if (firstInput >= keys.length) {
+                env.addStoredItem(keys[i], amount / 2);
+                continue;
+            }
+            var pattern = new ProcessingPatternBuilder(new GenericStack(keys[i], 1));
+            for (int j = 0; j < fanOut; j++) {
+                pattern.addPreciseInput(1, new GenericStack(keys[firstInput + j], 1));
+            }
+            env.addPattern(pattern.build());
+        }
+        return keys;
+    }
+
+    private AEKey[] setupSharedInputs() {
+        var keys = BenchmarkKeys.items(depth + 1);
+
+        // Key i is made from fanOut inputs of key i + 1
+        long leavesNeeded = amount;
+        for (int i = 0; i < depth; i++) {
+            var pattern = new ProcessingPatternBuilder(new GenericStack(keys[i], 1));
+            for (int j = 0; j < fanOut; j++) {
+                pattern.addPreciseInput(1, new GenericStack(keys[i + 1], 1));
+            }
+            env.addPattern(pattern.build());
+            leavesNeeded *= fanOut;
+        }
+        env.addStoredItem(keys[depth], leavesNeeded / 2);
+        return keys;
+    }
+
+    @Benchmark
+    public ICraftingPlan calculate() {
+        return env.runSimulation(request, strategy);
+    }
+}
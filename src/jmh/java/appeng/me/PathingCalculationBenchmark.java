@@ -0,0 +1,90 @@
+package appeng.me;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.minecraft.server.level.ServerLevel;
+
+import appeng.api.networking.GridFlags;
+import appeng.api.networking.GridHelper;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridNodeListener;
+import appeng.blockentity.networking.ControllerBlockEntity;
+import appeng.me.pathfinding.PathingCalculation;
+import appeng.util.Platform;
+
+/**
+ * Runs a complete channel assignment on a generated cable network: a chain of dense cables leaving the controller,
+ * where every dense cable has a few normal cables attached, each with a number of devices that require a channel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PathingCalculationBenchmark {
+    private static final int CABLES_PER_DENSE_CABLE = 4;
+    private static final int DEVICES_PER_CABLE = 8;
+
+    @Param({ "16", "128" })
+    int denseCableCount;
+
+    private final ServerLevel level = mock(ServerLevel.class);
+    @SuppressWarnings("unchecked")
+    private final IGridNodeListener<Object> listener = mock(IGridNodeListener.class);
+    private IGrid grid;
+
+    @Setup
+    public void setup() {
+        try (var platform = Mockito.mockStatic(Platform.class)) {
+            platform.when(Platform::isServer).thenReturn(true);
+
+            var controller = makeNode(mock(ControllerBlockEntity.class), GridFlags.CANNOT_CARRY,
+                    GridFlags.DENSE_CAPACITY);
+            var previous = controller;
+            for (int i = 0; i < denseCableCount; i++) {
+                var denseCable = makeNode(new Object(), GridFlags.DENSE_CAPACITY);
+                GridHelper.createConnection(previous, denseCable);
+                for (int j = 0; j < CABLES_PER_DENSE_CABLE; j++) {
+                    var cable = makeNode(new Object(), GridFlags.PREFERRED);
+                    GridHelper.createConnection(denseCable, cable);
+                    for (int k = 0; k < DEVICES_PER_CABLE; k++) {
+                        GridHelper.createConnection(cable, makeNode(new Object(), GridFlags.REQUIRE_CHANNEL));
+                    }
+                }
+                previous = denseCable;
+            }
+
+            grid = controller.getGrid();
+        }
+    }
+
+    private GridNode makeNode(Object owner, GridFlags... flags) {
+        var node = new GridNode(level, owner, listener, Set.of(flags));
+        node.markReady();
+        return node;
+    }
+
+    @Benchmark
+    public int calculate() {
+        var calculation = new PathingCalculation(grid);
+        while (!calculation.isFinished()) {
+            calculation.step();
+        }
+        return calculation.getChannelsInUse();
+    }
+}
@@ -0,0 +1,106 @@
+package appeng.me.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.IStackWatcher;
+import appeng.api.networking.security.IActionSource;
+import appeng.api.networking.storage.IStorageWatcherNode;
+import appeng.api.stacks.AEKey;
+import appeng.benchmark.BenchmarkCells;
+import appeng.benchmark.BenchmarkKeys;
+import appeng.me.helpers.BaseActionSource;
+import appeng.me.storage.DriveWatcher;
+
+/**
+ * Measures a tick of the storage service, in which the cached network inventory is updated and watchers are notified,
+ * after a number of stacks in the network changed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StorageServiceBenchmark {
+    private static final IActionSource SRC = new BaseActionSource();
+    private static final int WATCHER_COUNT = 32;
+
+    @Param({ "10", "200" })
+    int cellCount;
+
+    @Param({ "1", "100" })
+    int changesPerTick;
+
+    private AEKey[] keys;
+    private StorageService service;
+    private int next;
+    private boolean extracting;
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkKeys.items(cellCount * 20);
+        service = new StorageService();
+
+        var cells = BenchmarkCells.createCells(cellCount, keys);
+        service.addGlobalStorageProvider(storageMounts -> {
+            for (var cell : cells) {
+                storageMounts.mount(new DriveWatcher(cell, () -> {
+                }));
+            }
+        });
+
+        for (int i = 0; i < WATCHER_COUNT; i++) {
+            var watchedKey = keys[i * keys.length / WATCHER_COUNT];
+            var node = mock(IGridNode.class);
+            when(node.getService(IStorageWatcherNode.class)).thenReturn(new IStorageWatcherNode() {
+                @Override
+                public void updateWatcher(IStackWatcher newWatcher) {
+                    newWatcher.add(watchedKey);
+                }
+
+                @Override
+                public void onStackChange(AEKey what, long amount) {
+                }
+            });
+            service.addNode(node, null);
+        }
+
+        service.onServerEndTick();
+    }
+
+    @Benchmark
+    public int tick() {
+        var inventory = service.getInventory();
+        for (int i = 0; i < changesPerTick; i++) {
+            var key = keys[next];
+            next = (next + 1) % keys.length;
+            // Alternate between inserting and extracting to keep the network content stable
+            if (extracting) {
+                inventory.extract(key, 1, Actionable.MODULATE, SRC);
+            } else {
+                inventory.insert(key, 1, Actionable.MODULATE, SRC);
+            }
+            if (next == 0) {
+                extracting = !extracting;
+            }
+        }
+
+        service.onServerEndTick();
+        return service.getCachedInventory().size();
+    }
+}
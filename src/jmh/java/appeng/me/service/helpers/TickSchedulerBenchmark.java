@@ -0,0 +1,146 @@
+package appeng.me.service.helpers;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.ticking.IGridTickable;
+import appeng.api.networking.ticking.TickingRequest;
+
+/**
+ * Simulates a tick of the tick manager on a grid with many tickables, some of which are alerted every tick the way
+ * busses and pattern providers are. Compares the {@link TickWheel} with the {@link PriorityQueue} it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TickSchedulerBenchmark {
+    private static final TickingRequest REQUEST = new TickingRequest(5, 80, false);
+
+    @Param({ "1000", "10000" })
+    int trackerCount;
+
+    @Param({ "10", "200" })
+    int alertsPerTick;
+
+    @Param({ "WHEEL", "PRIORITY_QUEUE" })
+    SchedulerType scheduler;
+
+    private final Random random = new Random(0);
+    private TickTracker[] trackers;
+    private Scheduler queue;
+    private long currentTick;
+
+    @Setup
+    public void setup() {
+        queue = switch (scheduler) {
+            case WHEEL -> new WheelScheduler();
+            case PRIORITY_QUEUE -> new PriorityQueueScheduler();
+        };
+
+        var node = mock(IGridNode.class);
+        var tickable = mock(IGridTickable.class);
+        trackers = new TickTracker[trackerCount];
+        for (int i = 0; i < trackerCount; i++) {
+            trackers[i] = new TickTracker(REQUEST, node, tickable, currentTick);
+            trackers[i].setCurrentRate(REQUEST.minTickRate() + random.nextInt(REQUEST.maxTickRate()));
+            queue.schedule(trackers[i]);
+        }
+    }
+
+    @Benchmark
+    public void tick(Blackhole blackhole) {
+        currentTick++;
+
+        for (int i = 0; i < alertsPerTick; i++) {
+            var tracker = trackers[random.nextInt(trackerCount)];
+            tracker.setTickOnNextTick();
+            queue.reschedule(tracker);
+        }
+
+        TickTracker tracker;
+        while ((tracker = queue.pollDue(currentTick)) != null) {
+            blackhole.consume(tracker);
+            tracker.setLastTick(currentTick);
+            tracker.setCurrentRate(tracker.getCurrentRate() + (random.nextBoolean() ? 1 : -2));
+            queue.schedule(tracker);
+        }
+    }
+
+    public enum SchedulerType {
+        WHEEL,
+        PRIORITY_QUEUE
+    }
+
+    private interface Scheduler {
+        void schedule(TickTracker tracker);
+
+        void reschedule(TickTracker tracker);
+
+        TickTracker pollDue(long currentTick);
+    }
+
+    private static class WheelScheduler implements Scheduler {
+        private final TickWheel wheel = new TickWheel(0);
+
+        @Override
+        public void schedule(TickTracker tracker) {
+            wheel.schedule(tracker);
+        }
+
+        @Override
+        public void reschedule(TickTracker tracker) {
+            wheel.schedule(tracker);
+        }
+
+        @Override
+        public TickTracker pollDue(long currentTick) {
+            return wheel.pollDue(currentTick);
+        }
+    }
+
+    private static class PriorityQueueScheduler implements Scheduler {
+        private final PriorityQueue<TickTracker> queue = new PriorityQueue<>(
+                Comparator.comparingLong(TickTracker::getNextTick)
+                        .thenComparingLong(TickTracker::getLastTick)
+                        .thenComparingInt(TickTracker::getCurrentRate));
+
+        @Override
+        public void schedule(TickTracker tracker) {
+            queue.add(tracker);
+        }
+
+        @Override
+        public void reschedule(TickTracker tracker) {
+            queue.remove(tracker);
+            queue.add(tracker);
+        }
+
+        @Override
+        public TickTracker pollDue(long currentTick) {
+            var tracker = queue.peek();
+            if (tracker == null || tracker.getNextTick() > currentTick) {
+                return null;
+            }
+            return queue.poll();
+        }
+    }
+}
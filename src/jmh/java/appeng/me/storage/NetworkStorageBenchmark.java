@@ -0,0 +1,73 @@
+package appeng.me.storage;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.security.IActionSource;
+import appeng.api.stacks.AEKey;
+import appeng.benchmark.BenchmarkCells;
+import appeng.benchmark.BenchmarkKeys;
+import appeng.me.helpers.BaseActionSource;
+
+/**
+ * Inserts into and extracts from a network storage with many mounted storage cells.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NetworkStorageBenchmark {
+    private static final IActionSource SRC = new BaseActionSource();
+
+    @Param({ "10", "200" })
+    int cellCount;
+
+    private AEKey[] keys;
+    private NetworkStorage storage;
+    private int next;
+
+    @Setup
+    public void setup() {
+        keys = BenchmarkKeys.items(cellCount * 20);
+        storage = new NetworkStorage();
+        for (var cell : BenchmarkCells.createCells(cellCount, keys)) {
+            storage.mount(0, new DriveWatcher(cell, () -> {
+            }));
+        }
+    }
+
+    private AEKey nextKey() {
+        var key = keys[next];
+        next = (next + 1) % keys.length;
+        return key;
+    }
+
+    @Benchmark
+    public long insertSimulate() {
+        return storage.insert(nextKey(), 1, Actionable.SIMULATE, SRC);
+    }
+
+    @Benchmark
+    public long extractSimulate() {
+        return storage.extract(nextKey(), 1, Actionable.SIMULATE, SRC);
+    }
+
+    @Benchmark
+    public long insertAndExtract() {
+        var key = nextKey();
+        var inserted = storage.insert(key, 1, Actionable.MODULATE, SRC);
+        return storage.extract(key, inserted, Actionable.MODULATE, SRC);
+    }
+}
@@ -38,6 +38,7 @@
 import appeng.hooks.ticking.TickHandler;
 import appeng.me.GridConnection;
 import appeng.me.GridEventBus;
+import appeng.me.GridTopologyBatch;
 import appeng.me.InWorldGridNode;
 import appeng.me.ManagedGridNode;
 
@@ -185,4 +186,18 @@ public static IGridConnection createConnection(IGridNode a, IGridNode b) {
         return GridConnection.create(a, b, null);
     }
 
+    /**
+     * Runs a batch of changes that create or destroy many grid connections or nodes at once, such as placing or
+     * removing a large number of cables. The grids of the affected nodes are only merged or split once the batch ends,
+     * so that every node moves to its final grid at most once.
+     * <p>
+     * While the batch runs, connected nodes may still belong to different grids. Batches may be nested, in which case
+     * the changes are applied once the outermost batch ends.
+     *
+     * @param changes The changes to run, must be called on the server thread.
+     */
+    public static void batchTopologyChanges(Runnable changes) {
+        GridTopologyBatch.run(changes);
+    }
+
 }
@@ -60,7 +60,37 @@ default int getPatternPriority() {
     boolean pushPattern(IPatternDetails patternDetails, KeyCounter[] inputHolder);
 
     /**
-     * @return if this is true, the crafting engine will refuse to send patterns to this provider.
+     * Return how many times the given pattern may be pushed at once with {@link #pushPatterns}. Providers that only
+     * accept one pattern at a time should return 1, which is the default.
+     */
+    default int getMaxPushMultiplier(IPatternDetails patternDetails) {
+        return 1;
+    }
+
+    /**
+     * Instruct a provider to craft one of the patterns multiple times at once. The provider may accept only some of
+     * them.
+     *
+     * @param patternDetails details
+     * @param inputHolder    the requested stacks, for each input slot of the pattern. The amounts are exactly
+     *                       {@code multiplier} times the amounts needed to craft the pattern once.
+     * @param multiplier     how many times the pattern should be crafted, at most
+     *                       {@link #getMaxPushMultiplier(IPatternDetails)}
+     *
+     * @return how many times the pattern was pushed, from 0 to {@code multiplier}. If it is less than
+     *         {@code multiplier}, the provider must remove the stacks it used from {@code inputHolder}, and the
+     *         remaining stacks are returned to the crafting CPU.
+     */
+    default int pushPatterns(IPatternDetails patternDetails, KeyCounter[] inputHolder, int multiplier) {
+        if (multiplier == 1) {
+            return pushPattern(patternDetails, inputHolder) ? 1 : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * @return if this is true, the crafting engine will refuse to send patterns to this provider. Call
+     *         {@link #notifyReady} once it becomes false again.
      */
     boolean isBusy();
 
@@ -82,4 +112,16 @@ static void requestUpdate(IManagedGridNode managedNode) {
             node.getGrid().getCraftingService().refreshNodeCraftingProvider(node);
         }
     }
+
+    /**
+     * This convenience method should be used when the provider was busy or could not accept patterns, and now can
+     * again. See {@link ICraftingService#notifyProviderReady}. This only works if the given managed grid node provides
+     * this service.
+     */
+    static void notifyReady(IManagedGridNode managedNode) {
+        var node = managedNode.getNode();
+        if (node != null) {
+            node.getGrid().getCraftingService().notifyProviderReady(node);
+        }
+    }
 }
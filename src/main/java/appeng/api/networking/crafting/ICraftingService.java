@@ -64,6 +64,14 @@ default boolean isCraftable(AEKey whatToCraft) {
      */
     void refreshNodeCraftingProvider(IGridNode node);
 
+    /**
+     * Tells crafting CPUs that the {@link ICraftingProvider} of a {@link IGridNode node} can accept patterns again,
+     * after it was {@linkplain ICraftingProvider#isBusy() busy} or rejected a pattern. CPUs do not retry patterns of
+     * such providers every tick, so notifying them lets jobs continue without delay.
+     */
+    default void notifyProviderReady(IGridNode node) {
+    }
+
     /**
      * Important: Never mutate the passed or returned stacks.
      *
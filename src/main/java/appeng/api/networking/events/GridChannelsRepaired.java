@@ -0,0 +1,24 @@
+package appeng.api.networking.events;
+
+import java.util.Collection;
+
+import appeng.api.networking.IGridNode;
+
+/**
+ * Posted by the network when the channels of some nodes were reassigned without rebooting the grid. Unlike
+ * {@link GridBootingStatusChange}, the channels of all other nodes stay the same.
+ */
+public class GridChannelsRepaired extends GridEvent {
+    private final Collection<IGridNode> nodes;
+
+    public GridChannelsRepaired(Collection<IGridNode> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * The nodes that were added to or removed from the grid, or whose channel requirements changed.
+     */
+    public Collection<IGridNode> getNodes() {
+        return nodes;
+    }
+}
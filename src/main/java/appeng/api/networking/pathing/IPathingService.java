@@ -38,7 +38,9 @@ public interface IPathingService extends IGridService {
      * every grid node to the controller, and the number of channels will be re-calculated.
      * <p/>
      * The start and end of the boot process is signaled by the
-     * {@link appeng.api.networking.events.GridBootingStatusChange} event.
+     * {@link appeng.api.networking.events.GridBootingStatusChange} event. Small changes at the edge of a grid may be
+     * repaired without a reboot instead, which is signaled by the
+     * {@link appeng.api.networking.events.GridChannelsRepaired} event.
      *
      * @return true if the network is in its booting stage
      */
@@ -51,6 +51,30 @@ public interface IStorageService extends IGridService {
      */
     KeyCounter getCachedInventory();
 
+    /**
+     * Returns the current content of the {@link #getCachedInventory() cached inventory}, which will not change when the
+     * cache is updated later. Unlike the cached inventory itself, it can be read from other threads.
+     *
+     * <p/>
+     * Callers should {@linkplain #releaseCachedInventorySnapshot release} the snapshot once they no longer read it.
+     *
+     * @return A snapshot of the cached stacks of this network. It may be shared with other callers. <strong>Do not
+     *         modify!</strong>
+     */
+    default KeyCounter getCachedInventorySnapshot() {
+        var snapshot = new KeyCounter();
+        snapshot.addAll(getCachedInventory());
+        snapshot.buildFuzzyIndex();
+        return snapshot;
+    }
+
+    /**
+     * Signals that a snapshot returned by {@link #getCachedInventorySnapshot()} is no longer read, so that the cache
+     * does not have to keep it unchanged. Can be called from any thread, but only once per snapshot taken.
+     */
+    default void releaseCachedInventorySnapshot(KeyCounter snapshot) {
+    }
+
     /**
      * Adds a {@link IStorageProvider} that is not associated with a specific {@link IGridNode }. This is for adding
      * storage provided by {@link IGridService}s for examples.
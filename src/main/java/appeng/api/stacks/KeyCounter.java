@@ -23,17 +23,19 @@
 
 package appeng.api.stacks;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
-
-import com.google.common.collect.Iterators;
+import java.util.function.ObjLongConsumer;
 
 import org.jetbrains.annotations.Nullable;
 
+import it.unimi.dsi.fastutil.objects.AbstractObject2LongMap;
 import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
@@ -42,18 +44,84 @@
 
 /**
  * Associates a generic value of type T with AE keys and makes key/value pairs searchable with fuzzy mode semantics.
+ * <p/>
+ * Keys that do not support fuzzy range lookups (see {@link AEKey#getFuzzySearchMaxValue()}) are kept in a single flat
+ * hash table, so that adding to or querying them only requires a single lookup. Only keys that support fuzzy range
+ * lookups are grouped by their primary key into sorted maps.
  */
 public final class KeyCounter implements Iterable<Object2LongMap.Entry<AEKey>> {
-    // First map contains a mapping from AEKey#primaryKey
+    // Contains all keys that do not support fuzzy range lookups
+    private final AEKey2LongMap.OpenHashMap flat = new AEKey2LongMap.OpenHashMap();
+    // Maps AEKey#primaryKey to the keys that support fuzzy range lookups
     private final Reference2ObjectMap<Object, VariantCounter> lists = new Reference2ObjectOpenHashMap<>();
+    // Groups the keys of the flat table by their primary key. Only built once it's needed by findFuzzy.
+    @Nullable
+    private Reference2ObjectMap<Object, List<AEKey>> flatVariants;
 
     public Collection<Object2LongMap.Entry<AEKey>> findFuzzy(AEKey key, FuzzyMode fuzzy) {
         Objects.requireNonNull(key, "key");
-        var subIndex = getSubIndexOrNull(key);
+        if (!supportsFuzzyRange(key)) {
+            return findFlatVariants(key);
+        }
+        var subIndex = lists.get(key.getPrimaryKey());
         return subIndex == null ? List.of() : subIndex.findFuzzy(key, fuzzy);
     }
 
+    /**
+     * For keys whose primary key does not support fuzzy range lookups, we simply return all variants, which amounts to
+     * ignoring NBT.
+     */
+    private Collection<Object2LongMap.Entry<AEKey>> findFlatVariants(AEKey key) {
+        buildFuzzyIndex();
+
+        var variants = flatVariants.get(key.getPrimaryKey());
+        if (variants == null) {
+            return List.of();
+        }
+        var result = new ArrayList<Object2LongMap.Entry<AEKey>>(variants.size());
+        for (var variant : variants) {
+            result.add(new AbstractObject2LongMap.BasicEntry<>(variant, flat.getLong(variant)));
+        }
+        return result;
+    }
+
+    /**
+     * Builds the index used by {@link #findFuzzy} if it has not been built yet. Afterwards, the counter can be read
+     * from multiple threads at once, as long as nobody modifies it.
+     */
+    public void buildFuzzyIndex() {
+        if (flatVariants == null) {
+            flatVariants = new Reference2ObjectOpenHashMap<>();
+            for (var variant : flat.keySet()) {
+                addFlatVariant(variant);
+            }
+        }
+    }
+
+    private void addFlatVariant(AEKey key) {
+        flatVariants.computeIfAbsent(key.getPrimaryKey(), k -> new ArrayList<>(1)).add(key);
+    }
+
+    private void removeFlatVariant(AEKey key) {
+        var primaryKey = key.getPrimaryKey();
+        var variants = flatVariants.get(primaryKey);
+        if (variants != null && variants.remove(key) && variants.isEmpty()) {
+            flatVariants.remove(primaryKey);
+        }
+    }
+
     public void removeZeros() {
+        var flatIt = flat.object2LongEntrySet().fastIterator();
+        while (flatIt.hasNext()) {
+            var entry = flatIt.next();
+            if (entry.getLongValue() == 0) {
+                if (flatVariants != null) {
+                    removeFlatVariant(entry.getKey());
+                }
+                flatIt.remove();
+            }
+        }
+
         var iterator = lists.entrySet().iterator();
         while (iterator.hasNext()) {
             var entry = iterator.next();
@@ -66,44 +134,79 @@ public void removeZeros() {
     }
 
     public void addAll(KeyCounter other) {
+        other.flat.object2LongEntrySet().fastForEach(entry -> addToFlat(entry.getKey(), entry.getLongValue()));
+
         for (var entry : other.lists.entrySet()) {
-            var ourSubIndex = lists.get(entry.getKey());
-            if (ourSubIndex == null) {
-                lists.put(entry.getKey(), entry.getValue().copy());
-            } else {
-                ourSubIndex.addAll(entry.getValue());
-            }
+            getOrCreateFuzzySubIndex(entry.getKey()).addAll(entry.getValue());
         }
     }
 
     public void removeAll(KeyCounter other) {
+        other.flat.object2LongEntrySet().fastForEach(entry -> addToFlat(entry.getKey(), -entry.getLongValue()));
+
         for (var entry : other.lists.entrySet()) {
-            var ourSubIndex = lists.get(entry.getKey());
-            if (ourSubIndex == null) {
-                var copied = entry.getValue().copy();
-                copied.invert();
-                lists.put(entry.getKey(), copied);
-            } else {
-                ourSubIndex.removeAll(entry.getValue());
-            }
+            getOrCreateFuzzySubIndex(entry.getKey()).removeAll(entry.getValue());
         }
     }
 
     public void add(AEKey key, long amount) {
         Objects.requireNonNull(key, "key");
-        getSubIndex(key).add(key, amount);
+        if (supportsFuzzyRange(key)) {
+            getOrCreateFuzzySubIndex(key.getPrimaryKey()).add(key, amount);
+        } else {
+            addToFlat(key, amount);
+        }
+    }
+
+    private void addToFlat(AEKey key, long amount) {
+        var previousSize = flat.size();
+        flat.addTo(key, amount);
+        if (flatVariants != null && flat.size() != previousSize) {
+            addFlatVariant(key);
+        }
     }
 
     public void remove(AEKey key, long amount) {
         add(key, -amount);
     }
 
+    /**
+     * Removes the entry for the given key, regardless of its amount.
+     */
+    public void remove(AEKey key) {
+        Objects.requireNonNull(key, "key");
+        if (supportsFuzzyRange(key)) {
+            var subIndex = lists.get(key.getPrimaryKey());
+            if (subIndex != null) {
+                subIndex.remove(key);
+            }
+        } else {
+            var previousSize = flat.size();
+            flat.removeLong(key);
+            if (flatVariants != null && flat.size() != previousSize) {
+                removeFlatVariant(key);
+            }
+        }
+    }
+
     public void set(AEKey key, long amount) {
-        getSubIndex(key).set(key, amount);
+        Objects.requireNonNull(key, "key");
+        if (supportsFuzzyRange(key)) {
+            getOrCreateFuzzySubIndex(key.getPrimaryKey()).set(key, amount);
+        } else {
+            var previousSize = flat.size();
+            flat.put(key, amount);
+            if (flatVariants != null && flat.size() != previousSize) {
+                addFlatVariant(key);
+            }
+        }
     }
 
     public long get(AEKey key) {
         Objects.requireNonNull(key);
+        if (!supportsFuzzyRange(key)) {
+            return flat.getLong(key);
+        }
         var subIndex = lists.get(key.getPrimaryKey());
         if (subIndex == null) {
             return 0;
@@ -112,18 +215,24 @@ public long get(AEKey key) {
     }
 
     public void reset() {
+        flat.replaceAll((key, value) -> 0L);
         for (var list : lists.values()) {
             list.reset();
         }
     }
 
     public void clear() {
+        flat.clear();
+        flatVariants = null;
         for (var list : lists.values()) {
             list.clear();
         }
     }
 
     public boolean isEmpty() {
+        if (!flat.isEmpty()) {
+            return false;
+        }
         for (var list : lists.values()) {
             if (!list.isEmpty()) {
                 return false;
@@ -133,31 +242,41 @@ public boolean isEmpty() {
     }
 
     public int size() {
-        int tot = 0;
+        int tot = flat.size();
         for (var list : lists.values()) {
             tot += list.size();
         }
         return tot;
     }
 
+    /**
+     * Calls the given consumer for every key and its amount, without allocating an entry for each of them.
+     */
+    public void forEach(ObjLongConsumer<AEKey> consumer) {
+        flat.object2LongEntrySet().fastForEach(entry -> consumer.accept(entry.getKey(), entry.getLongValue()));
+        for (var list : lists.values()) {
+            for (var entry : list) {
+                consumer.accept(entry.getKey(), entry.getLongValue());
+            }
+        }
+    }
+
     @Override
     public Iterator<Object2LongMap.Entry<AEKey>> iterator() {
-        return Iterators.concat(
-                Iterators.transform(lists.values().iterator(), VariantCounter::iterator));
+        return new EntryIterator();
     }
 
-    private VariantCounter getSubIndex(AEKey key) {
-        // We check before the call to computeIfAbsent, otherwise we'd need a capturing lambda.
-        if (key.getFuzzySearchMaxValue() > 0) {
-            return lists.computeIfAbsent(key.getPrimaryKey(), k -> new VariantCounter.FuzzyVariantMap());
-        } else {
-            return lists.computeIfAbsent(key.getPrimaryKey(), k -> new VariantCounter.UnorderedVariantMap());
-        }
+    private static boolean supportsFuzzyRange(AEKey key) {
+        return key.getFuzzySearchMaxValue() > 0;
     }
 
-    @Nullable
-    private VariantCounter getSubIndexOrNull(AEKey key) {
-        return lists.get(key.getPrimaryKey());
+    private VariantCounter getOrCreateFuzzySubIndex(Object primaryKey) {
+        var subIndex = lists.get(primaryKey);
+        if (subIndex == null) {
+            subIndex = new VariantCounter.FuzzyVariantMap();
+            lists.put(primaryKey, subIndex);
+        }
+        return subIndex;
     }
 
     @Nullable
@@ -174,6 +293,10 @@ public <T extends AEKey> T getFirstKey(Class<T> keyClass) {
 
     @Nullable
     public Object2LongMap.Entry<AEKey> getFirstEntry() {
+        var flatIt = flat.object2LongEntrySet().iterator();
+        if (flatIt.hasNext()) {
+            return flatIt.next();
+        }
         for (var value : lists.values()) {
             var it = value.iterator();
             if (it.hasNext()) {
@@ -185,6 +308,11 @@ public Object2LongMap.Entry<AEKey> getFirstEntry() {
 
     @Nullable
     public <T extends AEKey> Object2LongMap.Entry<AEKey> getFirstEntry(Class<T> keyClass) {
+        for (var entry : flat.object2LongEntrySet()) {
+            if (keyClass.isInstance(entry.getKey())) {
+                return entry;
+            }
+        }
         for (var value : lists.values()) {
             var it = value.iterator();
             if (it.hasNext()) {
@@ -199,6 +327,7 @@ public <T extends AEKey> Object2LongMap.Entry<AEKey> getFirstEntry(Class<T> keyC
 
     public Set<AEKey> keySet() {
         var keys = new HashSet<AEKey>(size());
+        keys.addAll(flat.keySet());
         for (var list : lists.values()) {
             for (var entry : list) {
                 keys.add(entry.getKey());
@@ -206,4 +335,52 @@ public Set<AEKey> keySet() {
         }
         return keys;
     }
+
+    /**
+     * Iterates over the flat table first, and then over the variants of every fuzzy primary key.
+     */
+    private class EntryIterator implements Iterator<Object2LongMap.Entry<AEKey>> {
+        private final Iterator<Object2LongMap.Entry<AEKey>> flatIt = flat.object2LongEntrySet().iterator();
+        private final Iterator<VariantCounter> subIndexIt = lists.values().iterator();
+        private Iterator<Object2LongMap.Entry<AEKey>> current = flatIt;
+        // The iterator that returned the last entry, which is the one to remove it from
+        @Nullable
+        private Iterator<Object2LongMap.Entry<AEKey>> lastReturnedFrom;
+        @Nullable
+        private AEKey lastReturnedKey;
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (!subIndexIt.hasNext()) {
+                    return false;
+                }
+                current = subIndexIt.next().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Object2LongMap.Entry<AEKey> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            var entry = current.next();
+            lastReturnedFrom = current;
+            lastReturnedKey = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturnedFrom == null) {
+                throw new IllegalStateException();
+            }
+            lastReturnedFrom.remove();
+            if (lastReturnedFrom == flatIt && flatVariants != null) {
+                removeFlatVariant(lastReturnedKey);
+            }
+            lastReturnedFrom = null;
+        }
+    }
 }
@@ -42,6 +42,10 @@ public void set(AEKey key, long amount) {
         }
     }
 
+    public void remove(AEKey key) {
+        getRecords().removeLong(key);
+    }
+
     public void addAll(VariantCounter other) {
         for (var entry : other.getRecords().object2LongEntrySet()) {
             add(entry.getKey(), entry.getLongValue());
@@ -172,35 +176,6 @@ private Object2LongMap.Entry<AEKey> seekNext() {
         }
     }
 
-    /**
-     * This variant list is optimized for items that cannot be damaged and thus do not support querying durability
-     * ranges via {@link #findFuzzy}.
-     */
-    static class UnorderedVariantMap extends VariantCounter {
-        private final AEKey2LongMap records = new AEKey2LongMap.OpenHashMap();
-
-        /**
-         * For keys whose primary key does not support fuzzy range lookups, we simply return all records, which amounts
-         * to ignoring NBT.
-         */
-        @Override
-        public Collection<Object2LongMap.Entry<AEKey>> findFuzzy(AEKey filter, FuzzyMode fuzzy) {
-            return records.object2LongEntrySet();
-        }
-
-        @Override
-        AEKey2LongMap getRecords() {
-            return records;
-        }
-
-        @Override
-        public VariantCounter copy() {
-            var result = new UnorderedVariantMap();
-            result.records.putAll(records);
-            return result;
-        }
-    }
-
     /**
      * This variant list is optimized for damageable items, and supports selecting durability ranges with
      * {@link #findFuzzy}.
@@ -60,6 +60,7 @@
 import appeng.api.stacks.AEFluidKey;
 import appeng.api.stacks.AEItemKey;
 import appeng.api.stacks.AEKey;
+import appeng.api.stacks.AEKeyType;
 import appeng.api.storage.ILinkStatus;
 import appeng.api.storage.IStorageMounts;
 import appeng.api.storage.IStorageProvider;
@@ -82,6 +83,8 @@
 import appeng.helpers.IPriorityHost;
 import appeng.me.helpers.MachineSource;
 import appeng.me.storage.DelegatingMEInventory;
+import appeng.me.storage.IChangeReportingStorage;
+import appeng.me.storage.IRoutableStorage;
 import appeng.menu.ISubMenu;
 import appeng.menu.MenuOpener;
 import appeng.menu.implementations.ChestMenu;
@@ -89,6 +92,7 @@
 import appeng.util.inv.AppEngInternalInventory;
 import appeng.util.inv.CombinedInternalInventory;
 import appeng.util.inv.filter.IAEItemFilter;
+import appeng.util.prioritylist.IPartitionList;
 
 public class ChestBlockEntity extends AENetworkPowerBlockEntity
         implements IMEChest, ITerminalHost, IPriorityHost, IColorableBlockEntity,
@@ -577,7 +581,8 @@ public void openCellInventoryMenu(Player player) {
         MenuOpener.open(ChestMenu.TYPE, player, MenuLocators.forBlockEntity(this));
     }
 
-    private class ChestMonitorHandler extends DelegatingMEInventory {
+    private class ChestMonitorHandler extends DelegatingMEInventory
+            implements IChangeReportingStorage, IRoutableStorage {
         private final StorageCell cellInventory;
 
         public ChestMonitorHandler(StorageCell cellInventory) {
@@ -585,6 +590,33 @@ public ChestMonitorHandler(StorageCell cellInventory) {
             this.cellInventory = cellInventory;
         }
 
+        @Override
+        public void setChangeListener(@Nullable Runnable listener) {
+            if (cellInventory instanceof IChangeReportingStorage reportingStorage) {
+                reportingStorage.setChangeListener(listener);
+            }
+        }
+
+        @Override
+        public boolean isReportingChanges() {
+            return IChangeReportingStorage.isReportingChanges(cellInventory);
+        }
+
+        @Nullable
+        @Override
+        public AEKeyType getRoutingKeyType() {
+            return cellInventory instanceof IRoutableStorage routableStorage ? routableStorage.getRoutingKeyType()
+                    : null;
+        }
+
+        @Nullable
+        @Override
+        public IPartitionList getRoutingInsertFilter() {
+            return cellInventory instanceof IRoutableStorage routableStorage
+                    ? routableStorage.getRoutingInsertFilter()
+                    : null;
+        }
+
         @Override
         public long insert(AEKey what, long amount, Actionable mode, IActionSource source) {
             var inserted = super.insert(what, amount, mode, source);
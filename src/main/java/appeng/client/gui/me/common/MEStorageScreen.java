@@ -372,8 +372,15 @@ protected void updateBeforeRender() {
         super.updateBeforeRender();
 
         repo.setPaused(hasShiftDown());
+        // Apply all inventory updates received since the last frame at once
+        repo.updatePendingView();
         updateSearch();
 
+        if (repo.isLoading()) {
+            setTextHidden(TEXT_ID_ENTRIES_SHOWN, false);
+            setTextContent(TEXT_ID_ENTRIES_SHOWN, GuiText.LoadingEntries.text(repo.getAllEntries().size()));
+        }
+
         // Override the dialog title found in the screen JSON with the user-supplied name
         if (!this.title.getString().isEmpty()) {
             setTextContent(TEXT_ID_DIALOG_TITLE, this.title);
@@ -830,8 +837,6 @@ private <SE extends Enum<SE>> void toggleServerSetting(SettingToggleButton<SE> b
 
     private void setSearchText(String text) {
         repo.setSearchString(text);
-        repo.updateView();
-        updateScrollbar();
     }
 
     private void reinitalize() {
@@ -27,6 +27,8 @@ public final class PinnedKeys {
 
     private static final Map<AEKey, PinInfo> pinned = new HashMap<>(MAX_PINNED);
 
+    private static int changeCount;
+
     private PinnedKeys() {
     }
 
@@ -43,8 +45,16 @@ public static PinInfo getPinInfo(AEKey key) {
         return pinned.get(key);
     }
 
+    /**
+     * Counts the changes made to the pinned keys, so views showing them can detect that they're out of date.
+     */
+    public static int getChangeCount() {
+        return changeCount;
+    }
+
     public static void clearPinnedKeys() {
         pinned.clear();
+        changeCount++;
     }
 
     public static void pinKey(AEKey key, PinReason reason) {
@@ -64,10 +74,13 @@ public static void pinKey(AEKey key, PinReason reason) {
                 pinned.remove(entry.getKey());
             }
         }
+        changeCount++;
     }
 
     public static void unpin(AEKey what) {
-        pinned.remove(what);
+        if (pinned.remove(what) != null) {
+            changeCount++;
+        }
     }
 
     public static boolean isPinned(AEKey what) {
@@ -75,7 +88,9 @@ public static boolean isPinned(AEKey what) {
     }
 
     public static void prune() {
-        pinned.values().removeIf(v -> v.canPrune);
+        if (pinned.values().removeIf(v -> v.canPrune)) {
+            changeCount++;
+        }
     }
 
     public static class PinInfo {
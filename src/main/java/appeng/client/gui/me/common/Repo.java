@@ -39,6 +39,11 @@
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 
@@ -47,6 +52,7 @@
 import appeng.api.config.ViewItems;
 import appeng.api.stacks.AEItemKey;
 import appeng.api.stacks.AEKey;
+import appeng.api.stacks.AEKeyType;
 import appeng.client.gui.me.search.RepoSearch;
 import appeng.client.gui.widgets.IScrollSource;
 import appeng.client.gui.widgets.ISortSource;
@@ -58,6 +64,11 @@
 /**
  * For showing the network content of a storage channel, this class will maintain a client-side copy of the current
  * server-side storage, which is continuously synchronized to the client while it is open.
+ * <p/>
+ * Updates received from the server are not applied to the view immediately. Instead, the changed entries are collected
+ * until {@link #updatePendingView()} is called before the next frame is rendered, so that all updates received within
+ * one frame only update the view once. Unless the sort order, search or filters have changed, only the changed entries
+ * are then removed from and inserted into the sorted view.
  */
 public class Repo implements IClientRepo {
 
@@ -72,6 +83,12 @@ public class Repo implements IClientRepo {
         return pinInfo != null ? pinInfo.since : Instant.MAX;
     });
 
+    /**
+     * Up to this many changed entries are removed from or inserted into the view one by one. Larger batches are
+     * applied in a single pass over the view instead.
+     */
+    private static final int MAX_SINGLE_VIEW_CHANGES = 32;
+
     private int rowSize = 9;
 
     private boolean enabled = false;
@@ -91,6 +108,23 @@ public class Repo implements IClientRepo {
     private final IScrollSource src;
     private final ISortSource sortSrc;
     private boolean paused;
+    private boolean loading;
+
+    /**
+     * The entries that changed since the view was last updated, by serial. The values are the entries that existed
+     * for these serials when the view was last updated, or null if there was none.
+     */
+    private final Long2ObjectMap<GridInventoryEntry> changedEntries = new Long2ObjectOpenHashMap<>();
+    private boolean viewUpdatePending;
+    private boolean viewRebuildNeeded = true;
+
+    // The settings the view was last built with
+    private Comparator<GridInventoryEntry> viewComparator;
+    private SortOrder viewSortOrder;
+    private SortDir viewSortDir;
+    private ViewItems viewMode;
+    private Set<AEKeyType> viewTypeFilter;
+    private int viewPinnedKeysChangeCount;
 
     public Repo(IScrollSource src, ISortSource sortSrc) {
         this.src = src;
@@ -110,14 +144,18 @@ public final void handleUpdate(boolean fullUpdate, List<GridInventoryEntry> entr
             clear();
         }
 
+        var addedEntries = new ArrayList<GridInventoryEntry>();
+        var removedSerials = new LongArrayList();
         for (var entry : entries) {
-            handleUpdate(entry);
+            handleUpdate(entry, addedEntries, removedSerials);
         }
+        search.updateIndex(addedEntries, removedSerials);
 
-        updateView();
+        this.viewUpdatePending = true;
     }
 
-    private void handleUpdate(GridInventoryEntry serverEntry) {
+    private void handleUpdate(GridInventoryEntry serverEntry, List<GridInventoryEntry> addedEntries,
+            LongList removedSerials) {
         entriesByItemIdNeedsUpdate = true;
 
         var localEntry = entries.get(serverEntry.getSerial());
@@ -129,13 +167,17 @@ private void handleUpdate(GridInventoryEntry serverEntry) {
             }
             if (serverEntry.isMeaningful()) {
                 entries.put(serverEntry.getSerial(), serverEntry);
+                markChanged(serverEntry.getSerial(), null);
+                addedEntries.add(serverEntry);
             }
             return;
         }
 
         // Update the local entry
+        markChanged(serverEntry.getSerial(), localEntry);
         if (!serverEntry.isMeaningful()) {
             entries.remove(serverEntry.getSerial());
+            removedSerials.add(serverEntry.getSerial());
         } else if (serverEntry.getWhat() == null) {
             entries.put(serverEntry.getSerial(), new GridInventoryEntry(
                     serverEntry.getSerial(),
@@ -148,94 +190,224 @@ private void handleUpdate(GridInventoryEntry serverEntry) {
         }
     }
 
+    private void markChanged(long serial, @Nullable GridInventoryEntry previousEntry) {
+        if (!changedEntries.containsKey(serial)) {
+            changedEntries.put(serial, previousEntry);
+        }
+    }
+
+    /**
+     * Applies the updates received from the server and the search results completed since the view was last updated,
+     * if there are any.
+     */
+    public final void updatePendingView() {
+        if (this.search.updateResults(this::searchResultChanged)) {
+            this.viewRebuildNeeded = true;
+            this.viewUpdatePending = true;
+        }
+
+        if (this.viewUpdatePending) {
+            applyViewUpdate();
+        }
+    }
+
+    private void searchResultChanged(long serial) {
+        markChanged(serial, entries.get(serial));
+        this.viewUpdatePending = true;
+    }
+
+    /**
+     * Rebuilds the entire view, e.g. after the sort order or filters have changed.
+     */
     public final void updateView() {
-        // While the view is paused, we try to only append to the view list in order to avoid mis-clicks by the
-        // player due to items shifting under their mouse cursor.
+        this.viewRebuildNeeded = true;
+        applyViewUpdate();
+    }
+
+    private void applyViewUpdate() {
+        this.viewUpdatePending = false;
+
         if (isPaused()) {
-            // First pass -> detect and update
-            var visibleSerials = new LongOpenHashSet(this.view.size());
-            updateEntriesWhilePaused(pinnedRow, visibleSerials);
-            updateEntriesWhilePaused(view, visibleSerials);
+            updatePausedView();
+            // The view is no longer sorted once entries have been appended to it
+            this.changedEntries.clear();
+            this.viewRebuildNeeded = true;
+        } else if (this.viewRebuildNeeded || haveViewSettingsChanged()
+                || this.changedEntries.size() > this.entries.size() / 2) {
+            rebuildView();
+        } else {
+            updateChangedEntries();
+        }
 
-            var pinnedRowFreeSlots = getFreeSlots(pinnedRow);
-            var viewFreeSlots = getFreeSlots(view);
+        if (this.updateViewListener != null) {
+            this.updateViewListener.run();
+        }
+    }
 
-            var entriesToAdd = new ArrayList<GridInventoryEntry>();
+    private void captureViewSettings() {
+        this.viewSortOrder = this.sortSrc.getSortBy();
+        this.viewSortDir = this.sortSrc.getSortDir();
+        this.viewMode = this.sortSrc.getSortDisplay();
+        this.viewTypeFilter = this.sortSrc.getSortKeyTypes();
+        this.viewPinnedKeysChangeCount = PinnedKeys.getChangeCount();
+        // Entries that sort the same are ordered by serial, which allows the view to be binary searched for entries
+        this.viewComparator = getComparator(this.viewSortOrder, this.viewSortDir)
+                .thenComparingLong(GridInventoryEntry::getSerial);
+    }
 
-            // Determine what to do with server entries that are not currently being shown
-            for (var serverEntry : entries.values()) {
-                if (visibleSerials.contains(serverEntry.getSerial())) {
-                    continue; // Entry is already visible
-                }
+    private boolean haveViewSettingsChanged() {
+        return this.sortSrc.getSortBy() != this.viewSortOrder
+                || this.sortSrc.getSortDir() != this.viewSortDir
+                || this.sortSrc.getSortDisplay() != this.viewMode
+                || PinnedKeys.getChangeCount() != this.viewPinnedKeysChangeCount
+                || !this.sortSrc.getSortKeyTypes().equals(this.viewTypeFilter);
+    }
 
-                // First, try to find an empty/meaningless slot in the view that is visually indistinguishable
-                // and fill it
-                if (takeOverSlotOccupiedByRemovedItem(serverEntry, pinnedRowFreeSlots, pinnedRow)
-                        || takeOverSlotOccupiedByRemovedItem(serverEntry, viewFreeSlots, view)) {
-                    continue;
-                }
+    private void rebuildView() {
+        captureViewSettings();
 
-                // if we couldn't take over an existing slot, just append it
-                entriesToAdd.add(serverEntry);
-            }
+        this.view.clear();
+        this.pinnedRow.clear();
 
-            addEntriesToView(entriesToAdd);
-        } else {
-            this.view.clear();
-            this.pinnedRow.clear();
+        this.view.ensureCapacity(this.entries.size());
+        this.pinnedRow.ensureCapacity(rowSize);
+
+        addEntriesToView(this.entries.values());
 
-            this.view.ensureCapacity(this.entries.size());
-            this.pinnedRow.ensureCapacity(rowSize);
+        // Sort older entries first in the pinned row
+        pinnedRow.sort(PINNED_ROW_COMPARATOR);
+
+        this.view.sort(this.viewComparator);
+
+        this.changedEntries.clear();
+        this.viewRebuildNeeded = false;
+    }
+
+    /**
+     * Removes the previous version of each changed entry from the sorted view, and inserts the current version where
+     * it belongs if it's still visible.
+     */
+    private void updateChangedEntries() {
+        var hasPinnedRow = !PinnedKeys.isEmpty();
+        var removed = new ArrayList<GridInventoryEntry>();
+        var added = new ArrayList<GridInventoryEntry>();
 
-            addEntriesToView(this.entries.values());
+        for (var changed : Long2ObjectMaps.fastIterable(this.changedEntries)) {
+            var previousEntry = changed.getValue();
+            var currentEntry = this.entries.get(changed.getLongKey());
+
+            // Pinned entries ignore the sort order, and are rare enough to just rebuild the view for them
+            if (hasPinnedRow && (previousEntry != null && PinnedKeys.isPinned(previousEntry.getWhat())
+                    || currentEntry != null && PinnedKeys.isPinned(currentEntry.getWhat()))) {
+                rebuildView();
+                return;
+            }
+
+            if (previousEntry != null) {
+                removed.add(previousEntry);
+            }
+            if (currentEntry != null && isVisible(currentEntry)) {
+                added.add(currentEntry);
+            }
         }
+        this.changedEntries.clear();
 
-        // Don't re-sort while being paused
-        if (!isPaused()) {
-            // Sort older entries first in the pinned row
-            pinnedRow.sort(PINNED_ROW_COMPARATOR);
+        removeFromView(removed);
+        insertIntoView(added);
+    }
 
-            var sortOrder = this.sortSrc.getSortBy();
-            var sortDir = this.sortSrc.getSortDir();
+    private void removeFromView(List<GridInventoryEntry> removed) {
+        if (removed.size() <= MAX_SINGLE_VIEW_CHANGES) {
+            for (var entry : removed) {
+                // Entries that weren't visible are simply not found
+                int idx = Collections.binarySearch(this.view, entry, this.viewComparator);
+                if (idx >= 0) {
+                    this.view.remove(idx);
+                }
+            }
+        } else {
+            var serials = new LongOpenHashSet(removed.size());
+            for (var entry : removed) {
+                serials.add(entry.getSerial());
+            }
+            this.view.removeIf(entry -> serials.contains(entry.getSerial()));
+        }
+    }
 
-            this.view.sort(getComparator(sortOrder, sortDir));
+    private void insertIntoView(List<GridInventoryEntry> added) {
+        if (added.size() <= MAX_SINGLE_VIEW_CHANGES) {
+            for (var entry : added) {
+                int idx = Collections.binarySearch(this.view, entry, this.viewComparator);
+                this.view.add(idx < 0 ? -idx - 1 : idx, entry);
+            }
+            return;
         }
 
-        if (this.updateViewListener != null) {
-            this.updateViewListener.run();
+        // Merge the sorted new entries into the view, copying each run of existing entries only once
+        added.sort(this.viewComparator);
+        var merged = new ArrayList<GridInventoryEntry>(this.view.size() + added.size());
+        int from = 0;
+        for (var entry : added) {
+            int idx = Collections.binarySearch(this.view.subList(from, this.view.size()), entry, this.viewComparator);
+            int to = from + (idx < 0 ? -idx - 1 : idx);
+            merged.addAll(this.view.subList(from, to));
+            merged.add(entry);
+            from = to;
         }
+        merged.addAll(this.view.subList(from, this.view.size()));
+
+        this.view.clear();
+        this.view.addAll(merged);
     }
 
-    private void addEntriesToView(Collection<GridInventoryEntry> entries) {
-        var viewMode = this.sortSrc.getSortDisplay();
-        var typeFilter = this.sortSrc.getSortKeyTypes();
+    /**
+     * While the view is paused, we try to only append to the view list in order to avoid mis-clicks by the player due
+     * to items shifting under their mouse cursor.
+     */
+    private void updatePausedView() {
+        captureViewSettings();
 
-        var hasPinnedRow = !PinnedKeys.isEmpty();
+        // First pass -> detect and update
+        var visibleSerials = new LongOpenHashSet(this.view.size());
+        updateEntriesWhilePaused(pinnedRow, visibleSerials);
+        updateEntriesWhilePaused(view, visibleSerials);
 
-        for (var entry : entries) {
-            // Pinned keys ignore all filters & search
-            if (hasPinnedRow && pinnedRow.size() < rowSize && PinnedKeys.isPinned(entry.getWhat())) {
-                pinnedRow.add(entry);
-                continue;
-            }
+        var pinnedRowFreeSlots = getFreeSlots(pinnedRow);
+        var viewFreeSlots = getFreeSlots(view);
 
-            if (this.partitionList != null && !this.partitionList.isListed(entry.getWhat())) {
-                continue;
-            }
+        var entriesToAdd = new ArrayList<GridInventoryEntry>();
 
-            if (viewMode == ViewItems.CRAFTABLE && !entry.isCraftable()) {
-                continue;
+        // Determine what to do with server entries that are not currently being shown
+        for (var serverEntry : entries.values()) {
+            if (visibleSerials.contains(serverEntry.getSerial())) {
+                continue; // Entry is already visible
             }
 
-            if (viewMode == ViewItems.STORED && entry.getStoredAmount() == 0) {
+            // First, try to find an empty/meaningless slot in the view that is visually indistinguishable
+            // and fill it
+            if (takeOverSlotOccupiedByRemovedItem(serverEntry, pinnedRowFreeSlots, pinnedRow)
+                    || takeOverSlotOccupiedByRemovedItem(serverEntry, viewFreeSlots, view)) {
                 continue;
             }
 
-            if (!typeFilter.contains(entry.getWhat().getType())) {
+            // if we couldn't take over an existing slot, just append it
+            entriesToAdd.add(serverEntry);
+        }
+
+        addEntriesToView(entriesToAdd);
+    }
+
+    private void addEntriesToView(Collection<GridInventoryEntry> entries) {
+        var hasPinnedRow = !PinnedKeys.isEmpty();
+
+        for (var entry : entries) {
+            // Pinned keys ignore all filters & search
+            if (hasPinnedRow && pinnedRow.size() < rowSize && PinnedKeys.isPinned(entry.getWhat())) {
+                pinnedRow.add(entry);
                 continue;
             }
 
-            if (search.matches(entry)) {
+            if (isVisible(entry)) {
                 this.view.add(entry);
             }
         }
@@ -255,6 +427,29 @@ private void addEntriesToView(Collection<GridInventoryEntry> entries) {
         }
     }
 
+    /**
+     * Checks an entry against the filters and search the view was last built with.
+     */
+    private boolean isVisible(GridInventoryEntry entry) {
+        if (this.partitionList != null && !this.partitionList.isListed(entry.getWhat())) {
+            return false;
+        }
+
+        if (this.viewMode == ViewItems.CRAFTABLE && !entry.isCraftable()) {
+            return false;
+        }
+
+        if (this.viewMode == ViewItems.STORED && entry.getStoredAmount() == 0) {
+            return false;
+        }
+
+        if (!this.viewTypeFilter.contains(entry.getWhat().getType())) {
+            return false;
+        }
+
+        return search.matches(entry);
+    }
+
     private void updateEntriesWhilePaused(List<GridInventoryEntry> shownEntries, LongSet visibleSerials) {
         for (int i = 0; i < shownEntries.size(); i++) {
             var entry = shownEntries.get(i);
@@ -316,7 +511,7 @@ private static boolean takeOverSlotOccupiedByRemovedItem(GridInventoryEntry serv
         return true;
     }
 
-    private Comparator<? super GridInventoryEntry> getComparator(SortOrder sortOrder, SortDir sortDir) {
+    private Comparator<GridInventoryEntry> getComparator(SortOrder sortOrder, SortDir sortDir) {
         if (sortOrder == SortOrder.AMOUNT) {
             return sortDir == SortDir.ASCENDING ? AMOUNT_ASC : AMOUNT_DESC;
         }
@@ -359,6 +554,9 @@ public final void clear() {
         this.pinnedRow.clear();
         this.entriesByItemId.clear();
         this.entriesByItemIdNeedsUpdate = true;
+        this.changedEntries.clear();
+        this.viewRebuildNeeded = true;
+        this.search.clearIndex();
     }
 
     public final boolean hasPinnedRow() {
@@ -385,6 +583,9 @@ public final String getSearchString() {
         return this.search.getSearchString();
     }
 
+    /**
+     * Starts searching for the given string. The view is updated once the results are available.
+     */
     public final void setSearchString(String searchString) {
         this.search.setSearchString(searchString);
     }
@@ -407,6 +608,24 @@ public void setPaused(boolean paused) {
         }
     }
 
+    @Override
+    public void setLoading(boolean loading) {
+        this.loading = loading;
+    }
+
+    /**
+     * @return True while the server is still sending the initial contents of the repo.
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    @Nullable
+    @Override
+    public GridInventoryEntry getEntry(long serial) {
+        return entries.get(serial);
+    }
+
     @Override
     public Set<GridInventoryEntry> getAllEntries() {
         return entries.values();
@@ -1,31 +1,89 @@
 package appeng.client.gui.me.search;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.WeakHashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
 import java.util.function.Predicate;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.ChatFormatting;
 
 import it.unimi.dsi.fastutil.longs.Long2BooleanMap;
 import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongCollection;
 
 import appeng.api.client.AEKeyRendering;
 import appeng.api.stacks.AEKey;
+import appeng.client.gui.me.search.SearchIndex.IndexedEntry;
 import appeng.core.AEConfig;
 import appeng.menu.me.common.GridInventoryEntry;
 import appeng.util.Platform;
 
+/**
+ * Matches the entries of a client repo against the search string entered by the player.
+ * <p/>
+ * The names and tooltips of entries are built on the client thread as they arrive, spread over several frames for
+ * large repos. Their text is then indexed on a background thread (see {@link SearchIndex}), and searches run against
+ * this index on the same thread. Until the results for a new search string are available, the results of the previous
+ * search remain active. Entries that the indexing thread has not matched against the active search yet are matched on
+ * the client thread instead, when they are first shown.
+ * <p/>
+ * Tag searches need access to the registries, and always run on the client thread.
+ */
 public class RepoSearch {
+    /**
+     * The maximum number of entries whose text is built per frame.
+     */
+    private static final int ENTRIES_PER_FRAME = 256;
+
+    private static final Executor INDEX_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("AE2 Terminal Search Indexer %d")
+            .build());
 
     private String searchString = "";
 
-    // Cached information
-    private final Long2BooleanMap cache = new Long2BooleanOpenHashMap();
-    private Predicate<GridInventoryEntry> search = (e) -> true;
+    // The search the active results are for
+    private String activeSearchString = "";
+    /**
+     * Whether each entry matches the active search, by serial. Null if everything matches.
+     */
+    @Nullable
+    private Long2BooleanMap results;
+    /**
+     * Matches entries against the active search on the client thread. Null if everything matches.
+     */
+    @Nullable
+    private Predicate<GridInventoryEntry> activePredicate;
+
+    /**
+     * Results posted by the indexing thread, in the order in which they were requested.
+     */
+    private final Queue<SearchResults> completedResults = new ConcurrentLinkedQueue<>();
+
+    private final SearchIndex index = new SearchIndex();
+
+    /**
+     * Entries that were added to the repo, but whose text has not been built yet, by serial.
+     */
+    private final Long2ObjectLinkedOpenHashMap<GridInventoryEntry> newEntries = new Long2ObjectLinkedOpenHashMap<>();
 
-    private final Map<AEKey, String> tooltipCache = new WeakHashMap<>();
+    /**
+     * New entries whose text was built to match them on the client thread, and that still have to be indexed.
+     */
+    private final List<IndexedEntry> builtEntries = new ArrayList<>();
 
     public RepoSearch() {
     }
@@ -36,56 +94,196 @@ public String getSearchString() {
 
     public void setSearchString(String searchString) {
         if (!searchString.equals(this.searchString)) {
-            this.search = SearchPredicates.fromString(searchString, this);
             this.searchString = searchString;
-            this.cache.clear();
+            var searchTooltips = !searchString.isEmpty() && AEConfig.instance().isSearchTooltips();
+            if (SearchPredicates.isTagSearch(searchString)) {
+                // Every entry is matched on the client thread when it is shown
+                completedResults.add(new SearchResults(searchString, searchTooltips, new Long2BooleanOpenHashMap(),
+                        true));
+                return;
+            }
+            INDEX_EXECUTOR.execute(() -> {
+                var matches = searchString.isEmpty() ? null : index.search(searchString, searchTooltips);
+                completedResults.add(new SearchResults(searchString, searchTooltips, matches, true));
+            });
         }
     }
 
-    public boolean matches(GridInventoryEntry entry) {
-        return cache.computeIfAbsent(entry.getSerial(), s -> search.test(entry));
+    /**
+     * Updates the index after entries were added to or removed from the repo. The added entries are indexed and
+     * matched against the current search over the next frames.
+     */
+    public void updateIndex(Collection<GridInventoryEntry> added, LongCollection removed) {
+        if (!removed.isEmpty()) {
+            var removedCopy = new LongArrayList(removed);
+            for (var it = removedCopy.iterator(); it.hasNext();) {
+                newEntries.remove(it.nextLong());
+            }
+            INDEX_EXECUTOR.execute(() -> index.remove(removedCopy));
+        }
+
+        for (var entry : added) {
+            newEntries.put(entry.getSerial(), entry);
+        }
+        indexNewEntries();
     }
 
     /**
-     * Gets the concatenated text of a keys tooltip for search purposes.
+     * Builds the text of the next new entries, and hands it to the indexing thread.
      */
-    public String getTooltipText(AEKey what) {
-        return tooltipCache.computeIfAbsent(what, key -> {
-            var lines = AEKeyRendering.getTooltip(key);
-
-            var tooltipText = new StringBuilder();
-            for (int i = 0; i < lines.size(); i++) {
-                var line = lines.get(i);
-
-                // Process last line and skip mod name if our heuristic detects it
-                if (i > 0 && i >= lines.size() - 1 && !AEConfig.instance().isSearchModNameInTooltips()) {
-                    var text = line.getString();
-                    boolean hadFormatting = false;
-                    if (text.indexOf(ChatFormatting.PREFIX_CODE) != -1) {
-                        text = ChatFormatting.stripFormatting(text);
-                        hadFormatting = true;
-                    } else {
-                        hadFormatting = !line.getStyle().isEmpty();
-                    }
+    private void indexNewEntries() {
+        if (newEntries.isEmpty() && builtEntries.isEmpty()) {
+            return;
+        }
+
+        // Entries that were already matched on the client thread only have to be indexed
+        var count = Math.min(newEntries.size(), ENTRIES_PER_FRAME);
+        var indexed = new ArrayList<IndexedEntry>(builtEntries.size() + count);
+        indexed.addAll(builtEntries);
+        builtEntries.clear();
+        var serials = new LongArrayList(count);
+        for (int i = 0; i < count; i++) {
+            var entry = newEntries.removeFirst();
+            indexed.add(IndexedEntry.of(entry));
+            serials.add(entry.getSerial());
+        }
+
+        var searchString = this.searchString;
+        var searchTooltips = !searchString.isEmpty() && AEConfig.instance().isSearchTooltips();
+        var searchAdded = !serials.isEmpty() && !searchString.isEmpty() && !SearchPredicates.isTagSearch(searchString);
+        INDEX_EXECUTOR.execute(() -> {
+            index.add(indexed);
+
+            if (searchAdded) {
+                var matches = index.search(searchString, searchTooltips, serials);
+                completedResults.add(new SearchResults(searchString, searchTooltips, matches, false));
+            }
+        });
+    }
+
+    /**
+     * Removes all entries from the index.
+     */
+    public void clearIndex() {
+        newEntries.clear();
+        builtEntries.clear();
+        INDEX_EXECUTOR.execute(index::clear);
+        if (this.results != null) {
+            this.results.clear();
+        }
+    }
+
+    /**
+     * Applies the results that were completed on the indexing thread since the last call, and hands the text of more
+     * new entries to it. Called once per frame.
+     *
+     * @param changedEntries Receives the serials of entries whose result changed, unless all results changed.
+     * @return True if the results for a new search string became active, and all entries have to be matched again.
+     */
+    public boolean updateResults(LongConsumer changedEntries) {
+        indexNewEntries();
 
-                    if (!hadFormatting || !Objects.equals(text, Platform.getModName(what.getModId()))) {
-                        tooltipText.append('\n').append(text);
+        var allChanged = false;
+        SearchResults completed;
+        while ((completed = completedResults.poll()) != null) {
+            if (completed.complete()) {
+                // Skip results for search strings that were changed again in the meantime
+                if (completed.searchString().equals(this.searchString)) {
+                    this.activeSearchString = completed.searchString();
+                    this.results = completed.matches();
+                    this.activePredicate = this.results != null
+                            ? createClientPredicate(completed.searchString(), completed.searchTooltips())
+                            : null;
+                    allChanged = true;
+                }
+            } else if (completed.searchString().equals(this.activeSearchString) && this.results != null) {
+                // Results for entries that were added after the active search ran
+                for (var it = completed.matches().long2BooleanEntrySet().iterator(); it.hasNext();) {
+                    var result = it.next();
+                    this.results.put(result.getLongKey(), result.getBooleanValue());
+                    if (!allChanged && result.getBooleanValue()) {
+                        changedEntries.accept(result.getLongKey());
                     }
+                }
+            }
+        }
+        return allChanged;
+    }
+
+    public boolean matches(GridInventoryEntry entry) {
+        if (results == null) {
+            return true;
+        }
+
+        var serial = entry.getSerial();
+        if (results.containsKey(serial)) {
+            return results.get(serial);
+        }
+
+        // The indexing thread has not matched this entry yet, but it should not be hidden until then
+        var matches = Objects.requireNonNull(activePredicate).test(entry);
+        results.put(serial, matches);
+        return matches;
+    }
+
+    private Predicate<GridInventoryEntry> createClientPredicate(String searchString, boolean searchTooltips) {
+        if (SearchPredicates.isTagSearch(searchString)) {
+            return SearchPredicates.createTagPredicate(searchString);
+        }
+
+        var predicate = SearchPredicates.fromString(searchString, searchTooltips);
+        return entry -> {
+            var indexed = IndexedEntry.of(entry);
+            if (newEntries.remove(entry.getSerial()) != null) {
+                // Hand the text to the indexing thread instead of building it again
+                builtEntries.add(indexed);
+            }
+            return predicate.test(indexed);
+        };
+    }
+
+    /**
+     * Builds the concatenated text of a keys tooltip for search purposes.
+     */
+    static String buildTooltipText(AEKey what) {
+        var lines = AEKeyRendering.getTooltip(what);
+
+        var tooltipText = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            var line = lines.get(i);
+
+            // Process last line and skip mod name if our heuristic detects it
+            if (i > 0 && i >= lines.size() - 1 && !AEConfig.instance().isSearchModNameInTooltips()) {
+                var text = line.getString();
+                boolean hadFormatting = false;
+                if (text.indexOf(ChatFormatting.PREFIX_CODE) != -1) {
+                    text = ChatFormatting.stripFormatting(text);
+                    hadFormatting = true;
                 } else {
-                    if (i > 0) {
-                        tooltipText.append('\n');
-                    }
-                    line.visit(text -> {
-                        if (text.indexOf(ChatFormatting.PREFIX_CODE) != -1) {
-                            text = ChatFormatting.stripFormatting(text);
-                        }
-                        tooltipText.append(text);
-                        return Optional.empty();
-                    });
+                    hadFormatting = !line.getStyle().isEmpty();
                 }
+
+                if (!hadFormatting || !Objects.equals(text, Platform.getModName(what.getModId()))) {
+                    tooltipText.append('\n').append(text);
+                }
+            } else {
+                if (i > 0) {
+                    tooltipText.append('\n');
+                }
+                line.visit(text -> {
+                    if (text.indexOf(ChatFormatting.PREFIX_CODE) != -1) {
+                        text = ChatFormatting.stripFormatting(text);
+                    }
+                    tooltipText.append(text);
+                    return Optional.empty();
+                });
             }
+        }
 
-            return tooltipText.toString();
-        });
+        return tooltipText.toString();
+    }
+
+    private record SearchResults(String searchString, boolean searchTooltips, @Nullable Long2BooleanMap matches,
+            boolean complete) {
     }
 }
@@ -0,0 +1,165 @@
+package appeng.client.gui.me.search;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import it.unimi.dsi.fastutil.longs.Long2BooleanMap;
+import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterable;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import appeng.menu.me.common.GridInventoryEntry;
+import appeng.util.Platform;
+
+/**
+ * Indexes the searchable text of the entries of a client repo, so that searches do not have to compute names and
+ * tooltips for every entry again. In addition, the words of all names and tooltips are mapped to the entries that
+ * contain them, so that searching for a plain word only needs to check each distinct word once, instead of the text of
+ * every entry.
+ * <p/>
+ * The index is not thread-safe. It is only used by the tasks {@link RepoSearch} runs on its indexing thread. The text
+ * of the entries is built on the client thread beforehand (see {@link IndexedEntry#of}), so the index itself only
+ * splits it into words and matches it.
+ */
+final class SearchIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final Long2ObjectMap<IndexedEntry> entries = new Long2ObjectOpenHashMap<>();
+    private final Map<String, LongSet> nameWords = new HashMap<>();
+    private final Map<String, LongSet> tooltipWords = new HashMap<>();
+
+    void add(Collection<IndexedEntry> added) {
+        for (var indexed : added) {
+            var serial = indexed.entry().getSerial();
+            if (entries.containsKey(serial)) {
+                continue; // The text of an entry never changes
+            }
+
+            entries.put(serial, indexed);
+            addWords(nameWords, indexed.name(), serial);
+            addWords(tooltipWords, indexed.tooltip(), serial);
+        }
+    }
+
+    void remove(LongIterable removed) {
+        for (var it = removed.iterator(); it.hasNext();) {
+            var serial = it.nextLong();
+            var indexed = entries.remove(serial);
+            if (indexed != null) {
+                removeWords(nameWords, indexed.name, serial);
+                removeWords(tooltipWords, indexed.tooltip, serial);
+            }
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        nameWords.clear();
+        tooltipWords.clear();
+    }
+
+    /**
+     * Matches all indexed entries against the given search.
+     *
+     * @return Whether each indexed entry matches the search, by serial.
+     */
+    Long2BooleanMap search(String searchString, boolean searchTooltips) {
+        var result = new Long2BooleanOpenHashMap(entries.size());
+        for (var it = entries.keySet().iterator(); it.hasNext();) {
+            result.put(it.nextLong(), false);
+        }
+
+        if (isWord(searchString)) {
+            // A word can only be found within a single word of the text, so each distinct word is checked only once
+            var word = searchString.toLowerCase(Locale.ROOT);
+            for (var indexedWord : (searchTooltips ? tooltipWords : nameWords).entrySet()) {
+                if (indexedWord.getKey().contains(word)) {
+                    for (var it = indexedWord.getValue().iterator(); it.hasNext();) {
+                        result.put(it.nextLong(), true);
+                    }
+                }
+            }
+        } else {
+            var predicate = SearchPredicates.fromString(searchString, searchTooltips);
+            for (var indexed : Long2ObjectMaps.fastIterable(entries)) {
+                if (predicate.test(indexed.getValue())) {
+                    result.put(indexed.getLongKey(), true);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Matches only the given entries against the given search. Entries that are not indexed are skipped.
+     *
+     * @return Whether each of the entries matches the search, by serial.
+     */
+    Long2BooleanMap search(String searchString, boolean searchTooltips, LongIterable serials) {
+        var result = new Long2BooleanOpenHashMap();
+        var predicate = SearchPredicates.fromString(searchString, searchTooltips);
+        for (var it = serials.iterator(); it.hasNext();) {
+            var serial = it.nextLong();
+            var indexed = entries.get(serial);
+            if (indexed != null) {
+                result.put(serial, predicate.test(indexed));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isWord(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addWords(Map<String, LongSet> index, String text, long serial) {
+        for (var word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                index.computeIfAbsent(word, k -> new LongOpenHashSet()).add(serial);
+            }
+        }
+    }
+
+    private static void removeWords(Map<String, LongSet> index, String text, long serial) {
+        for (var word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            var serials = index.get(word);
+            if (serials != null && serials.remove(serial) && serials.isEmpty()) {
+                index.remove(word);
+            }
+        }
+    }
+
+    /**
+     * The searchable text of a repo entry.
+     */
+    record IndexedEntry(GridInventoryEntry entry, String name, String tooltip, String id, String modId,
+            String modName) {
+        /**
+         * Builds the searchable text of an entry. Must be called on the client thread, since names, tooltips and mod
+         * names are not safe to compute on other threads.
+         */
+        static IndexedEntry of(GridInventoryEntry entry) {
+            var what = entry.getWhat();
+            var modId = what.getModId();
+            return new IndexedEntry(entry, what.getDisplayName().getString(), RepoSearch.buildTooltipText(what),
+                    what.getId().toString(), modId, Objects.requireNonNullElse(Platform.getModName(modId), modId));
+        }
+    }
+}
@@ -1,74 +1,73 @@
 package appeng.client.gui.me.search;
 
-import java.util.Objects;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
-import appeng.core.AEConfig;
+import com.google.common.base.Preconditions;
+
+import appeng.client.gui.me.search.SearchIndex.IndexedEntry;
 import appeng.menu.me.common.GridInventoryEntry;
-import appeng.util.Platform;
 
 final class SearchPredicates {
 
-    static Predicate<GridInventoryEntry> fromString(String searchString, RepoSearch repoSearch) {
+    static boolean isTagSearch(String searchString) {
+        return searchString.startsWith("#");
+    }
+
+    /**
+     * Creates a predicate for searches that only match the text of entries, which can run on any thread. Tag searches
+     * are not supported, see {@link #createTagPredicate}.
+     */
+    static Predicate<IndexedEntry> fromString(String searchString, boolean searchTooltips) {
+        Preconditions.checkArgument(!isTagSearch(searchString), "Tag searches have to run on the client thread");
+
         if (searchString.startsWith("@")) {
             return createModIdPredicate(searchString.substring(1))
                     .or(createModNamePredicate(searchString.substring(1)));
         } else if (searchString.startsWith("*")) {
             return createIdPredicate(searchString.substring(1));
-        } else if (searchString.startsWith("#")) {
-            var pattern = createPattern(searchString.substring(1));
-            return new TagPredicate(pattern);
         } else {
             var pattern = createPattern(searchString);
 
-            if (AEConfig.instance().isSearchTooltips()) {
+            if (searchTooltips) {
                 // The tooltip obviously includes the display name too
-                return createTooltipPredicate(pattern, repoSearch);
+                return createTooltipPredicate(pattern);
             } else {
                 return createNamePredicate(pattern);
             }
         }
     }
 
-    private static Predicate<GridInventoryEntry> createModIdPredicate(String searchText) {
+    /**
+     * Creates a predicate for a tag search. It looks up tags in the registries, and has to be used on the client
+     * thread.
+     */
+    static Predicate<GridInventoryEntry> createTagPredicate(String searchString) {
+        return new TagPredicate(createPattern(searchString.substring(1)));
+    }
+
+    private static Predicate<IndexedEntry> createModIdPredicate(String searchText) {
         var searchPattern = createPattern(searchText);
-        return entry -> {
-            var what = Objects.requireNonNull(entry.getWhat());
-            return searchPattern.matcher(what.getModId()).find();
-        };
+        return entry -> searchPattern.matcher(entry.modId()).find();
     }
 
-    private static Predicate<GridInventoryEntry> createModNamePredicate(String searchText) {
+    private static Predicate<IndexedEntry> createModNamePredicate(String searchText) {
         var searchPattern = createPattern(searchText);
-        return entry -> {
-            var what = Objects.requireNonNull(entry.getWhat());
-            return searchPattern.matcher(Platform.getModName(what.getModId())).find();
-        };
+        return entry -> searchPattern.matcher(entry.modName()).find();
     }
 
-    private static Predicate<GridInventoryEntry> createIdPredicate(String searchText) {
+    private static Predicate<IndexedEntry> createIdPredicate(String searchText) {
         var searchPattern = createPattern(searchText);
-        return entry -> {
-            var what = Objects.requireNonNull(entry.getWhat());
-            return searchPattern.matcher(what.getId().toString()).find();
-        };
+        return entry -> searchPattern.matcher(entry.id()).find();
     }
 
-    private static Predicate<GridInventoryEntry> createNamePredicate(Pattern searchPattern) {
-        return entry -> {
-            var what = Objects.requireNonNull(entry.getWhat());
-            String displayName = what.getDisplayName().getString();
-            return searchPattern.matcher(displayName).find();
-        };
+    private static Predicate<IndexedEntry> createNamePredicate(Pattern searchPattern) {
+        return entry -> searchPattern.matcher(entry.name()).find();
     }
 
-    private static Predicate<GridInventoryEntry> createTooltipPredicate(Pattern searchPattern, RepoSearch repoSearch) {
-        return entry -> {
-            var tooltipText = repoSearch.getTooltipText(entry.getWhat());
-            return searchPattern.matcher(tooltipText).find();
-        };
+    private static Predicate<IndexedEntry> createTooltipPredicate(Pattern searchPattern) {
+        return entry -> searchPattern.matcher(entry.tooltip()).find();
     }
 
     private static Pattern createPattern(String searchText) {
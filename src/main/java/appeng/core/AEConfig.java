@@ -481,6 +481,42 @@ public int getPathfindingStepsPerTick() {
         return COMMON.pathfindingStepsPerTick.get();
     }
 
+    public boolean isIncrementalStorageCache() {
+        return COMMON.incrementalStorageCache.get();
+    }
+
+    public int getStorageCacheRebuildInterval() {
+        return COMMON.storageCacheRebuildInterval.get();
+    }
+
+    public boolean isIncrementalChannelPathing() {
+        return COMMON.incrementalChannelPathing.get();
+    }
+
+    public boolean isAsyncCraftingCalculation() {
+        return COMMON.asyncCraftingCalculation.get();
+    }
+
+    public int getCraftingCalculationThreads() {
+        return COMMON.craftingCalculationThreads.get();
+    }
+
+    public long getGridTickBudgetNanos() {
+        return (long) (COMMON.gridTickBudget.get() * 1_000_000);
+    }
+
+    public long getGlobalGridTickBudgetNanos() {
+        return (long) (COMMON.globalGridTickBudget.get() * 1_000_000);
+    }
+
+    public int getTerminalSyncBytesPerTick() {
+        return COMMON.terminalSyncBandwidth.get() * 1024;
+    }
+
+    public double getEnergyEmitterHysteresis() {
+        return COMMON.energyEmitterHysteresis.get();
+    }
+
     /**
      * @return True if an in-world preview of parts and facade placement should be shown when holding one in hand.
      */
@@ -666,6 +702,17 @@ private static class CommonConfig {
         public final IntegerOption growthAcceleratorSpeed;
         public final BooleanOption annihilationPlaneSkyDustGeneration;
 
+        // Performance
+        public final BooleanOption incrementalStorageCache;
+        public final IntegerOption storageCacheRebuildInterval;
+        public final BooleanOption incrementalChannelPathing;
+        public final BooleanOption asyncCraftingCalculation;
+        public final IntegerOption craftingCalculationThreads;
+        public final DoubleOption gridTickBudget;
+        public final DoubleOption globalGridTickBudget;
+        public final IntegerOption terminalSyncBandwidth;
+        public final DoubleOption energyEmitterHysteresis;
+
         // Spatial IO/Dimension
         public final DoubleOption spatialPowerExponent;
         public final DoubleOption spatialPowerMultiplier;
@@ -756,6 +803,26 @@ public CommonConfig(ConfigSection root) {
             annihilationPlaneSkyDustGeneration = crafting.addBoolean("annihilationPlaneSkyDustGeneration", true,
                     "If enabled, an annihilation placed face up at the maximum world height will generate sky stone passively.");
 
+            ConfigSection performance = root.subsection("performance");
+            incrementalStorageCache = performance.addBoolean("incrementalStorageCache", true,
+                    "When true: only re-read storages whose content changed when updating the cached network inventory. When false: re-read every mounted storage each tick while the cached inventory is being watched.");
+            storageCacheRebuildInterval = performance.addInt("storageCacheRebuildInterval", 200, 1, 72000,
+                    "The number of ticks between full rebuilds of the cached network inventory when it is updated incrementally, to recover from storages that did not report a change.");
+            incrementalChannelPathing = performance.addBoolean("incrementalChannelPathing", true,
+                    "When true: attaching or removing single devices and cables at the edge of a network with a controller only updates the channels along their path, and the network stays online. When false: every change reboots the network and recalculates all channels.");
+            asyncCraftingCalculation = performance.addBoolean("asyncCraftingCalculation", false,
+                    "When true: crafting calculations run in the background against a snapshot of the network's contents and patterns, without using server tick time. The plan is checked against the actual network contents when the job is submitted. When false: calculations only run for craftingCalculationTimePerTick each tick while the server thread waits.");
+            craftingCalculationThreads = performance.addInt("craftingCalculationThreads", 2, 1, 16,
+                    "The maximum number of crafting calculations that run at the same time when asyncCraftingCalculation is enabled. Further calculations are queued.");
+            gridTickBudget = performance.addDouble("gridTickBudget", 0, 0, 1000,
+                    "The time in milliseconds the devices of a single network may spend ticking per server tick. Devices that are still due afterwards are ticked on the next tick, before any other device of the network. 0 means unlimited.");
+            globalGridTickBudget = performance.addDouble("globalGridTickBudget", 0, 0, 1000,
+                    "The time in milliseconds the devices of all networks together may spend ticking per server tick. Networks take turns at being ticked first, so the same network doesn't always run out of time. 0 means unlimited.");
+            terminalSyncBandwidth = performance.addInt("terminalSyncBandwidth", 256, 16, 65536,
+                    "The amount of network inventory data in KiB sent to each player with an open terminal per tick. The contents of large networks are sent over several ticks, starting with craftable items and the items shown first in the terminal.");
+            energyEmitterHysteresis = performance.addDouble("energyEmitterHysteresis", 0, 0, Double.MAX_VALUE,
+                    "The amount of AE by which the stored power of a network has to pass the threshold of an energy level emitter before the emitter is notified again. Avoids updating emitters every tick on networks whose stored power fluctuates around their threshold. 0 notifies emitters every time the threshold is crossed.");
+
             ConfigSection spatialio = root.subsection("spatialio");
             this.spatialPowerMultiplier = spatialio.addDouble("spatialPowerMultiplier", 1250.0);
             this.spatialPowerExponent = spatialio.addDouble("spatialPowerExponent", 1.35);
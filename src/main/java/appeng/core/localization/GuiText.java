@@ -133,6 +133,7 @@ public enum GuiText implements LocalizationEnum {
     LightGray("Light Gray"),
     Lime("Lime"),
     Linked("Linked"),
+    LoadingEntries("Loading... (%d)"),
     Lumen("Lumen"),
     MENetworkStorage("ME Network Storage"),
     Magenta("Magenta"),
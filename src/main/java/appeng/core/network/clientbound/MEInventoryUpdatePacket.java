@@ -6,8 +6,8 @@
 import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.LongUnaryOperator;
 
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import io.netty.buffer.Unpooled;
@@ -26,13 +26,25 @@
 import appeng.core.network.ClientboundPacket;
 import appeng.core.network.CustomAppEngPayload;
 import appeng.menu.me.common.GridInventoryEntry;
+import appeng.menu.me.common.IClientRepo;
 import appeng.menu.me.common.IncrementalUpdateHelper;
 import appeng.menu.me.common.MEStorageMenu;
 
+/**
+ * Sends entries of the network inventory to the client repo of an ME terminal.
+ * <p/>
+ * Each entry is identified by a serial, and its key is only sent along with the first entry for a serial. Entries for
+ * serials the client already knows send the difference to the previously sent stored amount instead of the amount
+ * itself. Because this relies on the client repo, the entries are decoded on the client thread right before they are
+ * applied.
+ * <p/>
+ * Large updates are split into several packets. Only the last of them is marked as complete, and the client repo is
+ * shown as loading until it has been received.
+ */
 public record MEInventoryUpdatePacket(
         boolean fullUpdate,
+        boolean complete,
         int containerId,
-        @Nullable List<GridInventoryEntry> entries,
         int encodedEntryCount,
         @Nullable RegistryFriendlyByteBuf encodedEntries
 
@@ -51,9 +63,16 @@ public Type<MEInventoryUpdatePacket> type() {
     }
 
     /**
-     * Maximum size of a single packet before it will be flushed forcibly.
+     * Maximum size of a single packet before it will be flushed forcibly. Kept small enough for large updates to be
+     * spread over several ticks (see {@link MEStorageMenu}).
      */
-    private static final int UNCOMPRESSED_PACKET_BYTE_LIMIT = 512 * 1024;
+    private static final int UNCOMPRESSED_PACKET_BYTE_LIMIT = 64 * 1024;
+
+    // Flags describing which fields of an entry are present
+    private static final int FLAG_KEY = 1;
+    private static final int FLAG_STORED_AMOUNT = 2;
+    private static final int FLAG_REQUESTABLE_AMOUNT = 4;
+    private static final int FLAG_CRAFTABLE = 8;
 
     /**
      * Initial buffer size for an update packet.
@@ -63,14 +82,25 @@ public Type<MEInventoryUpdatePacket> type() {
     public static MEInventoryUpdatePacket decode(RegistryFriendlyByteBuf data) {
         var containerId = data.readVarInt();
         var fullUpdate = data.readBoolean();
+        var complete = data.readBoolean();
         var encodedEntryCount = data.readVarInt();
-        var entries = decodeEntriesPayload(encodedEntryCount, data);
-        return new MEInventoryUpdatePacket(fullUpdate, containerId, entries, 0, null);
+        // The entries can only be decoded once the client repo is known
+        var encodedEntries = new RegistryFriendlyByteBuf(Unpooled.copiedBuffer(data), data.registryAccess());
+        data.skipBytes(data.readableBytes());
+        return new MEInventoryUpdatePacket(fullUpdate, complete, containerId, encodedEntryCount, encodedEntries);
+    }
+
+    /**
+     * @return The size of the encoded entries in bytes.
+     */
+    public int getEncodedSize() {
+        return encodedEntries != null ? encodedEntries.readableBytes() : 0;
     }
 
     public void write(RegistryFriendlyByteBuf data) {
         data.writeVarInt(containerId);
         data.writeBoolean(fullUpdate);
+        data.writeBoolean(complete);
         data.writeVarInt(encodedEntryCount);
         if (encodedEntryCount > 0) {
             if (encodedEntries == null) {
@@ -121,12 +151,14 @@ public void addFull(IncrementalUpdateHelper updateHelper,
                 }
 
                 long serial = updateHelper.getOrAssignSerial(key);
+                var storedAmount = networkStorage.get(key);
+                updateHelper.setSentAmount(serial, storedAmount);
                 add(new GridInventoryEntry(
                         serial,
                         key,
-                        networkStorage.get(key),
+                        storedAmount,
                         requestables.get(key),
-                        craftables.contains(key)));
+                        craftables.contains(key)), 0);
             }
         }
 
@@ -134,7 +166,20 @@ public void addChanges(IncrementalUpdateHelper updateHelper,
                 KeyCounter networkStorage,
                 Set<AEKey> craftables,
                 KeyCounter requestables) {
-            for (AEKey key : updateHelper) {
+            addChanges(updateHelper, updateHelper, networkStorage, craftables, requestables);
+        }
+
+        /**
+         * Adds the changes of the given update helper in the given order.
+         *
+         * @param changedKeys The keys changed in the update helper, in the order they should be sent in.
+         */
+        public void addChanges(IncrementalUpdateHelper updateHelper,
+                Iterable<AEKey> changedKeys,
+                KeyCounter networkStorage,
+                Set<AEKey> craftables,
+                KeyCounter requestables) {
+            for (AEKey key : changedKeys) {
                 if (this.filter != null && !this.filter.matches(key)) {
                     continue;
                 }
@@ -157,25 +202,33 @@ public void addChanges(IncrementalUpdateHelper updateHelper,
                 var storedAmount = networkStorage.get(key);
                 var craftable = craftables.contains(key);
                 var requestable = requestables.get(key);
+                // The stored amount is sent relative to the amount the client already knows
+                var previousAmount = sendKey != null ? 0 : updateHelper.getSentAmount(serial);
                 if (storedAmount <= 0 && requestable <= 0 && !craftable) {
                     // This happens when an update is queued but the item is no longer stored
-                    add(new GridInventoryEntry(serial, sendKey, 0, 0, false));
+                    add(new GridInventoryEntry(serial, sendKey, 0, 0, false), previousAmount);
                     updateHelper.removeSerial(key);
                 } else {
-                    add(new GridInventoryEntry(serial, sendKey, storedAmount, requestable, craftable));
+                    add(new GridInventoryEntry(serial, sendKey, storedAmount, requestable, craftable),
+                            previousAmount);
+                    updateHelper.setSentAmount(serial, storedAmount);
                 }
             }
 
             updateHelper.commitChanges();
         }
 
-        public void add(GridInventoryEntry entry) {
+        /**
+         * @param previousAmount The stored amount the client currently knows for the serial of the entry. Must be 0
+         *                       if the entry includes its key.
+         */
+        public void add(GridInventoryEntry entry, long previousAmount) {
             RegistryFriendlyByteBuf data = ensureData();
 
             // This should only error out if the entire packet exceeds about 2 megabytes of memory,
             // if any item writes that much junk to a share tag, it's acceptable to crash.
-            // We'll normally flush much much earlier (32k)
-            writeEntry(data, entry);
+            // We'll normally flush much much earlier (64k)
+            writeEntry(data, entry, previousAmount);
 
             ++entryCount;
 
@@ -187,7 +240,8 @@ public void add(GridInventoryEntry entry) {
         private void flushData() {
             if (encodedEntries != null) {
                 // Build a packet and queue it
-                var packet = new MEInventoryUpdatePacket(fullUpdate, containerId, null, entryCount, encodedEntries);
+                var packet = new MEInventoryUpdatePacket(fullUpdate, false, containerId, entryCount,
+                        encodedEntries);
                 packets.add(packet);
 
                 // Reset
@@ -206,6 +260,11 @@ private RegistryFriendlyByteBuf ensureData() {
 
         public List<MEInventoryUpdatePacket> build() {
             flushData();
+            if (!packets.isEmpty()) {
+                var last = packets.get(packets.size() - 1);
+                packets.set(packets.size() - 1, new MEInventoryUpdatePacket(last.fullUpdate(), true,
+                        last.containerId(), last.encodedEntryCount(), last.encodedEntries()));
+            }
             return packets;
         }
 
@@ -222,25 +281,57 @@ public static Builder builder(int containerId, boolean fullUpdate, RegistryAcces
     }
 
     /**
-     * Writes this entry to a packet buffer for shipping it to the client.
+     * Writes this entry to a packet buffer for shipping it to the client. Fields that are absent or zero are only
+     * indicated by the flags.
      */
-    private static void writeEntry(RegistryFriendlyByteBuf buffer, GridInventoryEntry entry) {
+    private static void writeEntry(RegistryFriendlyByteBuf buffer, GridInventoryEntry entry, long previousAmount) {
+        var what = entry.getWhat();
+        var storedDelta = entry.getStoredAmount() - previousAmount;
+        int flags = 0;
+        if (what != null) {
+            flags |= FLAG_KEY;
+        }
+        if (storedDelta != 0) {
+            flags |= FLAG_STORED_AMOUNT;
+        }
+        if (entry.getRequestableAmount() != 0) {
+            flags |= FLAG_REQUESTABLE_AMOUNT;
+        }
+        if (entry.isCraftable()) {
+            flags |= FLAG_CRAFTABLE;
+        }
+
         buffer.writeVarLong(entry.getSerial());
-        AEKey.writeOptionalKey(buffer, entry.getWhat());
-        buffer.writeVarLong(entry.getStoredAmount());
-        buffer.writeVarLong(entry.getRequestableAmount());
-        buffer.writeBoolean(entry.isCraftable());
+        buffer.writeByte(flags);
+        if (what != null) {
+            AEKey.writeKey(buffer, what);
+        }
+        if (storedDelta != 0) {
+            // Zig-zag encoding keeps small negative differences short
+            buffer.writeVarLong((storedDelta << 1) ^ (storedDelta >> 63));
+        }
+        if (entry.getRequestableAmount() != 0) {
+            buffer.writeVarLong(entry.getRequestableAmount());
+        }
     }
 
     /**
      * Reads an inventory entry from a packet.
+     *
+     * @param previousAmounts Provides the stored amount the client currently knows for a serial.
      */
-    public static GridInventoryEntry readEntry(RegistryFriendlyByteBuf buffer) {
+    public static GridInventoryEntry readEntry(RegistryFriendlyByteBuf buffer, LongUnaryOperator previousAmounts) {
         long serial = buffer.readVarLong();
-        AEKey what = AEKey.readOptionalKey(buffer);
-        long storedAmount = buffer.readVarLong();
-        long requestableAmount = buffer.readVarLong();
-        boolean craftable = buffer.readBoolean();
+        int flags = buffer.readByte();
+        boolean hasKey = (flags & FLAG_KEY) != 0;
+        AEKey what = hasKey ? AEKey.readKey(buffer) : null;
+        long storedAmount = hasKey ? 0 : previousAmounts.applyAsLong(serial);
+        if ((flags & FLAG_STORED_AMOUNT) != 0) {
+            var zigZag = buffer.readVarLong();
+            storedAmount += (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+        long requestableAmount = (flags & FLAG_REQUESTABLE_AMOUNT) != 0 ? buffer.readVarLong() : 0;
+        boolean craftable = (flags & FLAG_CRAFTABLE) != 0;
         return new GridInventoryEntry(serial, what, storedAmount, requestableAmount, craftable);
     }
 
@@ -255,25 +346,25 @@ public void handleOnClient(Player player) {
                 return;
             }
 
-            // In singleplayer, we're just getting the exact same instance that the builder created
-            // so it has the pre-encoded data.
-            var actualEntries = entries;
-            if (actualEntries == null && encodedEntries != null) {
-                actualEntries = decodeEntriesPayload(encodedEntryCount, encodedEntries);
-            }
-
-            if (actualEntries != null) {
+            // In singleplayer, we're just getting the exact same instance that the builder created,
+            // so the entries are decoded without modifying its buffer.
+            if (encodedEntries != null) {
+                var data = new RegistryFriendlyByteBuf(encodedEntries.duplicate(), encodedEntries.registryAccess());
+                var actualEntries = decodeEntriesPayload(encodedEntryCount, data, clientRepo);
                 clientRepo.handleUpdate(fullUpdate, actualEntries);
             }
+            clientRepo.setLoading(!complete);
         }
     }
 
-    @NotNull
-    private static ArrayList<GridInventoryEntry> decodeEntriesPayload(int entryCount, RegistryFriendlyByteBuf data) {
-        // We need to access the current screen to know which storage channel was used to serialize this data
+    private static List<GridInventoryEntry> decodeEntriesPayload(int entryCount, RegistryFriendlyByteBuf data,
+            IClientRepo clientRepo) {
         var entries = new ArrayList<GridInventoryEntry>(entryCount);
         for (int i = 0; i < entryCount; i++) {
-            entries.add(readEntry(data));
+            entries.add(readEntry(data, serial -> {
+                var previous = clientRepo.getEntry(serial);
+                return previous != null ? previous.getStoredAmount() : 0;
+            }));
         }
         return entries;
     }
@@ -21,6 +21,7 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 import com.google.common.base.Stopwatch;
 
@@ -53,27 +54,54 @@ public class CraftingCalculation {
     // The initially requested amount of "output", may be reduced depending on the strategy used
     private final long requestedAmount;
     private final CalculationStrategy strategy;
+    /**
+     * The patterns used by an asynchronous calculation, or null if the calculation runs synchronized with the server
+     * thread and queries the grid directly.
+     */
+    @Nullable
+    private final IPatternLookup patternSnapshot;
+    private final CraftingTreeCache treeCache;
     private boolean simulate = false;
     final ICraftingSimulationRequester simRequester;
     private boolean running = false;
     private boolean done = false;
+    /**
+     * A query of the calculation thread that the server thread has to answer, see {@link #callOnServerThread}.
+     */
+    @Nullable
+    private LongSupplier pendingQuery;
+    private long queryResult;
     private int time = 5;
     private int incTime = Integer.MAX_VALUE;
     private final List<CraftAttempt> attempts = AELog.isCraftingLogEnabled() ? new ArrayList<>() : null;
 
     public CraftingCalculation(Level level, IGrid grid, ICraftingSimulationRequester simRequester,
             GenericStack output, CalculationStrategy strategy) {
+        this(level, grid, simRequester, output, strategy, null);
+    }
+
+    /**
+     * Must be called on the server thread, since it takes a snapshot of the network inventory.
+     *
+     * @param patternSnapshot If not null, the calculation runs asynchronously: it only uses these patterns and the
+     *                        snapshot of the network inventory, and never waits for the server thread.
+     */
+    public CraftingCalculation(Level level, IGrid grid, ICraftingSimulationRequester simRequester,
+            GenericStack output, CalculationStrategy strategy, @Nullable IPatternLookup patternSnapshot) {
         this.level = level;
         this.output = output.what();
         this.requestedAmount = output.amount();
         this.strategy = strategy;
         this.simRequester = simRequester;
+        this.patternSnapshot = patternSnapshot;
 
         var storage = grid.getStorageService();
-        var craftingService = grid.getCraftingService();
-        this.networkInv = new NetworkCraftingSimulationState(storage, simRequester.getActionSource());
+        var patterns = patternSnapshot != null ? patternSnapshot : IPatternLookup.of(grid.getCraftingService());
+        this.networkInv = new NetworkCraftingSimulationState(storage, simRequester.getActionSource(),
+                patternSnapshot == null ? this::callOnServerThread : null);
+        this.treeCache = new CraftingTreeCache(patterns, level);
 
-        this.tree = new CraftingTreeNode(craftingService, this, this.output, 1, null, -1);
+        this.tree = new CraftingTreeNode(treeCache, this, this.output, 1, null, -1);
     }
 
     void addMissing(AEKey what, long amount) {
@@ -82,7 +110,9 @@ void addMissing(AEKey what, long amount) {
 
     public ICraftingPlan run() {
         try {
-            TickHandler.instance().registerCraftingSimulation(this.level, this);
+            if (this.patternSnapshot == null) {
+                TickHandler.instance().registerCraftingSimulation(this.level, this);
+            }
             this.handlePausing();
 
             var plan = computePlan();
@@ -172,6 +202,15 @@ void handlePausing() throws InterruptedException {
         if (this.incTime > 100) {
             this.incTime = 0;
 
+            // Asynchronous calculations never pause, they can only be cancelled
+            if (this.patternSnapshot != null) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                this.incTime++;
+                return;
+            }
+
             synchronized (this.monitor) {
                 if (this.watch.elapsed(TimeUnit.MICROSECONDS) > this.time) {
                     this.running = false;
@@ -197,7 +236,33 @@ void handlePausing() throws InterruptedException {
         this.incTime++;
     }
 
+    /**
+     * Runs a query that needs world access on the server thread, which is waiting in {@link #simulateFor} while the
+     * calculation runs, and waits for its result.
+     */
+    private long callOnServerThread(LongSupplier query) {
+        synchronized (this.monitor) {
+            this.pendingQuery = query;
+            this.running = false;
+            this.monitor.notify();
+
+            try {
+                while (this.pendingQuery != null || !this.running) {
+                    this.monitor.wait();
+                }
+            } catch (InterruptedException e) {
+                // Let the next call to handlePausing cancel the calculation
+                this.pendingQuery = null;
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+
+            return this.queryResult;
+        }
+    }
+
     private void finish() {
+        this.networkInv.releaseSnapshot();
         synchronized (this.monitor) {
             this.running = false;
             this.done = true;
@@ -221,6 +286,18 @@ Level getLevel() {
         return this.level;
     }
 
+    /**
+     * @return The memoized patterns used to expand nodes of the tree, or null if the requester is no longer part of a
+     *         grid.
+     */
+    @Nullable
+    CraftingTreeCache getTreeCache() {
+        if (this.patternSnapshot == null && this.simRequester.getGridNode() == null) {
+            return null;
+        }
+        return this.treeCache;
+    }
+
     /**
      * returns true if this needs more simulation.
      *
@@ -243,7 +320,19 @@ public boolean simulateFor(int micros) {
 
             this.monitor.notify();
 
-            while (this.running) {
+            while (this.running || this.pendingQuery != null) {
+                if (this.pendingQuery != null) {
+                    try {
+                        this.queryResult = this.pendingQuery.getAsLong();
+                    } catch (RuntimeException e) {
+                        AELog.warn(e, "Failed to query the network for a crafting calculation");
+                        this.queryResult = 0;
+                    }
+                    this.pendingQuery = null;
+                    this.running = true;
+                    this.monitor.notify();
+                }
+
                 try {
                     this.monitor.wait();
                 } catch (InterruptedException ignored) {
@@ -0,0 +1,122 @@
+package appeng.crafting;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.world.level.Level;
+
+import appeng.api.crafting.IPatternDetails;
+import appeng.api.stacks.AEKey;
+
+/**
+ * Memoizes the pattern queries of a single {@link CraftingCalculation}. The same keys, inputs and patterns show up in
+ * many branches of a crafting tree, and again in every attempt of the calculation, but only need to be looked up once.
+ * <p/>
+ * The subtrees themselves can't be shared between branches, since whether a pattern may be used depends on the
+ * ancestors of a node (see {@link CraftingTreeNode#notRecursive}).
+ */
+final class CraftingTreeCache {
+    private final IPatternLookup patterns;
+    private final Level level;
+    private final Map<AEKey, Boolean> emitable = new HashMap<>();
+    private final Map<AEKey, Collection<IPatternDetails>> craftingFor = new HashMap<>();
+    /**
+     * The key that is actually crafted for a pattern input, after looking for craftable substitutes.
+     */
+    private final Map<IPatternDetails.IInput, AEKey> craftedInputs = new IdentityHashMap<>();
+    private final Map<IPatternDetails, PatternShape> shapes = new HashMap<>();
+
+    CraftingTreeCache(IPatternLookup patterns, Level level) {
+        this.patterns = patterns;
+        this.level = level;
+    }
+
+    boolean canEmitFor(AEKey what) {
+        return emitable.computeIfAbsent(what, patterns::canEmitFor);
+    }
+
+    Collection<IPatternDetails> getCraftingFor(AEKey what) {
+        return craftingFor.computeIfAbsent(what, patterns::getCraftingFor);
+    }
+
+    /**
+     * @param parentInput The pattern input the key is requested for, or null for the top-level request.
+     * @return The key that should be crafted for the given request.
+     */
+    AEKey getCraftedStack(@Nullable IPatternDetails.IInput parentInput, AEKey what) {
+        if (parentInput == null) {
+            return findCraftedStack(null, what);
+        }
+        return craftedInputs.computeIfAbsent(parentInput, input -> findCraftedStack(input, what));
+    }
+
+    private AEKey findCraftedStack(@Nullable IPatternDetails.IInput parentInput, AEKey wat) {
+        if (canEmitFor(wat)) {
+            return wat; // if we can emit for something, use that.
+        }
+
+        if (getCraftingFor(wat).isEmpty() && parentInput != null) {
+            // No pattern for the exact encoded input. Try to find a pattern for a substitute ingredient. ;)
+            long acceptableAmount = parentInput.getPossibleInputs()[0].amount();
+
+            for (var possibleInput : parentInput.getPossibleInputs()) {
+                if (possibleInput.amount() != acceptableAmount) {
+                    // Skip if the amounts don't match (don't want to replace 1000 water by 1000 buckets for example).
+                    continue;
+                }
+
+                var fuzzy = patterns.getFuzzyCraftable(possibleInput.what(), fuzzyCandidate -> {
+                    return parentInput.isValid(fuzzyCandidate, level);
+                });
+
+                if (fuzzy != null) {
+                    return fuzzy;
+                }
+            }
+        }
+
+        return wat;
+    }
+
+    PatternShape getShape(IPatternDetails details) {
+        return shapes.computeIfAbsent(details, PatternShape::of);
+    }
+
+    /**
+     * @param limitQty       If true, the pattern is performed by 1 at the time. This ensures that container items or
+     *                       outputs get reused when possible.
+     * @param containerItems If true, some inputs of the pattern leave a container item behind.
+     */
+    record PatternShape(boolean limitQty, boolean containerItems) {
+        /**
+         * Check if the pattern has one of its outputs as input. If that's the case, we simulate it one by one. Also
+         * check for container items.
+         */
+        private static PatternShape of(IPatternDetails details) {
+            boolean limitQty = false;
+            boolean containerItems = false;
+
+            // TODO: consider checking substitute inputs as well?
+            for (IPatternDetails.IInput input : details.getInputs()) {
+                var primaryInput = input.getPossibleInputs()[0];
+
+                for (var output : details.getOutputs()) {
+                    if (output.what().matches(primaryInput)) {
+                        limitQty = true;
+                        break;
+                    }
+                }
+
+                if (input.getRemainingKey(primaryInput.what()) != null) {
+                    limitQty = containerItems = true;
+                }
+            }
+
+            return new PatternShape(limitQty, containerItems);
+        }
+    }
+}
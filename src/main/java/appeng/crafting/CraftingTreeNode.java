@@ -28,7 +28,6 @@
 
 import appeng.api.config.Actionable;
 import appeng.api.crafting.IPatternDetails;
-import appeng.api.networking.crafting.ICraftingService;
 import appeng.api.stacks.AEKey;
 import appeng.api.stacks.GenericStack;
 import appeng.api.stacks.KeyCounter;
@@ -66,46 +65,16 @@ public class CraftingTreeNode {
     private ArrayList<CraftingTreeProcess> nodes = null;
     private final boolean canEmit;
 
-    public CraftingTreeNode(ICraftingService cc, CraftingCalculation job, AEKey what, long amount,
+    CraftingTreeNode(CraftingTreeCache cache, CraftingCalculation job, AEKey what, long amount,
             CraftingTreeProcess par, int slot) {
         this.parent = par;
         this.parentInput = slot == -1 ? null : par.details.getInputs()[slot];
         this.level = job.getLevel();
         this.job = job;
-        this.what = findCraftedStack(cc, what);
+        this.what = cache.getCraftedStack(parentInput, what);
         this.amount = amount;
 
-        this.canEmit = cc.canEmitFor(what);
-    }
-
-    private AEKey findCraftedStack(ICraftingService cc, AEKey wat) {
-        if (cc.canEmitFor(wat)) {
-            return wat; // if we can emit for something, use that.
-        }
-
-        var patterns = cc.getCraftingFor(wat);
-
-        if (patterns.isEmpty() && parentInput != null) {
-            // No pattern for the exact encoded input. Try to find a pattern for a substitute ingredient. ;)
-            long acceptableAmount = parentInput.getPossibleInputs()[0].amount();
-
-            for (var possibleInput : parentInput.getPossibleInputs()) {
-                if (possibleInput.amount() != acceptableAmount) {
-                    // Skip if the amounts don't match (don't want to replace 1000 water by 1000 buckets for example).
-                    continue;
-                }
-
-                var fuzzy = cc.getFuzzyCraftable(possibleInput.what(), fuzzyCandidate -> {
-                    return this.parentInput.isValid(fuzzyCandidate, level);
-                });
-
-                if (fuzzy != null) {
-                    return fuzzy;
-                }
-            }
-        }
-
-        return wat;
+        this.canEmit = cache.canEmitFor(what);
     }
 
     private void buildChildPatterns() {
@@ -117,15 +86,14 @@ private void buildChildPatterns() {
         if (this.nodes == null) {
             this.nodes = new ArrayList<>();
 
-            var gridNode = this.job.simRequester.getGridNode();
-
-            // If the node is null, we just skip patterns and let the request (likely) fail.
-            if (gridNode != null) {
-                var craftingService = gridNode.getGrid().getCraftingService();
+            var cache = this.job.getTreeCache();
 
-                for (var details : craftingService.getCraftingFor(this.what)) {
+            // If there are no patterns (requester without grid), we just skip patterns and let the request (likely)
+            // fail.
+            if (cache != null) {
+                for (var details : cache.getCraftingFor(this.what)) {
                     if (this.parent == null || this.parent.notRecursive(details)) {
-                        this.nodes.add(new CraftingTreeProcess(craftingService, job, details, this));
+                        this.nodes.add(new CraftingTreeProcess(cache, job, details, this));
                     }
                 }
             }
@@ -23,7 +23,6 @@
 
 import appeng.api.config.Actionable;
 import appeng.api.crafting.IPatternDetails;
-import appeng.api.networking.crafting.ICraftingService;
 import appeng.api.stacks.AEKey;
 import appeng.api.stacks.KeyCounter;
 import appeng.crafting.inv.CraftingSimulationState;
@@ -40,27 +39,29 @@ public class CraftingTreeProcess {
     // Use linked hashmap to ensure deterministic ordering of subcrafts
     private final Map<CraftingTreeNode, Long> nodes = new LinkedHashMap<>();
     boolean possible = true;
-    private boolean containerItems;
+    private final boolean containerItems;
     /**
      * If true, we perform this pattern by 1 at the time. This ensures that container items or outputs get reused when
      * possible.
      */
-    private boolean limitQty;
+    private final boolean limitQty;
 
-    public CraftingTreeProcess(ICraftingService cc, CraftingCalculation job,
+    CraftingTreeProcess(CraftingTreeCache cache, CraftingCalculation job,
             IPatternDetails details,
             CraftingTreeNode craftingTreeNode) {
         this.parent = craftingTreeNode;
         this.details = details;
         this.job = job;
 
-        updateLimitQty();
+        var shape = cache.getShape(details);
+        this.limitQty = shape.limitQty();
+        this.containerItems = shape.containerItems();
 
         final IPatternDetails.IInput[] inputs = this.details.getInputs();
         for (int x = 0; x < inputs.length; ++x) {
             var input = inputs[x];
             var firstInput = input.getPossibleInputs()[0];
-            this.nodes.put(new CraftingTreeNode(cc, job, firstInput.what(), firstInput.amount(), this, x),
+            this.nodes.put(new CraftingTreeNode(cache, job, firstInput.what(), firstInput.amount(), this, x),
                     input.getMultiplier());
         }
     }
@@ -72,33 +73,6 @@ boolean notRecursive(IPatternDetails details) {
         return this.parent == null || this.parent.notRecursive(details);
     }
 
-    /**
-     * Check if this pattern has one of its outputs as input. If that's the case, update {@code limitQty} to make sure
-     * we simulate this pattern one by one. Also check for container items.
-     */
-    private void updateLimitQty() {
-        // TODO: consider checking substitute inputs as well?
-        for (IPatternDetails.IInput input : details.getInputs()) {
-            var primaryInput = input.getPossibleInputs()[0];
-            boolean isAnInput = false;
-
-            for (var output : details.getOutputs()) {
-                if (output.what().matches(primaryInput)) {
-                    isAnInput = true;
-                    break;
-                }
-            }
-
-            if (isAnInput) {
-                this.limitQty = true;
-            }
-
-            if (input.getRemainingKey(primaryInput.what()) != null) {
-                this.limitQty = this.containerItems = true;
-            }
-        }
-    }
-
     boolean limitsQuantity() {
         return this.limitQty;
     }
@@ -0,0 +1,56 @@
+package appeng.crafting;
+
+import java.util.Collection;
+
+import org.jetbrains.annotations.Nullable;
+
+import appeng.api.crafting.IPatternDetails;
+import appeng.api.networking.crafting.ICraftingService;
+import appeng.api.stacks.AEKey;
+import appeng.api.storage.AEKeyFilter;
+
+/**
+ * The pattern queries a {@link CraftingCalculation} needs to plan a job. Either backed by the live
+ * {@link ICraftingService} of a grid, or by an immutable snapshot that can be queried from any thread.
+ */
+public interface IPatternLookup {
+    /**
+     * @see ICraftingService#getCraftingFor(AEKey)
+     */
+    Collection<IPatternDetails> getCraftingFor(AEKey whatToCraft);
+
+    /**
+     * @see ICraftingService#getFuzzyCraftable(AEKey, AEKeyFilter)
+     */
+    @Nullable
+    AEKey getFuzzyCraftable(AEKey whatToCraft, AEKeyFilter filter);
+
+    /**
+     * @see ICraftingService#canEmitFor(AEKey)
+     */
+    boolean canEmitFor(AEKey someItem);
+
+    /**
+     * Queries the given crafting service directly. Only safe to use from the server thread, or while it is waiting for
+     * the calculation.
+     */
+    static IPatternLookup of(ICraftingService craftingService) {
+        return new IPatternLookup() {
+            @Override
+            public Collection<IPatternDetails> getCraftingFor(AEKey whatToCraft) {
+                return craftingService.getCraftingFor(whatToCraft);
+            }
+
+            @Nullable
+            @Override
+            public AEKey getFuzzyCraftable(AEKey whatToCraft, AEKeyFilter filter) {
+                return craftingService.getFuzzyCraftable(whatToCraft, filter);
+            }
+
+            @Override
+            public boolean canEmitFor(AEKey someItem) {
+                return craftingService.canEmitFor(someItem);
+            }
+        };
+    }
+}
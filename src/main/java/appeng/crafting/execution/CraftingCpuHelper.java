@@ -19,6 +19,10 @@
 package appeng.crafting.execution;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import com.google.common.collect.Iterables;
@@ -103,6 +107,21 @@ public static KeyCounter[] extractPatternInputs(
             ICraftingInventory sourceInv,
             Level level,
             KeyCounter expectedOutputs) {
+        return extractPatternInputs(details, sourceInv, level, expectedOutputs, 1);
+    }
+
+    /**
+     * Extracts the inputs for crafting the pattern multiple times at once.
+     *
+     * @param patterns How many times the pattern will be crafted.
+     */
+    @Nullable
+    public static KeyCounter[] extractPatternInputs(
+            IPatternDetails details,
+            ICraftingInventory sourceInv,
+            Level level,
+            KeyCounter expectedOutputs,
+            long patterns) {
 
         // Extract inputs into the container.
         var inputs = details.getInputs();
@@ -112,7 +131,7 @@ public static KeyCounter[] extractPatternInputs(
 
         for (int x = 0; x < inputs.length; x++) {
             var list = inputHolder[x] = new KeyCounter();
-            long remainingMultiplier = inputs[x].getMultiplier();
+            long remainingMultiplier = inputs[x].getMultiplier() * patterns;
             for (var template : getValidItemTemplates(sourceInv, inputs[x], level)) {
                 long extracted = extractTemplates(sourceInv, template, remainingMultiplier);
                 list.add(template.key(), extracted * template.amount());
@@ -143,12 +162,91 @@ public static KeyCounter[] extractPatternInputs(
 
         // Add pattern outputs.
         for (var output : details.getOutputs()) {
-            expectedOutputs.add(output.what(), output.amount());
+            expectedOutputs.add(output.what(), output.amount() * patterns);
         }
 
         return inputHolder;
     }
 
+    /**
+     * @return True if every amount in the counter is a multiple of the given number of patterns, i.e. if the counter
+     *         can be split into the same stacks for each pattern.
+     */
+    public static boolean canSplit(KeyCounter counter, long patterns) {
+        for (var entry : counter) {
+            if (entry.getLongValue() % patterns != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean canSplit(KeyCounter[] inputHolder, long patterns) {
+        for (var list : inputHolder) {
+            if (!canSplit(list, patterns)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the inputs for some of the patterns from inputs extracted for multiple patterns.
+     *
+     * @param inputHolder Inputs for the given number of patterns, which must {@linkplain #canSplit be splittable}.
+     * @param patterns    How many patterns the inputs are for.
+     * @param count       How many patterns to remove the inputs for.
+     * @return The removed inputs.
+     */
+    public static KeyCounter[] takePatternInputs(KeyCounter[] inputHolder, long patterns, long count) {
+        var taken = new KeyCounter[inputHolder.length];
+        for (int x = 0; x < inputHolder.length; x++) {
+            taken[x] = new KeyCounter();
+            for (var entry : inputHolder[x]) {
+                taken[x].add(entry.getKey(), entry.getLongValue() / patterns * count);
+            }
+            inputHolder[x].removeAll(taken[x]);
+            inputHolder[x].removeZeros();
+        }
+        return taken;
+    }
+
+    /**
+     * Finds an input of the pattern that the inventory cannot provide, even when all other inputs are ignored.
+     *
+     * @return The primary keys of all possible inputs for that input, or of all inputs of the pattern if each input
+     *         could be provided on its own.
+     */
+    public static Set<Object> getMissingInputKeys(IPatternDetails details, ICraftingInventory sourceInv,
+            Level level) {
+        for (var input : details.getInputs()) {
+            long available = 0;
+            for (var template : getValidItemTemplates(sourceInv, input, level)) {
+                available += sourceInv.extract(template.key(), Long.MAX_VALUE, Actionable.SIMULATE)
+                        / template.amount();
+                if (available >= input.getMultiplier())
+                    break;
+            }
+
+            if (available < input.getMultiplier()) {
+                return getPrimaryKeys(List.of(input));
+            }
+        }
+
+        // Only missing when combined, e.g. multiple inputs competing for the same key
+        return getPrimaryKeys(Arrays.asList(details.getInputs()));
+    }
+
+    private static Set<Object> getPrimaryKeys(List<IPatternDetails.IInput> inputs) {
+        var keys = new HashSet<>();
+        for (var input : inputs) {
+            for (var possibleInput : input.getPossibleInputs()) {
+                keys.add(possibleInput.what().getPrimaryKey());
+            }
+        }
+        return keys;
+    }
+
     public static void reinjectPatternInputs(ICraftingInventory sourceInv,
             KeyCounter[] inputHolder) {
         for (var list : inputHolder) {
@@ -17,6 +17,7 @@
  */
 package appeng.crafting.execution;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -33,10 +34,12 @@
 
 import appeng.api.config.Actionable;
 import appeng.api.config.PowerMultiplier;
+import appeng.api.crafting.IPatternDetails;
 import appeng.api.features.IPlayerRegistry;
 import appeng.api.networking.IGrid;
 import appeng.api.networking.crafting.ICraftingLink;
 import appeng.api.networking.crafting.ICraftingPlan;
+import appeng.api.networking.crafting.ICraftingProvider;
 import appeng.api.networking.crafting.ICraftingRequester;
 import appeng.api.networking.crafting.ICraftingSubmitResult;
 import appeng.api.networking.energy.IEnergyService;
@@ -70,6 +73,11 @@ public class CraftingCpuLogic {
      */
     private final int[] usedOps = new int[3];
     private final Set<Consumer<AEKey>> listeners = new HashSet<>();
+    /**
+     * Number of {@link ICraftingProvider#pushPatterns} calls, and how many of them pushed at least one pattern.
+     */
+    private long pushAttempts;
+    private long successfulPushes;
     /**
      * True if the CPU is currently trying to clear its inventory but is not able to.
      */
@@ -127,10 +135,17 @@ public ICraftingSubmitResult trySubmitJob(IGrid grid, ICraftingPlan plan, IActio
         }
     }
 
-    public void tickCraftingLogic(IEnergyService eg, CraftingService cc) {
+    /**
+     * Prepares the crafting execution of this tick. The crafting service then lets the CPU push patterns using
+     * {@link #executeCrafting}, and completes the tick with {@link #endTick}.
+     *
+     * @return How many patterns the CPU may push this tick, limited by its co-processors, or -1 if it has no job to
+     *         execute.
+     */
+    public int startTick() {
         // Don't tick if we're not active.
         if (!cluster.isActive())
-            return;
+            return -1;
         cantStoreItems = false;
         // If we don't have a job, just try to dump our items.
         if (this.job == null) {
@@ -138,35 +153,40 @@ public void tickCraftingLogic(IEnergyService eg, CraftingService cc) {
             if (!this.inventory.list.isEmpty()) {
                 cantStoreItems = true;
             }
-            return;
+            return -1;
         }
         // Check if the job was cancelled.
         if (job.link.isCanceled()) {
             cancel();
-            return;
+            return -1;
         }
 
-        var remainingOperations = cluster.getCoProcessors() + 1 - (this.usedOps[0] + this.usedOps[1] + this.usedOps[2]);
-        final var started = remainingOperations;
+        job.readiness.tick();
 
-        if (remainingOperations > 0) {
-            do {
-                var pushedPatterns = executeCrafting(remainingOperations, cc, eg, cluster.getLevel());
+        var remainingOperations = cluster.getCoProcessors() + 1 - (this.usedOps[0] + this.usedOps[1] + this.usedOps[2]);
+        return Math.max(0, remainingOperations);
+    }
 
-                if (pushedPatterns > 0) {
-                    remainingOperations -= pushedPatterns;
-                } else {
-                    break;
-                }
-            } while (remainingOperations > 0);
-        }
+    /**
+     * Completes a tick started by {@link #startTick}.
+     *
+     * @param pushedPatterns How many patterns the CPU pushed during this tick.
+     */
+    public void endTick(int pushedPatterns) {
         this.usedOps[2] = this.usedOps[1];
         this.usedOps[1] = this.usedOps[0];
-        this.usedOps[0] = started - remainingOperations;
+        this.usedOps[0] = pushedPatterns;
+
+        if (this.job != null) {
+            this.job.pushedPatterns += pushedPatterns;
+            this.job.executedTicks++;
+        }
     }
 
     /**
-     * Try to push patterns into available interfaces, i.e. do the actual crafting execution.
+     * Try to push patterns into available interfaces, i.e. do the actual crafting execution. Only tasks that are
+     * {@linkplain TaskReadiness ready} are attempted, each at most once per call, and their inputs are only extracted
+     * once a provider that is not busy has been found.
      *
      * @return How many patterns were successfully pushed.
      */
@@ -176,61 +196,105 @@ public int executeCrafting(int maxPatterns, CraftingService craftingService, IEn
         if (job == null)
             return 0;
 
+        var readiness = job.readiness;
         var pushedPatterns = 0;
+        var expectedOutputs = new KeyCounter();
 
-        var it = job.tasks.entrySet().iterator();
-        taskLoop: while (it.hasNext()) {
-            var task = it.next();
-            if (task.getValue().value <= 0) {
-                it.remove();
+        for (int remainingTasks = readiness.getReadyCount(); remainingTasks > 0; remainingTasks--) {
+            var details = readiness.pollReady();
+            var task = job.tasks.get(details);
+            if (task == null) {
+                continue;
+            }
+            if (task.value <= 0) {
+                job.tasks.remove(details);
                 continue;
             }
 
-            var details = task.getKey();
-            var expectedOutputs = new KeyCounter();
-            // Contains the inputs for the pattern.
-            @Nullable
-            var craftingContainer = CraftingCpuHelper.extractPatternInputs(
-                    details, inventory, level, expectedOutputs);
+            // Contains the inputs for the pattern, extracted only once a provider is available. Providers may accept
+            // multiple patterns at once, in which case it holds the inputs for containerPatterns patterns.
+            KeyCounter[] craftingContainer = null;
+            var containerPatterns = 0;
+            var missingInputs = false;
+            var missingPower = false;
+            var pushedTask = false;
 
             // Try to push to each provider.
             for (var provider : craftingService.getProviders(details)) {
-                if (craftingContainer == null)
-                    break;
                 if (provider.isBusy())
                     continue;
 
+                var patterns = (int) Math.min(Math.min(task.value, maxPatterns - pushedPatterns),
+                        Math.max(1, provider.getMaxPushMultiplier(details)));
+
+                if (craftingContainer != null && containerPatterns > patterns) {
+                    // This provider accepts fewer patterns at once than the inputs were extracted for.
+                    CraftingCpuHelper.reinjectPatternInputs(inventory, CraftingCpuHelper.takePatternInputs(
+                            craftingContainer, containerPatterns, containerPatterns - patterns));
+                    containerPatterns = patterns;
+                }
+
+                if (craftingContainer == null) {
+                    expectedOutputs.reset();
+                    craftingContainer = CraftingCpuHelper.extractPatternInputs(details, inventory, level,
+                            expectedOutputs, patterns);
+                    if (patterns > 1 && (craftingContainer == null
+                            || !CraftingCpuHelper.canSplit(craftingContainer, patterns)
+                            || !CraftingCpuHelper.canSplit(expectedOutputs, patterns))) {
+                        // Not enough inputs for all of them, or the inputs differ between patterns.
+                        if (craftingContainer != null) {
+                            CraftingCpuHelper.reinjectPatternInputs(inventory, craftingContainer);
+                        }
+                        patterns = 1;
+                        expectedOutputs.reset();
+                        craftingContainer = CraftingCpuHelper.extractPatternInputs(details, inventory, level,
+                                expectedOutputs);
+                    }
+                    if (craftingContainer == null) {
+                        missingInputs = true;
+                        break;
+                    }
+
+                    containerPatterns = patterns;
+                    // Keep the expected outputs of a single pattern.
+                    for (var expectedOutput : expectedOutputs) {
+                        expectedOutput.setValue(expectedOutput.getLongValue() / patterns);
+                    }
+                }
+
                 var patternPower = CraftingCpuHelper.calculatePatternPower(craftingContainer);
 
                 if (energyService.extractAEPower(patternPower, Actionable.SIMULATE,
-                        PowerMultiplier.CONFIG) < patternPower - 0.01)
+                        PowerMultiplier.CONFIG) < patternPower - 0.01) {
+                    missingPower = true;
                     break;
+                }
 
-                if (provider.pushPattern(details, craftingContainer)) {
-                    energyService.extractAEPower(patternPower, Actionable.MODULATE, PowerMultiplier.CONFIG);
-                    pushedPatterns++;
+                pushAttempts++;
+                var pushed = provider.pushPatterns(details, craftingContainer, containerPatterns);
+                if (pushed > 0) {
+                    // Only the power for the patterns that were accepted is used.
+                    energyService.extractAEPower(patternPower * pushed / containerPatterns, Actionable.MODULATE,
+                            PowerMultiplier.CONFIG);
+                    pushedPatterns += pushed;
+                    pushedTask = true;
+                    successfulPushes++;
+                    containerPatterns -= pushed;
+                    if (containerPatterns <= 0) {
+                        craftingContainer = null;
+                    }
 
                     for (var expectedOutput : expectedOutputs) {
-                        job.waitingFor.insert(expectedOutput.getKey(), expectedOutput.getLongValue(),
+                        job.waitingFor.insert(expectedOutput.getKey(), expectedOutput.getLongValue() * pushed,
                                 Actionable.MODULATE);
                     }
 
                     cluster.markDirty();
 
-                    task.getValue().value--;
-                    if (task.getValue().value <= 0) {
-                        it.remove();
-                        continue taskLoop;
-                    }
-
-                    if (pushedPatterns == maxPatterns) {
-                        break taskLoop;
+                    task.value -= pushed;
+                    if (task.value <= 0 || pushedPatterns >= maxPatterns) {
+                        break;
                     }
-
-                    // Prepare next inputs.
-                    expectedOutputs.reset();
-                    craftingContainer = CraftingCpuHelper.extractPatternInputs(details, inventory,
-                            level, expectedOutputs);
                 }
             }
 
@@ -238,11 +302,34 @@ public int executeCrafting(int maxPatterns, CraftingService craftingService, IEn
             if (craftingContainer != null) {
                 CraftingCpuHelper.reinjectPatternInputs(inventory, craftingContainer);
             }
+
+            if (task.value <= 0) {
+                job.tasks.remove(details);
+            } else if (pushedPatterns >= maxPatterns || missingPower) {
+                readiness.requeue(details);
+                break;
+            } else if (missingInputs) {
+                readiness.waitForInputs(details, CraftingCpuHelper.getMissingInputKeys(details, inventory, level));
+            } else if (pushedTask) {
+                // The providers took some copies, so they may well take the rest without reporting that they're ready
+                readiness.requeueLast(details);
+            } else {
+                readiness.waitForProviders(details);
+            }
         }
 
         return pushedPatterns;
     }
 
+    /**
+     * Called by the crafting service when providers of the given patterns can accept patterns again.
+     */
+    public void onProviderReady(Collection<IPatternDetails> patterns) {
+        if (this.job != null) {
+            this.job.readiness.onProvidersReady(patterns);
+        }
+    }
+
     /**
      * Called by the CraftingService with an Integer.MAX_VALUE priority to inject items that are being waited for.
      *
@@ -269,6 +356,8 @@ public long insert(AEKey what, long amount, Actionable type) {
             job.timeTracker.decrementItems(amount);
             job.waitingFor.extract(what, amount, Actionable.MODULATE);
             cluster.markDirty();
+            // The machine that crafted this may be ready for the next pattern
+            job.readiness.onResultReceived();
         }
 
         long inserted = amount;
@@ -301,6 +390,7 @@ public long insert(AEKey what, long amount, Actionable type) {
         } else {
             if (type == Actionable.MODULATE) {
                 inventory.insert(what, amount, Actionable.MODULATE);
+                job.readiness.onInputAvailable(what);
             }
         }
 
@@ -501,6 +591,38 @@ public boolean isCantStoreItems() {
         return cantStoreItems;
     }
 
+    public long getPushAttempts() {
+        return pushAttempts;
+    }
+
+    public long getSuccessfulPushes() {
+        return successfulPushes;
+    }
+
+    /**
+     * @return The average number of patterns pushed per tick over the last few ticks.
+     */
+    public double getRecentThroughput() {
+        return (this.usedOps[0] + this.usedOps[1] + this.usedOps[2]) / (double) this.usedOps.length;
+    }
+
+    /**
+     * @return The average number of patterns pushed per tick since the current job was started or loaded.
+     */
+    public double getJobThroughput() {
+        if (this.job == null || this.job.executedTicks == 0) {
+            return 0;
+        }
+        return this.job.pushedPatterns / (double) this.job.executedTicks;
+    }
+
+    /**
+     * @return The number of tasks of the current job that are not attempted until their inputs or providers are ready.
+     */
+    public int getParkedTaskCount() {
+        return this.job != null ? this.job.readiness.getParkedCount() : 0;
+    }
+
     private void notifyJobOwner(ExecutingCraftingJob job, CraftingJobStatusPacket.Status status) {
         var playerId = job.playerId;
         if (playerId == null) {
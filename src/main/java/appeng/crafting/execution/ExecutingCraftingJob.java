@@ -53,11 +53,17 @@ public class ExecutingCraftingJob {
     final CraftingLink link;
     final ListCraftingInventory waitingFor;
     final Map<IPatternDetails, TaskProgress> tasks = new HashMap<>();
+    final TaskReadiness readiness;
     final ElapsedTimeTracker timeTracker;
     GenericStack finalOutput;
     long remainingAmount;
     @Nullable
     Integer playerId;
+    /**
+     * Patterns pushed and ticks executed since the job was started or loaded.
+     */
+    long pushedPatterns;
+    long executedTicks;
 
     @FunctionalInterface
     interface CraftingDifferenceListener {
@@ -82,6 +88,7 @@ interface CraftingDifferenceListener {
                 totalPending += output.amount() * entry.getValue();
             }
         }
+        this.readiness = new TaskReadiness(tasks.keySet());
         this.timeTracker = new ElapsedTimeTracker(totalPending);
         this.link = link;
         this.playerId = playerId;
@@ -117,6 +124,7 @@ interface CraftingDifferenceListener {
                 this.tasks.put(details, tp);
             }
         }
+        this.readiness = new TaskReadiness(tasks.keySet());
     }
 
     CompoundTag writeToNBT(HolderLookup.Provider registries) {
@@ -0,0 +1,124 @@
+package appeng.crafting.execution;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import appeng.api.crafting.IPatternDetails;
+import appeng.api.stacks.AEKey;
+
+/**
+ * Tracks which tasks of an executing job are worth attempting. Attempting a task extracts its inputs from the CPU
+ * inventory, which is wasted work if an input is missing or if none of its providers accepts the pattern. Such tasks
+ * are parked until an input they can use arrives in the CPU, or until one of their providers reports that it is ready
+ * again.
+ * <p/>
+ * Not every provider reports this, and some only become ready once their machine is done, so tasks waiting for
+ * providers are also woken whenever the CPU receives crafting results, and periodically.
+ */
+final class TaskReadiness {
+    /**
+     * The maximum number of ticks tasks wait for their providers before they are attempted again anyway.
+     */
+    static final int PROVIDER_RETRY_TICKS = 20;
+
+    private final SequencedSet<IPatternDetails> ready = new LinkedHashSet<>();
+    private final Set<IPatternDetails> waitingForProviders = new HashSet<>();
+    private final Set<IPatternDetails> waitingForInputs = new HashSet<>();
+    /**
+     * Tasks waiting for inputs, by the {@linkplain AEKey#getPrimaryKey() primary key} of the inputs they wait for. Tasks
+     * that were woken by another key may still be listed here, and are skipped when their key arrives.
+     */
+    private final Map<Object, Set<IPatternDetails>> inputWaiters = new HashMap<>();
+    private int ticksUntilProviderRetry = PROVIDER_RETRY_TICKS;
+    private boolean resultReceived;
+
+    TaskReadiness(Collection<IPatternDetails> tasks) {
+        ready.addAll(tasks);
+    }
+
+    int getReadyCount() {
+        return ready.size();
+    }
+
+    int getParkedCount() {
+        return waitingForProviders.size() + waitingForInputs.size();
+    }
+
+    @Nullable
+    IPatternDetails pollReady() {
+        return ready.pollFirst();
+    }
+
+    /**
+     * Puts a task that is still ready back at the front, so that it is attempted first next time.
+     */
+    void requeue(IPatternDetails task) {
+        ready.addFirst(task);
+    }
+
+    /**
+     * Puts a task that is still ready back at the end, so that the other ready tasks are attempted before it.
+     */
+    void requeueLast(IPatternDetails task) {
+        ready.addLast(task);
+    }
+
+    void waitForProviders(IPatternDetails task) {
+        waitingForProviders.add(task);
+    }
+
+    /**
+     * @param inputKeys The primary keys of the inputs that are missing.
+     */
+    void waitForInputs(IPatternDetails task, Collection<Object> inputKeys) {
+        waitingForInputs.add(task);
+        for (var key : inputKeys) {
+            inputWaiters.computeIfAbsent(key, k -> new HashSet<>()).add(task);
+        }
+    }
+
+    void onInputAvailable(AEKey what) {
+        var waiters = inputWaiters.remove(what.getPrimaryKey());
+        if (waiters != null) {
+            for (var task : waiters) {
+                if (waitingForInputs.remove(task)) {
+                    ready.add(task);
+                }
+            }
+        }
+    }
+
+    void onProvidersReady(Collection<IPatternDetails> patterns) {
+        if (waitingForProviders.isEmpty()) {
+            return;
+        }
+        for (var pattern : patterns) {
+            if (waitingForProviders.remove(pattern)) {
+                ready.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * Wakes all tasks waiting for providers on the next tick.
+     */
+    void onResultReceived() {
+        resultReceived = true;
+    }
+
+    void tick() {
+        if (resultReceived || --ticksUntilProviderRetry <= 0) {
+            ready.addAll(waitingForProviders);
+            waitingForProviders.clear();
+            ticksUntilProviderRetry = PROVIDER_RETRY_TICKS;
+            resultReceived = false;
+        }
+    }
+}
@@ -19,11 +19,16 @@
 package appeng.crafting.inv;
 
 import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
 
 import com.google.common.collect.Iterables;
 
 import org.jetbrains.annotations.Nullable;
 
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+
 import appeng.api.config.Actionable;
 import appeng.api.config.FuzzyMode;
 import appeng.api.networking.security.IActionSource;
@@ -33,36 +38,116 @@
 import appeng.core.AEConfig;
 
 /**
- * Currently, extracts the whole network contents when the job starts. Lazily extracting is unfortunately not possible
- * as long as the crafting simulation operates from a separate thread: any world access from this thread will deadlock
- * the server.
+ * Reads the network contents from a {@linkplain IStorageService#getCachedInventorySnapshot() snapshot} of the cached
+ * network inventory, which is not copied when the job starts.
+ * <p/>
+ * If simulated extraction is enabled, the amount that can actually be extracted is only queried for the keys the
+ * calculation looks at. Any world access from the calculation thread would deadlock the server, so these queries are
+ * handed to the server thread. Calculations that cannot wait for the server thread extract the whole network contents
+ * when the job starts instead.
  */
 public class NetworkCraftingSimulationState extends CraftingSimulationState {
-    private final KeyCounter list = new KeyCounter();
+    private final KeyCounter list;
+    /**
+     * Runs a simulated extraction on the server thread, or null if the amounts in {@link #list} are final.
+     */
+    @Nullable
+    private final ToLongFunction<LongSupplier> serverThread;
+    @Nullable
+    private final IStorageService storage;
+    @Nullable
+    private final IActionSource src;
+    /**
+     * The snapshot of the network inventory this state still reads, and has to release.
+     */
+    @Nullable
+    private KeyCounter snapshot;
+    private final Object2LongMap<AEKey> extractable = new Object2LongOpenHashMap<>();
 
     public NetworkCraftingSimulationState(IStorageService storage, @Nullable IActionSource src) {
+        this(storage, src, null);
+    }
+
+    /**
+     * Must be called on the server thread.
+     *
+     * @param serverThread If not null, simulated extractions are only run when a key is first needed, by passing them
+     *                     to this function, which runs them on the server thread.
+     */
+    public NetworkCraftingSimulationState(IStorageService storage, @Nullable IActionSource src,
+            @Nullable ToLongFunction<LongSupplier> serverThread) {
         // Take care of the edge case where ICraftingSimulationRequester#getActionSource() returns null.
         if (src == null) {
+            this.list = new KeyCounter();
+            this.serverThread = null;
+            this.storage = null;
+            this.src = null;
             return;
         }
 
-        for (var stack : storage.getCachedInventory()) {
-            long networkAmount = AEConfig.instance().isCraftingSimulatedExtraction()
-                    ? storage.getInventory().extract(stack.getKey(), stack.getLongValue(), Actionable.SIMULATE, src)
-                    : stack.getLongValue();
-            if (networkAmount > 0) {
-                this.list.add(stack.getKey(), networkAmount);
+        var snapshot = storage.getCachedInventorySnapshot();
+        if (!AEConfig.instance().isCraftingSimulatedExtraction()) {
+            this.list = snapshot;
+            this.snapshot = snapshot;
+            this.serverThread = null;
+        } else if (serverThread != null) {
+            this.list = snapshot;
+            this.snapshot = snapshot;
+            this.serverThread = serverThread;
+        } else {
+            this.list = new KeyCounter();
+            this.serverThread = null;
+            for (var stack : snapshot) {
+                long networkAmount = storage.getInventory().extract(stack.getKey(), stack.getLongValue(),
+                        Actionable.SIMULATE, src);
+                if (networkAmount > 0) {
+                    this.list.add(stack.getKey(), networkAmount);
+                }
             }
+            storage.releaseCachedInventorySnapshot(snapshot);
+        }
+        this.storage = storage;
+        this.src = src;
+    }
+
+    /**
+     * Releases the snapshot of the network inventory once the calculation is done with it. Can be called from any
+     * thread.
+     */
+    public void releaseSnapshot() {
+        if (snapshot != null) {
+            storage.releaseCachedInventorySnapshot(snapshot);
+            snapshot = null;
         }
     }
 
     @Override
     protected long simulateExtractParent(AEKey what, long amount) {
-        return Math.min(list.get(what), amount);
+        var stored = list.get(what);
+        if (stored <= 0) {
+            return 0;
+        }
+        return Math.min(getExtractable(what, stored), amount);
+    }
+
+    private long getExtractable(AEKey what, long stored) {
+        if (serverThread == null) {
+            return stored;
+        }
+
+        if (extractable.containsKey(what)) {
+            return extractable.getLong(what);
+        }
+        var inventory = storage.getInventory();
+        var amount = serverThread.applyAsLong(() -> inventory.extract(what, stored, Actionable.SIMULATE, src));
+        extractable.put(what, amount);
+        return amount;
     }
 
     @Override
     protected Iterable<AEKey> findFuzzyParent(AEKey input) {
-        return Iterables.transform(list.findFuzzy(input, FuzzyMode.IGNORE_ALL), Map.Entry::getKey);
+        return Iterables.transform(
+                Iterables.filter(list.findFuzzy(input, FuzzyMode.IGNORE_ALL), entry -> entry.getLongValue() > 0),
+                Map.Entry::getKey);
     }
 }
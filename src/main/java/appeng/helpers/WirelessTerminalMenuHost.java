@@ -54,9 +54,10 @@
 import appeng.me.storage.NullInventory;
 import appeng.menu.ISubMenu;
 import appeng.menu.locator.ItemMenuHostLocator;
+import appeng.menu.me.common.IGridInventoryHost;
 
 public class WirelessTerminalMenuHost<T extends WirelessTerminalItem> extends ItemMenuHost<T>
-        implements IPortableTerminal, IActionHost, KeyTypeSelectionHost {
+        implements IPortableTerminal, IActionHost, KeyTypeSelectionHost, IGridInventoryHost {
 
     private final BiConsumer<Player, ISubMenu> returnToMainMenu;
     @Nullable
@@ -69,6 +70,7 @@
      * How far away are we from losing signal.
      */
     protected double currentRemainingRange = Double.MIN_VALUE;
+    private final StackDependentSupplier<@Nullable IGrid> linkedGrid;
     private final MEStorage storage;
     private ILinkStatus linkStatus = ILinkStatus.ofDisconnected();
 
@@ -77,8 +79,8 @@ public WirelessTerminalMenuHost(T item, Player player, ItemMenuHostLocator locat
         super(item, player, locator);
         this.returnToMainMenu = returnToMainMenu;
 
-        this.storage = new SupplierStorage(new StackDependentSupplier<>(
-                this::getItemStack, this::getStorageFromStack));
+        this.linkedGrid = new StackDependentSupplier<>(this::getItemStack, this::getLinkedGrid);
+        this.storage = new SupplierStorage(this::getStorageFromLinkedGrid);
 
         updateConnectedAccessPoint();
         updateLinkStatus();
@@ -89,15 +91,20 @@ public ILinkStatus getLinkStatus() {
         return linkStatus;
     }
 
-    @Nullable
-    private MEStorage getStorageFromStack(ItemStack stack) {
-        var targetGrid = getLinkedGrid(stack);
+    private MEStorage getStorageFromLinkedGrid() {
+        var targetGrid = linkedGrid.get();
         if (targetGrid != null) {
             return targetGrid.getStorageService().getInventory();
         }
         return NullInventory.of();
     }
 
+    @Nullable
+    @Override
+    public IGrid getInventoryGrid() {
+        return linkedGrid.get();
+    }
+
     @Nullable
     private IGrid getLinkedGrid(ItemStack stack) {
         return getItem().getLinkedGrid(stack, getPlayer().level(), null);
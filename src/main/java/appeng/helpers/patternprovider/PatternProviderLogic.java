@@ -20,11 +20,13 @@
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,6 +75,7 @@
 import appeng.core.localization.GuiText;
 import appeng.core.localization.PlayerMessages;
 import appeng.core.settings.TickRates;
+import appeng.crafting.execution.CraftingCpuHelper;
 import appeng.helpers.InterfaceLogicHost;
 import appeng.me.helpers.MachineSource;
 import appeng.util.inv.AppEngInternalInventory;
@@ -92,6 +95,10 @@ public class PatternProviderLogic implements InternalInventoryHost, ICraftingPro
     public static final String NBT_SEND_LIST = "sendList";
     public static final String NBT_SEND_DIRECTION = "sendDirection";
     public static final String NBT_RETURN_INV = "returnInv";
+    /**
+     * How many patterns can be pushed to external inventories at once.
+     */
+    private static final int MAX_PUSH_MULTIPLIER = 64;
 
     private final PatternProviderLogicHost host;
     private final IManagedGridNode mainNode;
@@ -299,15 +306,30 @@ private <T> void rearrangeRoundRobin(List<T> list) {
 
     @Override
     public boolean pushPattern(IPatternDetails patternDetails, KeyCounter[] inputHolder) {
+        return pushPatterns(patternDetails, inputHolder, 1) > 0;
+    }
+
+    @Override
+    public int getMaxPushMultiplier(IPatternDetails patternDetails) {
+        // Blocking mode and crafting locks only let one pattern through at a time
+        if (!patternDetails.supportsPushInputsToExternalInventory() || isBlocking()
+                || configManager.getSetting(Settings.LOCK_CRAFTING_MODE) != LockCraftingMode.NONE) {
+            return 1;
+        }
+        return MAX_PUSH_MULTIPLIER;
+    }
+
+    @Override
+    public int pushPatterns(IPatternDetails patternDetails, KeyCounter[] inputHolder, int multiplier) {
         if (!sendList.isEmpty() || !this.mainNode.isActive() || !this.patterns.contains(patternDetails)) {
-            return false;
+            return 0;
         }
 
         var be = host.getBlockEntity();
         var level = be.getLevel();
 
         if (getCraftingLockedReason() != LockCraftingMode.NONE) {
-            return false;
+            return 0;
         }
 
         record PushTarget(Direction direction, PatternProviderTarget target) {
@@ -321,9 +343,17 @@ record PushTarget(Direction direction, PatternProviderTarget target) {
 
             var craftingMachine = ICraftingMachine.of(level, adjPos, adjBeSide);
             if (craftingMachine != null && craftingMachine.acceptsPlans()) {
-                if (craftingMachine.pushPattern(patternDetails, inputHolder, adjBeSide)) {
+                // Crafting machines only accept one pattern at a time
+                var machineInputs = multiplier == 1 ? inputHolder
+                        : CraftingCpuHelper.takePatternInputs(inputHolder, multiplier, 1);
+                if (craftingMachine.pushPattern(patternDetails, machineInputs, adjBeSide)) {
                     onPushPatternSuccess(patternDetails);
-                    return true;
+                    return 1;
+                }
+                if (machineInputs != inputHolder) {
+                    for (int x = 0; x < inputHolder.length; x++) {
+                        inputHolder[x].addAll(machineInputs[x]);
+                    }
                 }
                 continue;
             }
@@ -338,7 +368,7 @@ record PushTarget(Direction direction, PatternProviderTarget target) {
         // If no dedicated crafting machine could be found, and the pattern does not support
         // generic external inventories, stop here.
         if (!patternDetails.supportsPushInputsToExternalInventory()) {
-            return false;
+            return 0;
         }
 
         // Rearrange for round-robin
@@ -353,22 +383,22 @@ record PushTarget(Direction direction, PatternProviderTarget target) {
                 continue;
             }
 
-            if (this.adapterAcceptsAll(adapter, inputHolder)) {
-                patternDetails.pushInputsToExternalInventory(inputHolder, (what, amount) -> {
-                    var inserted = adapter.insert(what, amount, Actionable.MODULATE);
-                    if (inserted < amount) {
-                        this.addToSendList(what, amount - inserted);
-                    }
-                });
+            var accepted = multiplier == 1
+                    ? (adapterAcceptsAll(adapter, inputHolder) ? 1 : 0)
+                    : getAcceptedPatterns(adapter, inputHolder, multiplier);
+            if (accepted > 0) {
+                var pushedInputs = accepted == multiplier ? inputHolder
+                        : CraftingCpuHelper.takePatternInputs(inputHolder, multiplier, accepted);
+                this.pushInputs(patternDetails, adapter, pushedInputs, accepted);
                 onPushPatternSuccess(patternDetails);
                 this.sendDirection = direction;
                 this.sendStacksOut();
                 ++roundRobinIndex;
-                return true;
+                return accepted;
             }
         }
 
-        return false;
+        return 0;
     }
 
     public void resetCraftingLock() {
@@ -376,6 +406,7 @@ public void resetCraftingLock() {
             unlockEvent = null;
             unlockStack = null;
             saveChanges();
+            ICraftingProvider.notifyReady(mainNode);
         }
     }
 
@@ -467,7 +498,7 @@ private PatternProviderTarget findAdapter(Direction side) {
         return targetCaches[side.get3DDataValue()].find();
     }
 
-    private boolean adapterAcceptsAll(PatternProviderTarget target, KeyCounter[] inputHolder) {
+    private static boolean adapterAcceptsAll(PatternProviderTarget target, KeyCounter[] inputHolder) {
         for (var inputList : inputHolder) {
             for (var input : inputList) {
                 var inserted = target.insert(input.getKey(), input.getLongValue(), Actionable.SIMULATE);
@@ -479,6 +510,60 @@ private boolean adapterAcceptsAll(PatternProviderTarget target, KeyCounter[] inp
         return true;
     }
 
+    /**
+     * Simulates how many patterns the target could accept completely. If not even one pattern fits completely, the
+     * pattern is accepted once if every input fits partially, like a single pattern would be. The remainder is sent
+     * later.
+     */
+    @VisibleForTesting
+    static int getAcceptedPatterns(PatternProviderTarget target, KeyCounter[] inputHolder, int multiplier) {
+        // A key can be used by several inputs of the pattern, and the target has to accept all of it at once
+        var totalInputs = new KeyCounter();
+        for (var inputList : inputHolder) {
+            totalInputs.addAll(inputList);
+        }
+
+        long accepted = multiplier;
+        for (var input : totalInputs) {
+            var perPattern = input.getLongValue() / multiplier;
+            if (perPattern > 0) {
+                var inserted = target.insert(input.getKey(), input.getLongValue(), Actionable.SIMULATE);
+                accepted = Math.min(accepted, inserted / perPattern);
+            }
+        }
+
+        if (accepted == 0) {
+            return adapterAcceptsAll(target, inputHolder) ? 1 : 0;
+        }
+        return (int) accepted;
+    }
+
+    private void pushInputs(IPatternDetails patternDetails, PatternProviderTarget target, KeyCounter[] inputHolder,
+            int patterns) {
+        IPatternDetails.PatternInputSink sink = (what, amount) -> {
+            var inserted = target.insert(what, amount, Actionable.MODULATE);
+            if (inserted < amount) {
+                this.addToSendList(what, amount - inserted);
+            }
+        };
+
+        if (patterns == 1) {
+            patternDetails.pushInputsToExternalInventory(inputHolder, sink);
+            return;
+        }
+
+        // The pattern orders the inputs of each pattern, but every key is only inserted once for all of them
+        var inputs = new LinkedHashMap<AEKey, Long>();
+        for (int i = patterns; i > 0; i--) {
+            var singleInputs = i == 1 ? inputHolder : CraftingCpuHelper.takePatternInputs(inputHolder, i, 1);
+            patternDetails.pushInputsToExternalInventory(singleInputs,
+                    (what, amount) -> inputs.merge(what, amount, Long::sum));
+        }
+        for (var input : inputs.entrySet()) {
+            sink.pushInput(input.getKey(), input.getValue());
+        }
+    }
+
     private void addToSendList(AEKey what, long amount) {
         if (amount > 0) {
             this.sendList.add(new GenericStack(what, amount));
@@ -519,6 +604,9 @@ private boolean sendStacksOut() {
 
         if (sendList.isEmpty()) {
             sendDirection = null;
+            if (didSomething) {
+                ICraftingProvider.notifyReady(mainNode);
+            }
         }
 
         return didSomething;
@@ -679,6 +767,7 @@ private void onStackReturnedToNetwork(GenericStack genericStack) {
             if (remainingAmount <= 0) {
                 unlockEvent = null;
                 unlockStack = null;
+                ICraftingProvider.notifyReady(mainNode);
             } else {
                 unlockStack = new GenericStack(unlockStack.what(), remainingAmount);
             }
@@ -775,6 +864,8 @@ public void updateRedstoneState() {
             // Otherwise, just reset back to undecided
             redstoneState = YesNo.UNDECIDED;
         }
+        // The signal may have released a redstone crafting lock
+        ICraftingProvider.notifyReady(mainNode);
     }
 
     private void configChanged(IConfigManager manager, Setting<?> setting) {
@@ -0,0 +1,81 @@
+package appeng.hooks.ticking;
+
+/**
+ * Limits the time the tick managers of all grids together, and of each grid on its own, may spend ticking their
+ * devices within one server tick. Devices that are still due once a budget is used up are deferred to the next tick.
+ * <p/>
+ * Since grids are ticked in a rotating order (see {@link ServerGridRepo#getNetworksInTickOrder()}), the grid that is
+ * ticked first, and thus is least likely to run out of the overall budget, changes every tick.
+ */
+public class GridTickBudget {
+    /**
+     * Time per grid and tick in nanoseconds, or 0 if unlimited.
+     */
+    private long gridBudget;
+    /**
+     * Time for all grids per tick in nanoseconds, or 0 if unlimited.
+     */
+    private long globalBudget;
+    private long globalSpent;
+    private int gridsDeferredThisTick;
+    private int gridsDeferredLastTick;
+
+    /**
+     * Resets the time spent by all grids at the start of a server tick.
+     */
+    public void startTick(long gridBudget, long globalBudget) {
+        this.gridBudget = Math.max(0, gridBudget);
+        this.globalBudget = Math.max(0, globalBudget);
+        this.globalSpent = 0;
+        this.gridsDeferredLastTick = gridsDeferredThisTick;
+        this.gridsDeferredThisTick = 0;
+    }
+
+    public boolean isLimited() {
+        return gridBudget > 0 || globalBudget > 0;
+    }
+
+    /**
+     * @param gridSpent The time the grid already spent in this tick, in nanoseconds.
+     * @return The time in nanoseconds the grid may still spend in this tick.
+     */
+    public long getRemaining(long gridSpent) {
+        var remaining = Long.MAX_VALUE;
+        if (gridBudget > 0) {
+            remaining = gridBudget - gridSpent;
+        }
+        if (globalBudget > 0) {
+            remaining = Math.min(remaining, globalBudget - globalSpent);
+        }
+        return Math.max(0, remaining);
+    }
+
+    /**
+     * Records time spent ticking a grid against the overall budget.
+     */
+    public void consume(long nanos) {
+        globalSpent += nanos;
+    }
+
+    /**
+     * Records that a grid ran out of time and deferred some of its devices.
+     */
+    public void gridDeferred() {
+        gridsDeferredThisTick++;
+    }
+
+    public long getGridBudget() {
+        return gridBudget;
+    }
+
+    public long getGlobalBudget() {
+        return globalBudget;
+    }
+
+    /**
+     * @return The number of times grids ran out of time in the last completed server tick.
+     */
+    public int getGridsDeferredLastTick() {
+        return gridsDeferredLastTick;
+    }
+}
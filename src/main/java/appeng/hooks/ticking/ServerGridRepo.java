@@ -22,6 +22,9 @@
 import java.util.Objects;
 import java.util.Set;
 
+import com.google.common.collect.Iterables;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
 
@@ -34,6 +37,11 @@ class ServerGridRepo {
     private final ObjectSet<Grid> networks = new ObjectOpenHashSet<>();
     private final ObjectSet<Grid> toAdd = new ObjectOpenHashSet<>();
     private final ObjectSet<Grid> toRemove = new ObjectOpenHashSet<>();
+    /**
+     * The networks in the order they were added, to rotate through them when ticking.
+     */
+    private final ObjectArrayList<Grid> tickOrder = new ObjectArrayList<>();
+    private int tickOffset;
 
     /**
      * Resets all internal data
@@ -42,6 +50,8 @@ void clear() {
         this.networks.clear();
         this.toAdd.clear();
         this.toRemove.clear();
+        this.tickOrder.clear();
+        this.tickOffset = 0;
     }
 
     /**
@@ -78,13 +88,41 @@ synchronized void removeNetwork(Grid g) {
      * First all removals are handled, then the ones queued to be added.
      */
     synchronized void updateNetworks() {
-        this.networks.removeAll(this.toRemove);
-        this.toRemove.clear();
+        if (!this.toRemove.isEmpty()) {
+            this.networks.removeAll(this.toRemove);
+            this.tickOrder.removeIf(this.toRemove::contains);
+            this.toRemove.clear();
+        }
 
-        this.networks.addAll(this.toAdd);
+        for (var grid : this.toAdd) {
+            if (this.networks.add(grid)) {
+                this.tickOrder.add(grid);
+            }
+        }
         this.toAdd.clear();
     }
 
+    /**
+     * Moves the start of {@link #getNetworksInTickOrder()} on to the next network.
+     */
+    void rotateTickOrder() {
+        if (this.tickOrder.isEmpty()) {
+            this.tickOffset = 0;
+        } else {
+            this.tickOffset = (this.tickOffset + 1) % this.tickOrder.size();
+        }
+    }
+
+    /**
+     * Get all registered {@link Grid}s, starting with a different one every time {@link #rotateTickOrder()} is called,
+     * so that no network is always the last to be ticked.
+     */
+    Iterable<Grid> getNetworksInTickOrder() {
+        var offset = Math.min(this.tickOffset, this.tickOrder.size());
+        return Iterables.concat(this.tickOrder.subList(offset, this.tickOrder.size()),
+                this.tickOrder.subList(0, offset));
+    }
+
     /**
      * Get all registered {@link Grid}s
      */
@@ -51,6 +51,7 @@
 import net.neoforged.neoforge.event.tick.LevelTickEvent;
 import net.neoforged.neoforge.event.tick.ServerTickEvent;
 
+import appeng.api.networking.GridHelper;
 import appeng.blockentity.AEBaseBlockEntity;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
@@ -73,6 +74,7 @@ public class TickHandler {
     private final Map<LevelAccessor, Queue<ILevelRunnable>> callQueue = new HashMap<>();
     private final ServerBlockEntityRepo blockEntities = new ServerBlockEntityRepo();
     private final ServerGridRepo grids = new ServerGridRepo();
+    private final GridTickBudget gridTickBudget = new GridTickBudget();
 
     /**
      * A stop watch to limit processing the additional queues to honor
@@ -260,10 +262,11 @@ private void onServerLevelTickEnd(LevelTickEvent.Post event) {
             return;
         }
         this.simulateCraftingJobs(level);
-        this.readyBlockEntities(level);
+        // Cables placed or loaded together connect to each other as they're readied, so merge their grids only once
+        GridHelper.batchTopologyChanges(() -> this.readyBlockEntities(level));
 
         // tick networks
-        for (var g : this.grids.getNetworks()) {
+        for (var g : this.grids.getNetworksInTickOrder()) {
             try {
                 g.onLevelEndTick(level);
             } catch (Throwable t) {
@@ -281,6 +284,10 @@ private void onServerTickStart(ServerTickEvent.Pre event) {
         this.processQueueElementsRemaining = 0;
         this.stopWatch.reset();
 
+        this.gridTickBudget.startTick(AEConfig.instance().getGridTickBudgetNanos(),
+                AEConfig.instance().getGlobalGridTickBudgetNanos());
+        this.grids.rotateTickOrder();
+
         // tick networks
         for (var g : this.grids.getNetworks()) {
             try {
@@ -295,7 +302,7 @@ private void onServerTickStart(ServerTickEvent.Pre event) {
 
     private void onServerTickEnd(ServerTickEvent.Post event) {
         // tick networks
-        for (var g : this.grids.getNetworks()) {
+        for (var g : this.grids.getNetworksInTickOrder()) {
             try {
                 g.onServerEndTick();
             } catch (Throwable t) {
@@ -437,6 +444,13 @@ public long getCurrentTick() {
         return tickCounter;
     }
 
+    /**
+     * The time the tick managers of all grids may spend in the current server tick.
+     */
+    public GridTickBudget getGridTickBudget() {
+        return gridTickBudget;
+    }
+
     public List<Component> getBlockEntityReport() {
         return blockEntities.getReport();
     }
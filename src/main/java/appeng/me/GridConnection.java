@@ -33,6 +33,7 @@
 import appeng.api.networking.IGridNodeListener;
 import appeng.api.networking.pathing.ChannelMode;
 import appeng.me.pathfinding.IPathItem;
+import appeng.me.service.PathingService;
 
 public class GridConnection implements IGridConnection, IPathItem {
 
@@ -82,14 +83,21 @@ public Direction getDirection(IGridNode side) {
     @Override
     public void destroy() {
         // a connection was destroyed RE-PATH!! (this is not done immediately)
-        var p = this.sideA.getInternalGrid().getPathingService();
-        p.repath();
+        var batch = GridTopologyBatch.current();
+        if (batch != null) {
+            this.sideA.removeConnection(this);
+            this.sideB.removeConnection(this);
+            batch.connectionRemoved(this);
+            return;
+        }
+
+        var p = (PathingService) this.sideA.getInternalGrid().getPathingService();
+        p.connectionRemoved(this);
 
         this.sideA.removeConnection(this);
         this.sideB.removeConnection(this);
 
-        this.sideA.validateGrid();
-        this.sideB.validateGrid();
+        GridNode.validateGrid(this.sideA, this.sideB);
     }
 
     @Override
@@ -212,11 +220,20 @@ public static GridConnection create(IGridNode aNode, IGridNode bNode,
         // Create the actual connection
         var connection = new GridConnection(a, b, fromAtoB);
 
+        var batch = GridTopologyBatch.current();
+        if (batch != null) {
+            // The grids are merged once the batch ends
+            connection.sideA.addConnection(connection);
+            connection.sideB.addConnection(connection);
+            batch.connectionAdded(connection);
+            return connection;
+        }
+
         mergeGrids(a, b);
 
-        // a connection was destroyed RE-PATH!!
-        var p = connection.sideA.getInternalGrid().getPathingService();
-        p.repath();
+        // a connection was created RE-PATH!!
+        var p = (PathingService) connection.sideA.getInternalGrid().getPathingService();
+        p.connectionAdded(connection);
 
         connection.sideA.addConnection(connection);
         connection.sideB.addConnection(connection);
@@ -260,7 +277,7 @@ private static void mergeGrids(GridNode a, GridNode b) {
         }
     }
 
-    private static boolean isGridABetterThanGridB(Grid gridA, Grid gridB) {
+    static boolean isGridABetterThanGridB(Grid gridA, Grid gridB) {
         if (gridA.getPriority() != gridB.getPriority()) {
             return gridA.getPriority() > gridB.getPriority();
         }
@@ -66,6 +66,7 @@
 import appeng.api.util.AEColor;
 import appeng.core.AELog;
 import appeng.me.pathfinding.IPathItem;
+import appeng.me.service.PathingService;
 import appeng.util.IDebugExportable;
 import appeng.util.JsonStreamUtil;
 
@@ -171,18 +172,44 @@ boolean hasConnection(IGridNode otherSide) {
         return false;
     }
 
+    /**
+     * Moves this node and all nodes connected to it into a new grid if it is no longer connected to the pivot of its
+     * grid.
+     */
     void validateGrid() {
         if (!ready) {
             // We're in the process of being destroyed
             return;
         }
 
-        var gsd = new GridSplitDetector(this.getInternalGrid().getPivot());
-        this.beginVisit(gsd);
-        if (!gsd.isPivotFound()) {
-            var gp = new GridPropagator(Grid.create(this));
-            this.beginVisit(gp);
+        var pivot = (GridNode) this.getInternalGrid().getPivot();
+        GridSplitDetector.splitIfDisconnected(this, pivot);
+    }
+
+    /**
+     * Splits the grid of two nodes that were connected by a connection that has since been removed, if they're no
+     * longer connected via other nodes.
+     */
+    static void validateGrid(GridNode a, GridNode b) {
+        if (!a.ready || !b.ready || a.myGrid == null || a.myGrid != b.myGrid) {
+            a.validateGrid();
+            b.validateGrid();
+            return;
         }
+
+        GridSplitDetector.splitIfDisconnected(a, b);
+    }
+
+    boolean isReady() {
+        return this.ready;
+    }
+
+    Object getVisitorIterationNumber() {
+        return this.visitorIterationNumber;
+    }
+
+    void setVisitorIterationNumber(Object visitorIterationNumber) {
+        this.visitorIterationNumber = visitorIterationNumber;
     }
 
     public Grid getInternalGrid() {
@@ -198,6 +225,8 @@ public void beginVisit(IGridVisitor g) {
         final Object tracker = new Object();
 
         Deque<GridNode> nextRun = new ArrayDeque<>();
+        // Swapped with nextRun for every layer of the search
+        Deque<GridNode> thisRun = new ArrayDeque<>();
         nextRun.add(this);
 
         this.visitorIterationNumber = tracker;
@@ -210,19 +239,23 @@ public void beginVisit(IGridVisitor g) {
                     gcv.visitConnection(nextConn.poll());
                 }
 
-                final Iterable<GridNode> thisRun = nextRun;
-                nextRun = new ArrayDeque<>();
+                var swap = thisRun;
+                thisRun = nextRun;
+                nextRun = swap;
 
-                for (GridNode n : thisRun) {
+                GridNode n;
+                while ((n = thisRun.poll()) != null) {
                     n.visitorConnection(tracker, g, nextRun, nextConn);
                 }
             }
         } else {
             while (!nextRun.isEmpty()) {
-                var thisRun = nextRun;
-                nextRun = new ArrayDeque<>();
+                var swap = thisRun;
+                thisRun = nextRun;
+                nextRun = swap;
 
-                for (var n : thisRun) {
+                GridNode n;
+                while ((n = thisRun.poll()) != null) {
                     n.visitorNode(tracker, g, nextRun);
                 }
             }
@@ -232,7 +265,14 @@ public void beginVisit(IGridVisitor g) {
     protected final void updateState() {
         if (ready) {
             this.findInWorldConnections();
-            this.getInternalGrid();
+
+            var batch = GridTopologyBatch.current();
+            if (batch != null && this.myGrid == null && !this.connections.isEmpty()) {
+                // The node joins the grid of its connections once the batch ends, instead of creating its own first
+                batch.nodeReadied(this);
+            } else {
+                this.getInternalGrid();
+            }
         }
     }
 
@@ -282,6 +322,10 @@ public void setGridColor(AEColor color) {
     @Override
     public IGrid getGrid() {
         if (this.myGrid == null) {
+            if (this.ready) {
+                // Readied during a batch of topology changes, which would only have assigned its grid at the end
+                return getInternalGrid();
+            }
             throw new IllegalStateException("A node is being used after it has been destroyed.");
         }
         return this.myGrid;
@@ -346,12 +390,20 @@ public void destroy() {
                 movedPivot = true;
             }
 
+            var batch = GridTopologyBatch.current();
+            if (batch != null) {
+                // The grid is split once the batch ends
+                batch.connectionRemoved(connection);
+                continue;
+            }
+
             // Re-validating the grid will cause the actual grid split to occur if the previously adjacent nodes
             // were only connected by this node.
             otherSide.validateGrid();
 
             // Cause a repath later. This is not done immediately.
-            otherSide.getInternalGrid().getPathingService().repath();
+            var pathingService = (PathingService) otherSide.getInternalGrid().getPathingService();
+            pathingService.connectionRemoved(connection);
         }
 
         connections.clear();
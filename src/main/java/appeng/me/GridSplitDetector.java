@@ -18,32 +18,164 @@
 
 package appeng.me;
 
-import appeng.api.networking.IGridNode;
-import appeng.api.networking.IGridVisitor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
-class GridSplitDetector implements IGridVisitor {
+/**
+ * Checks whether two nodes of a grid are still connected after a connection between them was removed, and moves the
+ * nodes connected to one of them into a new grid if they are not.
+ * <p/>
+ * The nodes are searched breadth-first from both nodes at the same time, always continuing on the side that has seen
+ * fewer nodes. The search stops as soon as both sides meet, or once one side runs out of nodes, in which case that
+ * side is a component of its own. The search is therefore bounded by the size of the smaller component, and only the
+ * smaller component is moved to a new grid.
+ */
+final class GridSplitDetector {
+    /**
+     * Up to this many nodes of a grid are each checked using a separate bounded search by
+     * {@link #splitIfDisconnected(Grid, Collection)}.
+     */
+    private static final int MAX_SEPARATE_SEARCHES = 4;
+
+    private GridSplitDetector() {
+    }
 
-    private final IGridNode pivot;
-    private boolean pivotFound;
+    /**
+     * Moves all nodes that are no longer connected to the pivot of the given grid into new grids. Only the given nodes
+     * and the nodes connected to them are considered to be disconnected.
+     */
+    static void splitIfDisconnected(Grid grid, Collection<GridNode> nodes) {
+        if (nodes.size() <= MAX_SEPARATE_SEARCHES) {
+            for (var node : nodes) {
+                if (node.getMyGrid() == grid) {
+                    node.validateGrid();
+                }
+            }
+            return;
+        }
 
-    public GridSplitDetector(IGridNode pivot) {
-        this.pivot = pivot;
+        // With many changed nodes, a single search of the entire grid is cheaper
+        if (!(grid.getPivot() instanceof GridNode pivot)) {
+            return;
+        }
+        var marker = new Object();
+        collectComponent(pivot, marker);
+        for (var node : nodes) {
+            if (node.getMyGrid() == grid && node.getVisitorIterationNumber() != marker) {
+                var component = collectComponent(node, marker);
+                var newGrid = Grid.create(node);
+                for (var componentNode : component) {
+                    componentNode.setGrid(newGrid);
+                }
+            }
+        }
     }
 
-    @Override
-    public boolean visitNode(IGridNode n) {
-        if (n == this.pivot) {
-            this.setPivotFound(true);
+    private static List<GridNode> collectComponent(GridNode start, Object marker) {
+        var component = new ArrayList<GridNode>();
+        start.setVisitorIterationNumber(marker);
+        component.add(start);
+        for (int i = 0; i < component.size(); i++) {
+            var node = component.get(i);
+            for (var connection : node.connections) {
+                var neighbor = (GridNode) connection.getOtherSide(node);
+                if (neighbor.getVisitorIterationNumber() != marker) {
+                    neighbor.setVisitorIterationNumber(marker);
+                    component.add(neighbor);
+                }
+            }
         }
+        return component;
+    }
+
+    /**
+     * Splits the grid of the given nodes if they're no longer connected.
+     *
+     * @return True if the grid was split.
+     */
+    static boolean splitIfDisconnected(GridNode a, GridNode b) {
+        if (a == b) {
+            return false;
+        }
+
+        var sideA = new Side(a);
+        var sideB = new Side(b);
+
+        while (true) {
+            if (sideA.isExhausted()) {
+                split(sideA, b);
+                return true;
+            }
+            if (sideB.isExhausted()) {
+                split(sideB, a);
+                return true;
+            }
 
-        return !this.isPivotFound();
+            var met = sideA.visited.size() <= sideB.visited.size()
+                    ? sideA.expandNext(sideB.marker)
+                    : sideB.expandNext(sideA.marker);
+            if (met) {
+                return false;
+            }
+        }
     }
 
-    public boolean isPivotFound() {
-        return this.pivotFound;
+    /**
+     * Moves a complete component into a new grid.
+     *
+     * @param remaining A node that remains in the current grid.
+     */
+    private static void split(Side component, GridNode remaining) {
+        var oldGrid = remaining.getMyGrid();
+        if (oldGrid != null && oldGrid.getPivot() instanceof GridNode pivot
+                && pivot.getVisitorIterationNumber() == component.marker) {
+            // Keep the pivot in the grid that keeps existing
+            oldGrid.setPivot(remaining);
+        }
+
+        var grid = Grid.create(component.visited.get(0));
+        for (var node : component.visited) {
+            node.setGrid(grid);
+        }
     }
 
-    private void setPivotFound(boolean pivotFound) {
-        this.pivotFound = pivotFound;
+    private static class Side {
+        private final Object marker = new Object();
+        /**
+         * All nodes seen so far, in the order they were found. The nodes before {@link #next} have been expanded.
+         */
+        private final List<GridNode> visited = new ArrayList<>();
+        private int next;
+
+        Side(GridNode start) {
+            start.setVisitorIterationNumber(marker);
+            visited.add(start);
+        }
+
+        boolean isExhausted() {
+            return next >= visited.size();
+        }
+
+        /**
+         * Finds the neighbors of the next node on this side.
+         *
+         * @return True if a node of the other side was found.
+         */
+        boolean expandNext(Object otherMarker) {
+            var node = visited.get(next++);
+            for (var connection : node.connections) {
+                var neighbor = (GridNode) connection.getOtherSide(node);
+                var neighborMarker = neighbor.getVisitorIterationNumber();
+                if (neighborMarker == otherMarker) {
+                    return true;
+                }
+                if (neighborMarker != marker) {
+                    neighbor.setVisitorIterationNumber(marker);
+                    visited.add(neighbor);
+                }
+            }
+            return false;
+        }
     }
 }
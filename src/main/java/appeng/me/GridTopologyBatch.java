@@ -0,0 +1,215 @@
+package appeng.me;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+
+import appeng.me.service.PathingService;
+
+/**
+ * Collects the connections that are created and destroyed while a batch of topology changes is running, and only
+ * merges and splits the affected grids once the batch ends. Every node moves to its final grid at most once, instead
+ * of being moved along with every merge, and every grid is searched for splits at most once.
+ * <p/>
+ * Connections are still added to and removed from their nodes immediately, but while the batch runs, connected nodes
+ * may belong to different grids, and nodes that are no longer connected may still share a grid.
+ *
+ * @see appeng.api.networking.GridHelper#batchTopologyChanges(Runnable)
+ */
+public final class GridTopologyBatch {
+    /**
+     * The batch that is currently running on the server thread.
+     */
+    @Nullable
+    private static GridTopologyBatch current;
+
+    private final Set<GridConnection> addedConnections = new ReferenceLinkedOpenHashSet<>();
+    private final Set<GridConnection> removedConnections = new ReferenceLinkedOpenHashSet<>();
+    /**
+     * Nodes that lost a connection, and may have been split from their grid.
+     */
+    private final Set<GridNode> disconnectedNodes = new ReferenceLinkedOpenHashSet<>();
+    /**
+     * Nodes that were readied with connections during the batch, and only receive a grid once it ends.
+     */
+    private final Set<GridNode> readiedNodes = new ReferenceLinkedOpenHashSet<>();
+
+    private GridTopologyBatch() {
+    }
+
+    /**
+     * Runs the given changes as one batch. If a batch is already running, the changes become part of it.
+     */
+    public static void run(Runnable changes) {
+        if (current != null) {
+            changes.run();
+            return;
+        }
+
+        var batch = new GridTopologyBatch();
+        current = batch;
+        try {
+            changes.run();
+        } finally {
+            current = null;
+            batch.apply();
+        }
+    }
+
+    @Nullable
+    static GridTopologyBatch current() {
+        return current;
+    }
+
+    void connectionAdded(GridConnection connection) {
+        addedConnections.add(connection);
+    }
+
+    void connectionRemoved(GridConnection connection) {
+        // A connection that only existed during the batch never merged any grids
+        if (!addedConnections.remove(connection)) {
+            removedConnections.add(connection);
+        }
+        disconnectedNodes.add((GridNode) connection.a());
+        disconnectedNodes.add((GridNode) connection.b());
+    }
+
+    void nodeReadied(GridNode node) {
+        readiedNodes.add(node);
+    }
+
+    private void apply() {
+        mergeGrids();
+        createMissingGrids();
+        splitGrids();
+
+        for (var connection : removedConnections) {
+            var a = (GridNode) connection.a();
+            var grid = a.getMyGrid() != null ? a.getMyGrid() : ((GridNode) connection.b()).getMyGrid();
+            if (grid != null) {
+                var pathingService = (PathingService) grid.getPathingService();
+                pathingService.connectionRemoved(connection);
+            }
+        }
+        for (var connection : addedConnections) {
+            var pathingService = (PathingService) ((GridNode) connection.a()).getInternalGrid().getPathingService();
+            pathingService.connectionAdded(connection);
+        }
+    }
+
+    /**
+     * Moves the nodes of all grids that were connected to each other into the best of these grids.
+     */
+    private void mergeGrids() {
+        // Nodes without a grid stand for themselves
+        var parents = new Reference2ObjectOpenHashMap<Object, Object>();
+        for (var it = addedConnections.iterator(); it.hasNext();) {
+            var connection = it.next();
+            var a = (GridNode) connection.a();
+            var b = (GridNode) connection.b();
+            if (!a.connections.contains(connection)) {
+                // Destroyed along with one of its nodes during the batch
+                it.remove();
+                continue;
+            }
+            union(parents, groupKey(a), groupKey(b));
+        }
+
+        Map<Object, List<Object>> groups = new Reference2ObjectLinkedOpenHashMap<>();
+        for (var key : new ArrayList<>(parents.keySet())) {
+            groups.computeIfAbsent(find(parents, key), k -> new ArrayList<>()).add(key);
+        }
+
+        for (var group : groups.values()) {
+            Grid best = null;
+            for (var key : group) {
+                if (key instanceof Grid grid && (best == null || !GridConnection.isGridABetterThanGridB(best, grid))) {
+                    best = grid;
+                }
+            }
+            if (best == null) {
+                best = Grid.create((GridNode) group.get(0));
+            }
+
+            for (var key : group) {
+                if (key instanceof GridNode node) {
+                    node.setGrid(best);
+                } else if (key != best) {
+                    var grid = (Grid) key;
+                    for (var node : List.copyOf(grid.getNodes())) {
+                        ((GridNode) node).setGrid(best);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives readied nodes that lost all of their connections during the batch a grid of their own.
+     */
+    private void createMissingGrids() {
+        for (var node : readiedNodes) {
+            if (node.isReady() && node.getMyGrid() == null) {
+                node.getInternalGrid();
+            }
+        }
+    }
+
+    private static Object groupKey(GridNode node) {
+        var grid = node.getMyGrid();
+        return grid != null ? grid : node;
+    }
+
+    private static void union(Map<Object, Object> parents, Object a, Object b) {
+        var rootA = find(parents, a);
+        var rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents.put(rootA, rootB);
+        }
+    }
+
+    private static Object find(Map<Object, Object> parents, Object key) {
+        var root = key;
+        while (true) {
+            var parent = parents.get(root);
+            if (parent == null) {
+                parents.put(root, root);
+                break;
+            } else if (parent == root) {
+                break;
+            }
+            root = parent;
+        }
+
+        // Point the entire path directly at the root
+        while (key != root) {
+            key = parents.put(key, root);
+        }
+        return root;
+    }
+
+    /**
+     * Splits all grids that have nodes which lost a connection, if these nodes are no longer connected to the rest of
+     * their grid.
+     */
+    private void splitGrids() {
+        var nodesByGrid = new Reference2ObjectLinkedOpenHashMap<Grid, List<GridNode>>();
+        for (var node : disconnectedNodes) {
+            var grid = node.getMyGrid();
+            if (grid != null && node.isReady()) {
+                nodesByGrid.computeIfAbsent(grid, g -> new ArrayList<>()).add(node);
+            }
+        }
+
+        for (var entry : nodesByGrid.entrySet()) {
+            GridSplitDetector.splitIfDisconnected(entry.getKey(), entry.getValue());
+        }
+    }
+}
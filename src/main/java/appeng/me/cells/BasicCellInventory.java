@@ -22,6 +22,8 @@
 import java.util.List;
 import java.util.Objects;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.item.ItemStack;
 
@@ -45,11 +47,13 @@
 import appeng.api.storage.cells.StorageCell;
 import appeng.api.upgrades.IUpgradeInventory;
 import appeng.core.definitions.AEItems;
+import appeng.me.storage.IChangeReportingStorage;
+import appeng.me.storage.IRoutableStorage;
 import appeng.util.ConfigInventory;
 import appeng.util.prioritylist.FuzzyPriorityList;
 import appeng.util.prioritylist.IPartitionList;
 
-public class BasicCellInventory implements StorageCell {
+public class BasicCellInventory implements StorageCell, IChangeReportingStorage, IRoutableStorage {
     private static final int MAX_ITEM_TYPES = 63;
 
     private final ISaveProvider container;
@@ -65,6 +69,8 @@ public class BasicCellInventory implements StorageCell {
     private final long maxItemsPerType; // max items per type, basically infinite unless there is a distribution card.
     private final boolean hasVoidUpgrade;
     private boolean isPersisted = true;
+    @Nullable
+    private Runnable changeListener;
 
     private BasicCellInventory(IBasicCellItem cellType, ItemStack o, ISaveProvider container) {
         this.i = o;
@@ -225,6 +231,29 @@ protected void saveChanges() {
             // if there is no ISaveProvider, store to NBT immediately
             this.persist();
         }
+
+        if (this.changeListener != null) {
+            this.changeListener.run();
+        }
+    }
+
+    @Override
+    public void setChangeListener(@Nullable Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    @Override
+    public AEKeyType getRoutingKeyType() {
+        return keyType;
+    }
+
+    @Nullable
+    @Override
+    public IPartitionList getRoutingInsertFilter() {
+        if (partitionListMode == IncludeExclude.WHITELIST && !partitionList.isEmpty()) {
+            return partitionList;
+        }
+        return null;
     }
 
     private void loadCellItems() {
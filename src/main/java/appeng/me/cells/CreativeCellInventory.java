@@ -21,6 +21,8 @@
 import java.util.HashSet;
 import java.util.Set;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.item.ItemStack;
 
@@ -31,8 +33,9 @@
 import appeng.api.storage.cells.CellState;
 import appeng.api.storage.cells.StorageCell;
 import appeng.items.contents.CellConfig;
+import appeng.me.storage.IChangeReportingStorage;
 
-class CreativeCellInventory implements StorageCell {
+class CreativeCellInventory implements StorageCell, IChangeReportingStorage {
     private final Set<AEKey> configured;
     private final ItemStack stack;
 
@@ -89,4 +92,9 @@ public Component getDescription() {
     @Override
     public void persist() {
     }
+
+    @Override
+    public void setChangeListener(@Nullable Runnable listener) {
+        // The content of creative cells never changes
+    }
 }
@@ -25,6 +25,10 @@ public class EnergyThreshold implements Comparable<EnergyThreshold> {
     private final double threshold;
     private final IEnergyWatcher watcher;
     private final int watcherHash;
+    /**
+     * Whether the stored power was last reported to the watcher as being at or above this threshold.
+     */
+    private boolean reportedAbove;
 
     public EnergyThreshold(double lim, IEnergyWatcher watcher) {
         this.threshold = lim;
@@ -48,6 +52,29 @@ public IEnergyWatcher getEnergyWatcher() {
         return this.watcher;
     }
 
+    /**
+     * Sets the side of this threshold the watcher currently knows the stored power to be on.
+     */
+    public void initReportedSide(double storedPower) {
+        this.reportedAbove = storedPower >= this.threshold;
+    }
+
+    /**
+     * Checks if the stored power has passed this threshold since it was last reported to the watcher.
+     *
+     * @param hysteresis How far the stored power has to be past the threshold.
+     * @return True if the watcher has to be notified.
+     */
+    public boolean updateReportedSide(double storedPower, double hysteresis) {
+        var passed = this.reportedAbove
+                ? storedPower < this.threshold - hysteresis
+                : storedPower >= this.threshold + hysteresis;
+        if (passed) {
+            this.reportedAbove = !this.reportedAbove;
+        }
+        return passed;
+    }
+
     @Override
     public int compareTo(EnergyThreshold o) {
         int a = Double.compare(this.threshold, o.threshold);
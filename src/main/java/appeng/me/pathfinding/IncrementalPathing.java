@@ -0,0 +1,362 @@
+package appeng.me.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import appeng.api.networking.GridFlags;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.IGridNodeListener;
+import appeng.blockentity.networking.ControllerBlockEntity;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
+
+/**
+ * Repairs the channel assignment of a grid with a controller after local changes at its edge: leaf nodes being
+ * attached or detached, or leaf nodes changing whether they require a channel. Only the paths from the affected leaves
+ * to the controller are updated, the rest of the grid keeps its channels and stays online.
+ * <p/>
+ * Any other change can't be repaired, in which case {@link #apply(int)} fails without modifying the grid, and the
+ * channels have to be recalculated from scratch using a {@link PathingCalculation}. Since leaves are only given a
+ * channel if their path still has room for it, the result can differ from a full recalculation, which assigns channels
+ * in breadth-first order. For the same reason, channels that are released while other nodes of the grid are still
+ * waiting for one are only handed out again by a full recalculation.
+ */
+public class IncrementalPathing {
+    private final Set<GridNode> addedNodes = new LinkedHashSet<>();
+    private final Set<GridNode> removedNodes = new LinkedHashSet<>();
+    private final Set<GridConnection> addedConnections = new LinkedHashSet<>();
+    private final Set<GridConnection> removedConnections = new LinkedHashSet<>();
+    private final Set<GridNode> requirementChanges = new LinkedHashSet<>();
+    /**
+     * Upper bound for the length of a path to the controller, to guard against routes that loop.
+     */
+    private int maxPathLength;
+    private int channelsInUseDelta;
+    private int channelsByBlocksDelta;
+    private boolean releasesChannels;
+    private boolean reallocationNeeded;
+
+    public void nodeAdded(GridNode node) {
+        addedNodes.add(node);
+    }
+
+    public void nodeRemoved(GridNode node) {
+        removedNodes.add(node);
+    }
+
+    public void connectionAdded(GridConnection connection) {
+        addedConnections.add(connection);
+    }
+
+    public void connectionRemoved(GridConnection connection) {
+        removedConnections.add(connection);
+    }
+
+    public void channelRequirementChanged(GridNode node) {
+        requirementChanges.add(node);
+    }
+
+    /**
+     * @return The nodes whose channels were repaired by the last {@link #apply}.
+     */
+    public List<IGridNode> getRepairedNodes() {
+        var nodes = new ArrayList<IGridNode>(addedNodes.size() + removedNodes.size() + requirementChanges.size());
+        nodes.addAll(addedNodes);
+        nodes.addAll(removedNodes);
+        nodes.addAll(requirementChanges);
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return addedNodes.isEmpty() && removedNodes.isEmpty() && addedConnections.isEmpty()
+                && removedConnections.isEmpty() && requirementChanges.isEmpty();
+    }
+
+    public void clear() {
+        addedNodes.clear();
+        removedNodes.clear();
+        addedConnections.clear();
+        removedConnections.clear();
+        requirementChanges.clear();
+    }
+
+    /**
+     * Tries to repair the channels of all recorded changes. Either all changes are applied, or none are.
+     *
+     * @param gridSize             The number of nodes in the grid.
+     * @param nodesNeedingChannels The nodes of the grid that require a channel.
+     * @return False if the changes could not be repaired, and the grid needs a full recalculation.
+     */
+    public boolean apply(int gridSize, Collection<IGridNode> nodesNeedingChannels) {
+        maxPathLength = 2 * gridSize + 2;
+        channelsInUseDelta = 0;
+        channelsByBlocksDelta = 0;
+        releasesChannels = false;
+        reallocationNeeded = false;
+
+        // Removals are repaired first, so that added leaves can use the channels they release
+        var repairs = new ArrayList<Runnable>();
+        if (!planRemovals(repairs) || !planAdditions(repairs) || !planRequirementChanges(repairs)) {
+            return false;
+        }
+        if (releasesChannels && hasNodesWithoutChannel(nodesNeedingChannels)) {
+            reallocationNeeded = true;
+            return false;
+        }
+
+        for (var repair : repairs) {
+            repair.run();
+        }
+        for (var node : addedNodes) {
+            node.notifyStatusChange(IGridNodeListener.State.GRID_BOOT);
+        }
+        return true;
+    }
+
+    private boolean planAdditions(List<Runnable> repairs) {
+        var leafConnections = new HashMap<GridNode, GridConnection>();
+        for (var connection : addedConnections) {
+            var a = (GridNode) connection.a();
+            var b = (GridNode) connection.b();
+            GridNode leaf;
+            if (addedNodes.contains(a) && !addedNodes.contains(b)) {
+                leaf = a;
+            } else if (addedNodes.contains(b) && !addedNodes.contains(a)) {
+                leaf = b;
+            } else {
+                // A connection between two existing nodes, or between two new nodes, changes the routes of the grid
+                return false;
+            }
+            if (leafConnections.put(leaf, connection) != null) {
+                return false;
+            }
+        }
+
+        for (var leaf : addedNodes) {
+            var connection = leafConnections.get(leaf);
+            if (connection == null || !isLeaf(leaf, connection) || removedNodes.contains(leaf)) {
+                return false;
+            }
+            var parent = (GridNode) connection.getOtherSide(leaf);
+            if (removedNodes.contains(parent)) {
+                return false;
+            }
+            var parentPath = findPathToController(parent, connection);
+            if (parentPath == null) {
+                return false;
+            }
+
+            repairs.add(() -> {
+                connection.setControllerRoute(parent);
+                leaf.setControllerRoute(connection);
+                var path = pathThrough(leaf, connection, parentPath);
+                if (leaf.hasFlag(GridFlags.REQUIRE_CHANNEL)) {
+                    allocate(path);
+                }
+                finalizeChannels(path);
+            });
+        }
+        return true;
+    }
+
+    private boolean planRemovals(List<Runnable> repairs) {
+        var leafConnections = new HashMap<GridNode, GridConnection>();
+        for (var connection : removedConnections) {
+            var a = (GridNode) connection.a();
+            var b = (GridNode) connection.b();
+            // Side A is the side closer to the controller, so the removed leaf has to be side B
+            if (!removedNodes.contains(b) || removedNodes.contains(a) || addedNodes.contains(a)) {
+                return false;
+            }
+            if (leafConnections.put(b, connection) != null) {
+                return false;
+            }
+        }
+
+        for (var leaf : removedNodes) {
+            var connection = leafConnections.get(leaf);
+            if (connection == null || !canRepair(leaf)) {
+                return false;
+            }
+            var channels = leaf.getUsedChannels();
+            if (channels == 0) {
+                continue;
+            }
+            releasesChannels = true;
+            var parent = (GridNode) connection.a();
+            var parentPath = findPathToController(parent, connection);
+            if (parentPath == null) {
+                return false;
+            }
+
+            repairs.add(() -> {
+                for (var pathItem : parentPath) {
+                    pathItem.incrementChannelCount(-channels);
+                }
+                finalizeChannels(parentPath);
+                channelsInUseDelta -= channels;
+                channelsByBlocksDelta -= channels * (parentPath.size() + 2);
+            });
+        }
+        return true;
+    }
+
+    private boolean planRequirementChanges(List<Runnable> repairs) {
+        for (var node : requirementChanges) {
+            if (addedNodes.contains(node) || removedNodes.contains(node)) {
+                // Already handled as part of adding or removing the node
+                continue;
+            }
+            var connections = node.getConnections();
+            if (connections.size() != 1) {
+                return false;
+            }
+            var connection = (GridConnection) connections.get(0);
+            if (!isLeaf(node, connection) || connection.b() != node) {
+                return false;
+            }
+            var parentPath = findPathToController((GridNode) connection.a(), connection);
+            if (parentPath == null) {
+                return false;
+            }
+            if (!node.hasFlag(GridFlags.REQUIRE_CHANNEL) && node.getUsedChannels() > 0) {
+                releasesChannels = true;
+            }
+
+            repairs.add(() -> {
+                var path = pathThrough(node, connection, parentPath);
+                var channels = node.getUsedChannels();
+                if (node.hasFlag(GridFlags.REQUIRE_CHANNEL)) {
+                    if (channels == 0) {
+                        allocate(path);
+                    }
+                } else if (channels > 0) {
+                    for (var pathItem : path) {
+                        pathItem.incrementChannelCount(-channels);
+                    }
+                    channelsInUseDelta -= channels;
+                    channelsByBlocksDelta -= channels * path.size();
+                }
+                finalizeChannels(path);
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Checks for nodes that are not affected by the recorded changes, but still wait for a channel.
+     */
+    private boolean hasNodesWithoutChannel(Collection<IGridNode> nodesNeedingChannels) {
+        for (var node : nodesNeedingChannels) {
+            if (!node.meetsChannelRequirements() && !addedNodes.contains(node) && !removedNodes.contains(node)
+                    && !requirementChanges.contains(node)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A leaf has its single connection as its only way to the controller, and nothing routed through it.
+     */
+    private boolean isLeaf(GridNode node, GridConnection connection) {
+        var connections = node.getConnections();
+        return connections.size() == 1 && connections.get(0) == connection && canRepair(node);
+    }
+
+    /**
+     * Multiblocks share a channel between their nodes, and compressed channels restrict which items they may pass
+     * through, so both are left to the full calculation.
+     */
+    private static boolean canRepair(GridNode node) {
+        return !node.hasFlag(GridFlags.MULTIBLOCK)
+                && !node.hasFlag(GridFlags.COMPRESSED_CHANNEL)
+                && !(node.getOwner() instanceof ControllerBlockEntity);
+    }
+
+    /**
+     * Follows the current routes from the given node to the controller.
+     *
+     * @param leafConnection The connection to the leaf, which the route may not pass through.
+     * @return The path items from the node up to the connection adjacent to the controller, or null if the node is not
+     *         routed to the controller.
+     */
+    @Nullable
+    private List<IPathItem> findPathToController(GridNode node, GridConnection leafConnection) {
+        var path = new ArrayList<IPathItem>();
+        if (node.getOwner() instanceof ControllerBlockEntity) {
+            // Directly attached to the controller
+            return path;
+        }
+
+        IPathItem pathItem = node;
+        IPathItem last = null;
+        while (pathItem != null) {
+            if (pathItem == leafConnection || path.size() > maxPathLength) {
+                return null;
+            }
+            path.add(pathItem);
+            last = pathItem;
+            pathItem = pathItem.getControllerRoute();
+        }
+
+        if (last instanceof GridConnection connection && connection.a().getOwner() instanceof ControllerBlockEntity) {
+            return path;
+        }
+        return null;
+    }
+
+    private static List<IPathItem> pathThrough(GridNode leaf, GridConnection connection, List<IPathItem> parentPath) {
+        var path = new ArrayList<IPathItem>(parentPath.size() + 2);
+        path.add(leaf);
+        path.add(connection);
+        path.addAll(parentPath);
+        return path;
+    }
+
+    /**
+     * Allocates a channel along the path if every item on it can carry one more, like
+     * {@link PathingCalculation#tryUseChannel}.
+     */
+    private void allocate(List<IPathItem> path) {
+        for (var pathItem : path) {
+            if (!pathItem.canSupportMoreChannels()) {
+                return;
+            }
+        }
+
+        for (var pathItem : path) {
+            pathItem.incrementChannelCount(1);
+        }
+        channelsInUseDelta++;
+        channelsByBlocksDelta += path.size();
+    }
+
+    private static void finalizeChannels(List<IPathItem> path) {
+        for (var pathItem : path) {
+            pathItem.finalizeChannels();
+        }
+    }
+
+    public int getChannelsInUseDelta() {
+        return channelsInUseDelta;
+    }
+
+    public int getChannelsByBlocksDelta() {
+        return channelsByBlocksDelta;
+    }
+
+    /**
+     * @return True if the last {@link #apply} failed because it would have released channels that other nodes of the
+     *         grid are waiting for.
+     */
+    public boolean isReallocationNeeded() {
+        return reallocationNeeded;
+    }
+}
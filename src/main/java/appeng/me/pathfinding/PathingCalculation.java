@@ -19,9 +19,9 @@
 package appeng.me.pathfinding;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 
 import appeng.api.networking.GridFlags;
 import appeng.api.networking.IGrid;
@@ -29,30 +29,65 @@
 import appeng.api.networking.IGridNode;
 import appeng.blockentity.networking.ControllerBlockEntity;
 import appeng.me.GridConnection;
-import appeng.me.GridNode;
 
 /**
  * Calculation to assign channels starting from the controllers. Basically a BFS, with one step each tick.
+ * <p/>
+ * All nodes and connections of the grid are given a dense index when the calculation starts, and the BFS runs over
+ * primitive arrays indexed by it. The resulting routes and channel counts are only written back to the path items
+ * once the calculation has finished.
  */
 public class PathingCalculation {
+    private static final int REQUIRE_CHANNEL = 1;
+    private static final int MULTIBLOCK = 1 << 1;
+    private static final int COMPRESSED_CHANNEL = 1 << 2;
+    private static final int CANNOT_CARRY_COMPRESSED = 1 << 3;
+    private static final int CANNOT_CARRY = 1 << 4;
 
+    /**
+     * All path items: the nodes of the grid first, followed by their connections.
+     */
+    private final IPathItem[] items;
+    private final Reference2IntOpenHashMap<IPathItem> indices;
+    private final int nodeCount;
+    /**
+     * The possible options of item {@code i} are {@code options[optionStart[i]]} to
+     * {@code options[optionStart[i + 1] - 1]}.
+     */
+    private final int[] optionStart;
+    private final int[] options;
+    private final byte[] flags;
+    /**
+     * The first queue each item may be put in, see {@link #enqueue}.
+     */
+    private final byte[] minQueue;
+    private final int[] maxChannels;
+    private final int[] usedChannels;
+    /**
+     * The BFS parent of each item, or -1 if it has not been reached (yet).
+     */
+    private final int[] parent;
+    /**
+     * Path items that are either in the queue, or have been processed already.
+     */
+    private final boolean[] visited;
     /**
      * Path items that are part of a multiblock that was already granted a channel.
      */
-    private final Set<IPathItem> multiblocksWithChannel = new HashSet<>();
+    private final boolean[] multiblocksWithChannel;
     /**
      * The BFS queues: all the path items that need to be visited on the next tick. Dense queue is prioritized to have
      * the behavior of dense cables extending the controller faces, then cables, then normal devices.
      */
-    private List<IPathItem>[] queues = new List[] {
-            new ArrayList<>(), // 0: dense cable queue
-            new ArrayList<>(), // 1: normal cable queue
-            new ArrayList<>() // 2: non-cable queue
+    private final IntArrayList[] queues = new IntArrayList[] {
+            new IntArrayList(), // 0: dense cable queue
+            new IntArrayList(), // 1: normal cable queue
+            new IntArrayList() // 2: non-cable queue
     };
     /**
-     * Path items that are either in the queue, or have been processed already.
+     * The queue that is being processed, swapped with the queue that is being filled.
      */
-    private final Set<IPathItem> visited = new HashSet<>();
+    private IntArrayList processing = new IntArrayList();
     /**
      * Tracks the total number of used channels.
      */
@@ -61,83 +96,182 @@ public class PathingCalculation {
      * Tracks the total number of channels for each path item is using.
      */
     private int channelsByBlocks = 0;
+    private boolean published = false;
 
     /**
      * Create a new pathing calculation from the passed grid.
      */
     public PathingCalculation(IGrid grid) {
+        var nodes = new ArrayList<IGridNode>(grid.size());
+        for (var node : grid.getNodes()) {
+            nodes.add(node);
+        }
+        this.nodeCount = nodes.size();
+
+        var allItems = new ArrayList<IPathItem>(nodeCount * 2);
+        this.indices = new Reference2IntOpenHashMap<>(nodeCount * 2);
+        this.indices.defaultReturnValue(-1);
+        for (var node : nodes) {
+            indices.put((IPathItem) node, allItems.size());
+            allItems.add((IPathItem) node);
+        }
+
+        // Options of nodes are their connections, which are indexed as they're found
+        var starts = new IntArrayList(nodeCount * 2 + 1);
+        var optionList = new IntArrayList(nodeCount * 4);
+        for (var node : nodes) {
+            starts.add(optionList.size());
+            for (var connection : node.getConnections()) {
+                var pathItem = (IPathItem) connection;
+                var index = indices.getInt(pathItem);
+                if (index == -1) {
+                    index = allItems.size();
+                    indices.put(pathItem, index);
+                    allItems.add(pathItem);
+                }
+                optionList.add(index);
+            }
+        }
+        // Options of connections are their two sides
+        for (int i = nodeCount; i < allItems.size(); i++) {
+            starts.add(optionList.size());
+            var connection = (GridConnection) allItems.get(i);
+            addOption(optionList, connection.a());
+            addOption(optionList, connection.b());
+        }
+        starts.add(optionList.size());
+
+        this.items = allItems.toArray(new IPathItem[0]);
+        this.optionStart = starts.toIntArray();
+        this.options = optionList.toIntArray();
+
+        var itemCount = items.length;
+        this.flags = new byte[itemCount];
+        this.minQueue = new byte[itemCount];
+        this.maxChannels = new int[itemCount];
+        this.usedChannels = new int[itemCount];
+        this.parent = new int[itemCount];
+        this.visited = new boolean[itemCount];
+        this.multiblocksWithChannel = new boolean[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            var pathItem = items[i];
+            flags[i] = getFlags(pathItem);
+            minQueue[i] = getMinQueue(pathItem);
+            maxChannels[i] = pathItem.getMaxChannels();
+            parent[i] = -1;
+        }
+
         // Add every outgoing connection of the controllers (that doesn't point to another controller) to the list.
         for (var node : grid.getMachineNodes(ControllerBlockEntity.class)) {
-            visited.add((IPathItem) node);
-            for (var gcc : node.getConnections()) {
-                var gc = (GridConnection) gcc;
+            var nodeIndex = indices.getInt((IPathItem) node);
+            visited[nodeIndex] = true;
+            for (int o = optionStart[nodeIndex]; o < optionStart[nodeIndex + 1]; o++) {
+                var connectionIndex = options[o];
+                var gc = (GridConnection) items[connectionIndex];
                 if (!(gc.getOtherSide(node).getOwner() instanceof ControllerBlockEntity)) {
-                    enqueue(gc, 0);
-                    gc.setControllerRoute((GridNode) node);
+                    enqueue(connectionIndex, 0);
+                    parent[connectionIndex] = nodeIndex;
                 }
             }
         }
+
+        publishIfFinished();
     }
 
-    private void enqueue(IPathItem pathItem, int queueIndex) {
-        visited.add(pathItem);
+    private void addOption(IntArrayList optionList, IGridNode side) {
+        var index = indices.getInt((IPathItem) side);
+        if (index != -1) {
+            optionList.add(index);
+        }
+    }
 
-        int possibleIndex;
+    private static byte getFlags(IPathItem pathItem) {
+        int result = 0;
+        if (pathItem.hasFlag(GridFlags.REQUIRE_CHANNEL)) {
+            result |= REQUIRE_CHANNEL;
+        }
+        if (pathItem.hasFlag(GridFlags.MULTIBLOCK)) {
+            result |= MULTIBLOCK;
+        }
+        if (pathItem.hasFlag(GridFlags.COMPRESSED_CHANNEL)) {
+            result |= COMPRESSED_CHANNEL;
+        }
+        if (pathItem.hasFlag(GridFlags.CANNOT_CARRY_COMPRESSED)) {
+            result |= CANNOT_CARRY_COMPRESSED;
+        }
+        if (pathItem.hasFlag(GridFlags.CANNOT_CARRY)) {
+            result |= CANNOT_CARRY;
+        }
+        return (byte) result;
+    }
 
+    private static byte getMinQueue(IPathItem pathItem) {
         if (pathItem instanceof GridConnection) {
             // Grid connection does not have flags, allow any queue.
-            possibleIndex = 0;
+            return 0;
         } else if (pathItem.hasFlag(GridFlags.DENSE_CAPACITY)) {
             // Dense queue if possible.
-            possibleIndex = 0;
+            return 0;
         } else if (pathItem.hasFlag(GridFlags.PREFERRED)) {
             // Cable queue if possible.
-            possibleIndex = 1;
+            return 1;
         } else {
-            possibleIndex = 2;
+            return 2;
         }
+    }
+
+    private boolean hasFlag(int index, int flag) {
+        return (flags[index] & flag) != 0;
+    }
 
-        int index = Math.max(possibleIndex, queueIndex);
-        queues[index].add(pathItem);
+    private void enqueue(int index, int queueIndex) {
+        visited[index] = true;
+        queues[Math.max(minQueue[index], queueIndex)].add(index);
     }
 
     public void step() {
         // Keep processing dense queue as long as it's not empty.
         for (int i = 0; i < 3; ++i) {
             if (!queues[i].isEmpty()) {
-                List<IPathItem> oldOpen = queues[i];
-                queues[i] = new ArrayList<>();
+                var oldOpen = queues[i];
+                queues[i] = processing;
+                processing = oldOpen;
                 processQueue(oldOpen, i);
+                oldOpen.clear();
                 break;
             }
         }
+
+        publishIfFinished();
     }
 
-    private void processQueue(List<IPathItem> oldOpen, int queueIndex) {
-        for (IPathItem i : oldOpen) {
-            for (IPathItem pi : i.getPossibleOptions()) {
-                if (!this.visited.contains(pi)) {
+    private void processQueue(IntArrayList oldOpen, int queueIndex) {
+        for (int k = 0; k < oldOpen.size(); k++) {
+            var i = oldOpen.getInt(k);
+            for (int o = optionStart[i]; o < optionStart[i + 1]; o++) {
+                var pi = options[o];
+                if (!this.visited[pi]) {
                     // Set BFS parent.
-                    pi.setControllerRoute(i);
+                    parent[pi] = i;
 
-                    if (pi.hasFlag(GridFlags.REQUIRE_CHANNEL)) {
-                        if (this.multiblocksWithChannel.contains(pi)) {
+                    if (hasFlag(pi, REQUIRE_CHANNEL)) {
+                        if (this.multiblocksWithChannel[pi]) {
                             // If this is part of a multiblock that was given a channel before, just give a channel to
                             // the node.
-                            pi.incrementChannelCount(1);
-                            this.multiblocksWithChannel.remove(pi);
+                            usedChannels[pi]++;
+                            this.multiblocksWithChannel[pi] = false;
                         } else {
                             // Otherwise try to use the channel along the path.
                             boolean worked = tryUseChannel(pi);
 
-                            if (worked && pi.hasFlag(GridFlags.MULTIBLOCK)) {
-                                var multiblock = ((IGridNode) pi).getService(IGridMultiblock.class);
+                            if (worked && hasFlag(pi, MULTIBLOCK)) {
+                                var multiblock = ((IGridNode) items[pi]).getService(IGridMultiblock.class);
                                 if (multiblock != null) {
                                     var oni = multiblock.getMultiblockNodes();
                                     while (oni.hasNext()) {
-                                        final IGridNode otherNodes = oni.next();
-                                        if (otherNodes != pi) {
-                                            this.multiblocksWithChannel.add((IPathItem) otherNodes);
+                                        var otherIndex = indices.getInt((IPathItem) oni.next());
+                                        if (otherIndex != -1 && otherIndex != pi) {
+                                            this.multiblocksWithChannel[otherIndex] = true;
                                         }
                                     }
                                 }
@@ -151,42 +285,69 @@ private void processQueue(List<IPathItem> oldOpen, int queueIndex) {
         }
     }
 
+    /**
+     * The next item on the route to the controller, following the same rules as {@link IPathItem#getControllerRoute}:
+     * nothing is routed through items that cannot carry channels.
+     */
+    private int getControllerRoute(int index) {
+        if (hasFlag(index, CANNOT_CARRY)) {
+            return -1;
+        }
+        var route = parent[index];
+        if (route != -1 && index >= nodeCount && hasFlag(route, CANNOT_CARRY)) {
+            return -1;
+        }
+        return route;
+    }
+
     /**
      * Try to allocate a channel along the path from {@code start} to the controller.
      *
      * @return true if allocation was successful
      */
-    private boolean tryUseChannel(IPathItem start) {
-        boolean isCompressed = start.hasFlag(GridFlags.COMPRESSED_CHANNEL);
+    private boolean tryUseChannel(int start) {
+        boolean isCompressed = hasFlag(start, COMPRESSED_CHANNEL);
 
         // Check that the allocation is possible.
-        IPathItem pi = start;
-        while (pi != null) {
-            if (!pi.canSupportMoreChannels()) {
+        for (int pi = start; pi != -1; pi = getControllerRoute(pi)) {
+            if (usedChannels[pi] >= maxChannels[pi]) {
                 return false;
             }
-            if (isCompressed && pi.hasFlag(GridFlags.CANNOT_CARRY_COMPRESSED)) {
+            if (isCompressed && hasFlag(pi, CANNOT_CARRY_COMPRESSED)) {
                 // Don't send a compressed channel through this item.
                 return false;
             }
-
-            pi = pi.getControllerRoute();
         }
 
         // Allocate the channel along the path.
-        pi = start;
-        while (pi != null) {
+        for (int pi = start; pi != -1; pi = getControllerRoute(pi)) {
             channelsByBlocks++;
-            pi.incrementChannelCount(1);
-            pi = pi.getControllerRoute();
+            usedChannels[pi]++;
         }
 
         channelsInUse++;
         return true;
     }
 
+    /**
+     * Writes the routes and channel counts of all reached path items back to them, once the BFS is done.
+     */
+    private void publishIfFinished() {
+        if (published || !isFinished()) {
+            return;
+        }
+        published = true;
+
+        for (int i = 0; i < items.length; i++) {
+            if (parent[i] != -1) {
+                items[i].setControllerRoute(items[parent[i]]);
+                items[i].incrementChannelCount(usedChannels[i]);
+            }
+        }
+    }
+
     public boolean isFinished() {
-        for (List<IPathItem> queue : queues) {
+        for (var queue : queues) {
             if (!queue.isEmpty()) {
                 return false;
             }
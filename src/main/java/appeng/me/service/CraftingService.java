@@ -18,6 +18,7 @@
 
 package appeng.me.service;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -29,16 +30,21 @@
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.gson.stream.JsonWriter;
 
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.jetbrains.annotations.Nullable;
 
+import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.level.Level;
 
@@ -67,6 +73,7 @@
 import appeng.api.stacks.GenericStack;
 import appeng.api.storage.AEKeyFilter;
 import appeng.blockentity.crafting.CraftingBlockEntity;
+import appeng.core.AEConfig;
 import appeng.crafting.CraftingCalculation;
 import appeng.crafting.CraftingLink;
 import appeng.crafting.CraftingLinkNexus;
@@ -74,8 +81,10 @@
 import appeng.me.cluster.implementations.CraftingCPUCluster;
 import appeng.me.helpers.InterestManager;
 import appeng.me.helpers.StackWatcher;
+import appeng.me.service.helpers.CraftingCpuScheduler;
 import appeng.me.service.helpers.CraftingServiceStorage;
 import appeng.me.service.helpers.NetworkCraftingProviders;
+import appeng.util.JsonStreamUtil;
 
 public class CraftingService implements ICraftingService, IGridServiceProvider {
 
@@ -96,6 +105,11 @@ public class CraftingService implements ICraftingService, IGridServiceProvider {
             .thenComparingLong(CraftingCPUCluster::getAvailableStorage);
 
     private static final ExecutorService CRAFTING_POOL;
+    /**
+     * Runs asynchronous calculations, which do not wait for the server thread. The number of threads is limited by
+     * {@link AEConfig#getCraftingCalculationThreads()}, further calculations are queued.
+     */
+    private static final ThreadPoolExecutor ASYNC_CRAFTING_POOL;
 
     static {
         final ThreadFactory factory = ar -> {
@@ -105,6 +119,9 @@ public class CraftingService implements ICraftingService, IGridServiceProvider {
         };
 
         CRAFTING_POOL = Executors.newCachedThreadPool(factory);
+        ASYNC_CRAFTING_POOL = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                factory);
+        ASYNC_CRAFTING_POOL.allowCoreThreadTimeOut(true);
 
         GridHelper.addGridServiceEventHandler(GridCraftingCpuChange.class, ICraftingService.class,
                 (service, event) -> {
@@ -116,6 +133,7 @@ public class CraftingService implements ICraftingService, IGridServiceProvider {
     private final Map<IGridNode, StackWatcher<ICraftingWatcherNode>> craftingWatchers = new HashMap<>();
     private final IGrid grid;
     private final NetworkCraftingProviders craftingProviders = new NetworkCraftingProviders();
+    private final CraftingCpuScheduler cpuScheduler = new CraftingCpuScheduler();
     private final Map<UUID, CraftingLinkNexus> craftingLinks = new HashMap<>();
     private final Multimap<AEKey, StackWatcher<ICraftingWatcherNode>> interests = HashMultimap.create();
     private final InterestManager<StackWatcher<ICraftingWatcherNode>> interestManager = new InterestManager<>(
@@ -146,8 +164,8 @@ public void onServerEndTick() {
         this.currentlyCrafting.clear();
         this.currentlyCraftable.clear();
 
+        this.cpuScheduler.tick(this.craftingCPUClusters, this, energyGrid);
         for (CraftingCPUCluster cpu : this.craftingCPUClusters) {
-            cpu.craftingLogic.tickCraftingLogic(energyGrid, this);
             cpu.craftingLogic.getAllWaitingFor(this.currentlyCrafting);
         }
         currentlyCraftable.addAll(getCraftables(k -> true));
@@ -210,6 +228,7 @@ public void addNode(IGridNode gridNode, @Nullable CompoundTag savedData) {
         // in which it might already register itself before coming to this point.
         this.craftingProviders.removeProvider(gridNode);
         this.craftingProviders.addProvider(gridNode);
+        this.notifyProviderReady(gridNode);
 
         var watchingNode = gridNode.getService(ICraftingWatcherNode.class);
         if (watchingNode != null) {
@@ -284,6 +303,17 @@ public Collection<IPatternDetails> getCraftingFor(AEKey whatToCraft) {
     public void refreshNodeCraftingProvider(IGridNode node) {
         this.craftingProviders.removeProvider(node);
         this.craftingProviders.addProvider(node);
+        this.notifyProviderReady(node);
+    }
+
+    @Override
+    public void notifyProviderReady(IGridNode node) {
+        var patterns = this.craftingProviders.getProvidedPatterns(node);
+        if (!patterns.isEmpty()) {
+            for (var cpu : this.craftingCPUClusters) {
+                cpu.craftingLogic.onProviderReady(patterns);
+            }
+        }
     }
 
     @Nullable
@@ -299,12 +329,35 @@ public Future<ICraftingPlan> beginCraftingCalculation(Level level, ICraftingSimu
             throw new IllegalArgumentException("Invalid Crafting Job Request");
         }
 
+        if (AEConfig.instance().isAsyncCraftingCalculation()) {
+            // Both the network inventory and the patterns are copied here on the server thread,
+            // the calculation itself then no longer touches the grid.
+            var job = new CraftingCalculation(level, grid, simRequester, new GenericStack(what, amount), strategy,
+                    craftingProviders.getSnapshot());
+            updateAsyncPoolSize(AEConfig.instance().getCraftingCalculationThreads());
+            return ASYNC_CRAFTING_POOL.submit(job::run);
+        }
+
         final CraftingCalculation job = new CraftingCalculation(level, grid, simRequester,
                 new GenericStack(what, amount), strategy);
 
         return CRAFTING_POOL.submit(job::run);
     }
 
+    private static synchronized void updateAsyncPoolSize(int threads) {
+        if (ASYNC_CRAFTING_POOL.getMaximumPoolSize() == threads) {
+            return;
+        }
+        // The core size must never exceed the maximum size
+        if (threads > ASYNC_CRAFTING_POOL.getMaximumPoolSize()) {
+            ASYNC_CRAFTING_POOL.setMaximumPoolSize(threads);
+            ASYNC_CRAFTING_POOL.setCorePoolSize(threads);
+        } else {
+            ASYNC_CRAFTING_POOL.setCorePoolSize(threads);
+            ASYNC_CRAFTING_POOL.setMaximumPoolSize(threads);
+        }
+    }
+
     @Override
     public ICraftingSubmitResult submitJob(ICraftingPlan job, ICraftingRequester requestingMachine, ICraftingCPU target,
             boolean prioritizePower, IActionSource src) {
@@ -431,4 +484,23 @@ public Iterable<ICraftingProvider> getProviders(IPatternDetails key) {
     public boolean hasCpu(ICraftingCPU cpu) {
         return this.craftingCPUClusters.contains(cpu);
     }
+
+    @Override
+    public void debugDump(JsonWriter writer, HolderLookup.Provider registries) throws IOException {
+        writer.name("cpus");
+        writer.beginArray();
+        for (var cpu : this.craftingCPUClusters) {
+            writer.beginObject();
+            JsonStreamUtil.writeProperties(Map.of(
+                    "name", cpu.getName() != null ? cpu.getName().getString() : "",
+                    "hasJob", cpu.craftingLogic.hasJob(),
+                    "pushAttempts", cpu.craftingLogic.getPushAttempts(),
+                    "successfulPushes", cpu.craftingLogic.getSuccessfulPushes(),
+                    "recentPushesPerTick", cpu.craftingLogic.getRecentThroughput(),
+                    "jobPushesPerTick", cpu.craftingLogic.getJobThroughput(),
+                    "parkedTasks", cpu.craftingLogic.getParkedTaskCount()), writer);
+            writer.endObject();
+        }
+        writer.endArray();
+    }
 }
@@ -18,13 +18,16 @@
 
 package appeng.me.service;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
@@ -34,10 +37,12 @@
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
+import com.google.gson.stream.JsonWriter;
 
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
+import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
 
@@ -60,12 +65,14 @@
 import appeng.api.networking.events.GridPowerStatusChange;
 import appeng.api.networking.events.GridPowerStorageStateChanged;
 import appeng.api.networking.pathing.IPathingService;
+import appeng.core.AEConfig;
 import appeng.me.Grid;
 import appeng.me.GridNode;
 import appeng.me.energy.EnergyThreshold;
 import appeng.me.energy.EnergyWatcher;
 import appeng.me.energy.GridEnergyStorage;
 import appeng.me.energy.IEnergyOverlayGridConnection;
+import appeng.util.JsonStreamUtil;
 
 public class EnergyService implements IEnergyService, IGridServiceProvider {
     private static final String TAG_STORED_ENERGY = "e";
@@ -92,6 +99,8 @@ public class EnergyService implements IEnergyService, IGridServiceProvider {
             o2) -> -COMPARATOR_HIGHEST_PRIORITY_FIRST.compare(o1, o2);
 
     private final NavigableSet<EnergyThreshold> interests = Sets.newTreeSet();
+    private long thresholdChecks;
+    private long watcherPosts;
     private final double averageLength = 40.0;
 
     // Should only be modified from the add/remove methods below to guard against
@@ -123,6 +132,20 @@ public class EnergyService implements IEnergyService, IGridServiceProvider {
     private double globalAvailablePower = 0;
     private double providerPowerSum;
 
+    /**
+     * Extractions are not drained from the providers right away. Instead, the power available in the providers is
+     * summed up once, extractions are debited from that sum, and the total is drained from the providers at the end of
+     * the tick, or before power is injected. This avoids walking all providers for every single extraction.
+     */
+    private boolean ledgerOpen;
+    private double ledgerBudget;
+    private double ledgerDebit;
+    /**
+     * Debited power the providers no longer had when the ledger was settled, because they lost power in the meantime.
+     * It is debited again when the ledger is opened next, so that it is not created out of nothing.
+     */
+    private double unpaidDebit;
+
     /**
      * idle draw.
      */
@@ -218,13 +241,8 @@ public void onServerEndTick() {
             final double oldPower = this.lastStoredPower;
             this.lastStoredPower = this.getStoredPower();
 
-            final EnergyThreshold low = new EnergyThreshold(Math.min(oldPower, this.lastStoredPower),
-                    Integer.MIN_VALUE);
-            final EnergyThreshold high = new EnergyThreshold(Math.max(oldPower, this.lastStoredPower),
-                    Integer.MAX_VALUE);
-
-            for (EnergyThreshold th : this.interests.subSet(low, true, high, true)) {
-                ((EnergyWatcher) th.getEnergyWatcher()).post(this);
+            if (oldPower != this.lastStoredPower) {
+                this.postPassedThresholds(oldPower, this.lastStoredPower);
             }
         }
 
@@ -265,9 +283,42 @@ public void onServerEndTick() {
             this.publicPowerState(false, this.grid);
         }
 
+        // Other grids of the overlay grid may have debited power from our providers after their own tick ended, and
+        // we may have debited power from theirs
+        for (var service : getConnectedServices()) {
+            service.settleLedger();
+        }
+
         this.availableTicksSinceUpdate++;
     }
 
+    /**
+     * Notifies the watchers of all thresholds the stored power has passed by more than the configured hysteresis.
+     */
+    private void postPassedThresholds(double oldPower, double newPower) {
+        var hysteresis = AEConfig.instance().getEnergyEmitterHysteresis();
+
+        // Thresholds outside of this range were already on the right side before
+        final EnergyThreshold low = new EnergyThreshold(Math.min(oldPower, newPower) - hysteresis, Integer.MIN_VALUE);
+        final EnergyThreshold high = new EnergyThreshold(Math.max(oldPower, newPower) + hysteresis,
+                Integer.MAX_VALUE);
+
+        // Watchers with several passed thresholds are only notified once
+        var watchers = new LinkedHashSet<EnergyWatcher>();
+        for (EnergyThreshold th : this.interests.subSet(low, true, high, true)) {
+            this.thresholdChecks++;
+            if (th.updateReportedSide(newPower, hysteresis)) {
+                watchers.add((EnergyWatcher) th.getEnergyWatcher());
+            }
+        }
+
+        // Notify after iterating, since watchers may change their thresholds when they are notified
+        for (var watcher : watchers) {
+            this.watcherPosts++;
+            watcher.post(this);
+        }
+    }
+
     @Override
     public double extractAEPower(double amt, Actionable mode, PowerMultiplier pm) {
         final double toExtract = pm.multiply(amt);
@@ -312,7 +363,7 @@ private void publicPowerState(boolean newState, IGrid grid) {
     @VisibleForTesting
     public void refreshPower() {
         this.availableTicksSinceUpdate = 0;
-        this.globalAvailablePower = 0;
+        this.globalAvailablePower = -this.ledgerDebit - this.unpaidDebit;
         for (IAEPowerStorage p : this.providers) {
             this.globalAvailablePower += p.getAECurrentPower();
         }
@@ -325,6 +376,60 @@ public Collection<IEnergyOverlayGridConnection> getOverlayGridConnections() {
     public double extractProviderPower(double amt, Actionable mode) {
         Preconditions.checkArgument(amt >= 0, "amt must be >= 0");
 
+        if (!this.ledgerOpen) {
+            openLedger();
+        }
+
+        final double result = Math.min(amt, Math.max(0.0, this.ledgerBudget - this.ledgerDebit));
+
+        if (mode == Actionable.MODULATE) {
+            this.ledgerDebit += result;
+            this.globalAvailablePower -= result;
+            this.tickDrainPerTick += result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Sums up the power the providers can currently provide.
+     */
+    private void openLedger() {
+        this.ledgerOpen = true;
+        this.ledgerDebit = this.unpaidDebit;
+        this.unpaidDebit = 0;
+        this.ledgerBudget = 0;
+        for (var provider : this.providers) {
+            this.ledgerBudget += Math.max(0.0, provider.getAECurrentPower());
+        }
+    }
+
+    /**
+     * Drains the power that was debited since the ledger was opened from the providers. Has to happen before providers
+     * are removed, power is injected into them, or their content changes in any other way. Whatever the providers can
+     * no longer provide stays {@link #unpaidDebit unpaid}.
+     */
+    private void settleLedger() {
+        if (!this.ledgerOpen) {
+            return;
+        }
+
+        var debit = this.ledgerDebit;
+        this.ledgerOpen = false;
+        this.ledgerBudget = 0;
+        this.ledgerDebit = 0;
+        if (debit > 0) {
+            var drained = drainProviders(debit);
+            if (drained < debit) {
+                this.unpaidDebit += debit - drained;
+            }
+        }
+    }
+
+    /**
+     * @return The power that was drained, up to the given amount.
+     */
+    private double drainProviders(double amt) {
         double extractedPower = 0;
 
         final Iterator<IAEPowerStorage> it = this.providers.iterator();
@@ -335,10 +440,10 @@ public double extractProviderPower(double amt, Actionable mode) {
                 final IAEPowerStorage node = it.next();
 
                 final double req = amt - extractedPower;
-                final double newPower = node.extractAEPower(req, mode, PowerMultiplier.ONE);
+                final double newPower = node.extractAEPower(req, Actionable.MODULATE, PowerMultiplier.ONE);
                 extractedPower += newPower;
 
-                if (newPower < req && mode == Actionable.MODULATE) {
+                if (newPower < req) {
                     it.remove();
                 }
             }
@@ -346,24 +451,19 @@ public double extractProviderPower(double amt, Actionable mode) {
             ongoingExtractOperation = false;
         }
 
-        final double result = Math.min(extractedPower, amt);
-
-        if (mode == Actionable.MODULATE) {
-            // Be nice and try to push returned excess to the grid storage
-            if (extractedPower > amt) {
-                this.localStorage.injectAEPower(extractedPower - amt, Actionable.MODULATE);
-            }
-
-            this.globalAvailablePower -= result;
-            this.tickDrainPerTick += result;
+        // Be nice and try to push returned excess to the grid storage
+        if (extractedPower > amt) {
+            this.localStorage.injectAEPower(extractedPower - amt, Actionable.MODULATE);
         }
-
-        return result;
+        return Math.min(extractedPower, amt);
     }
 
     public double injectProviderPower(double amt, Actionable mode) {
         Preconditions.checkArgument(amt >= 0, "amt must be >= 0");
 
+        // The storages have to know how much room the debited power has made
+        settleLedger();
+
         final double originalAmount = amt;
 
         var it = this.requesters.iterator();
@@ -394,6 +494,8 @@ public double injectProviderPower(double amt, Actionable mode) {
     public double getProviderEnergyDemand(double maxRequired) {
         Preconditions.checkArgument(maxRequired >= 0, "maxRequired must be >= 0");
 
+        settleLedger();
+
         double required = 0;
 
         final Iterator<IAEPowerStorage> it = this.requesters.iterator();
@@ -468,6 +570,7 @@ public double getEnergyDemand(double maxRequired) {
 
     @Override
     public void removeNode(IGridNode node) {
+        settleLedger();
         localStorage.removeNode();
 
         var gridProvider = node.getService(IEnergyOverlayGridConnection.class);
@@ -529,18 +632,22 @@ private void addProvider(IAEPowerStorage provider) {
         Preconditions.checkState(!ongoingExtractOperation,
                 "Cannot modify energy providers while energy is being extracted.");
         if (provider.getPowerFlow().isAllowExtraction()) {
-            this.providers.add(provider);
+            if (this.providers.add(provider) && this.ledgerOpen) {
+                this.ledgerBudget += Math.max(0.0, provider.getAECurrentPower());
+            }
         }
     }
 
     private void removeProvider(IAEPowerStorage provider) {
         Preconditions.checkState(!ongoingExtractOperation,
                 "Cannot modify energy providers while energy is being extracted.");
+        Preconditions.checkState(!ledgerOpen, "Cannot remove energy providers before the ledger is settled.");
         this.providers.remove(provider);
     }
 
     @Override
     public void addNode(IGridNode node, @Nullable CompoundTag storedData) {
+        settleLedger();
         localStorage.addNode();
 
         var gridProvider = node.getService(IEnergyOverlayGridConnection.class);
@@ -593,6 +700,7 @@ public void addNode(IGridNode node, @Nullable CompoundTag storedData) {
 
     @Override
     public void saveNodeData(IGridNode gridNode, CompoundTag savedData) {
+        settleLedger();
         // When node-data is saved, we allocate it 1/N of our stored local energy
         var perNodeStorage = localStorage.getNodeEnergyShare();
         if (perNodeStorage > 0) {
@@ -601,6 +709,7 @@ public void saveNodeData(IGridNode gridNode, CompoundTag savedData) {
     }
 
     public boolean registerEnergyInterest(EnergyThreshold threshold) {
+        threshold.initReportedSide(this.getStoredPower());
         return this.interests.add(threshold);
     }
 
@@ -614,6 +723,15 @@ public void invalidateOverlayEnergyGrid() {
         }
     }
 
+    @Override
+    public void debugDump(JsonWriter writer, HolderLookup.Provider registries) throws IOException {
+        JsonStreamUtil.writeProperties(Map.of(
+                "storedPower", getStoredPower(),
+                "energyThresholds", this.interests.size(),
+                "energyThresholdChecks", this.thresholdChecks,
+                "energyWatcherPosts", this.watcherPosts), writer);
+    }
+
     private List<EnergyService> getConnectedServices() {
         return getOverlayGrid().energyServices;
     }
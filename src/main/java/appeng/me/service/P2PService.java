@@ -36,6 +36,7 @@
 import appeng.api.networking.IGridService;
 import appeng.api.networking.IGridServiceProvider;
 import appeng.api.networking.events.GridBootingStatusChange;
+import appeng.api.networking.events.GridChannelsRepaired;
 import appeng.api.networking.events.GridPowerStatusChange;
 import appeng.core.AELog;
 import appeng.parts.p2p.MEP2PTunnelPart;
@@ -49,6 +50,16 @@ public class P2PService implements IGridService, IGridServiceProvider {
                         service.wakeInputTunnels();
                     }
                 });
+        GridHelper.addGridServiceEventHandler(GridChannelsRepaired.class, P2PService.class,
+                (service, evt) -> {
+                    // Tunnels that gained or lost their channel change which outputs are reachable
+                    for (var node : evt.getNodes()) {
+                        if (node.getOwner() instanceof MEP2PTunnelPart) {
+                            service.wakeInputTunnels();
+                            return;
+                        }
+                    }
+                });
         GridHelper.addGridServiceEventHandler(GridPowerStatusChange.class, P2PService.class,
                 (service, evt) -> {
                     service.wakeInputTunnels();
@@ -18,12 +18,18 @@
 
 package appeng.me.service;
 
+import java.io.IOException;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+
+import com.google.gson.stream.JsonWriter;
 
 import org.jetbrains.annotations.Nullable;
 
 import net.minecraft.advancements.critereon.PlayerTrigger;
+import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
 
@@ -37,6 +43,7 @@
 import appeng.api.networking.IGridServiceProvider;
 import appeng.api.networking.events.GridBootingStatusChange;
 import appeng.api.networking.events.GridChannelRequirementChanged;
+import appeng.api.networking.events.GridChannelsRepaired;
 import appeng.api.networking.events.GridControllerChange;
 import appeng.api.networking.pathing.ChannelMode;
 import appeng.api.networking.pathing.ControllerState;
@@ -46,10 +53,14 @@
 import appeng.core.AELog;
 import appeng.core.stats.AdvancementTriggers;
 import appeng.me.Grid;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
 import appeng.me.pathfinding.AdHocChannelUpdater;
 import appeng.me.pathfinding.ChannelFinalizer;
 import appeng.me.pathfinding.ControllerValidator;
+import appeng.me.pathfinding.IncrementalPathing;
 import appeng.me.pathfinding.PathingCalculation;
+import appeng.util.JsonStreamUtil;
 
 public class PathingService implements IPathingService, IGridServiceProvider {
     private static final String TAG_CHANNEL_MODE = "cm";
@@ -63,6 +74,14 @@ public class PathingService implements IPathingService, IGridServiceProvider {
     }
 
     private PathingCalculation ongoingCalculation = null;
+    /**
+     * Local changes since the last tick that are repaired without rebooting the network.
+     */
+    private final IncrementalPathing incrementalPathing = new IncrementalPathing();
+    /**
+     * How often local changes were not repaired, because the channels they released could be used by other nodes.
+     */
+    private long reallocationRepaths;
     private final Set<ControllerBlockEntity> controllers = new HashSet<>();
     private final Set<IGridNode> nodesNeedingChannels = new HashSet<>();
     private final Set<IGridNode> cannotCarryCompressedNodes = new HashSet<>();
@@ -96,6 +115,10 @@ public void onServerEndTick() {
             this.updateControllerState();
         }
 
+        if (!this.incrementalPathing.isEmpty()) {
+            this.repairChannels();
+        }
+
         if (this.reboot) {
             this.reboot = false;
 
@@ -163,6 +186,26 @@ public void onServerEndTick() {
         }
     }
 
+    private void repairChannels() {
+        if (this.reboot || this.grid.isEmpty()) {
+            this.incrementalPathing.clear();
+        } else if (this.controllerState == ControllerState.CONTROLLER_ONLINE
+                && this.incrementalPathing.apply(this.grid.size(), this.nodesNeedingChannels)) {
+            this.channelsInUse += this.incrementalPathing.getChannelsInUseDelta();
+            this.channelsByBlocks += this.incrementalPathing.getChannelsByBlocksDelta();
+            var repairedNodes = this.incrementalPathing.getRepairedNodes();
+            this.incrementalPathing.clear();
+            this.setChannelPowerUsage(this.channelsByBlocks / 128.0);
+            this.achievementPost();
+            this.grid.postEvent(new GridChannelsRepaired(repairedNodes));
+        } else {
+            if (this.incrementalPathing.isReallocationNeeded()) {
+                this.reallocationRepaths++;
+            }
+            this.repath();
+        }
+    }
+
     private void postBootingStatusChange() {
         this.grid.postEvent(new GridBootingStatusChange(this.booting));
         this.grid.notifyAllNodes(IGridNodeListener.State.GRID_BOOT);
@@ -173,6 +216,7 @@ public void removeNode(IGridNode gridNode) {
         if (gridNode.getOwner() instanceof ControllerBlockEntity controller) {
             this.controllers.remove(controller);
             this.recalculateControllerNextTick = true;
+            this.repath();
         }
 
         if (gridNode.hasFlag(GridFlags.REQUIRE_CHANNEL)) {
@@ -183,11 +227,12 @@ public void removeNode(IGridNode gridNode) {
             this.cannotCarryCompressedNodes.remove(gridNode);
         }
 
-        this.repath();
+        this.repathLocally(changes -> changes.nodeRemoved((GridNode) gridNode));
     }
 
     @Override
     public void addNode(IGridNode gridNode, @Nullable CompoundTag savedData) {
+        var previousChannelMode = this.channelMode;
         if (savedData != null) {
             restoreChannelMode(savedData);
         }
@@ -195,6 +240,9 @@ public void addNode(IGridNode gridNode, @Nullable CompoundTag savedData) {
         if (gridNode.getOwner() instanceof ControllerBlockEntity controller) {
             this.controllers.add(controller);
             this.recalculateControllerNextTick = true;
+            this.repath();
+        } else if (this.channelMode != previousChannelMode) {
+            this.repath();
         }
 
         if (gridNode.hasFlag(GridFlags.REQUIRE_CHANNEL)) {
@@ -205,7 +253,7 @@ public void addNode(IGridNode gridNode, @Nullable CompoundTag savedData) {
             this.cannotCarryCompressedNodes.add(gridNode);
         }
 
-        this.repath();
+        this.repathLocally(changes -> changes.nodeAdded((GridNode) gridNode));
     }
 
     private void restoreChannelMode(CompoundTag savedData) {
@@ -326,7 +374,7 @@ private void updateNodReq(GridChannelRequirementChanged ev) {
             this.nodesNeedingChannels.remove(gridNode);
         }
 
-        this.repath();
+        this.repathLocally(changes -> changes.channelRequirementChanged((GridNode) gridNode));
     }
 
     @Override
@@ -347,11 +395,39 @@ public void repath() {
 
         // clean up...
         this.ongoingCalculation = null;
+        this.incrementalPathing.clear();
 
         this.channelsByBlocks = 0;
         this.reboot = true;
     }
 
+    /**
+     * Called when a connection was created in this grid.
+     */
+    public void connectionAdded(GridConnection connection) {
+        this.repathLocally(changes -> changes.connectionAdded(connection));
+    }
+
+    /**
+     * Called when a connection of this grid is about to be destroyed.
+     */
+    public void connectionRemoved(GridConnection connection) {
+        this.repathLocally(changes -> changes.connectionRemoved(connection));
+    }
+
+    /**
+     * Records a local change to be repaired at the end of the tick, unless the channels of the entire grid have to be
+     * recalculated anyway.
+     */
+    private void repathLocally(Consumer<IncrementalPathing> change) {
+        if (!this.reboot && !this.booting && this.controllerState == ControllerState.CONTROLLER_ONLINE
+                && AEConfig.instance().isIncrementalChannelPathing()) {
+            change.accept(this.incrementalPathing);
+        } else {
+            this.repath();
+        }
+    }
+
     double getChannelPowerUsage() {
         return this.channelPowerUsage;
     }
@@ -390,4 +466,15 @@ public void saveNodeData(IGridNode gridNode, CompoundTag savedData) {
             savedData.putString(TAG_CHANNEL_MODE, channelMode.name());
         }
     }
+
+    public long getReallocationRepaths() {
+        return reallocationRepaths;
+    }
+
+    @Override
+    public void debugDump(JsonWriter writer, HolderLookup.Provider registries) throws IOException {
+        JsonStreamUtil.writeProperties(Map.of(
+                "channelsInUse", this.channelsInUse,
+                "reallocationRepaths", this.reallocationRepaths), writer);
+    }
 }
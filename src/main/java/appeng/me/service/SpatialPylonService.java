@@ -30,6 +30,7 @@
 import appeng.api.networking.IGrid;
 import appeng.api.networking.IGridServiceProvider;
 import appeng.api.networking.events.GridBootingStatusChange;
+import appeng.api.networking.events.GridChannelsRepaired;
 import appeng.api.networking.spatial.ISpatialService;
 import appeng.blockentity.spatial.SpatialIOPortBlockEntity;
 import appeng.blockentity.spatial.SpatialPylonBlockEntity;
@@ -43,6 +44,10 @@ public class SpatialPylonService implements ISpatialService, IGridServiceProvide
                 (service, evt) -> {
                     ((SpatialPylonService) service).bootingRender(evt);
                 });
+        GridHelper.addGridServiceEventHandler(GridChannelsRepaired.class, ISpatialService.class,
+                (service, evt) -> {
+                    ((SpatialPylonService) service).channelsRepaired(evt);
+                });
     }
 
     private final IGrid myGrid;
@@ -63,6 +68,17 @@ public void bootingRender(GridBootingStatusChange c) {
         this.reset(this.myGrid);
     }
 
+    private void channelsRepaired(GridChannelsRepaired c) {
+        // Only pylons and IO ports are part of the spatial setup
+        for (var node : c.getNodes()) {
+            var owner = node.getOwner();
+            if (owner instanceof SpatialPylonBlockEntity || owner instanceof SpatialIOPortBlockEntity) {
+                this.reset(this.myGrid);
+                return;
+            }
+        }
+    }
+
     private void reset(IGrid grid) {
 
         this.clusters = new HashMap<>();
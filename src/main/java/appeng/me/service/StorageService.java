@@ -20,11 +20,14 @@
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashMultimap;
@@ -41,8 +44,10 @@
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.NbtOps;
 
+import it.unimi.dsi.fastutil.objects.Object2LongLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 import appeng.api.networking.IGridNode;
 import appeng.api.networking.IGridServiceProvider;
@@ -53,14 +58,21 @@
 import appeng.api.storage.IStorageMounts;
 import appeng.api.storage.IStorageProvider;
 import appeng.api.storage.MEStorage;
+import appeng.core.AEConfig;
 import appeng.me.helpers.InterestManager;
 import appeng.me.helpers.StackWatcher;
+import appeng.me.storage.IChangeReportingStorage;
 import appeng.me.storage.NetworkStorage;
 import appeng.util.JsonStreamUtil;
 
 public class StorageService implements IStorageService, IGridServiceProvider {
     private static final Gson GSON = new Gson();
 
+    /**
+     * How many versions of the cached inventory are kept in the change log.
+     */
+    private static final int CHANGE_LOG_RETAINED_VERSIONS = 100;
+
     /**
      * Tracks the storage service's state for each grid node that provides storage to the network.
      */
@@ -78,6 +90,12 @@ public class StorageService implements IStorageService, IGridServiceProvider {
      */
     private KeyCounter cachedAvailableStacks = new KeyCounter();
     private KeyCounter cachedAvailableStacksBackBuffer = new KeyCounter();
+    /**
+     * The cached stacks that were last handed out as a {@link #getCachedInventorySnapshot() snapshot}, and must not be
+     * modified while they are still held. Snapshots are released from other threads.
+     */
+    @Nullable
+    private volatile SharedStacks sharedCachedStacks;
     /**
      * Private cached amounts, to ensure that we send correct change notifications even if
      * {@link #cachedAvailableStacks} is modified by mistake.
@@ -90,7 +108,50 @@ public class StorageService implements IStorageService, IGridServiceProvider {
      */
     private final Map<IGridNode, StackWatcher<IStorageWatcherNode>> watchers = new IdentityHashMap<>();
 
+    /**
+     * Mounted storages whose available stacks have to be re-read on the next incremental cache update.
+     */
+    private final List<MountedStorage> dirtyMounts = new ArrayList<>();
+    /**
+     * Mounted storages that do not report changes to their content and have to be re-read on every cache update.
+     */
+    private final Set<MountedStorage> untrackedMounts = new ReferenceOpenHashSet<>();
+    /**
+     * Storages that were unmounted since the last cache update, whose content still has to be removed from the cache.
+     */
+    private final List<MountedStorage> removedMounts = new ArrayList<>();
+    /**
+     * Keys whose amount in the cache changed during the current incremental update.
+     */
+    private final Set<AEKey> changedKeys = new HashSet<>();
+    /**
+     * Scratch buffer used when re-reading a single mounted storage.
+     */
+    private KeyCounter mountScratchBuffer = new KeyCounter();
+    /**
+     * True if the cached stacks are the sum of {@link MountedStorage#content}, and can thus be updated incrementally.
+     */
+    private boolean incrementalCacheValid;
+    private int ticksSinceFullRebuild;
+
+    /**
+     * Incremented each time the content of {@link #cachedAvailableStacks} changes.
+     */
+    private long cachedInventoryVersion;
+    private boolean cachedInventoryChanged;
+    /**
+     * For recently changed keys, the version of the cached inventory in which they last changed, ordered from least to
+     * most recently changed. Allows menus that share the cached inventory to only process the keys that changed since
+     * the version they have last seen.
+     */
+    private final Object2LongLinkedOpenHashMap<AEKey> changedKeyVersions = new Object2LongLinkedOpenHashMap<>();
+    /**
+     * The newest version for which changes have been dropped from {@link #changedKeyVersions}.
+     */
+    private long trimmedInventoryVersion;
+
     private final StatsAccumulator inventoryRefreshStats = new StatsAccumulator();
+    private final StatsAccumulator incrementalRefreshStats = new StatsAccumulator();
 
     public StorageService() {
         this.storage = new NetworkStorage();
@@ -98,22 +159,61 @@ public StorageService() {
 
     @Override
     public void onServerEndTick() {
+        ticksSinceFullRebuild++;
+
         if (interestManager.isEmpty()) {
             // lazily rebuild cache list
             cachedStacksNeedUpdate = true;
         } else {
-            // we need to rebuild the cache every tick to notify listeners
+            // we need to update the cache every tick to notify listeners
             updateCachedStacks();
         }
     }
 
     private void updateCachedStacks() {
+        cachedStacksNeedUpdate = false;
+
+        var config = AEConfig.instance();
+        if (!config.isIncrementalStorageCache()) {
+            rebuildCachedStacks();
+        } else if (!incrementalCacheValid || ticksSinceFullRebuild >= config.getStorageCacheRebuildInterval()) {
+            rebuildCachedStacksFromMounts();
+        } else {
+            applyMountChanges();
+        }
+
+        if (cachedInventoryChanged) {
+            cachedInventoryChanged = false;
+            cachedInventoryVersion++;
+            trimChangedKeyVersions();
+        }
+    }
+
+    private void trimChangedKeyVersions() {
+        var oldestRetainedVersion = cachedInventoryVersion - CHANGE_LOG_RETAINED_VERSIONS;
+        while (!changedKeyVersions.isEmpty()) {
+            var version = changedKeyVersions.getLong(changedKeyVersions.firstKey());
+            if (version >= oldestRetainedVersion) {
+                break;
+            }
+            changedKeyVersions.removeFirstLong();
+            trimmedInventoryVersion = Math.max(trimmedInventoryVersion, version);
+        }
+    }
+
+    /**
+     * Rebuilds the cache by walking the entire network storage.
+     */
+    private void rebuildCachedStacks() {
         var time = System.nanoTime();
 
         try {
-            cachedStacksNeedUpdate = false;
+            // The content of mounted storages is not kept up-to-date in this mode
+            incrementalCacheValid = false;
+            clearPendingMountChanges();
 
             // Update cache
+            unshareCachedStacks(false);
             var previousStacks = cachedAvailableStacks;
             var currentStacks = cachedAvailableStacksBackBuffer;
             cachedAvailableStacks = currentStacks;
@@ -122,34 +222,238 @@ private void updateCachedStacks() {
             currentStacks.clear();
             storage.getAvailableStacks(currentStacks);
 
-            // Post watcher update for currently available stacks
-            for (var entry : currentStacks) {
-                var what = entry.getKey();
-                var newAmount = entry.getLongValue();
+            postAllChanges();
+        } finally {
+            inventoryRefreshStats.add(System.nanoTime() - time);
+        }
+    }
+
+    /**
+     * Rebuilds the cache by re-reading every mounted storage individually, which also re-synchronizes the last known
+     * content of each storage used for incremental updates.
+     */
+    private void rebuildCachedStacksFromMounts() {
+        var time = System.nanoTime();
+
+        try {
+            clearPendingMountChanges();
+
+            unshareCachedStacks(false);
+            var currentStacks = cachedAvailableStacks;
+            currentStacks.clear();
+            untrackedMounts.clear();
+            for (var mount : getMountedStorages()) {
+                // Storages that do not report changes have to be re-read by every incremental update
+                mount.tracked = IChangeReportingStorage.isReportingChanges(mount.storage);
+                if (!mount.tracked) {
+                    untrackedMounts.add(mount);
+                }
+                mount.content.clear();
+                readMount(mount, mount.content);
+                currentStacks.addAll(mount.content);
+            }
+            currentStacks.removeZeros();
+
+            postAllChanges();
+
+            incrementalCacheValid = true;
+            ticksSinceFullRebuild = 0;
+        } finally {
+            inventoryRefreshStats.add(System.nanoTime() - time);
+        }
+    }
+
+    /**
+     * Only re-reads storages that reported a change (or do not report changes at all), and applies the difference to
+     * their last known content to the cache.
+     */
+    private void applyMountChanges() {
+        var time = System.nanoTime();
+
+        try {
+            if (!removedMounts.isEmpty()) {
+                var emptyContent = mountScratchBuffer;
+                emptyContent.clear();
+                for (var mount : removedMounts) {
+                    applyMountContent(mount.content, emptyContent);
+                }
+                removedMounts.clear();
+            }
+
+            var it = untrackedMounts.iterator();
+            while (it.hasNext()) {
+                var mount = it.next();
+                refreshMount(mount);
+                if (mount.tracked) {
+                    it.remove();
+                }
+            }
+
+            // Note that refreshing a mount can mark other mounts as dirty, so the list can grow while we iterate it
+            for (int i = 0; i < dirtyMounts.size(); i++) {
+                var mount = dirtyMounts.get(i);
+                mount.dirty = false;
+                if (mount.mounted && !untrackedMounts.contains(mount)) {
+                    refreshMount(mount);
+                    if (!mount.tracked) {
+                        untrackedMounts.add(mount);
+                    }
+                }
+            }
+            dirtyMounts.clear();
+
+            for (var what : changedKeys) {
+                var newAmount = cachedAvailableStacks.get(what);
+                if (newAmount == 0) {
+                    unshareCachedStacks(true);
+                    cachedAvailableStacks.remove(what);
+                }
                 if (newAmount != cachedAvailableAmounts.getLong(what)) {
+                    if (newAmount == 0) {
+                        cachedAvailableAmounts.removeLong(what);
+                    } else {
+                        cachedAvailableAmounts.put(what, newAmount);
+                    }
                     postWatcherUpdate(what, newAmount);
                 }
             }
-            // Post watcher update for removed stacks
-            for (var entry : cachedAvailableAmounts.object2LongEntrySet()) {
+            changedKeys.clear();
+        } finally {
+            incrementalRefreshStats.add(System.nanoTime() - time);
+        }
+    }
+
+    private void refreshMount(MountedStorage mount) {
+        mount.tracked = IChangeReportingStorage.isReportingChanges(mount.storage);
+
+        var currentContent = mountScratchBuffer;
+        currentContent.clear();
+        readMount(mount, currentContent);
+
+        applyMountContent(mount.content, currentContent);
+
+        // Swap buffers, the previous content of the mount becomes the new scratch buffer
+        mountScratchBuffer = mount.content;
+        mount.content = currentContent;
+    }
+
+    private void readMount(MountedStorage mount, KeyCounter out) {
+        storage.getMountedStacks(mount.storage, out);
+    }
+
+    /**
+     * Applies the difference between the previous and current content of a mounted storage to the cached stacks and
+     * records the keys that changed.
+     */
+    private void applyMountContent(KeyCounter previousContent, KeyCounter currentContent) {
+        for (var entry : currentContent) {
+            var amount = entry.getLongValue();
+            if (amount != 0) {
+                var what = entry.getKey();
+                var delta = amount - previousContent.get(what);
+                if (delta != 0) {
+                    unshareCachedStacks(true);
+                    cachedAvailableStacks.add(what, delta);
+                    changedKeys.add(what);
+                }
+            }
+        }
+        for (var entry : previousContent) {
+            var amount = entry.getLongValue();
+            if (amount != 0) {
                 var what = entry.getKey();
-                var newAmount = currentStacks.get(what);
-                if (newAmount == 0) {
-                    postWatcherUpdate(what, newAmount);
+                if (currentContent.get(what) == 0) {
+                    unshareCachedStacks(true);
+                    cachedAvailableStacks.add(what, -amount);
+                    changedKeys.add(what);
                 }
             }
+        }
+    }
+
+    /**
+     * Replaces the cached stacks if they were handed out as a snapshot that is still held, so that they can be
+     * modified. Once all holders released the snapshot, the cached stacks are modified in place again.
+     *
+     * @param copyContent Whether the content of the current cached stacks has to be kept, because they will only be
+     *                    updated and not rebuilt.
+     */
+    private void unshareCachedStacks(boolean copyContent) {
+        var shared = sharedCachedStacks;
+        if (shared == null) {
+            return;
+        }
+        sharedCachedStacks = null;
 
-            // Update private amounts
-            cachedAvailableAmounts.clear();
-            for (var entry : currentStacks) {
-                cachedAvailableAmounts.put(entry.getKey(), entry.getLongValue());
+        // New holders are only added on the server thread, so a released snapshot cannot be taken again concurrently
+        if (shared.holders().get() <= 0) {
+            return;
+        }
+
+        // Snapshots are only taken of the current buffer, and it is always unshared before the buffers are swapped
+        var unshared = new KeyCounter();
+        if (copyContent) {
+            unshared.addAll(shared.stacks());
+        }
+        cachedAvailableStacks = unshared;
+    }
+
+    /**
+     * Posts watcher updates for every key whose amount changed since the last update, based on a full rebuild of the
+     * cached stacks.
+     */
+    private void postAllChanges() {
+        var currentStacks = cachedAvailableStacks;
+
+        // Post watcher update for currently available stacks
+        for (var entry : currentStacks) {
+            var what = entry.getKey();
+            var newAmount = entry.getLongValue();
+            if (newAmount != cachedAvailableAmounts.getLong(what)) {
+                postWatcherUpdate(what, newAmount);
             }
-        } finally {
-            inventoryRefreshStats.add(System.nanoTime() - time);
         }
+        // Post watcher update for removed stacks
+        for (var entry : cachedAvailableAmounts.object2LongEntrySet()) {
+            var what = entry.getKey();
+            var newAmount = currentStacks.get(what);
+            if (newAmount == 0) {
+                postWatcherUpdate(what, newAmount);
+            }
+        }
+
+        // Update private amounts
+        cachedAvailableAmounts.clear();
+        for (var entry : currentStacks) {
+            cachedAvailableAmounts.put(entry.getKey(), entry.getLongValue());
+        }
+    }
+
+    private void clearPendingMountChanges() {
+        for (var mount : dirtyMounts) {
+            mount.dirty = false;
+        }
+        dirtyMounts.clear();
+        removedMounts.clear();
+        changedKeys.clear();
+    }
+
+    private List<MountedStorage> getMountedStorages() {
+        var result = new ArrayList<MountedStorage>();
+        for (var state : nodeProviders.values()) {
+            result.addAll(state.inventories.values());
+        }
+        for (var state : globalProviders) {
+            result.addAll(state.inventories.values());
+        }
+        return result;
     }
 
     private void postWatcherUpdate(AEKey what, long newAmount) {
+        // Every change to the cached inventory ends up here, so this is where we record it in the change log
+        changedKeyVersions.putAndMoveToLast(what, cachedInventoryVersion + 1);
+        cachedInventoryChanged = true;
+
         for (var watcher : interestManager.get(what)) {
             watcher.getHost().onStackChange(what, newAmount);
         }
@@ -209,6 +513,75 @@ public KeyCounter getCachedInventory() {
         return cachedAvailableStacks;
     }
 
+    /**
+     * Hands out the current cached stacks without copying them. If the cache changes before every holder
+     * {@linkplain #releaseCachedInventorySnapshot released} the snapshot, the cache is copied once, which costs time
+     * proportional to the number of cached keys. Otherwise, the snapshot costs nothing.
+     */
+    @Override
+    public KeyCounter getCachedInventorySnapshot() {
+        var snapshot = getCachedInventory();
+        snapshot.buildFuzzyIndex();
+        var shared = sharedCachedStacks;
+        if (shared != null && shared.stacks() == snapshot) {
+            shared.holders().incrementAndGet();
+        } else {
+            sharedCachedStacks = new SharedStacks(snapshot, new AtomicInteger(1));
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void releaseCachedInventorySnapshot(KeyCounter snapshot) {
+        var shared = sharedCachedStacks;
+        if (shared != null && shared.stacks() == snapshot) {
+            shared.holders().decrementAndGet();
+        }
+    }
+
+    /**
+     * @return The version of the {@link #getCachedInventory() cached inventory}, which is incremented every time its
+     *         content changes.
+     */
+    public long getCachedInventoryVersion() {
+        if (cachedStacksNeedUpdate) {
+            updateCachedStacks();
+        }
+        return cachedInventoryVersion;
+    }
+
+    /**
+     * Reports every key whose amount in the {@link #getCachedInventory() cached inventory} changed after the given
+     * version. Allows consumers that share the cached inventory to process only what changed since they last looked at
+     * it.
+     *
+     * @return False if the changes since the given version are no longer known. The consumer has not been called in
+     *         that case, and the caller has to process the entire cached inventory instead.
+     */
+    public boolean getCachedInventoryChanges(long sinceVersion, Consumer<AEKey> consumer) {
+        if (cachedStacksNeedUpdate) {
+            updateCachedStacks();
+        }
+
+        if (sinceVersion < trimmedInventoryVersion || sinceVersion > cachedInventoryVersion) {
+            return false;
+        }
+
+        if (!changedKeyVersions.isEmpty()) {
+            // Walk backwards from the most recently changed key until we reach keys the consumer has already seen
+            var entries = changedKeyVersions.object2LongEntrySet();
+            var it = entries.iterator(entries.last());
+            while (it.hasPrevious()) {
+                var entry = it.previous();
+                if (entry.getLongValue() <= sinceVersion) {
+                    break;
+                }
+                consumer.accept(entry.getKey());
+            }
+        }
+        return true;
+    }
+
     @Override
     public void addGlobalStorageProvider(IStorageProvider provider) {
         var state = new ProviderState(provider);
@@ -252,6 +625,55 @@ public void refreshGlobalStorageProvider(IStorageProvider provider) {
     @Override
     public void invalidateCache() {
         cachedStacksNeedUpdate = true;
+        incrementalCacheValid = false;
+    }
+
+    private void onMounted(MountedStorage mount) {
+        mount.mounted = true;
+        if (mount.storage instanceof IChangeReportingStorage reportingStorage) {
+            reportingStorage.setChangeListener(mount::markDirty);
+        }
+        // Its initial content is read on the next update
+        mount.markDirty();
+    }
+
+    private void onUnmounted(MountedStorage mount) {
+        mount.mounted = false;
+        if (mount.storage instanceof IChangeReportingStorage reportingStorage) {
+            reportingStorage.setChangeListener(null);
+        }
+        untrackedMounts.remove(mount);
+        if (incrementalCacheValid) {
+            removedMounts.add(mount);
+        }
+    }
+
+    /**
+     * Cached stacks that were handed out as a snapshot, and the number of holders that did not release them yet.
+     */
+    private record SharedStacks(KeyCounter stacks, AtomicInteger holders) {
+    }
+
+    /**
+     * The last known content of a storage mounted into the network storage.
+     */
+    private class MountedStorage {
+        private final MEStorage storage;
+        private KeyCounter content = new KeyCounter();
+        private boolean mounted;
+        private boolean dirty;
+        private boolean tracked;
+
+        public MountedStorage(MEStorage storage) {
+            this.storage = storage;
+        }
+
+        private void markDirty() {
+            if (mounted && !dirty) {
+                dirty = true;
+                dirtyMounts.add(this);
+            }
+        }
     }
 
     /**
@@ -260,7 +682,7 @@ public void invalidateCache() {
      */
     private class ProviderState implements IStorageMounts {
         private final IStorageProvider provider;
-        private final Set<MEStorage> inventories = new HashSet<>();
+        private final Map<MEStorage, MountedStorage> inventories = new HashMap<>();
         private boolean mounted;
 
         public ProviderState(IStorageProvider provider) {
@@ -282,12 +704,14 @@ private void mount() {
         public void mount(MEStorage inventory, int priority) {
             Preconditions.checkState(mounted, "Cannot use StorageMounts after the storage has been unmounted.");
 
-            if (!inventories.add(inventory)) {
+            var mount = new MountedStorage(inventory);
+            if (inventories.putIfAbsent(inventory, mount) != null) {
                 throw new IllegalStateException("Cannot mount the same inventory twice.");
             }
 
             // Mount this inventory into the network storage
             storage.mount(priority, inventory);
+            onMounted(mount);
         }
 
         public void update() {
@@ -301,14 +725,15 @@ public void unmount() {
             }
             mounted = false;
 
-            for (var inventory : inventories) {
-                unmount(inventory);
+            for (var mount : inventories.values()) {
+                unmount(mount);
             }
             inventories.clear();
         }
 
-        private void unmount(MEStorage inventory) {
-            storage.unmount(inventory);
+        private void unmount(MountedStorage mount) {
+            storage.unmount(mount.storage);
+            onUnmounted(mount);
         }
     }
 
@@ -316,7 +741,9 @@ private void unmount(MEStorage inventory) {
     public void debugDump(JsonWriter writer, HolderLookup.Provider registries) throws IOException {
 
         JsonStreamUtil.writeProperties(Map.of(
-                "inventoryRefreshTime", JsonStreamUtil.toMap(inventoryRefreshStats)), writer);
+                "inventoryRefreshTime", JsonStreamUtil.toMap(inventoryRefreshStats),
+                "incrementalRefreshTime", JsonStreamUtil.toMap(incrementalRefreshStats),
+                "untrackedStorages", untrackedMounts.size()), writer);
 
         writer.name("cachedAvailableStacks");
         writer.beginArray();
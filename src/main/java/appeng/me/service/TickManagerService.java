@@ -18,15 +18,13 @@
 
 package appeng.me.service;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.Objects;
-import java.util.PriorityQueue;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.Iterators;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -35,13 +33,17 @@
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.level.Level;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
 import appeng.api.networking.IGridNode;
 import appeng.api.networking.IGridServiceProvider;
 import appeng.api.networking.ticking.IGridTickable;
 import appeng.api.networking.ticking.ITickManager;
 import appeng.api.networking.ticking.TickRateModulation;
+import appeng.hooks.ticking.TickHandler;
 import appeng.me.GridNode;
 import appeng.me.service.helpers.TickTracker;
+import appeng.me.service.helpers.TickWheel;
 
 public class TickManagerService implements ITickManager, IGridServiceProvider {
 
@@ -50,24 +52,36 @@ public class TickManagerService implements ITickManager, IGridServiceProvider {
     private static final int TICK_RATE_SPEED_UP_FACTOR = 2;
     private static final int TICK_RATE_SLOW_DOWN_FACTOR = 1;
 
-    private final Map<IGridNode, TickTracker> alertable = new HashMap<>();
-    private final Map<IGridNode, TickTracker> sleeping = new HashMap<>();
-    private final Map<IGridNode, TickTracker> awake = new HashMap<>();
-    private final Map<Level, PriorityQueue<TickTracker>> upcomingTicks = new HashMap<>();
+    private final Map<IGridNode, TickTracker> alertable = new Reference2ObjectOpenHashMap<>();
+    private final Map<IGridNode, TickTracker> sleeping = new Reference2ObjectOpenHashMap<>();
+    private final Map<IGridNode, TickTracker> awake = new Reference2ObjectOpenHashMap<>();
+    private final Map<Level, TickWheel> upcomingTicks = new Reference2ObjectOpenHashMap<>();
 
-    private PriorityQueue<TickTracker> currentlyTickingQueue = null;
+    private TickWheel currentlyTickingQueue = null;
 
     private long currentTick = 0;
     private final Stopwatch stopWatch = Stopwatch.createUnstarted();
     @Nullable
     private IGridNode currentlyTicking;
 
+    /**
+     * Time spent ticking devices in the current tick in nanoseconds, only tracked if the time is limited.
+     */
+    private long timeSpentThisTick;
+    private int deferredThisTick;
+    private int deferredLastTick;
+    private long deferredTotal;
+    private long maxLag;
+
     public TickManagerService() {
     }
 
     @Override
     public void onServerStartTick() {
         this.currentTick++;
+        this.timeSpentThisTick = 0;
+        this.deferredLastTick = this.deferredThisTick;
+        this.deferredThisTick = 0;
     }
 
     @Override
@@ -102,19 +116,47 @@ private void tickLevelQueue(@Nullable Level level) {
         }
     }
 
-    private void tickQueue(PriorityQueue<TickTracker> queue) {
+    private void tickQueue(TickWheel queue) {
+        var budget = TickHandler.instance().getGridTickBudget();
+        if (!budget.isLimited()) {
+            tickQueue(queue, Long.MAX_VALUE);
+            return;
+        }
+
+        var start = System.nanoTime();
+        var deadline = start + budget.getRemaining(this.timeSpentThisTick);
+        try {
+            if (!tickQueue(queue, deadline) && deferDueTicks(queue) > 0) {
+                budget.gridDeferred();
+            }
+        } finally {
+            var elapsed = System.nanoTime() - start;
+            this.timeSpentThisTick += elapsed;
+            budget.consume(elapsed);
+        }
+    }
+
+    /**
+     * @param deadline The {@link System#nanoTime()} at which to stop ticking, or {@link Long#MAX_VALUE}.
+     * @return False if the deadline was reached before all due TickTrackers were ticked.
+     */
+    private boolean tickQueue(TickWheel queue, long deadline) {
         TickTracker tt;
 
-        while (!queue.isEmpty()) {
-            // Peek and stop once it reaches a TickTracker running at a later tick
-            tt = queue.peek();
-            if (tt.getNextTick() > this.currentTick) {
-                break;
+        while (true) {
+            if (deadline != Long.MAX_VALUE && System.nanoTime() >= deadline) {
+                return false;
+            }
+            // Stops once only TickTrackers running at a later tick are left
+            if ((tt = queue.pollDue(this.currentTick)) == null) {
+                return true;
             }
 
-            if (queue.poll() != tt) {
-                throw new IllegalStateException();
+            if (tt.getDeferredSince() >= 0) {
+                this.maxLag = Math.max(this.maxLag, this.currentTick - tt.getDeferredSince());
+                tt.setDeferredSince(-1);
             }
+
             var diff = (int) (this.currentTick - tt.getLastTick());
             currentlyTicking = tt.getNode();
             TickRateModulation mod;
@@ -143,12 +185,35 @@ private void tickQueue(PriorityQueue<TickTracker> queue) {
                 // Note that the node _may_ have been removed entirely from the grid in its own tick
                 if (this.awake.containsKey(tt.getNode())) {
                     // Queue already known, no need to use addToQueue() to resolve it again.
-                    queue.add(tt);
+                    queue.schedule(tt);
                 }
             }
         }
     }
 
+    /**
+     * Marks all TickTrackers that are still due as deferred. They stay first in line to be ticked on the next tick.
+     *
+     * @return The number of deferred TickTrackers.
+     */
+    private int deferDueTicks(TickWheel queue) {
+        var deferred = new ArrayList<TickTracker>();
+        TickTracker tt;
+        while ((tt = queue.pollDue(this.currentTick)) != null) {
+            deferred.add(tt);
+        }
+        for (var tracker : deferred) {
+            if (tracker.getDeferredSince() < 0) {
+                tracker.setDeferredSince(this.currentTick);
+            }
+            // Since it's overdue, it's queued in the same order again
+            queue.schedule(tracker);
+        }
+        this.deferredThisTick += deferred.size();
+        this.deferredTotal += deferred.size();
+        return deferred.size();
+    }
+
     @Override
     public void removeNode(IGridNode gridNode) {
         var tickable = gridNode.getService(IGridTickable.class);
@@ -319,19 +384,25 @@ private LongSummaryStatistics getStatistics(IGridNode node) {
     /**
      * null as level could be used for virtual nodes.
      */
-    private PriorityQueue<TickTracker> getQueue(@Nullable Level level) {
-        return this.upcomingTicks.computeIfAbsent(level, (key) -> new PriorityQueue<>());
+    private TickWheel getQueue(@Nullable Level level) {
+        return this.upcomingTicks.computeIfAbsent(level, (key) -> new TickWheel(this.currentTick));
     }
 
     private void addToQueue(IGridNode node, TickTracker tt) {
         var queue = getQueue(node.getLevel());
-        queue.add(tt);
+        queue.schedule(tt);
     }
 
-    private void removeFromQueue(IGridNode node, TickTracker tt) {
+    private void removeFromQueue(IGridNode node, @Nullable TickTracker tt) {
         var level = node.getLevel();
-        var queue = getQueue(level);
-        queue.remove(tt);
+        var queue = this.upcomingTicks.get(level);
+        if (queue == null) {
+            return;
+        }
+        if (tt != null) {
+            queue.remove(tt);
+            tt.setDeferredSince(-1);
+        }
 
         // Make sure we don't cleanup a queue we are iterating over,
         // as something might be added to it later even if it's empty now.
@@ -341,7 +412,7 @@ private void removeFromQueue(IGridNode node, TickTracker tt) {
     }
 
     private void updateQueuePosition(IGridNode node, TickTracker tt) {
-        this.removeFromQueue(node, tt);
+        // Moves the tracker if it is already queued
         this.addToQueue(node, tt);
     }
 
@@ -376,7 +447,29 @@ private TickRateModulation unsafeTickingRequest(TickTracker tt, int diff) {
     }
 
     /**
-     * This method is slow and only for debugging purposes.
+     * @return The number of devices whose tick was deferred to the next tick because the grid ran out of time in the
+     *         last completed tick.
+     */
+    public int getDeferredLastTick() {
+        return deferredLastTick;
+    }
+
+    /**
+     * @return The number of times a device's tick was deferred to the next tick because the grid ran out of time.
+     */
+    public long getDeferredTotal() {
+        return deferredTotal;
+    }
+
+    /**
+     * @return The highest number of ticks a device was ticked later than it was due because the grid ran out of time.
+     */
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    /**
+     * This method is only for debugging purposes.
      */
     public NodeStatus getStatus(IGridNode node) {
         var sleepingTracker = sleeping.get(node);
@@ -388,7 +481,7 @@ public NodeStatus getStatus(IGridNode node) {
         boolean isQueued = false;
         var tickQueue = upcomingTicks.get(node.getLevel());
         if (awakeTracker != null && tickQueue != null) {
-            isQueued = Iterators.contains(tickQueue.iterator(), awakeTracker);
+            isQueued = tickQueue.contains(awakeTracker);
         }
 
         // Get the tick-request stats
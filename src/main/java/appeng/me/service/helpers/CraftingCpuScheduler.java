@@ -0,0 +1,102 @@
+package appeng.me.service.helpers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.jetbrains.annotations.VisibleForTesting;
+
+import net.minecraft.world.level.Level;
+
+import appeng.api.networking.energy.IEnergyService;
+import appeng.crafting.execution.CraftingCpuLogic;
+import appeng.me.cluster.implementations.CraftingCPUCluster;
+import appeng.me.service.CraftingService;
+
+/**
+ * Distributes the pattern pushes of a tick between the crafting CPUs of a grid.
+ * <p/>
+ * Each CPU is still limited by its co-processors, but CPUs no longer push as much as they can before the next CPU gets
+ * its turn, which let the first CPUs take all the providers they share with the others. Instead, the CPUs with a job
+ * take turns in rounds, and each round a CPU may push a number of patterns proportional to how many it may push this
+ * tick. The CPU that goes first also changes every tick.
+ */
+public class CraftingCpuScheduler {
+    private int tickOffset;
+
+    public void tick(Collection<CraftingCPUCluster> cpus, CraftingService craftingService,
+            IEnergyService energyService) {
+        var ticking = new ArrayList<ScheduledCpu>(cpus.size());
+        for (var cpu : cpus) {
+            var budget = cpu.craftingLogic.startTick();
+            if (budget >= 0) {
+                ticking.add(new ScheduledCpu(cpu.craftingLogic, cpu.getLevel(), budget));
+            }
+        }
+        if (!ticking.isEmpty()) {
+            schedule(ticking, craftingService, energyService);
+        }
+    }
+
+    /**
+     * Lets the given CPUs, whose tick was already started, push patterns, and completes their tick.
+     */
+    @VisibleForTesting
+    void schedule(List<ScheduledCpu> ticking, CraftingService craftingService, IEnergyService energyService) {
+        // Start with a different CPU every tick
+        tickOffset = (tickOffset + 1) % ticking.size();
+        var active = new ArrayList<ScheduledCpu>(ticking.size());
+        active.addAll(ticking.subList(tickOffset, ticking.size()));
+        active.addAll(ticking.subList(0, tickOffset));
+        active.removeIf(cpu -> cpu.remaining <= 0);
+
+        assignShares(active);
+
+        while (!active.isEmpty()) {
+            for (var it = active.iterator(); it.hasNext();) {
+                var scheduled = it.next();
+                var pushed = scheduled.logic.executeCrafting(Math.min(scheduled.share, scheduled.remaining),
+                        craftingService, energyService, scheduled.level);
+                scheduled.remaining -= pushed;
+                scheduled.pushed += pushed;
+
+                // A CPU that could not push anything this round will not be able to later in the same tick
+                if (pushed == 0 || scheduled.remaining <= 0) {
+                    it.remove();
+                }
+            }
+        }
+
+        for (var scheduled : ticking) {
+            scheduled.logic.endTick(scheduled.pushed);
+        }
+    }
+
+    /**
+     * Gives the CPU with the smallest budget one push per round, and all others a proportional number of pushes.
+     */
+    private static void assignShares(List<ScheduledCpu> active) {
+        var smallestBudget = Integer.MAX_VALUE;
+        for (var scheduled : active) {
+            smallestBudget = Math.min(smallestBudget, scheduled.remaining);
+        }
+        for (var scheduled : active) {
+            scheduled.share = Math.max(1, scheduled.remaining / smallestBudget);
+        }
+    }
+
+    @VisibleForTesting
+    static class ScheduledCpu {
+        private final CraftingCpuLogic logic;
+        private final Level level;
+        private int remaining;
+        private int share;
+        private int pushed;
+
+        ScheduledCpu(CraftingCpuLogic logic, Level level, int budget) {
+            this.logic = logic;
+            this.level = level;
+            this.remaining = budget;
+        }
+    }
+}
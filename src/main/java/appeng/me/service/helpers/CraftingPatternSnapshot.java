@@ -0,0 +1,63 @@
+package appeng.me.service.helpers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import appeng.api.crafting.IPatternDetails;
+import appeng.api.stacks.AEKey;
+import appeng.api.storage.AEKeyFilter;
+import appeng.crafting.IPatternLookup;
+
+/**
+ * An immutable copy of the craftable and emitable keys of a network at one point in time. Since it never changes, it
+ * can be shared by crafting calculations running concurrently on other threads.
+ */
+public final class CraftingPatternSnapshot implements IPatternLookup {
+    private final Map<AEKey, List<IPatternDetails>> patterns;
+    /**
+     * Craftable keys grouped by their primary key, for fuzzy lookups.
+     */
+    private final Map<Object, List<AEKey>> craftablesByPrimaryKey;
+    private final Set<AEKey> emitableItems;
+
+    public CraftingPatternSnapshot(Map<AEKey, List<IPatternDetails>> patterns, Set<AEKey> emitableItems) {
+        var patternsCopy = new HashMap<AEKey, List<IPatternDetails>>(patterns.size());
+        patterns.forEach((what, keyPatterns) -> patternsCopy.put(what, List.copyOf(keyPatterns)));
+        this.patterns = Map.copyOf(patternsCopy);
+        this.emitableItems = Set.copyOf(emitableItems);
+
+        var byPrimaryKey = new HashMap<Object, List<AEKey>>();
+        for (var craftable : patterns.keySet()) {
+            byPrimaryKey.computeIfAbsent(craftable.getPrimaryKey(), k -> new ArrayList<>()).add(craftable);
+        }
+        byPrimaryKey.replaceAll((primaryKey, keys) -> List.copyOf(keys));
+        this.craftablesByPrimaryKey = Map.copyOf(byPrimaryKey);
+    }
+
+    @Override
+    public Collection<IPatternDetails> getCraftingFor(AEKey whatToCraft) {
+        return patterns.getOrDefault(whatToCraft, List.of());
+    }
+
+    @Nullable
+    @Override
+    public AEKey getFuzzyCraftable(AEKey whatToCraft, AEKeyFilter filter) {
+        for (var fuzzy : craftablesByPrimaryKey.getOrDefault(whatToCraft.getPrimaryKey(), List.of())) {
+            if (filter.matches(fuzzy)) {
+                return fuzzy;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean canEmitFor(AEKey someItem) {
+        return emitableItems.contains(someItem);
+    }
+}
@@ -18,6 +18,8 @@
 
 package appeng.me.service.helpers;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.network.chat.Component;
 
 import appeng.api.config.Actionable;
@@ -28,6 +30,7 @@
 import appeng.api.storage.MEStorage;
 import appeng.core.localization.GuiText;
 import appeng.me.service.CraftingService;
+import appeng.me.storage.IChangeReportingStorage;
 
 /**
  * The storage exposed by the crafting service. It does two things:
@@ -38,7 +41,18 @@
  */
 public class CraftingServiceStorage implements IStorageProvider {
     private final CraftingService craftingService;
-    private final MEStorage inventory = new MEStorage() {
+    private final MEStorage inventory = new CraftingInventory();
+
+    public CraftingServiceStorage(CraftingService craftingService) {
+        this.craftingService = craftingService;
+    }
+
+    @Override
+    public void mountInventories(IStorageMounts mounts) {
+        mounts.mount(inventory, Integer.MAX_VALUE);
+    }
+
+    private class CraftingInventory implements MEStorage, IChangeReportingStorage {
         @Override
         public boolean isPreferredStorageFor(AEKey key, IActionSource source) {
             return true;
@@ -54,14 +68,10 @@ public long insert(AEKey what, long amount, Actionable mode, IActionSource sourc
         public Component getDescription() {
             return GuiText.AutoCrafting.text();
         }
-    };
-
-    public CraftingServiceStorage(CraftingService craftingService) {
-        this.craftingService = craftingService;
-    }
 
-    @Override
-    public void mountInventories(IStorageMounts mounts) {
-        mounts.mount(inventory, Integer.MAX_VALUE);
+        @Override
+        public void setChangeListener(@Nullable Runnable listener) {
+            // Crafted items are forwarded to the CPUs, the storage itself never contains anything
+        }
     }
 }
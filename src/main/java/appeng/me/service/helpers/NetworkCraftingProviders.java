@@ -36,6 +36,11 @@ public class NetworkCraftingProviders {
      */
     private final KeyCounter craftableItemsList = new KeyCounter();
     private final Map<AEKey, Integer> emitableItems = new HashMap<>();
+    /**
+     * Immutable copy of the patterns for asynchronous crafting calculations. Null if it has to be rebuilt.
+     */
+    @Nullable
+    private CraftingPatternSnapshot snapshot;
 
     public void addProvider(IGridNode node) {
         var provider = node.getService(ICraftingProvider.class);
@@ -46,6 +51,7 @@ public void addProvider(IGridNode node) {
             var state = new ProviderState(provider);
             state.mount(this);
             craftingProviders.put(node, state);
+            snapshot = null;
         }
     }
 
@@ -55,6 +61,7 @@ public void removeProvider(IGridNode node) {
             var state = craftingProviders.remove(node);
             if (state != null) {
                 state.unmount(this);
+                snapshot = null;
             }
         }
     }
@@ -100,6 +107,29 @@ public boolean canEmitFor(AEKey someItem) {
         return this.emitableItems.containsKey(someItem);
     }
 
+    /**
+     * @return An immutable copy of the current craftable and emitable keys, which is reused until the patterns in the
+     *         network change.
+     */
+    public CraftingPatternSnapshot getSnapshot() {
+        if (snapshot == null) {
+            var patterns = new HashMap<AEKey, List<IPatternDetails>>(craftableItems.size());
+            for (var entry : craftableItems.entrySet()) {
+                patterns.put(entry.getKey(), entry.getValue().getSortedPatterns());
+            }
+            snapshot = new CraftingPatternSnapshot(patterns, emitableItems.keySet());
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return The patterns provided by the given node, or an empty list if it is not a crafting provider.
+     */
+    public List<IPatternDetails> getProvidedPatterns(IGridNode node) {
+        var state = craftingProviders.get(node);
+        return state != null ? state.patterns : List.of();
+    }
+
     public Iterable<ICraftingProvider> getMediums(IPatternDetails key) {
         var mediumList = this.craftingMethods.get(key);
         return Objects.requireNonNullElse(mediumList, Collections.emptyList());
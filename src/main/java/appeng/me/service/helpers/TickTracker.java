@@ -20,6 +20,8 @@
 
 import java.util.LongSummaryStatistics;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.CrashReportCategory;
 import net.minecraft.util.Mth;
 
@@ -27,7 +29,7 @@
 import appeng.api.networking.ticking.IGridTickable;
 import appeng.api.networking.ticking.TickingRequest;
 
-public class TickTracker implements Comparable<TickTracker> {
+public class TickTracker {
 
     private final TickingRequest request;
     private final IGridTickable gt;
@@ -36,6 +38,17 @@ public class TickTracker implements Comparable<TickTracker> {
 
     private long lastTick;
     private int currentRate;
+    private long deferredSince = -1;
+
+    // Links of the tracker into the slot of a TickWheel
+    @Nullable
+    TickWheel wheel;
+    @Nullable
+    TickTracker wheelPrev;
+    @Nullable
+    TickTracker wheelNext;
+    int wheelSlot = -1;
+    long dueTick;
 
     public TickTracker(TickingRequest req, IGridNode node, IGridTickable gt, long currentTick) {
         this.request = req;
@@ -46,24 +59,6 @@ public TickTracker(TickingRequest req, IGridNode node, IGridTickable gt, long cu
         this.statistics = new LongSummaryStatistics();
     }
 
-    @Override
-    public int compareTo(TickTracker t) {
-        int next = Long.compare(this.getNextTick(), t.getNextTick());
-
-        if (next != 0) {
-            return next;
-        }
-
-        int last = Long.compare(this.getLastTick(), t.getLastTick());
-
-        if (last != 0) {
-            return last;
-        }
-
-        return Integer.compare(this.getCurrentRate(), t.getCurrentRate());
-
-    }
-
     public void addEntityCrashInfo(CrashReportCategory category) {
         node.fillCrashReportCategory(category);
 
@@ -100,6 +95,17 @@ public void setLastTick(long lastTick) {
         this.lastTick = lastTick;
     }
 
+    /**
+     * @return The tick since which the tracker is overdue because its grid ran out of time, or -1.
+     */
+    public long getDeferredSince() {
+        return this.deferredSince;
+    }
+
+    public void setDeferredSince(long deferredSince) {
+        this.deferredSince = deferredSince;
+    }
+
     public IGridNode getNode() {
         return this.node;
     }
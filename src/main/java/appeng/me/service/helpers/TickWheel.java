@@ -0,0 +1,185 @@
+package appeng.me.service.helpers;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Schedules {@link TickTracker}s by the tick they are due at, using a hierarchical timer wheel.
+ * <p/>
+ * The first level has one slot per tick, every further level has slots spanning a whole revolution of the level below.
+ * A tracker is placed in the lowest level whose slot still distinguishes its due tick from the current tick, and moves
+ * down a level whenever the wheel reaches its slot. Trackers are linked into their slot directly, so scheduling,
+ * rescheduling and removing a tracker are constant time, regardless of how many trackers are scheduled.
+ * <p/>
+ * Trackers within the same tick are ticked in the order they were scheduled.
+ */
+public final class TickWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    /**
+     * Covers 2^36 ticks, which is far beyond the maximum tick rate of a tracker.
+     */
+    private static final int LEVELS = 6;
+
+    private final TickTracker[] slots = new TickTracker[LEVELS * SLOTS];
+    /**
+     * The tick of the current slot of the first level. Every scheduled tracker that is due at or before this tick is
+     * in the current slot, every other tracker is due after it.
+     */
+    private long time;
+    private int size;
+
+    public TickWheel(long currentTick) {
+        this.time = currentTick;
+    }
+
+    /**
+     * Schedules the tracker for {@link TickTracker#getNextTick()}, or moves it there if it is already scheduled.
+     */
+    public void schedule(TickTracker tracker) {
+        if (tracker.wheel != null) {
+            if (tracker.wheel != this) {
+                throw new IllegalStateException("Tracker is scheduled on another wheel");
+            }
+            unlink(tracker);
+        } else {
+            tracker.wheel = this;
+            size++;
+        }
+        tracker.dueTick = tracker.getNextTick();
+        link(tracker, slotFor(tracker.dueTick));
+    }
+
+    /**
+     * @return False if the tracker wasn't scheduled on this wheel.
+     */
+    public boolean remove(TickTracker tracker) {
+        if (tracker.wheel != this) {
+            return false;
+        }
+        unlink(tracker);
+        tracker.wheel = null;
+        size--;
+        return true;
+    }
+
+    public boolean contains(TickTracker tracker) {
+        return tracker.wheel == this;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes and returns the next tracker that is due at or before the given tick, advancing the wheel up to that tick
+     * as necessary. Trackers scheduled for the given tick while it is being processed will be returned by this method
+     * as well.
+     *
+     * @return null if no more trackers are due.
+     */
+    @Nullable
+    public TickTracker pollDue(long currentTick) {
+        if (size == 0) {
+            // Nothing to move down, so the wheel can jump ahead directly.
+            time = Math.max(time, currentTick);
+            return null;
+        }
+
+        while (true) {
+            var current = (int) (time & SLOT_MASK);
+            var tracker = slots[current];
+            if (tracker != null) {
+                remove(tracker);
+                return tracker;
+            }
+            if (time >= currentTick) {
+                return null;
+            }
+            advance();
+        }
+    }
+
+    private void advance() {
+        time++;
+
+        // Move trackers down, starting with the highest level, since they may end up in the current slot of a lower
+        // level that's about to be moved down as well.
+        int level = 0;
+        while (level < LEVELS - 1 && ((time >>> (SLOT_BITS * (level + 1))) << (SLOT_BITS * (level + 1))) == time) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            var slot = level * SLOTS + (int) ((time >>> (SLOT_BITS * level)) & SLOT_MASK);
+            var tracker = slots[slot];
+            slots[slot] = null;
+            while (tracker != null) {
+                var next = tracker.wheelNext;
+                tracker.wheelPrev = tracker.wheelNext = null;
+                link(tracker, slotFor(tracker.dueTick));
+                tracker = next;
+            }
+        }
+    }
+
+    private int slotFor(long dueTick) {
+        if (dueTick <= time) {
+            return (int) (time & SLOT_MASK);
+        }
+
+        // The lowest level above which the due tick and the current tick agree
+        var differentBits = dueTick ^ time;
+        for (int level = 0; level < LEVELS; level++) {
+            if (differentBits >>> (SLOT_BITS * (level + 1)) == 0) {
+                return level * SLOTS + (int) ((dueTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            }
+        }
+
+        // Too far ahead for the wheel, so park it in the last slot of the highest level to be reached. It will be
+        // placed again once the wheel gets there.
+        var level = LEVELS - 1;
+        return level * SLOTS + (int) (((time >>> (SLOT_BITS * level)) - 1) & SLOT_MASK);
+    }
+
+    private void link(TickTracker tracker, int slot) {
+        tracker.wheelSlot = slot;
+        var head = slots[slot];
+        if (head == null) {
+            tracker.wheelPrev = tracker;
+            slots[slot] = tracker;
+        } else {
+            // The head's previous tracker is the tail of the slot
+            var tail = head.wheelPrev;
+            tail.wheelNext = tracker;
+            tracker.wheelPrev = tail;
+            head.wheelPrev = tracker;
+        }
+        tracker.wheelNext = null;
+    }
+
+    private void unlink(TickTracker tracker) {
+        var slot = tracker.wheelSlot;
+        var head = slots[slot];
+        var next = tracker.wheelNext;
+        var prev = tracker.wheelPrev;
+        if (tracker == head) {
+            slots[slot] = next;
+            if (next != null) {
+                next.wheelPrev = prev;
+            }
+        } else {
+            prev.wheelNext = next;
+            if (next != null) {
+                next.wheelPrev = prev;
+            } else {
+                head.wheelPrev = prev;
+            }
+        }
+        tracker.wheelNext = tracker.wheelPrev = null;
+        tracker.wheelSlot = -1;
+    }
+}
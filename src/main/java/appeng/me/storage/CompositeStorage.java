@@ -1,8 +1,11 @@
 package appeng.me.storage;
 
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.network.chat.Component;
 
 import appeng.api.config.Actionable;
@@ -17,13 +20,22 @@
 /**
  * Combines several ME storages that each handle only a given key-space.
  */
-public class CompositeStorage implements MEStorage, ITickingMonitor {
+public class CompositeStorage implements MEStorage, ITickingMonitor, IChangeReportingStorage {
     private final InventoryCache cache;
 
     private Map<AEKeyType, MEStorage> storages;
 
     private boolean forceCacheRebuild = true;
 
+    /**
+     * Whether this storage is ticked, which finishes polling large external inventories over several ticks. Otherwise,
+     * the cache has to be rebuilt from all slots of those inventories at once.
+     */
+    private boolean ticking;
+
+    @Nullable
+    private Runnable changeListener;
+
     public CompositeStorage(Map<AEKeyType, MEStorage> storages) {
         this.storages = storages;
         this.cache = new InventoryCache();
@@ -31,6 +43,20 @@ public CompositeStorage(Map<AEKeyType, MEStorage> storages) {
 
     public void setStorages(Map<AEKeyType, MEStorage> storages) {
         this.storages = Objects.requireNonNull(storages);
+        this.cache.createExternalCaches();
+        this.forceCacheRebuild = true;
+        notifyChanged();
+    }
+
+    @Override
+    public void setChangeListener(@Nullable Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    private void notifyChanged() {
+        if (changeListener != null) {
+            changeListener.run();
+        }
     }
 
     @Override
@@ -46,6 +72,7 @@ public long insert(AEKey what, long amount, Actionable mode, IActionSource sourc
 
         if (inserted > 0 && mode == Actionable.MODULATE) {
             forceCacheRebuild = true;
+            notifyChanged();
         }
 
         return inserted;
@@ -58,6 +85,7 @@ public long extract(AEKey what, long amount, Actionable mode, IActionSource sour
 
         if (extracted > 0 && mode == Actionable.MODULATE) {
             forceCacheRebuild = true;
+            notifyChanged();
         }
 
         return extracted;
@@ -84,9 +112,14 @@ public Component getDescription() {
 
     @Override
     public TickRateModulation onTick() {
+        ticking = true;
         forceCacheRebuild = false;
-        boolean changed = this.cache.update();
+        boolean changed = this.cache.update(false);
         if (changed) {
+            notifyChanged();
+            return TickRateModulation.URGENT;
+        } else if (this.cache.hasPendingPolls()) {
+            // Continue polling large external inventories on the next tick
             return TickRateModulation.URGENT;
         } else {
             return TickRateModulation.SLOWER;
@@ -97,7 +130,7 @@ public TickRateModulation onTick() {
     public void getAvailableStacks(KeyCounter out) {
         if (forceCacheRebuild) {
             forceCacheRebuild = false;
-            cache.update();
+            cache.update(!ticking);
         }
         this.cache.getAvailableKeys(out);
     }
@@ -105,8 +138,28 @@ public void getAvailableStacks(KeyCounter out) {
     private class InventoryCache {
         private KeyCounter frontBuffer = new KeyCounter();
         private KeyCounter backBuffer = new KeyCounter();
+        /**
+         * Polls external inventories incrementally, instead of reading all of their slots on every update.
+         */
+        private final Map<MEStorage, ExternalInventoryCache> externalCaches = new IdentityHashMap<>();
 
-        public boolean update() {
+        public InventoryCache() {
+            createExternalCaches();
+        }
+
+        public void createExternalCaches() {
+            externalCaches.clear();
+            for (var storage : storages.values()) {
+                if (storage instanceof ExternalStorageFacade facade) {
+                    externalCaches.put(storage, ExternalInventoryCache.of(facade));
+                }
+            }
+        }
+
+        /**
+         * @param complete Read all slots of external inventories, instead of polling them incrementally.
+         */
+        public boolean update(boolean complete) {
             // Flip back & front buffer and start building a new list
             var tmp = backBuffer;
             backBuffer = frontBuffer;
@@ -115,7 +168,13 @@ public boolean update() {
 
             // Rebuild the front buffer
             for (var storage : storages.values()) {
-                storage.getAvailableStacks(frontBuffer);
+                var externalCache = externalCaches.get(storage);
+                if (externalCache != null) {
+                    externalCache.update(complete);
+                    externalCache.getAvailableItems(frontBuffer);
+                } else {
+                    storage.getAvailableStacks(frontBuffer);
+                }
             }
 
             boolean changed = false;
@@ -138,6 +197,15 @@ public boolean update() {
             return changed;
         }
 
+        public boolean hasPendingPolls() {
+            for (var externalCache : externalCaches.values()) {
+                if (externalCache.hasPendingPolls()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
         public void getAvailableKeys(KeyCounter out) {
             out.addAll(frontBuffer);
         }
@@ -18,13 +18,17 @@
 
 package appeng.me.storage;
 
+import org.jetbrains.annotations.Nullable;
+
 import appeng.api.config.Actionable;
 import appeng.api.networking.security.IActionSource;
 import appeng.api.stacks.AEKey;
+import appeng.api.stacks.AEKeyType;
 import appeng.api.storage.cells.CellState;
 import appeng.api.storage.cells.StorageCell;
+import appeng.util.prioritylist.IPartitionList;
 
-public class DriveWatcher extends MEInventoryHandler {
+public class DriveWatcher extends MEInventoryHandler implements IRoutableStorage {
 
     private CellState oldStatus = CellState.EMPTY;
     private final Runnable activityCallback;
@@ -43,6 +47,19 @@ public StorageCell getCell() {
         return (StorageCell) getDelegate();
     }
 
+    // The cell of a drive watcher never changes, and drives don't configure any filtering on the handler itself.
+    @Nullable
+    @Override
+    public AEKeyType getRoutingKeyType() {
+        return getCell() instanceof IRoutableStorage routableStorage ? routableStorage.getRoutingKeyType() : null;
+    }
+
+    @Nullable
+    @Override
+    public IPartitionList getRoutingInsertFilter() {
+        return getCell() instanceof IRoutableStorage routableStorage ? routableStorage.getRoutingInsertFilter() : null;
+    }
+
     @Override
     public long insert(AEKey what, long amount, Actionable mode, IActionSource source) {
         var inserted = super.insert(what, amount, mode, source);
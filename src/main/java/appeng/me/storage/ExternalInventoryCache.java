@@ -1,19 +1,86 @@
 package appeng.me.storage;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.Nullable;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 
 import appeng.api.stacks.AEKey;
 import appeng.api.stacks.GenericStack;
 import appeng.api.stacks.KeyCounter;
 
+/**
+ * Caches the content of an external inventory, and polls it for changes.
+ * <p/>
+ * Reading every slot of an inventory with thousands of slots every time a storage bus ticks is expensive, so the slots
+ * are polled in regions, and only a bounded number of slots is read on each {@link #update()}. Regions that did not
+ * change are polled less and less often, while regions that did are polled on every update again. Whenever something
+ * is inserted into or extracted from the inventory through its {@link ExternalStorageFacade facade}, all regions are
+ * polled again as soon as possible.
+ * <p/>
+ * Inventories that are small enough to be read in a single update are always read completely. Callers that do not
+ * update the cache regularly, and need to see the entire inventory at once, use {@link #update(boolean)} to read all
+ * slots regardless of the limit.
+ * <p/>
+ * The cache also indexes which slots hold which key, so that the facade does not have to search every slot of the
+ * inventory for a key. The index is only as current as the last poll of a region, so the facade validates the slots it
+ * gets from it.
+ */
 class ExternalInventoryCache {
-    private GenericStack[] cached = new GenericStack[0];
+    /**
+     * The number of slots in a region.
+     */
+    static final int REGION_SIZE = 64;
+    /**
+     * The maximum number of slots read by a single update.
+     */
+    static final int SLOTS_PER_UPDATE = 1024;
+    /**
+     * The maximum number of updates between two polls of a region that does not change.
+     */
+    static final int MAX_POLL_INTERVAL = 8;
+
     private final ExternalStorageFacade facade;
+    private final KeyCounter available = new KeyCounter();
+    private GenericStack[] cached = new GenericStack[0];
+    /**
+     * Whether the stack cached for a slot is counted in {@link #available}.
+     */
+    private boolean[] counted = new boolean[0];
+    private int[] pollInterval = new int[0];
+    /**
+     * The number of updates until a region is polled again. Regions with a value of zero or less are due.
+     */
+    private int[] updatesUntilPoll = new int[0];
+    /**
+     * The region the next update starts polling at.
+     */
+    private int nextRegion;
+    private boolean pendingPolls;
+    /**
+     * Whether the available stacks changed outside of {@link #update()}, which the next update has to report.
+     */
+    private boolean availableChanged;
+    /**
+     * The slots that were last seen holding a given key.
+     */
+    private final Map<AEKey, IntSet> slotIndex = new HashMap<>();
 
     private ExternalInventoryCache(ExternalStorageFacade facade) {
         this.facade = facade;
+        facade.setSlotIndex(this);
+
+        var downstreamListener = facade.getChangeListener();
+        facade.setChangeListener(() -> {
+            requestRescan();
+            if (downstreamListener != null) {
+                downstreamListener.run();
+            }
+        });
     }
 
     public static ExternalInventoryCache of(ExternalStorageFacade facade) {
@@ -21,74 +88,187 @@ public static ExternalInventoryCache of(ExternalStorageFacade facade) {
     }
 
     public void getAvailableItems(KeyCounter out) {
-        for (GenericStack stack : cached) {
-            out.add(stack.what(), stack.amount());
-        }
+        out.addAll(available);
+    }
+
+    /**
+     * @return True if some regions are due, but could not be polled within the limit of the last update.
+     */
+    public boolean hasPendingPolls() {
+        return pendingPolls;
+    }
+
+    /**
+     * Makes all regions due, so that the entire inventory is polled as soon as possible.
+     */
+    public void requestRescan() {
+        Arrays.fill(updatesUntilPoll, 0);
     }
 
-    public Set<AEKey> update() {
-        var changes = new HashSet<AEKey>();
+    /**
+     * Polls the regions that are due, up to a limit of {@link #SLOTS_PER_UPDATE} slots.
+     *
+     * @return True if the available stacks changed.
+     */
+    public boolean update() {
+        return update(false);
+    }
+
+    /**
+     * Polls the regions that are due, up to a limit of {@link #SLOTS_PER_UPDATE} slots.
+     *
+     * @param complete Poll every region of the inventory, without a limit.
+     * @return True if the available stacks changed.
+     */
+    public boolean update(boolean complete) {
+        boolean changed = availableChanged;
+        availableChanged = false;
         final int slots = this.facade.getSlots();
 
-        // Make room for new slots
-        if (slots > this.cached.length) {
-            this.cached = Arrays.copyOf(this.cached, slots);
+        if (slots != this.cached.length) {
+            changed = resize(slots);
         }
 
-        for (int slot = 0; slot < slots; slot++) {
-            // Save the old stuff
-            var oldGenericStack = this.cached[slot];
-            var newGenericStack = facade.getStackInSlot(slot);
-
-            this.handlePossibleSlotChanges(slot, oldGenericStack, newGenericStack, changes);
+        var regions = pollInterval.length;
+        if (complete || slots <= SLOTS_PER_UPDATE) {
+            // Small inventories are always polled completely
+            requestRescan();
+        } else {
+            for (int region = 0; region < regions; region++) {
+                updatesUntilPoll[region]--;
+            }
         }
 
-        // Handle cases where the number of slots actually is lower now than before
-        if (slots < this.cached.length) {
-            for (int slot = slots; slot < this.cached.length; slot++) {
-                final GenericStack aeStack = this.cached[slot];
+        var budget = complete ? Integer.MAX_VALUE : SLOTS_PER_UPDATE;
+        var region = nextRegion;
+        pendingPolls = false;
+        for (int i = 0; i < regions; i++, region = (region + 1) % regions) {
+            if (updatesUntilPoll[region] > 0) {
+                continue;
+            }
+            if (budget <= 0) {
+                // Continue with this region next time
+                pendingPolls = true;
+                break;
+            }
+
+            var from = region * REGION_SIZE;
+            var to = Math.min(slots, from + REGION_SIZE);
+            budget -= to - from;
 
-                if (aeStack != null) {
-                    changes.add(aeStack.what());
+            boolean regionChanged = false;
+            for (int slot = from; slot < to; slot++) {
+                if (!facade.isStackInSlot(slot, this.cached[slot])) {
+                    handleSlotChanged(slot, facade.getStackInSlot(slot));
+                    regionChanged = true;
                 }
             }
 
-            // Reduce the cache size
-            this.cached = Arrays.copyOf(this.cached, slots);
+            // Back off from regions that do not change
+            if (regionChanged) {
+                changed = true;
+                pollInterval[region] = 1;
+            } else {
+                pollInterval[region] = Math.min(pollInterval[region] * 2, MAX_POLL_INTERVAL);
+            }
+            updatesUntilPoll[region] = pollInterval[region];
         }
+        nextRegion = regions > 0 ? region % regions : 0;
 
-        return changes;
+        if (changed) {
+            available.removeZeros();
+        }
+        return changed;
     }
 
-    private void handlePossibleSlotChanges(int slot, GenericStack oldStack, GenericStack newStack, Set<AEKey> changes) {
-        if (oldStack != null && newStack != null && oldStack.what().equals(newStack.what())) {
-            handleAmountChanged(slot, oldStack, newStack, changes);
-        } else {
-            handleItemChanged(slot, oldStack, newStack, changes);
+    /**
+     * @return The slots that may hold the given key, which the caller has to check. Slots that have not been polled
+     *         since they received the key are missing.
+     */
+    public int[] getIndexedSlots(AEKey what) {
+        var slots = slotIndex.get(what);
+        return slots != null ? slots.toIntArray() : new int[0];
+    }
+
+    /**
+     * Records that the given slot holds the given key, because it was inserted there.
+     */
+    public void addIndexedSlot(AEKey what, int slot) {
+        slotIndex.computeIfAbsent(what, k -> new IntOpenHashSet()).add(slot);
+    }
+
+    /**
+     * Forgets what was last seen in a slot that no longer holds the given key, and makes its region due. Otherwise, the
+     * next poll would not notice the slot being refilled with the stack it held before, and never index it again.
+     */
+    public void invalidateSlot(AEKey what, int slot) {
+        removeIndexedSlot(what, slot);
+        if (slot < this.cached.length) {
+            var cachedStack = this.cached[slot];
+            if (cachedStack != null && cachedStack.what().equals(what)) {
+                availableChanged |= handleSlotChanged(slot, null);
+            }
+            updatesUntilPoll[slot / REGION_SIZE] = 0;
         }
     }
 
-    private void handleAmountChanged(int slot, GenericStack oldStack, GenericStack newStack, Set<AEKey> changes) {
-        // Still the same item, but amount might have changed
-        if (newStack.amount() != oldStack.amount()) {
-            this.cached[slot] = newStack;
-            changes.add(newStack.what());
+    private void removeIndexedSlot(AEKey what, int slot) {
+        var slots = slotIndex.get(what);
+        if (slots != null && slots.remove(slot) && slots.isEmpty()) {
+            slotIndex.remove(what);
         }
     }
 
-    private void handleItemChanged(int slot, GenericStack oldStack, GenericStack newStack, Set<AEKey> changes) {
-        // Completely different item
-        this.cached[slot] = newStack;
+    /**
+     * Adapts the cache to a new number of slots, which makes every region due.
+     *
+     * @return True if stacks in slots that no longer exist were removed.
+     */
+    private boolean resize(int slots) {
+        boolean changed = false;
 
-        // If we had a stack previously in this slot, notify the network about its disappearance
-        if (oldStack != null) {
-            changes.add(oldStack.what());
+        // Handle cases where the number of slots actually is lower now than before
+        for (int slot = slots; slot < this.cached.length; slot++) {
+            changed |= handleSlotChanged(slot, null);
         }
 
-        // Notify the network about the new stack
+        this.cached = Arrays.copyOf(this.cached, slots);
+        this.counted = Arrays.copyOf(this.counted, slots);
+
+        var regions = (slots + REGION_SIZE - 1) / REGION_SIZE;
+        this.pollInterval = new int[regions];
+        Arrays.fill(this.pollInterval, 1);
+        this.updatesUntilPoll = new int[regions];
+        this.nextRegion = 0;
+
+        return changed;
+    }
+
+    /**
+     * @return True if the available stacks changed.
+     */
+    private boolean handleSlotChanged(int slot, @Nullable GenericStack newStack) {
+        var oldStack = this.cached[slot];
+        if (oldStack != null) {
+            removeIndexedSlot(oldStack.what(), slot);
+        }
         if (newStack != null) {
-            changes.add(newStack.what());
+            addIndexedSlot(newStack.what(), slot);
         }
-    }
 
+        var wasCounted = this.counted[slot];
+        if (wasCounted) {
+            available.remove(oldStack.what(), oldStack.amount());
+        }
+
+        // Skip resources that cannot be extracted if that filter was enabled
+        var isCounted = newStack != null && facade.isExtractable(slot, newStack);
+        if (isCounted) {
+            available.add(newStack.what(), newStack.amount());
+        }
+
+        this.cached[slot] = newStack;
+        this.counted[slot] = isCounted;
+        return wasCounted || isCounted;
+    }
 }
@@ -1,5 +1,6 @@
 package appeng.me.storage;
 
+import java.util.Objects;
 import java.util.Set;
 
 import javax.annotation.Nullable;
@@ -38,15 +39,42 @@ public abstract class ExternalStorageFacade implements MEStorage {
 
     protected boolean extractableOnly;
 
+    /**
+     * Knows which slots hold which key, if the inventory is polled by an {@link ExternalInventoryCache}.
+     */
+    @Nullable
+    protected ExternalInventoryCache slotIndex;
+
     public void setChangeListener(@Nullable Runnable listener) {
         this.changeListener = listener;
     }
 
+    void setSlotIndex(@Nullable ExternalInventoryCache slotIndex) {
+        this.slotIndex = slotIndex;
+    }
+
+    @Nullable
+    Runnable getChangeListener() {
+        return changeListener;
+    }
+
     public abstract int getSlots();
 
     @Nullable
     public abstract GenericStack getStackInSlot(int slot);
 
+    /**
+     * Checks if a slot still contains the given stack, without creating a new stack for its content.
+     */
+    boolean isStackInSlot(int slot, @Nullable GenericStack stack) {
+        return Objects.equals(getStackInSlot(slot), stack);
+    }
+
+    /**
+     * Checks if the given stack, which is in the given slot, has to be reported as available.
+     */
+    abstract boolean isExtractable(int slot, GenericStack stack);
+
     public abstract AEKeyType getKeyType();
 
     @Override
@@ -112,6 +140,25 @@ public GenericStack getStackInSlot(int slot) {
             return GenericStack.fromItemStack(handler.getStackInSlot(slot));
         }
 
+        @Override
+        boolean isStackInSlot(int slot, @Nullable GenericStack stack) {
+            var current = handler.getStackInSlot(slot);
+            if (stack == null) {
+                return current.isEmpty();
+            }
+            return stack.amount() == current.getCount() && stack.what() instanceof AEItemKey itemKey
+                    && itemKey.matches(current);
+        }
+
+        @Override
+        boolean isExtractable(int slot, GenericStack stack) {
+            return !extractableOnly || canExtract(slot, Ints.saturatedCast(stack.amount()));
+        }
+
+        private boolean canExtract(int slot, int count) {
+            return !handler.extractItem(slot, 1, true).isEmpty() || !handler.extractItem(slot, count, true).isEmpty();
+        }
+
         @Override
         public AEKeyType getKeyType() {
             return AEKeyType.items();
@@ -129,9 +176,23 @@ public int insertExternal(AEKey what, int amount, Actionable mode) {
             int slotCount = handler.getSlots();
             boolean simulate = mode == Actionable.SIMULATE;
 
+            // Top up the slots that already hold this item first
+            if (slotIndex != null) {
+                for (int slot : slotIndex.getIndexedSlots(itemKey)) {
+                    if (remaining.isEmpty()) {
+                        break;
+                    }
+                    if (slot >= slotCount || !itemKey.matches(handler.getStackInSlot(slot))) {
+                        slotIndex.invalidateSlot(itemKey, slot);
+                        continue;
+                    }
+                    remaining = insertIntoSlot(slot, itemKey, remaining, simulate);
+                }
+            }
+
             // This uses a brute force approach and tries to jam it in every slot the inventory exposes.
             for (int i = 0; i < slotCount && !remaining.isEmpty(); i++) {
-                remaining = handler.insertItem(i, remaining, simulate);
+                remaining = insertIntoSlot(i, itemKey, remaining, simulate);
             }
 
             // At this point, we still have some items left...
@@ -143,6 +204,14 @@ public int insertExternal(AEKey what, int amount, Actionable mode) {
             return amount - remaining.getCount();
         }
 
+        private ItemStack insertIntoSlot(int slot, AEItemKey what, ItemStack stack, boolean simulate) {
+            var remaining = handler.insertItem(slot, stack, simulate);
+            if (!simulate && slotIndex != null && remaining.getCount() < stack.getCount()) {
+                slotIndex.addIndexedSlot(what, slot);
+            }
+            return remaining;
+        }
+
         @Override
         public int extractExternal(AEKey what, int amount, Actionable mode) {
             if (!(what instanceof AEItemKey itemKey)) {
@@ -156,10 +225,24 @@ public int extractExternal(AEKey what, int amount, Actionable mode) {
 
             final boolean simulate = mode == Actionable.SIMULATE;
 
-            for (int i = 0; i < handler.getSlots(); i++) {
+            // Only search the slots that are known to hold this item, if we know them
+            var indexedSlots = slotIndex != null ? slotIndex.getIndexedSlots(itemKey) : null;
+            var slotCount = handler.getSlots();
+            var candidates = indexedSlots != null ? indexedSlots.length : slotCount;
+
+            for (int j = 0; j < candidates; j++) {
+                int i = indexedSlots != null ? indexedSlots[j] : j;
+                if (i >= slotCount) {
+                    slotIndex.invalidateSlot(itemKey, i);
+                    continue;
+                }
+
                 ItemStack stackInInventorySlot = handler.getStackInSlot(i);
 
                 if (!itemKey.matches(stackInInventorySlot)) {
+                    if (indexedSlots != null) {
+                        slotIndex.invalidateSlot(itemKey, i);
+                    }
                     continue;
                 }
 
@@ -247,12 +330,8 @@ public void getAvailableStacks(KeyCounter out) {
                     continue;
                 }
 
-                if (extractableOnly) {
-                    if (handler.extractItem(i, 1, true).isEmpty()) {
-                        if (handler.extractItem(i, stack.getCount(), true).isEmpty()) {
-                            continue;
-                        }
-                    }
+                if (extractableOnly && !canExtract(i, stack.getCount())) {
+                    continue;
                 }
 
                 out.add(AEItemKey.of(stack), stack.getCount());
@@ -278,6 +357,25 @@ public GenericStack getStackInSlot(int slot) {
             return GenericStack.fromFluidStack(handler.getFluidInTank(slot));
         }
 
+        @Override
+        boolean isStackInSlot(int slot, @Nullable GenericStack stack) {
+            var current = handler.getFluidInTank(slot);
+            if (stack == null) {
+                return current.isEmpty();
+            }
+            return stack.amount() == current.getAmount() && stack.what() instanceof AEFluidKey fluidKey
+                    && fluidKey.matches(current);
+        }
+
+        @Override
+        boolean isExtractable(int slot, GenericStack stack) {
+            return !extractableOnly || canExtract(handler.getFluidInTank(slot));
+        }
+
+        private boolean canExtract(FluidStack stack) {
+            return !handler.drain(stack, IFluidHandler.FluidAction.SIMULATE).isEmpty();
+        }
+
         @Override
         public AEKeyType getKeyType() {
             return AEKeyType.fluids();
@@ -332,10 +430,8 @@ public void getAvailableStacks(KeyCounter out) {
                     continue;
                 }
 
-                if (extractableOnly) {
-                    if (handler.drain(stack, IFluidHandler.FluidAction.SIMULATE).isEmpty()) {
-                        continue;
-                    }
+                if (extractableOnly && !canExtract(stack)) {
+                    continue;
                 }
 
                 out.add(AEFluidKey.of(stack), stack.getAmount());
@@ -0,0 +1,35 @@
+package appeng.me.storage;
+
+import org.jetbrains.annotations.Nullable;
+
+import appeng.api.storage.MEStorage;
+
+/**
+ * Implemented by {@link MEStorage} that notify a listener whenever their {@link MEStorage#getAvailableStacks available
+ * stacks} might have changed. The network inventory cache uses this to only re-read storages that actually changed,
+ * instead of walking every mounted storage each tick.
+ * <p/>
+ * A storage only supports a single listener. Wrappers should only forward their listener to storages they exclusively
+ * own, otherwise they might replace the listener of a network the storage is also mounted in.
+ */
+public interface IChangeReportingStorage {
+    /**
+     * Sets the listener that is notified when the available stacks of this storage might have changed.
+     *
+     * @param listener The new listener, or null to remove the current listener.
+     */
+    void setChangeListener(@Nullable Runnable listener);
+
+    /**
+     * @return True if every change to the available stacks of this storage is reported to the change listener. If this
+     *         returns false, the storage has to be re-read regularly to detect changes. Whenever the return value of
+     *         this method changes, the listener must be notified.
+     */
+    default boolean isReportingChanges() {
+        return true;
+    }
+
+    static boolean isReportingChanges(MEStorage storage) {
+        return storage instanceof IChangeReportingStorage reportingStorage && reportingStorage.isReportingChanges();
+    }
+}
@@ -0,0 +1,34 @@
+package appeng.me.storage;
+
+import org.jetbrains.annotations.Nullable;
+
+import appeng.api.stacks.AEKeyType;
+import appeng.api.storage.MEStorage;
+import appeng.util.prioritylist.IPartitionList;
+
+/**
+ * Implemented by {@link MEStorage} that can describe up front which keys they are able to handle. The
+ * {@link NetworkStorage} uses this to only offer inserts and extracts to storages that could possibly accept or
+ * contain a given key.
+ * <p/>
+ * The restrictions reported by a storage must not change while it is mounted. Storages whose restrictions change have
+ * to be remounted.
+ */
+public interface IRoutableStorage {
+    /**
+     * @return The only type of key this storage accepts or contains, or null if it might handle keys of any type.
+     */
+    @Nullable
+    default AEKeyType getRoutingKeyType() {
+        return null;
+    }
+
+    /**
+     * @return A list of keys outside of which this storage never accepts anything on insert, or null if inserts are not
+     *         restricted to a list of keys. Keys that are not listed might still be contained and extracted.
+     */
+    @Nullable
+    default IPartitionList getRoutingInsertFilter() {
+        return null;
+    }
+}
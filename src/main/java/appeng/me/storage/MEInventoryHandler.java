@@ -18,6 +18,8 @@
 
 package appeng.me.storage;
 
+import org.jetbrains.annotations.Nullable;
+
 import appeng.api.config.Actionable;
 import appeng.api.config.IncludeExclude;
 import appeng.api.networking.security.IActionSource;
@@ -27,7 +29,7 @@
 import appeng.util.prioritylist.DefaultPriorityList;
 import appeng.util.prioritylist.IPartitionList;
 
-public class MEInventoryHandler extends DelegatingMEInventory {
+public class MEInventoryHandler extends DelegatingMEInventory implements IChangeReportingStorage {
 
     private IPartitionList partitionList = DefaultPriorityList.INSTANCE;
     private IncludeExclude partitionListMode = IncludeExclude.WHITELIST;
@@ -39,16 +41,21 @@ public class MEInventoryHandler extends DelegatingMEInventory {
 
     private boolean gettingAvailableContent = false;
 
+    @Nullable
+    private Runnable changeListener;
+
     public MEInventoryHandler(MEStorage inventory) {
         super(inventory);
     }
 
     public void setAllowExtraction(boolean allowExtraction) {
         this.allowExtraction = allowExtraction;
+        notifyChanged();
     }
 
     public void setAllowInsertion(boolean allowInsertion) {
         this.allowInsertion = allowInsertion;
+        notifyChanged();
     }
 
     protected IncludeExclude getWhitelist() {
@@ -57,6 +64,7 @@ protected IncludeExclude getWhitelist() {
 
     public void setWhitelist(IncludeExclude myWhitelist) {
         this.partitionListMode = myWhitelist;
+        notifyChanged();
     }
 
     protected IPartitionList getPartitionList() {
@@ -65,15 +73,58 @@ protected IPartitionList getPartitionList() {
 
     public void setPartitionList(IPartitionList myPartitionList) {
         this.partitionList = myPartitionList;
+        notifyChanged();
     }
 
     public void setExtractFiltering(boolean filterOnExtraction, boolean filterAvailableContents) {
         this.filterOnExtraction = filterOnExtraction;
         this.filterAvailableContents = filterAvailableContents;
+        notifyChanged();
     }
 
     public void setVoidOverflow(boolean voidOverflow) {
         this.voidOverflow = voidOverflow;
+        notifyChanged();
+    }
+
+    @Override
+    protected void setDelegate(MEStorage delegate) {
+        if (this.changeListener != null && canForwardChangeListener(getDelegate())) {
+            ((IChangeReportingStorage) getDelegate()).setChangeListener(null);
+        }
+        super.setDelegate(delegate);
+        if (this.changeListener != null && canForwardChangeListener(delegate)) {
+            ((IChangeReportingStorage) delegate).setChangeListener(this.changeListener);
+        }
+        notifyChanged();
+    }
+
+    @Override
+    public void setChangeListener(@Nullable Runnable listener) {
+        this.changeListener = listener;
+        if (canForwardChangeListener(getDelegate())) {
+            ((IChangeReportingStorage) getDelegate()).setChangeListener(listener);
+        }
+    }
+
+    @Override
+    public boolean isReportingChanges() {
+        return canForwardChangeListener(getDelegate())
+                && ((IChangeReportingStorage) getDelegate()).isReportingChanges();
+    }
+
+    /**
+     * Decides whether the change listener of this handler is passed on to the given delegate. Only delegates that are
+     * exclusively owned by this handler should receive it, since storages only support a single listener.
+     */
+    protected boolean canForwardChangeListener(MEStorage delegate) {
+        return delegate instanceof IChangeReportingStorage;
+    }
+
+    protected void notifyChanged() {
+        if (this.changeListener != null) {
+            this.changeListener.run();
+        }
     }
 
     @Override
@@ -22,7 +22,9 @@
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
 
@@ -32,27 +34,41 @@
 
 import net.minecraft.network.chat.Component;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
 import appeng.api.config.Actionable;
 import appeng.api.networking.security.IActionSource;
 import appeng.api.stacks.AEKey;
+import appeng.api.stacks.AEKeyType;
 import appeng.api.stacks.KeyCounter;
 import appeng.api.storage.MEStorage;
 import appeng.core.localization.GuiText;
+import appeng.util.prioritylist.IPartitionList;
 
 /**
  * Manages all available {@link MEStorage} on the network.
+ * <p/>
+ * Inserts and extracts are only offered to the inventories that could possibly handle the given key, based on the
+ * restrictions reported by {@link IRoutableStorage}. This routing is built lazily for each priority and rebuilt after
+ * an inventory of that priority has been mounted or unmounted.
  */
 public class NetworkStorage implements MEStorage {
     private static final ThreadLocal<Deque<NetworkStorage>> DEPTH_MOD = new ThreadLocal<>();
     private static final ThreadLocal<Deque<NetworkStorage>> DEPTH_SIM = new ThreadLocal<>();
     private static final Comparator<Integer> PRIORITY_SORTER = (o1, o2) -> Integer.compare(o2, o1);
+    private static final Comparator<RoutedInventory> MOUNT_ORDER_SORTER = Comparator
+            .comparingInt(RoutedInventory::index);
 
     private boolean mountsInUse;
 
     private static int currentPass = 0;
 
-    private final NavigableMap<Integer, List<MEStorage>> priorityInventory;
+    private final NavigableMap<Integer, PriorityGroup> priorityInventory;
     private final List<MEStorage> secondPassInventories = new ArrayList<>();
+    // Inserts and extracts into this storage can only be nested if they use a different mode,
+    // so one candidate buffer per mode is enough.
+    private final List<RoutedInventory> simulateCandidates = new ArrayList<>();
+    private final List<RoutedInventory> modulateCandidates = new ArrayList<>();
     private int myPass = 0;
     // Queued mount/unmount operations that occurred while an insert/extract was ongoing
     // Is only non-null if something is queued
@@ -70,8 +86,9 @@ public void mount(int priority, MEStorage inventory) {
             }
             queuedOperations.add(new MountOperation(priority, inventory));
         } else {
-            this.priorityInventory.computeIfAbsent(priority, k -> new ArrayList<>())
-                    .add(inventory);
+            var group = this.priorityInventory.computeIfAbsent(priority, k -> new PriorityGroup());
+            group.inventories.add(inventory);
+            group.routing = null;
         }
     }
 
@@ -86,9 +103,13 @@ public void unmount(MEStorage inventory) {
             while (prioIt.hasNext()) {
                 var prioEntry = prioIt.next();
 
-                var inventories = prioEntry.getValue();
-                if (inventories.remove(inventory) && inventories.isEmpty()) {
-                    prioIt.remove();
+                var group = prioEntry.getValue();
+                if (group.inventories.remove(inventory)) {
+                    if (group.inventories.isEmpty()) {
+                        prioIt.remove();
+                    } else {
+                        group.routing = null;
+                    }
                 }
             }
         }
@@ -100,17 +121,19 @@ public long insert(AEKey what, long amount, Actionable type, IActionSource src)
         }
 
         var remaining = amount;
+        var candidates = getCandidateBuffer(type);
 
         this.mountsInUse = true;
         try {
-            for (var invList : this.priorityInventory.values()) {
+            for (var group : this.priorityInventory.values()) {
                 secondPassInventories.clear();
 
+                group.getRouting().getInsertCandidates(what, candidates);
+
                 // First give every inventory a chance to accept the item if it's preferential storage for the given
                 // stack
-                var ii = invList.iterator();
-                while (ii.hasNext() && remaining > 0) {
-                    var inv = ii.next();
+                for (int i = 0; i < candidates.size() && remaining > 0; i++) {
+                    var inv = candidates.get(i).storage();
 
                     if (isQueuedForRemoval(inv)) {
                         continue;
@@ -139,6 +162,7 @@ public long insert(AEKey what, long amount, Actionable type, IActionSource src)
 
         } finally {
             this.mountsInUse = false;
+            candidates.clear();
         }
 
         this.surface(type);
@@ -165,6 +189,10 @@ private void flushQueuedOperations() {
         }
     }
 
+    private List<RoutedInventory> getCandidateBuffer(Actionable mode) {
+        return mode == Actionable.MODULATE ? modulateCandidates : simulateCandidates;
+    }
+
     private boolean isQueuedForRemoval(MEStorage inv) {
         if (queuedOperations != null) {
             for (var queuedOperation : queuedOperations) {
@@ -210,13 +238,15 @@ public long extract(AEKey what, long amount, Actionable mode, IActionSource sour
         }
 
         var extracted = 0L;
+        var candidates = getCandidateBuffer(mode);
 
         this.mountsInUse = true;
         try {
-            for (var invList : this.priorityInventory.descendingMap().values()) {
-                var ii = invList.iterator();
-                while (ii.hasNext() && extracted < amount) {
-                    var inv = ii.next();
+            for (var group : this.priorityInventory.descendingMap().values()) {
+                group.getRouting().getExtractCandidates(what, candidates);
+
+                for (int i = 0; i < candidates.size() && extracted < amount; i++) {
+                    var inv = candidates.get(i).storage();
 
                     if (isQueuedForRemoval(inv)) {
                         continue;
@@ -227,6 +257,7 @@ public long extract(AEKey what, long amount, Actionable mode, IActionSource sour
             }
         } finally {
             this.mountsInUse = false;
+            candidates.clear();
         }
 
         this.surface(mode);
@@ -243,7 +274,7 @@ public void getAvailableStacks(KeyCounter out) {
         }
 
         for (var i : this.priorityInventory.values()) {
-            for (var j : i) {
+            for (var j : i.inventories) {
                 j.getAvailableStacks(out);
             }
         }
@@ -251,6 +282,21 @@ public void getAvailableStacks(KeyCounter out) {
         this.surface(Actionable.SIMULATE);
     }
 
+    /**
+     * Adds the available stacks of a single inventory mounted in this network storage. Uses the same recursion
+     * protection as {@link #getAvailableStacks(KeyCounter)}, so that inventories which provide access back into this
+     * network do not report its content.
+     */
+    public void getMountedStacks(MEStorage inventory, KeyCounter out) {
+        if (diveIteration(Actionable.SIMULATE)) {
+            return;
+        }
+
+        inventory.getAvailableStacks(out);
+
+        this.surface(Actionable.SIMULATE);
+    }
+
     private boolean diveIteration(Actionable type) {
         var cDepth = this.getDepth(type);
         if (cDepth.isEmpty()) {
@@ -269,6 +315,127 @@ public Component getDescription() {
         return GuiText.MENetworkStorage.text();
     }
 
+    /**
+     * The inventories mounted with the same priority, in the order they were mounted.
+     */
+    private static final class PriorityGroup {
+        private final List<MEStorage> inventories = new ArrayList<>();
+        @Nullable
+        private Routing routing;
+
+        private Routing getRouting() {
+            if (routing == null) {
+                routing = new Routing(inventories);
+            }
+            return routing;
+        }
+    }
+
+    /**
+     * Indexes the inventories of a priority group by the key type and the keys they are restricted to.
+     */
+    private static final class Routing {
+        private final KeyTypeRouting anyKeyType = new KeyTypeRouting();
+        private final Map<AEKeyType, KeyTypeRouting> byKeyType = new Reference2ObjectOpenHashMap<>();
+
+        Routing(List<MEStorage> inventories) {
+            for (int i = 0; i < inventories.size(); i++) {
+                var inventory = inventories.get(i);
+                var routedInventory = new RoutedInventory(i, inventory);
+
+                if (inventory instanceof IRoutableStorage routableStorage) {
+                    var keyType = routableStorage.getRoutingKeyType();
+                    var keyTypeRouting = keyType != null
+                            ? byKeyType.computeIfAbsent(keyType, k -> new KeyTypeRouting())
+                            : anyKeyType;
+                    keyTypeRouting.add(routedInventory, routableStorage.getRoutingInsertFilter());
+                } else {
+                    anyKeyType.add(routedInventory, null);
+                }
+            }
+        }
+
+        /**
+         * Collects the inventories that might accept the given key, in the order they were mounted.
+         */
+        void getInsertCandidates(AEKey what, List<RoutedInventory> out) {
+            out.clear();
+            var primaryKey = what.getPrimaryKey();
+            var sources = anyKeyType.addInsertCandidates(primaryKey, out);
+            var keyTypeRouting = byKeyType.get(what.getType());
+            if (keyTypeRouting != null) {
+                sources += keyTypeRouting.addInsertCandidates(primaryKey, out);
+            }
+            if (sources > 1) {
+                out.sort(MOUNT_ORDER_SORTER);
+            }
+        }
+
+        /**
+         * Collects the inventories that might contain the given key, in the order they were mounted.
+         */
+        void getExtractCandidates(AEKey what, List<RoutedInventory> out) {
+            out.clear();
+            out.addAll(anyKeyType.inventories);
+            var keyTypeRouting = byKeyType.get(what.getType());
+            if (keyTypeRouting != null) {
+                if (!out.isEmpty()) {
+                    out.addAll(keyTypeRouting.inventories);
+                    out.sort(MOUNT_ORDER_SORTER);
+                } else {
+                    out.addAll(keyTypeRouting.inventories);
+                }
+            }
+        }
+    }
+
+    private static final class KeyTypeRouting {
+        private final List<RoutedInventory> inventories = new ArrayList<>();
+        // Inventories that accept any key on insert
+        private final List<RoutedInventory> unfiltered = new ArrayList<>();
+        // Inventories that only accept the listed keys on insert, indexed by the primary key of the listed keys.
+        // Using the primary key also covers fuzzy partition lists, which only match keys with the same primary key.
+        private final Map<Object, List<RoutedInventory>> filtered = new HashMap<>();
+
+        void add(RoutedInventory inventory, @Nullable IPartitionList insertFilter) {
+            inventories.add(inventory);
+            if (insertFilter == null) {
+                unfiltered.add(inventory);
+            } else {
+                for (var key : insertFilter.getItems()) {
+                    var filteredInventories = filtered.computeIfAbsent(key.getPrimaryKey(), k -> new ArrayList<>());
+                    // Several listed keys may share the same primary key
+                    if (filteredInventories.isEmpty() || filteredInventories.getLast() != inventory) {
+                        filteredInventories.add(inventory);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return The number of non-empty, individually ordered lists of inventories that were added.
+         */
+        int addInsertCandidates(Object primaryKey, List<RoutedInventory> out) {
+            var sources = 0;
+            if (!unfiltered.isEmpty()) {
+                out.addAll(unfiltered);
+                sources++;
+            }
+            var filteredInventories = filtered.get(primaryKey);
+            if (filteredInventories != null) {
+                out.addAll(filteredInventories);
+                sources++;
+            }
+            return sources;
+        }
+    }
+
+    /**
+     * An inventory along with its position in the mount order of its priority group.
+     */
+    private record RoutedInventory(int index, MEStorage storage) {
+    }
+
     sealed interface QueuedOperation permits MountOperation, UnmountOperation {
     }
 
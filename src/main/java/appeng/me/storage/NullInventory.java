@@ -18,6 +18,8 @@
 
 package appeng.me.storage;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.network.chat.Component;
 
 import appeng.api.stacks.KeyCounter;
@@ -26,7 +28,7 @@
 /**
  * An immutable inventory that is empty.
  */
-public class NullInventory implements MEStorage {
+public class NullInventory implements MEStorage, IChangeReportingStorage {
     private static final NullInventory NULL_INVENTORY = new NullInventory();
 
     public static MEStorage of() {
@@ -41,4 +43,9 @@ public void getAvailableStacks(KeyCounter out) {
     public Component getDescription() {
         return Component.empty();
     }
+
+    @Override
+    public void setChangeListener(@Nullable Runnable listener) {
+        // Never changes
+    }
 }
@@ -0,0 +1,47 @@
+package appeng.menu.me.common;
+
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.Nullable;
+
+import appeng.api.stacks.AEKey;
+import appeng.me.service.StorageService;
+
+/**
+ * Remembers which version of a grid's shared inventory a menu last sent to its client, to find the keys that changed
+ * since then in the change log of the grid's storage service.
+ */
+final class GridInventoryCursor {
+    @Nullable
+    private StorageService gridStorage;
+    private long version;
+
+    /**
+     * Reports the keys of the given grid's shared inventory that changed since the version the cursor points at.
+     *
+     * @return False if these changes are not known, because the cursor points at another grid, or fell behind the
+     *         change log. Nothing was reported in that case, and the entire inventory has to be sent again.
+     */
+    boolean getChanges(StorageService gridStorage, Consumer<AEKey> consumer) {
+        return gridStorage == this.gridStorage && gridStorage.getCachedInventoryChanges(version, consumer);
+    }
+
+    /**
+     * Points the cursor at the current version of the given grid's shared inventory.
+     */
+    void moveTo(StorageService gridStorage) {
+        this.gridStorage = gridStorage;
+        this.version = gridStorage.getCachedInventoryVersion();
+    }
+
+    /**
+     * @return True if the cursor points at the shared inventory of a grid.
+     */
+    boolean isSet() {
+        return gridStorage != null;
+    }
+
+    void reset() {
+        gridStorage = null;
+    }
+}
@@ -22,6 +22,8 @@
 import java.util.List;
 import java.util.Set;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.world.item.crafting.Ingredient;
 
 /**
@@ -38,6 +40,17 @@ public interface IClientRepo {
      */
     void handleUpdate(boolean fullUpdate, List<GridInventoryEntry> entries);
 
+    /**
+     * Called when the server starts or finishes sending an update that is split across several packets.
+     */
+    void setLoading(boolean loading);
+
+    /**
+     * @return The entry with the given serial, or null if this repository has no such entry.
+     */
+    @Nullable
+    GridInventoryEntry getEntry(long serial);
+
     /**
      * @return All entries in this repository, regardless of any filter.
      */
@@ -0,0 +1,19 @@
+package appeng.menu.me.common;
+
+import org.jetbrains.annotations.Nullable;
+
+import appeng.api.networking.IGrid;
+import appeng.api.storage.ITerminalHost;
+
+/**
+ * Implemented by {@link ITerminalHost terminal hosts} whose {@link ITerminalHost#getInventory() inventory} is the
+ * entire network inventory of a grid. Menus opened on such hosts share the grid's cached inventory and its change log,
+ * instead of listing the network inventory themselves every tick.
+ */
+public interface IGridInventoryHost {
+    /**
+     * @return The grid whose network inventory is exposed by this host, or null if there currently is none.
+     */
+    @Nullable
+    IGrid getInventoryGrid();
+}
@@ -31,6 +31,9 @@
 
 import net.minecraft.world.item.ItemStack;
 
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+
 import appeng.api.stacks.AEKey;
 
 /**
@@ -50,6 +53,11 @@ public class IncrementalUpdateHelper implements Iterable<AEKey> {
 
     private final Set<AEKey> changes = new HashSet<>();
 
+    /**
+     * The stored amount last sent to the client for each serial, so that updates can send the difference.
+     */
+    private final Long2LongMap sentAmounts = new Long2LongOpenHashMap();
+
     private long serial;
 
     /**
@@ -92,6 +100,7 @@ public void reset() {
         clear();
         this.serial = 0;
         this.mapping.clear();
+        this.sentAmounts.clear();
     }
 
     public void addChange(AEKey entry) {
@@ -106,7 +115,21 @@ public void addChange(AEKey entry) {
      * particular key is used.
      */
     public void removeSerial(AEKey what) {
-        mapping.remove(what);
+        var removed = mapping.remove(what);
+        if (removed != null) {
+            sentAmounts.remove((long) removed);
+        }
+    }
+
+    /**
+     * @return The stored amount last sent to the client for the given serial, or 0.
+     */
+    public long getSentAmount(long serial) {
+        return sentAmounts.get(serial);
+    }
+
+    public void setSentAmount(long serial, long amount) {
+        sentAmounts.put(serial, amount);
     }
 
     public void commitChanges() {
@@ -18,10 +18,15 @@
 
 package appeng.menu.me.common;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -31,6 +36,7 @@
 import com.google.common.primitives.Ints;
 
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Inventory;
@@ -69,6 +75,7 @@
 import appeng.api.util.KeyTypeSelection;
 import appeng.api.util.KeyTypeSelectionHost;
 import appeng.client.gui.me.common.MEStorageScreen;
+import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.network.ServerboundPacket;
 import appeng.core.network.bidirectional.ConfigValuePacket;
@@ -77,6 +84,7 @@
 import appeng.core.network.serverbound.MEInteractionPacket;
 import appeng.helpers.InventoryAction;
 import appeng.me.helpers.ActionHostEnergySource;
+import appeng.me.service.StorageService;
 import appeng.menu.AEBaseMenu;
 import appeng.menu.SlotSemantics;
 import appeng.menu.ToolboxMenu;
@@ -137,8 +145,18 @@ public class MEStorageMenu extends AEBaseMenu
 
     protected final IEnergySource energySource;
 
+    /**
+     * The number of stored keys that are sent first in a full update, in the order of the terminal's sort order.
+     */
+    private static final int PRIORITIZED_ENTRIES = 1024;
+
     private final IncrementalUpdateHelper updateHelper = new IncrementalUpdateHelper();
 
+    /**
+     * Inventory updates that have not been sent to the client yet, in the order they have to be sent in.
+     */
+    private final Deque<MEInventoryUpdatePacket> pendingUpdates = new ArrayDeque<>();
+
     /**
      * The repository of entries currently known on the client-side. This is maintained by the screen associated with
      * this menu and will only be non-null on the client-side.
@@ -151,6 +169,10 @@ public class MEStorageMenu extends AEBaseMenu
      */
     private Set<AEKey> previousCraftables = Collections.emptySet();
     private KeyCounter previousAvailableStacks = new KeyCounter();
+    /**
+     * If the menu shows the shared inventory of a grid, this points at the version that was last sent to the client.
+     */
+    private final GridInventoryCursor gridInventoryCursor = new GridInventoryCursor();
 
     public MEStorageMenu(MenuType<?> menuType, int id, Inventory ip, ITerminalHost host) {
         this(menuType, id, ip, host, true);
@@ -251,32 +273,52 @@ public void broadcastChanges() {
             }
 
             var craftables = getCraftablesFromGrid();
-            var availableStacks = storage.getAvailableStacks();
+            var gridStorage = getGridStorageService();
+            var availableStacks = gridStorage != null ? gridStorage.getCachedInventory() : storage.getAvailableStacks();
 
             // This is currently not supported/backed by any network service
             var requestables = new KeyCounter();
 
             try {
+                // Available changes
+                if (gridStorage != null) {
+                    addGridInventoryChanges(gridStorage, availableStacks);
+                } else {
+                    if (this.gridInventoryCursor.isSet()) {
+                        // Our previous stacks are the shared grid inventory, which we must not modify
+                        resetUpdates();
+                    }
+                    previousAvailableStacks.removeAll(availableStacks);
+                    previousAvailableStacks.removeZeros();
+                    previousAvailableStacks.keySet().forEach(updateHelper::addChange);
+                }
+
                 // Craftables
                 // Newly craftable
                 Sets.difference(previousCraftables, craftables).forEach(updateHelper::addChange);
                 // No longer craftable
                 Sets.difference(craftables, previousCraftables).forEach(updateHelper::addChange);
 
-                // Available changes
-                previousAvailableStacks.removeAll(availableStacks);
-                previousAvailableStacks.removeZeros();
-                previousAvailableStacks.keySet().forEach(updateHelper::addChange);
-
                 if (updateHelper.hasChanges()) {
+                    if (updateHelper.isFullUpdate()) {
+                        // The client discards everything it received before a full update anyway
+                        pendingUpdates.clear();
+                    }
                     var builder = MEInventoryUpdatePacket
                             .builder(containerId, updateHelper.isFullUpdate(), getPlayer().registryAccess());
                     builder.setFilter(this::isKeyVisible);
-                    builder.addChanges(updateHelper, availableStacks, craftables, requestables);
-                    builder.buildAndSend(this::sendPacketToClient);
+                    if (updateHelper.isFullUpdate()) {
+                        builder.addChanges(updateHelper, prioritizeFullUpdate(availableStacks, craftables),
+                                availableStacks, craftables, requestables);
+                    } else {
+                        builder.addChanges(updateHelper, availableStacks, craftables, requestables);
+                    }
+                    builder.buildAndSend(pendingUpdates::add);
                     updateHelper.commitChanges();
                 }
 
+                sendPendingUpdates();
+
             } catch (Exception e) {
                 AELog.warn(e, "Failed to send incremental inventory update to client");
             }
@@ -289,6 +331,142 @@ public void broadcastChanges() {
 
     }
 
+    /**
+     * Orders the keys of a full update so that the client receives what it shows first before everything else: the
+     * craftable keys, followed by the first stored keys under the terminal's current sort order.
+     */
+    private List<AEKey> prioritizeFullUpdate(KeyCounter availableStacks, Set<AEKey> craftables) {
+        return prioritizeKeys(updateHelper, availableStacks, craftables, clientCM.getSetting(Settings.SORT_BY),
+                clientCM.getSetting(Settings.SORT_DIRECTION), PRIORITIZED_ENTRIES);
+    }
+
+    /**
+     * Puts the craftable keys first, followed by the first <code>prioritized</code> other keys under the given sort
+     * order, and then all remaining keys.
+     */
+    @VisibleForTesting
+    static List<AEKey> prioritizeKeys(Iterable<AEKey> allKeys, KeyCounter availableStacks, Set<AEKey> craftables,
+            SortOrder sortBy, SortDir sortDir, int prioritized) {
+        var keys = new ArrayList<AEKey>();
+        var others = new ArrayList<AEKey>();
+        for (var key : allKeys) {
+            if (craftables.contains(key)) {
+                keys.add(key);
+            } else {
+                others.add(key);
+            }
+        }
+
+        if (others.size() <= prioritized) {
+            keys.addAll(others);
+            return keys;
+        }
+
+        // Only select the first keys, sorting all of them would take longer than sending them. The sort keys are
+        // computed once per key, since display names are expensive to build.
+        var comparator = getSortComparator(sortBy, sortDir);
+        var first = new PriorityQueue<SortKey>(prioritized + 1, comparator.reversed());
+        for (var key : others) {
+            first.add(SortKey.of(key, sortBy, availableStacks));
+            if (first.size() > prioritized) {
+                first.poll();
+            }
+        }
+
+        var firstSorted = new ArrayList<>(first);
+        firstSorted.sort(comparator);
+        var firstKeys = new HashSet<AEKey>(firstSorted.size());
+        for (var sortKey : firstSorted) {
+            keys.add(sortKey.key());
+            firstKeys.add(sortKey.key());
+        }
+        for (var key : others) {
+            if (!firstKeys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Approximates the order in which the terminal screen sorts keys.
+     */
+    private static Comparator<SortKey> getSortComparator(SortOrder sortBy, SortDir sortDir) {
+        Comparator<SortKey> byName = Comparator.comparing(SortKey::name, String::compareToIgnoreCase);
+        Comparator<SortKey> comparator = switch (sortBy) {
+            case NAME -> byName;
+            case AMOUNT -> Comparator.comparingDouble(SortKey::amount);
+            case MOD -> Comparator.comparing(SortKey::modId, String::compareToIgnoreCase).thenComparing(byName);
+        };
+        return sortDir == SortDir.ASCENDING ? comparator : comparator.reversed();
+    }
+
+    /**
+     * The values a key is sorted by. Only the ones needed by the sort order are computed.
+     */
+    private record SortKey(AEKey key, String name, String modId, double amount) {
+        static SortKey of(AEKey key, SortOrder sortBy, KeyCounter availableStacks) {
+            return switch (sortBy) {
+                case NAME -> new SortKey(key, key.getDisplayName().getString(), "", 0);
+                case AMOUNT -> new SortKey(key, "", "", (double) availableStacks.get(key) / key.getAmountPerUnit());
+                case MOD -> new SortKey(key, key.getDisplayName().getString(), key.getModId(), 0);
+            };
+        }
+    }
+
+    /**
+     * Sends queued inventory updates to the client, up to the configured amount of data per tick. At least one update
+     * is sent per tick.
+     */
+    private void sendPendingUpdates() {
+        var bytesPerTick = AEConfig.instance().getTerminalSyncBytesPerTick();
+        int sentBytes = 0;
+        while (!pendingUpdates.isEmpty() && sentBytes < bytesPerTick) {
+            var packet = pendingUpdates.poll();
+            sentBytes += packet.getEncodedSize();
+            sendPacketToClient(packet);
+        }
+    }
+
+    /**
+     * Uses the change log of the shared grid inventory to find the keys that changed since the last update. If the
+     * change log cannot be used, the client is resynchronized with a full update.
+     */
+    private void addGridInventoryChanges(StorageService gridStorage, KeyCounter availableStacks) {
+        if (!gridInventoryCursor.getChanges(gridStorage, updateHelper::addChange)) {
+            resetUpdates();
+            for (var entry : availableStacks) {
+                updateHelper.addChange(entry.getKey());
+            }
+        }
+        gridInventoryCursor.moveTo(gridStorage);
+    }
+
+    /**
+     * Discards all state about what has been sent to the client, and prepares a full update instead.
+     */
+    private void resetUpdates() {
+        updateHelper.reset();
+        previousCraftables = Collections.emptySet();
+        previousAvailableStacks = new KeyCounter();
+        gridInventoryCursor.reset();
+    }
+
+    /**
+     * @return The storage service of the grid whose entire network inventory is shown by this menu, if any. Menus for
+     *         such grids share the cached grid inventory instead of listing the network inventory on their own.
+     */
+    @Nullable
+    private StorageService getGridStorageService() {
+        if (host instanceof IGridInventoryHost gridInventoryHost) {
+            var grid = gridInventoryHost.getInventoryGrid();
+            if (grid != null && grid.getStorageService() instanceof StorageService storageService) {
+                return storageService;
+            }
+        }
+        return null;
+    }
+
     @Override
     public void onServerDataSync(ShortSet updatedFields) {
         super.onServerDataSync(updatedFields);
@@ -710,7 +888,8 @@ public boolean hasIngredient(Ingredient ingredient, Object2IntOpenHashMap<Object
     }
 
     /**
-     * @return The stacks available in the storage as determined the last time this menu was ticked.
+     * @return The stacks available in the storage as determined the last time this menu was ticked. If the menu shows
+     *         the inventory of a grid, this is the grid's shared cached inventory, which must not be modified.
      */
     protected final KeyCounter getPreviousAvailableStacks() {
         Preconditions.checkState(isServerSide());
@@ -21,6 +21,7 @@
 import java.util.List;
 
 import org.jetbrains.annotations.MustBeInvokedByOverriders;
+import org.jetbrains.annotations.Nullable;
 
 import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
@@ -35,6 +36,7 @@
 import appeng.api.config.ViewItems;
 import appeng.api.implementations.blockentities.IViewCellStorage;
 import appeng.api.inventories.InternalInventory;
+import appeng.api.networking.IGrid;
 import appeng.api.parts.IPartItem;
 import appeng.api.storage.ILinkStatus;
 import appeng.api.storage.ITerminalHost;
@@ -47,6 +49,7 @@
 import appeng.menu.ISubMenu;
 import appeng.menu.MenuOpener;
 import appeng.menu.locator.MenuLocators;
+import appeng.menu.me.common.IGridInventoryHost;
 import appeng.menu.me.common.MEStorageMenu;
 import appeng.util.inv.AppEngInternalInventory;
 import appeng.util.inv.InternalInventoryHost;
@@ -63,7 +66,7 @@
  * @since rv3
  */
 public abstract class AbstractTerminalPart extends AbstractDisplayPart
-        implements ITerminalHost, IViewCellStorage, InternalInventoryHost, KeyTypeSelectionHost {
+        implements ITerminalHost, IViewCellStorage, InternalInventoryHost, KeyTypeSelectionHost, IGridInventoryHost {
 
     private final IConfigManager cm;
     private final KeyTypeSelection keyTypeSelection = new KeyTypeSelection(this::saveChanges, keyType -> true);
@@ -152,6 +155,12 @@ public MenuType<?> getMenuType(Player player) {
         return MEStorageMenu.TYPE;
     }
 
+    @Nullable
+    @Override
+    public IGrid getInventoryGrid() {
+        return getMainNode().getGrid();
+    }
+
     @Override
     public MEStorage getInventory() {
         return new SupplierStorage(() -> {
@@ -507,6 +507,12 @@ protected void setDelegate(MEStorage delegate) {
             super.setDelegate(delegate);
         }
 
+        @Override
+        protected boolean canForwardChangeListener(MEStorage delegate) {
+            // Inventories of adjacent networks may be mounted elsewhere, only external storage is owned by the bus
+            return delegate instanceof CompositeStorage || delegate instanceof NullInventory;
+        }
+
         public void setAccessRestriction(AccessRestriction setting) {
             setAllowExtraction(setting.isAllowExtraction());
             setAllowInsertion(setting.isAllowInsertion());
@@ -18,18 +18,26 @@
 
 package appeng.server.subcommands;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Locale;
+
 import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
 import net.minecraft.server.MinecraftServer;
 
+import appeng.hooks.ticking.TickHandler;
+import appeng.me.Grid;
 import appeng.me.service.TickManagerService;
 import appeng.server.ISubCommand;
 
 public class TickMonitoring implements ISubCommand {
+    private static final int MAX_LISTED_GRIDS = 10;
 
     @Override
     public void addArguments(LiteralArgumentBuilder<CommandSourceStack> builder) {
@@ -38,6 +46,47 @@ public void addArguments(LiteralArgumentBuilder<CommandSourceStack> builder) {
             TickManagerService.MONITORING_ENABLED = enable;
             return 1;
         }));
+        builder.then(Commands.literal("budget").executes(ctx -> {
+            reportBudget(ctx.getSource());
+            return 1;
+        }));
+    }
+
+    /**
+     * Lists the grids whose devices had to wait for their tick because they ran out of time.
+     */
+    private static void reportBudget(CommandSourceStack source) {
+        var budget = TickHandler.instance().getGridTickBudget();
+        source.sendSystemMessage(Component.literal(String.format(Locale.ROOT,
+                "Tick time per grid: %s, for all grids: %s. Grids out of time in the last tick: %d",
+                formatBudget(budget.getGridBudget()), formatBudget(budget.getGlobalBudget()),
+                budget.getGridsDeferredLastTick())));
+
+        var deferringGrids = new ArrayList<Grid>();
+        for (var grid : TickHandler.instance().getGridList()) {
+            if (getTickManager(grid).getDeferredTotal() > 0) {
+                deferringGrids.add(grid);
+            }
+        }
+        deferringGrids.sort(Comparator.<Grid>comparingLong(grid -> getTickManager(grid).getDeferredLastTick())
+                .thenComparingLong(grid -> getTickManager(grid).getDeferredTotal())
+                .reversed());
+
+        for (var grid : deferringGrids.subList(0, Math.min(MAX_LISTED_GRIDS, deferringGrids.size()))) {
+            var tickManager = getTickManager(grid);
+            source.sendSystemMessage(Component.literal(String.format(Locale.ROOT,
+                    "Grid #%d: %d devices deferred in the last tick, %d in total, up to %d ticks late",
+                    grid.getSerialNumber(), tickManager.getDeferredLastTick(), tickManager.getDeferredTotal(),
+                    tickManager.getMaxLag())));
+        }
+    }
+
+    private static TickManagerService getTickManager(Grid grid) {
+        return (TickManagerService) grid.getTickManager();
+    }
+
+    private static String formatBudget(long nanos) {
+        return nanos > 0 ? String.format(Locale.ROOT, "%.2f ms", nanos / 1_000_000.0) : "unlimited";
     }
 
     @Override
@@ -42,6 +42,7 @@
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongSet;
 
+import appeng.api.networking.GridHelper;
 import appeng.core.definitions.AEBlocks;
 import appeng.core.stats.AdvancementTriggers;
 
@@ -179,7 +180,7 @@ public void swapRegions(ServerLevel srcLevel, int srcX, int srcY, int srcZ,
                 srcZ + scaleZ);
 
         // do nearly all the work... swaps blocks, block entities, and block ticks
-        cSrc.swap(cDst);
+        GridHelper.batchTopologyChanges(() -> cSrc.swap(cDst));
 
         // Synchronously load entities
         var loadedSrcChunks = loadEntityChunksSynchronously(srcLevel, srcBox);
@@ -19,6 +19,7 @@
 package appeng.api.stacks;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,6 +27,7 @@
 
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -89,6 +91,19 @@ public void testRemoveZeros() {
         assertThat(itemList.keySet()).containsOnly();
     }
 
+    @Test
+    public void testRemoveKey() {
+        itemList.add(diamondSword(100), 5);
+        itemList.add(diamondSword(50), 1);
+        itemList.add(nameTag(), 1);
+
+        itemList.remove(diamondSword(100));
+        itemList.remove(nameTag());
+
+        assertEquals(0, itemList.get(diamondSword(100)));
+        assertThat(itemList.keySet()).containsOnly(diamondSword(50));
+    }
+
     @Test
     public void testResetStatus() {
         itemList.add(diamondSword(100), 1);
@@ -295,6 +310,90 @@ void testFindFuzzyForNormalItems() {
         }
     }
 
+    /**
+     * The variants used by findFuzzy for normal items have to follow keys being added and removed after the first
+     * query.
+     */
+    @Test
+    void testFindFuzzyForNormalItemsAfterModification() {
+        var item1 = nameTag(null);
+        itemList.add(item1, 1);
+        assertThat(itemList.findFuzzy(nameTag(null), FuzzyMode.IGNORE_ALL))
+                .extracting(Map.Entry::getKey)
+                .containsOnly(item1);
+
+        var item2 = nameTag("name1");
+        itemList.add(item2, 2);
+        itemList.remove(item1);
+        assertThat(itemList.findFuzzy(nameTag(null), FuzzyMode.IGNORE_ALL))
+                .extracting(Map.Entry::getKey, Map.Entry::getValue)
+                .containsOnly(tuple(item2, 2L));
+
+        itemList.add(item2, -2);
+        itemList.removeZeros();
+        assertThat(itemList.findFuzzy(nameTag(null), FuzzyMode.IGNORE_ALL)).isEmpty();
+    }
+
+    @Test
+    void testForEach() {
+        itemList.add(diamondSword(100), 1);
+        itemList.add(diamondSword(50), 2);
+        itemList.add(nameTag(), 3);
+
+        var amounts = new HashMap<AEKey, Long>();
+        itemList.forEach((key, amount) -> amounts.put(key, amount));
+
+        assertThat(amounts).containsOnly(
+                Map.entry(diamondSword(100), 1L),
+                Map.entry(diamondSword(50), 2L),
+                Map.entry(nameTag(), 3L));
+    }
+
+    @Test
+    void testAddAllAndRemoveAll() {
+        itemList.add(diamondSword(100), 1);
+        itemList.add(nameTag(), 1);
+
+        var other = new KeyCounter();
+        other.add(diamondSword(100), 2);
+        other.add(diamondSword(50), 3);
+        other.add(nameTag(), 4);
+        other.add(nameTag("bob"), 5);
+
+        itemList.addAll(other);
+        assertEquals(3, itemList.get(diamondSword(100)));
+        assertEquals(3, itemList.get(diamondSword(50)));
+        assertEquals(5, itemList.get(nameTag()));
+        assertEquals(5, itemList.get(nameTag("bob")));
+
+        itemList.removeAll(other);
+        itemList.removeAll(other);
+        assertEquals(-1, itemList.get(diamondSword(100)));
+        assertEquals(-3, itemList.get(diamondSword(50)));
+        assertEquals(-3, itemList.get(nameTag()));
+        assertEquals(-5, itemList.get(nameTag("bob")));
+
+        // The other counter must not have been modified
+        assertEquals(2, other.get(diamondSword(100)));
+        assertEquals(4, other.get(nameTag()));
+    }
+
+    @Test
+    void testIteratorRemove() {
+        itemList.add(diamondSword(100), 1);
+        itemList.add(nameTag(), 1);
+        itemList.add(nameTag("bob"), 1);
+
+        var it = itemList.iterator();
+        while (it.hasNext()) {
+            if (!it.next().getKey().equals(nameTag("bob"))) {
+                it.remove();
+            }
+        }
+
+        assertListContent(nameTag("bob"));
+    }
+
     /**
      * Unlike previous iterations of item lists in AE, KeyCounter will throw on null arguments.
      */
@@ -0,0 +1,148 @@
+package appeng.client.gui.me.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.Items;
+
+import appeng.api.config.SortDir;
+import appeng.api.config.SortOrder;
+import appeng.api.config.ViewItems;
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKeyType;
+import appeng.client.gui.widgets.ISortSource;
+import appeng.menu.me.common.GridInventoryEntry;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class RepoTest {
+    private final SortSource sortSource = new SortSource();
+    private final Repo repo = new Repo(() -> 0, sortSource);
+
+    @BeforeEach
+    void clearPinnedKeys() {
+        PinnedKeys.clearPinnedKeys();
+    }
+
+    @Test
+    void testUpdatesAreAppliedOncePerFrame() {
+        var updates = new int[1];
+        repo.setUpdateViewListener(() -> updates[0]++);
+
+        repo.handleUpdate(true, List.of(entry(1, Items.STICK, 10)));
+        repo.handleUpdate(false, List.of(entry(2, Items.STONE, 5)));
+        assertThat(repo.size()).isZero();
+
+        repo.updatePendingView();
+        repo.updatePendingView();
+        assertThat(updates[0]).isEqualTo(1);
+        assertThat(getView()).extracting(GridInventoryEntry::getSerial).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void testChangedEntriesAreMovedWithinSortedView() {
+        repo.handleUpdate(true, List.of(
+                entry(1, Items.STICK, 10),
+                entry(2, Items.STONE, 20),
+                entry(3, Items.DIRT, 30)));
+        repo.updatePendingView();
+
+        // Amount-only update moves the entry to the end, and removals drop it from the view
+        repo.handleUpdate(false, List.of(
+                new GridInventoryEntry(1, null, 40, 0, false),
+                new GridInventoryEntry(2, null, 0, 0, false)));
+        repo.updatePendingView();
+
+        assertThat(getView()).extracting(GridInventoryEntry::getSerial).containsExactly(3L, 1L);
+        assertThat(getView().get(1).getWhat()).isEqualTo(AEItemKey.of(Items.STICK));
+    }
+
+    /**
+     * Random churn in small and large batches must result in the same view as rebuilding it from scratch.
+     */
+    @Test
+    void testIncrementalUpdatesMatchFullRebuild() {
+        sortSource.viewMode = ViewItems.STORED;
+        var items = new ArrayList<Item>();
+        for (var item : BuiltInRegistries.ITEM) {
+            if (item != Items.AIR && items.size() < 500) {
+                items.add(item);
+            }
+        }
+
+        var random = new Random(1234);
+        var reference = new Repo(() -> 0, sortSource);
+        for (int round = 0; round < 200; round++) {
+            if (round == 100) {
+                sortSource.sortDir = SortDir.DESCENDING;
+            }
+
+            var batchSize = random.nextBoolean() ? 1 + random.nextInt(5) : 50 + random.nextInt(200);
+            var batch = new ArrayList<GridInventoryEntry>();
+            for (int i = 0; i < batchSize; i++) {
+                var serial = random.nextInt(items.size());
+                // Few distinct amounts, so many entries sort the same
+                var amount = random.nextInt(10) == 0 ? 0 : random.nextInt(8);
+                var craftable = random.nextInt(4) == 0;
+                batch.add(new GridInventoryEntry(serial, AEItemKey.of(items.get(serial)), amount, 0, craftable));
+            }
+
+            repo.handleUpdate(false, batch);
+            repo.updatePendingView();
+            reference.handleUpdate(false, batch);
+            reference.updateView();
+
+            assertThat(getView()).isEqualTo(getView(reference));
+        }
+    }
+
+    private List<GridInventoryEntry> getView() {
+        return getView(repo);
+    }
+
+    private static List<GridInventoryEntry> getView(Repo repo) {
+        var result = new ArrayList<GridInventoryEntry>();
+        for (int i = 0; i < repo.size(); i++) {
+            result.add(repo.get(i));
+        }
+        return result;
+    }
+
+    private static GridInventoryEntry entry(long serial, Item item, long amount) {
+        return new GridInventoryEntry(serial, AEItemKey.of(item), amount, 0, false);
+    }
+
+    private static class SortSource implements ISortSource {
+        SortDir sortDir = SortDir.ASCENDING;
+        ViewItems viewMode = ViewItems.ALL;
+
+        @Override
+        public SortOrder getSortBy() {
+            return SortOrder.AMOUNT;
+        }
+
+        @Override
+        public SortDir getSortDir() {
+            return sortDir;
+        }
+
+        @Override
+        public ViewItems getSortDisplay() {
+            return viewMode;
+        }
+
+        @Override
+        public Set<AEKeyType> getSortKeyTypes() {
+            return Set.of(AEKeyType.items());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package appeng.client.gui.me.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.Items;
+
+import it.unimi.dsi.fastutil.longs.LongList;
+
+import appeng.api.stacks.AEItemKey;
+import appeng.core.AEConfig;
+import appeng.menu.me.common.GridInventoryEntry;
+import appeng.util.BootstrapMinecraft;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@BootstrapMinecraft
+class RepoSearchTest {
+    @Mock
+    MockedStatic<AEConfig> config;
+
+    private final RepoSearch search = new RepoSearch();
+
+    @BeforeEach
+    void setUp() {
+        var instance = mock(AEConfig.class);
+        config.when(AEConfig::instance).thenReturn(instance);
+    }
+
+    @Test
+    void testEntriesThatAreNotIndexedYetAreMatched() throws InterruptedException {
+        search.setSearchString("stone");
+        awaitResults();
+
+        // The indexing thread has not matched these entries yet
+        var stick = entry(1, Items.STICK);
+        var stone = entry(2, Items.STONE);
+        search.updateIndex(List.of(stick, stone), LongList.of());
+        assertThat(search.matches(stick)).isFalse();
+        assertThat(search.matches(stone)).isTrue();
+    }
+
+    @Test
+    void testTagSearchIsActiveRightAway() {
+        var stick = entry(1, Items.STICK);
+        var stone = entry(2, Items.STONE);
+        search.updateIndex(List.of(stick, stone), LongList.of());
+
+        search.setSearchString("#minecraft:stone_tool_materials");
+        assertThat(search.updateResults(serial -> {
+        })).isTrue();
+        assertThat(search.matches(stick)).isFalse();
+    }
+
+    private void awaitResults() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (search.updateResults(serial -> {
+            })) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("The search did not complete");
+    }
+
+    private static GridInventoryEntry entry(long serial, Item item) {
+        return new GridInventoryEntry(serial, AEItemKey.of(item), 1, 0, false);
+    }
+}
@@ -0,0 +1,72 @@
+package appeng.client.gui.me.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.Items;
+
+import it.unimi.dsi.fastutil.longs.Long2BooleanMap;
+import it.unimi.dsi.fastutil.longs.LongList;
+
+import appeng.api.stacks.AEItemKey;
+import appeng.menu.me.common.GridInventoryEntry;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class SearchIndexTest {
+    private final SearchIndex index = new SearchIndex();
+
+    @BeforeEach
+    void addEntries() {
+        index.add(List.of(
+                entry(1, Items.STICK),
+                entry(2, Items.STONE),
+                entry(3, Items.COBBLESTONE)));
+    }
+
+    @Test
+    void testWordSearchMatchesPartsOfWords() {
+        assertThat(matches(index.search("stone", false))).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(matches(index.search("STI", false))).containsExactly(1L);
+    }
+
+    @Test
+    void testPatternSearch() {
+        assertThat(matches(index.search("st.n", false))).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(matches(index.search("*minecraft:stick", false))).containsExactly(1L);
+    }
+
+    @Test
+    void testRemovedEntriesNoLongerMatch() {
+        index.remove(LongList.of(2));
+
+        var results = index.search("stone", false);
+        assertThat(matches(results)).containsExactly(3L);
+        assertThat(results.containsKey(2)).isFalse();
+    }
+
+    @Test
+    void testSearchOfAddedEntries() {
+        index.add(List.of(entry(4, Items.STONE_BRICKS)));
+
+        var results = index.search("stone", false, LongList.of(4, 5));
+        assertThat(results).containsOnlyKeys(4L);
+        assertThat(results.get(4)).isTrue();
+    }
+
+    private static List<Long> matches(Long2BooleanMap results) {
+        return results.long2BooleanEntrySet().stream()
+                .filter(Long2BooleanMap.Entry::getBooleanValue)
+                .map(Long2BooleanMap.Entry::getLongKey)
+                .toList();
+    }
+
+    private static SearchIndex.IndexedEntry entry(long serial, Item item) {
+        return SearchIndex.IndexedEntry.of(new GridInventoryEntry(serial, AEItemKey.of(item), 1, 0, false));
+    }
+}
@@ -0,0 +1,103 @@
+package appeng.core.network.clientbound;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.Unpooled;
+
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.world.item.Items;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.KeyCounter;
+import appeng.menu.me.common.GridInventoryEntry;
+import appeng.menu.me.common.IncrementalUpdateHelper;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class MEInventoryUpdatePacketTest {
+    private static final AEItemKey STICK = AEItemKey.of(Items.STICK);
+    private static final AEItemKey STONE = AEItemKey.of(Items.STONE);
+
+    private final RegistryAccess registryAccess = RegistryAccess.fromRegistryOfRegistries(BuiltInRegistries.REGISTRY);
+    private final IncrementalUpdateHelper updateHelper = new IncrementalUpdateHelper();
+    private final KeyCounter storage = new KeyCounter();
+    /**
+     * The stored amounts known on the client side.
+     */
+    private final Long2LongMap clientAmounts = new Long2LongOpenHashMap();
+
+    @Test
+    void testKeysAreOnlySentOnce() {
+        storage.add(STICK, 100);
+        storage.add(STONE, 5);
+        updateHelper.addChange(STICK);
+        updateHelper.addChange(STONE);
+        var initial = sendChanges(Set.of());
+        assertThat(initial).extracting(GridInventoryEntry::getWhat).containsExactlyInAnyOrder(STICK, STONE);
+
+        storage.remove(STICK, 30);
+        updateHelper.addChange(STICK);
+        var update = sendChanges(Set.of());
+        assertThat(update).hasSize(1);
+        assertThat(update.get(0).getWhat()).isNull();
+        assertThat(update.get(0).getStoredAmount()).isEqualTo(70);
+    }
+
+    @Test
+    void testRemovalAndCraftability() {
+        storage.add(STICK, 100);
+        updateHelper.addChange(STICK);
+        var stickSerial = sendChanges(Set.of()).get(0).getSerial();
+
+        storage.remove(STICK, 100);
+        updateHelper.addChange(STICK);
+        var removal = sendChanges(Set.of()).get(0);
+        assertThat(removal.getSerial()).isEqualTo(stickSerial);
+        assertThat(removal.isMeaningful()).isFalse();
+
+        // A removed key is sent again with a new serial
+        updateHelper.addChange(STICK);
+        var craftable = sendChanges(Set.of(STICK)).get(0);
+        assertThat(craftable.getSerial()).isNotEqualTo(stickSerial);
+        assertThat(craftable.getWhat()).isEqualTo(STICK);
+        assertThat(craftable.getStoredAmount()).isZero();
+        assertThat(craftable.isCraftable()).isTrue();
+    }
+
+    /**
+     * Sends all changes through the network codec, and decodes them the way the client would.
+     */
+    private List<GridInventoryEntry> sendChanges(Set<AEKey> craftables) {
+        var builder = MEInventoryUpdatePacket.builder(1, updateHelper.isFullUpdate(), registryAccess);
+        builder.addChanges(updateHelper, storage, craftables, new KeyCounter());
+
+        var packets = builder.build();
+        assertThat(packets).extracting(MEInventoryUpdatePacket::complete).last().isEqualTo(true);
+
+        var result = new ArrayList<GridInventoryEntry>();
+        for (var packet : packets) {
+            var buffer = new RegistryFriendlyByteBuf(Unpooled.buffer(), registryAccess);
+            MEInventoryUpdatePacket.STREAM_CODEC.encode(buffer, packet);
+            var decoded = MEInventoryUpdatePacket.STREAM_CODEC.decode(buffer);
+
+            for (int i = 0; i < decoded.encodedEntryCount(); i++) {
+                var entry = MEInventoryUpdatePacket.readEntry(decoded.encodedEntries(), clientAmounts::get);
+                clientAmounts.put(entry.getSerial(), entry.getStoredAmount());
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package appeng.crafting.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.world.item.Items;
+
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.KeyCounter;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class CraftingCpuHelperTest {
+    private static final AEItemKey ORE = AEItemKey.of(Items.RAW_IRON);
+    private static final AEItemKey COAL = AEItemKey.of(Items.COAL);
+
+    @Test
+    void testTakePatternInputs() {
+        var inputHolder = inputs(64, 16);
+        assertThat(CraftingCpuHelper.canSplit(inputHolder, 16)).isTrue();
+        assertThat(CraftingCpuHelper.canSplit(inputHolder, 3)).isFalse();
+
+        var taken = CraftingCpuHelper.takePatternInputs(inputHolder, 16, 5);
+        assertThat(taken[0].get(ORE)).isEqualTo(20);
+        assertThat(taken[1].get(COAL)).isEqualTo(5);
+        assertThat(inputHolder[0].get(ORE)).isEqualTo(44);
+        assertThat(inputHolder[1].get(COAL)).isEqualTo(11);
+
+        // Taking the remaining patterns leaves nothing behind
+        CraftingCpuHelper.takePatternInputs(inputHolder, 11, 11);
+        assertThat(inputHolder[0].isEmpty()).isTrue();
+        assertThat(inputHolder[1].isEmpty()).isTrue();
+    }
+
+    private static KeyCounter[] inputs(long ore, long coal) {
+        var oreInput = new KeyCounter();
+        oreInput.add(ORE, ore);
+        var coalInput = new KeyCounter();
+        coalInput.add(COAL, coal);
+        return new KeyCounter[] { oreInput, coalInput };
+    }
+}
@@ -0,0 +1,82 @@
+package appeng.crafting.execution;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.world.item.Items;
+
+import appeng.api.crafting.IPatternDetails;
+import appeng.api.stacks.AEItemKey;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class TaskReadinessTest {
+    private final IPatternDetails first = mock(IPatternDetails.class);
+    private final IPatternDetails second = mock(IPatternDetails.class);
+    private final TaskReadiness readiness = new TaskReadiness(List.of(first, second));
+
+    @Test
+    void testTasksWaitForTheirInputs() {
+        readiness.pollReady();
+        readiness.pollReady();
+        readiness.waitForInputs(first, Set.of(AEItemKey.of(Items.STICK).getPrimaryKey()));
+        readiness.waitForInputs(second, Set.of(AEItemKey.of(Items.STONE).getPrimaryKey()));
+        assertThat(readiness.getReadyCount()).isZero();
+        assertThat(readiness.getParkedCount()).isEqualTo(2);
+
+        readiness.onInputAvailable(AEItemKey.of(Items.STONE));
+        assertThat(readiness.pollReady()).isSameAs(second);
+        assertThat(readiness.pollReady()).isNull();
+        assertThat(readiness.getParkedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testTasksWaitForTheirProviders() {
+        readiness.pollReady();
+        readiness.pollReady();
+        readiness.waitForProviders(first);
+        readiness.waitForProviders(second);
+
+        readiness.onProvidersReady(List.of(second));
+        assertThat(readiness.pollReady()).isSameAs(second);
+        readiness.waitForProviders(second);
+
+        // Results wake all of them on the next tick
+        readiness.onResultReceived();
+        assertThat(readiness.getReadyCount()).isZero();
+        readiness.tick();
+        assertThat(readiness.getReadyCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testPartiallyPushedTasksStayReady() {
+        assertThat(readiness.pollReady()).isSameAs(first);
+        readiness.requeueLast(first);
+
+        // The other ready task is attempted first, and the requeued task is not parked
+        assertThat(readiness.getParkedCount()).isZero();
+        assertThat(readiness.pollReady()).isSameAs(second);
+        assertThat(readiness.pollReady()).isSameAs(first);
+        assertThat(readiness.pollReady()).isNull();
+    }
+
+    @Test
+    void testTasksWaitingForProvidersAreRetriedPeriodically() {
+        readiness.pollReady();
+        readiness.waitForProviders(first);
+
+        for (int i = 1; i < TaskReadiness.PROVIDER_RETRY_TICKS; i++) {
+            readiness.tick();
+        }
+        assertThat(readiness.pollReady()).isSameAs(second);
+        assertThat(readiness.pollReady()).isNull();
+
+        readiness.tick();
+        assertThat(readiness.pollReady()).isSameAs(first);
+    }
+}
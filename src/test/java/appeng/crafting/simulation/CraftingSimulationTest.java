@@ -1,7 +1,11 @@
 package appeng.crafting.simulation;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -21,6 +25,7 @@
 import appeng.api.stacks.AEItemKey;
 import appeng.api.stacks.GenericStack;
 import appeng.api.stacks.KeyCounter;
+import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.crafting.inv.CraftingSimulationState;
 import appeng.crafting.simulation.helpers.ProcessingPatternBuilder;
@@ -148,6 +153,121 @@ public void testMultiplePlanks() {
                 .usedMatch(mult(acaciaPlanks, 2), birchPlanks, mult(oakPlanks, 2));
     }
 
+    @Test
+    public void testAsyncCalculationMatchesSynchronized() {
+        var env = new SimulationEnv();
+
+        var a = item(Items.COBBLESTONE);
+        var b = item(Items.STONE);
+        var c = item(Items.IRON_INGOT);
+
+        var aToB = env.addPattern(new ProcessingPatternBuilder(b).addPreciseInput(1, a).build());
+        var bToC = env.addPattern(new ProcessingPatternBuilder(c).addPreciseInput(1, b).build());
+        env.addStoredItem(mult(a, 2));
+
+        var plan = env.runAsyncSimulation(mult(c, 3), CalculationStrategy.CRAFT_LESS);
+        assertThatPlan(plan)
+                .succeeded()
+                .patternsMatch(aToB, 2, bToC, 2)
+                .emittedMatch()
+                .usedMatch(mult(a, 2));
+        assertThat(plan.finalOutput()).isEqualTo(mult(c, 2));
+
+        var synchronizedPlan = env.runSimulation(mult(c, 3), CalculationStrategy.CRAFT_LESS);
+        assertThat(plan.finalOutput()).isEqualTo(synchronizedPlan.finalOutput());
+        assertThat(plan.bytes()).isEqualTo(synchronizedPlan.bytes());
+        assertThat(plan.patternTimes()).isEqualTo(synchronizedPlan.patternTimes());
+    }
+
+    /**
+     * Test that a calculation running alongside the server thread keeps using the patterns it started with when the
+     * patterns of the network change while it is running.
+     */
+    @Test
+    public void testAsyncCalculationIgnoresPatternChanges() {
+        var env = new SimulationEnv();
+
+        var a = item(Items.COBBLESTONE);
+        var b = item(Items.STONE);
+        var c = item(Items.IRON_INGOT);
+
+        var aToB = env.addPattern(new ProcessingPatternBuilder(b).addPreciseInput(1, a).build());
+        var bToC = new ProcessingPatternBuilder(c).addPreciseInput(1, b).build();
+        // Removes the pattern for b once the calculation starts expanding the pattern for c
+        var removingBToC = env.addPattern(new IPatternDetails() {
+            private boolean removed;
+
+            @Override
+            public AEItemKey getDefinition() {
+                return bToC.getDefinition();
+            }
+
+            @Override
+            public IInput[] getInputs() {
+                if (!removed) {
+                    removed = true;
+                    env.removePattern(aToB);
+                }
+                return bToC.getInputs();
+            }
+
+            @Override
+            public List<GenericStack> getOutputs() {
+                return bToC.getOutputs();
+            }
+        });
+        env.addStoredItem(mult(a, 2));
+
+        var plan = env.runAsyncSimulation(mult(c, 2), CalculationStrategy.REPORT_MISSING_ITEMS);
+        assertThatPlan(plan)
+                .succeeded()
+                .patternsMatch(aToB, 2, removingBToC, 2)
+                .emittedMatch()
+                .usedMatch(mult(a, 2));
+
+        // Calculations started afterwards no longer see the removed pattern
+        var laterPlan = env.runAsyncSimulation(mult(c, 2), CalculationStrategy.REPORT_MISSING_ITEMS);
+        assertThatPlan(laterPlan)
+                .failed()
+                .patternsMatch(removingBToC, 2)
+                .missingMatch(mult(b, 2));
+    }
+
+    /**
+     * Test that with simulated extraction enabled, a calculation that runs alongside the server thread only extracts
+     * from the network on the server thread, and only uses what can actually be extracted.
+     */
+    @Test
+    public void testSimulatedExtractionOnServerThread() {
+        var env = new SimulationEnv();
+
+        var a = item(Items.COBBLESTONE);
+        var b = item(Items.STONE);
+        var c = item(Items.IRON_INGOT);
+
+        var aToB = env.addPattern(new ProcessingPatternBuilder(b).addPreciseInput(1, a).build());
+        var bToC = env.addPattern(new ProcessingPatternBuilder(c).addPreciseInput(1, b).build());
+        env.addStoredItem(mult(a, 10));
+        env.addStoredItem(b);
+        env.addUnextractableItem(b);
+
+        ICraftingPlan plan;
+        try (var config = mockStatic(AEConfig.class)) {
+            var instance = mock(AEConfig.class);
+            when(instance.isCraftingSimulatedExtraction()).thenReturn(true);
+            config.when(AEConfig::instance).thenReturn(instance);
+
+            plan = env.runSimulation(mult(c, 2), CalculationStrategy.REPORT_MISSING_ITEMS);
+        }
+
+        assertThatPlan(plan)
+                .succeeded()
+                .patternsMatch(aToB, 1, bToC, 2)
+                .emittedMatch()
+                .usedMatch(a, b);
+        assertThat(env.getExtractionThreads()).containsExactly(Thread.currentThread());
+    }
+
     @Test
     public void testReusedBuckets() {
         var env = new SimulationEnv();
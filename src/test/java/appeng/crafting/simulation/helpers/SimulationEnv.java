@@ -9,6 +9,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -45,12 +46,15 @@
 import appeng.api.storage.MEStorage;
 import appeng.crafting.CraftingCalculation;
 import appeng.me.helpers.BaseActionSource;
+import appeng.me.service.helpers.CraftingPatternSnapshot;
 
 public class SimulationEnv {
     private final Map<AEKey, List<IPatternDetails>> patterns = new HashMap<>();
     private final KeyCounter craftableItemsList = new KeyCounter();
     private final Set<AEKey> emitableItems = new HashSet<>();
     private final KeyCounter networkStorage = new KeyCounter();
+    private final KeyCounter unextractableItems = new KeyCounter();
+    private final Set<Thread> extractionThreads = ConcurrentHashMap.newKeySet();
 
     public IPatternDetails addPattern(IPatternDetails pattern) {
         var output = pattern.getPrimaryOutput();
@@ -59,6 +63,15 @@ public IPatternDetails addPattern(IPatternDetails pattern) {
         return pattern;
     }
 
+    public void removePattern(IPatternDetails pattern) {
+        var output = pattern.getPrimaryOutput();
+        var outputPatterns = patterns.get(output.what());
+        if (outputPatterns != null && outputPatterns.remove(pattern) && outputPatterns.isEmpty()) {
+            patterns.remove(output.what());
+            craftableItemsList.remove(output.what(), 1);
+        }
+    }
+
     public void addEmitable(AEKey stack) {
         emitableItems.add(stack);
     }
@@ -71,6 +84,21 @@ public void addStoredItem(GenericStack stack) {
         this.networkStorage.add(stack.what(), stack.amount());
     }
 
+    /**
+     * Adds a stack that is listed in the network inventory, but can't actually be extracted.
+     */
+    public void addUnextractableItem(GenericStack stack) {
+        this.networkStorage.add(stack.what(), stack.amount());
+        this.unextractableItems.add(stack.what(), stack.amount());
+    }
+
+    /**
+     * @return The threads that simulated extractions from the network inventory ran on.
+     */
+    public Set<Thread> getExtractionThreads() {
+        return extractionThreads;
+    }
+
     public SimulationEnv copy() {
         var copy = new SimulationEnv();
         for (var entry : patterns.entrySet()) {
@@ -84,17 +112,39 @@ public SimulationEnv copy() {
         for (var stack : networkStorage) {
             copy.addStoredItem(stack.getKey(), stack.getLongValue());
         }
+        copy.unextractableItems.addAll(unextractableItems);
         return copy;
     }
 
     public ICraftingPlan runSimulation(GenericStack what, CalculationStrategy strategy) {
         var calculation = new CraftingCalculation(mock(Level.class), gridMock, simulationRequester, what, strategy);
+        var executor = Executors.newSingleThreadExecutor();
         try {
-            var calculationFuture = Executors.newSingleThreadExecutor().submit(calculation::run);
+            var calculationFuture = executor.submit(calculation::run);
             calculation.simulateFor(1000000000);
             return calculationFuture.get(1000, TimeUnit.MILLISECONDS);
         } catch (Exception e) {
             throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the calculation asynchronously, without anyone calling {@link CraftingCalculation#simulateFor}. Like the
+     * crafting service, it hands the calculation a snapshot of the patterns, which later changes do not affect.
+     */
+    public ICraftingPlan runAsyncSimulation(GenericStack what, CalculationStrategy strategy) {
+        var patterns = new CraftingPatternSnapshot(this.patterns, emitableItems);
+        var calculation = new CraftingCalculation(mock(Level.class), gridMock, simulationRequester, what, strategy,
+                patterns);
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(calculation::run).get(1000, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -255,8 +305,9 @@ public long insert(AEKey what, long amount, Actionable mode, IActionSource sourc
             @Override
             public long extract(AEKey what, long amount, Actionable mode, IActionSource source) {
                 if (mode == Actionable.SIMULATE) {
-                    var stored = networkStorage.get(what);
-                    return Math.min(amount, stored);
+                    extractionThreads.add(Thread.currentThread());
+                    var stored = networkStorage.get(what) - unextractableItems.get(what);
+                    return Math.max(0, Math.min(amount, stored));
                 } else {
                     throw new UnsupportedOperationException();
                 }
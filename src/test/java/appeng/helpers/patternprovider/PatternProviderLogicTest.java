@@ -0,0 +1,63 @@
+package appeng.helpers.patternprovider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.world.item.Items;
+
+import appeng.api.config.Actionable;
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.KeyCounter;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class PatternProviderLogicTest {
+    private static final AEItemKey STICK = AEItemKey.of(Items.STICK);
+    private static final AEItemKey STONE = AEItemKey.of(Items.STONE);
+
+    @Test
+    void testAllPatternsAreAcceptedIfTheyFit() {
+        var target = new LimitedTarget(64);
+
+        assertThat(PatternProviderLogic.getAcceptedPatterns(target, inputs(4), 4)).isEqualTo(4);
+    }
+
+    @Test
+    void testRepeatedInputKeyIsCountedOnce() {
+        // The target is partially full, and only has room for five more sticks
+        var target = new LimitedTarget(5);
+
+        // Each pattern uses two sticks in separate inputs, so only two of them fit
+        assertThat(PatternProviderLogic.getAcceptedPatterns(target, inputs(4), 4)).isEqualTo(2);
+    }
+
+    /**
+     * Builds the inputs for the given number of patterns that each use a stick in two inputs, and one stone.
+     */
+    private static KeyCounter[] inputs(int patterns) {
+        var inputs = new KeyCounter[] { new KeyCounter(), new KeyCounter(), new KeyCounter() };
+        inputs[0].add(STICK, patterns);
+        inputs[1].add(STONE, patterns);
+        inputs[2].add(STICK, patterns);
+        return inputs;
+    }
+
+    /**
+     * A target that accepts a limited amount of each key.
+     */
+    private record LimitedTarget(long space) implements PatternProviderTarget {
+        @Override
+        public long insert(AEKey what, long amount, Actionable type) {
+            return Math.min(amount, space);
+        }
+
+        @Override
+        public boolean containsPatternInput(Set<AEKey> patternInputs) {
+            return false;
+        }
+    }
+}
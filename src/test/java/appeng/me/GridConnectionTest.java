@@ -5,14 +5,18 @@
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import appeng.api.networking.GridHelper;
+import appeng.api.networking.IGridConnection;
 import appeng.api.networking.IGridNode;
 
 class GridConnectionTest extends AbstractGridNodeTest {
@@ -205,4 +209,228 @@ private void assertSameGrid(IGridNode a, IGridNode b) {
         }
     }
 
+    /**
+     * Tests how grids are split when removing connections.
+     */
+    @Nested
+    class GridSplitting {
+        /**
+         * When there's <code>a-b-c-d</code>, removing the connection between c and d moves only d into a new grid.
+         */
+        @Test
+        void testSmallerSideGetsNewGrid() {
+            var a = makeReadyNode();
+            var b = makeReadyNode();
+            var c = makeReadyNode();
+            var d = makeReadyNode();
+            GridHelper.createConnection(a, b);
+            GridHelper.createConnection(b, c);
+            var con = GridHelper.createConnection(c, d);
+            var grid = a.getGrid();
+
+            reset(listener);
+            con.destroy();
+
+            assertSame(grid, a.getGrid());
+            assertSame(grid, b.getGrid());
+            assertSame(grid, c.getGrid());
+            assertThat(d.getGrid()).isNotSameAs(grid);
+            assertEquals(3, grid.size());
+            assertEquals(1, d.getGrid().size());
+            verify(listener, never()).onGridChanged(owner, a);
+        }
+
+        /**
+         * The side holding the pivot of the grid may be split off, in which case the pivot moves to the other side.
+         */
+        @Test
+        void testPivotMovesToRemainingGrid() {
+            var a = makeReadyNode();
+            var b = makeReadyNode();
+            var c = makeReadyNode();
+            var con = GridHelper.createConnection(a, b);
+            GridHelper.createConnection(b, c);
+            var grid = (Grid) a.getGrid();
+            grid.setPivot(a);
+
+            con.destroy();
+
+            assertSame(grid, b.getGrid());
+            assertSame(grid, c.getGrid());
+            assertThat(grid.getPivot()).isSameAs(b);
+            assertThat(a.getGrid()).isNotSameAs(grid);
+            assertThat(a.getGrid().getPivot()).isSameAs(a);
+        }
+
+        @Test
+        void testRemovingConnectionInLoopKeepsGrid() {
+            var a = makeReadyNode();
+            var b = makeReadyNode();
+            var c = makeReadyNode();
+            var con = GridHelper.createConnection(a, b);
+            GridHelper.createConnection(b, c);
+            GridHelper.createConnection(c, a);
+            var grid = a.getGrid();
+
+            reset(listener);
+            con.destroy();
+
+            assertSame(grid, a.getGrid());
+            assertSame(grid, b.getGrid());
+            assertSame(grid, c.getGrid());
+            verify(listener, never()).onGridChanged(owner, a);
+            verify(listener, never()).onGridChanged(owner, b);
+        }
+
+        /**
+         * Destroying a node that connects three branches leaves three separate grids.
+         */
+        @Test
+        void testDestroyingNodeSplitsAllBranches() {
+            var center = makeReadyNode();
+            var branches = new GridNode[3];
+            for (int i = 0; i < branches.length; i++) {
+                branches[i] = makeReadyNode();
+                GridHelper.createConnection(center, branches[i]);
+                GridHelper.createConnection(branches[i], makeReadyNode());
+            }
+
+            center.destroy();
+
+            assertThat(branches[0].getGrid()).isNotSameAs(branches[1].getGrid());
+            assertThat(branches[0].getGrid()).isNotSameAs(branches[2].getGrid());
+            assertThat(branches[1].getGrid()).isNotSameAs(branches[2].getGrid());
+            for (var branch : branches) {
+                assertEquals(2, branch.getGrid().size());
+            }
+        }
+    }
+
+    /**
+     * Tests that grids are merged and split correctly at the end of a batch of topology changes.
+     */
+    @Nested
+    class BatchedChanges {
+        @Test
+        void testChainIsMergedIntoLargestGrid() {
+            var a = makeReadyNode();
+            var b = makeReadyNode();
+            GridHelper.createConnection(a, b);
+            var grid = a.getGrid();
+            var chain = new GridNode[10];
+            for (int i = 0; i < chain.length; i++) {
+                chain[i] = makeReadyNode();
+            }
+
+            reset(listener);
+            GridHelper.batchTopologyChanges(() -> {
+                for (int i = 1; i < chain.length; i++) {
+                    GridHelper.createConnection(chain[i - 1], chain[i]);
+                }
+                GridHelper.createConnection(b, chain[0]);
+                // Not merged yet
+                assertThat(chain[0].getGrid()).isNotSameAs(grid);
+            });
+
+            for (var node : chain) {
+                assertSame(grid, node.getGrid());
+            }
+            assertEquals(12, grid.size());
+            verify(listener, never()).onGridChanged(owner, a);
+            verify(listener, never()).onGridChanged(owner, b);
+        }
+
+        @Test
+        void testNodesReadiedTogetherShareOneNewGrid() {
+            var nodes = new GridNode[4];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = makeNode();
+            }
+
+            reset(listener);
+            GridHelper.batchTopologyChanges(() -> {
+                for (int i = 1; i < nodes.length; i++) {
+                    GridHelper.createConnection(nodes[i - 1], nodes[i]);
+                }
+                for (var node : nodes) {
+                    node.markReady();
+                }
+            });
+
+            var grid = nodes[0].getGrid();
+            for (var node : nodes) {
+                assertSame(grid, node.getGrid());
+            }
+            assertEquals(nodes.length, grid.size());
+            // Every node joined a grid exactly once, so no node created a grid of its own first
+            verify(listener, times(nodes.length)).onGridChanged(eq(owner), any());
+        }
+
+        @Test
+        void testConnectionsRemovedDuringBatchSplitGrid() {
+            var nodes = new GridNode[12];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = makeReadyNode();
+            }
+            var connections = new IGridConnection[nodes.length];
+            for (int i = 1; i < nodes.length; i++) {
+                connections[i] = GridHelper.createConnection(nodes[i - 1], nodes[i]);
+            }
+
+            // Cut the chain into pieces of two nodes each
+            GridHelper.batchTopologyChanges(() -> {
+                for (int i = 2; i < nodes.length; i += 2) {
+                    connections[i].destroy();
+                }
+            });
+
+            for (int i = 0; i < nodes.length; i += 2) {
+                assertSame(nodes[i].getGrid(), nodes[i + 1].getGrid());
+                assertEquals(2, nodes[i].getGrid().size());
+                if (i > 0) {
+                    assertThat(nodes[i].getGrid()).isNotSameAs(nodes[i - 1].getGrid());
+                }
+            }
+        }
+
+        @Test
+        void testConnectingAndDisconnectingInSameBatch() {
+            var a = makeReadyNode();
+            var b = makeReadyNode();
+            var c = makeReadyNode();
+            var gridA = a.getGrid();
+
+            GridHelper.batchTopologyChanges(() -> {
+                var connection = GridHelper.createConnection(a, b);
+                GridHelper.createConnection(b, c);
+                connection.destroy();
+            });
+
+            assertSame(gridA, a.getGrid());
+            assertEquals(1, gridA.size());
+            assertSameGrid(b, c);
+            assertThat(a.getConnections()).isEmpty();
+        }
+
+        @Test
+        void testDestroyingNodeDuringBatch() {
+            var a = makeReadyNode();
+            var b = makeReadyNode();
+            var c = makeReadyNode();
+            GridHelper.createConnection(a, b);
+            GridHelper.createConnection(b, c);
+
+            GridHelper.batchTopologyChanges(b::destroy);
+
+            assertThat(a.getGrid()).isNotSameAs(c.getGrid());
+            assertEquals(1, a.getGrid().size());
+            assertEquals(1, c.getGrid().size());
+        }
+
+        private void assertSameGrid(IGridNode a, IGridNode b) {
+            assertNotNull(a.getGrid());
+            assertSame(a.getGrid(), b.getGrid());
+        }
+    }
+
 }
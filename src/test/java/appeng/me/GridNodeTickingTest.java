@@ -15,6 +15,7 @@
 import appeng.api.networking.ticking.IGridTickable;
 import appeng.api.networking.ticking.TickRateModulation;
 import appeng.api.networking.ticking.TickingRequest;
+import appeng.hooks.ticking.TickHandler;
 import appeng.me.service.TickManagerService;
 
 public class GridNodeTickingTest extends AbstractGridNodeTest {
@@ -53,6 +54,43 @@ void testAlertDevice() {
         assertThat(timesSinceLastTick).containsExactly(11, 10, 1);
     }
 
+    /**
+     * Devices that are due when the grid runs out of time are ticked on the next tick that has time left.
+     */
+    @Test
+    void testTicksAreDeferredWhenOutOfTime() {
+        var timesSinceLastTick = new ArrayList<Integer>();
+        var node = makeTickingNode(
+                new TickingRequest(1, 1, false),
+                (tickingNode, ticksSinceLastCall) -> {
+                    timesSinceLastTick.add(ticksSinceLastCall);
+                    return TickRateModulation.SAME;
+                });
+        var tickManager = (TickManagerService) node.getGrid().getTickManager();
+        var budget = TickHandler.instance().getGridTickBudget();
+
+        try {
+            runTick(node.getGrid());
+            assertThat(timesSinceLastTick).containsExactly(1);
+
+            // Use up the overall time
+            budget.startTick(0, 1);
+            budget.consume(1);
+            runTick(node.getGrid(), 2);
+            assertThat(timesSinceLastTick).containsExactly(1);
+            assertThat(tickManager.getDeferredLastTick()).isEqualTo(1);
+            assertThat(tickManager.getDeferredTotal()).isEqualTo(2);
+            assertThat(budget.getRemaining(0)).isZero();
+
+            budget.startTick(0, 0);
+            runTick(node.getGrid());
+            assertThat(timesSinceLastTick).containsExactly(1, 3);
+            assertThat(tickManager.getMaxLag()).isEqualTo(2);
+        } finally {
+            budget.startTick(0, 0);
+        }
+    }
+
     /**
      * Tests the sleeping behavior of nodes.
      */
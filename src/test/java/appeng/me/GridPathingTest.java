@@ -0,0 +1,145 @@
+package appeng.me;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.core.BlockPos;
+
+import appeng.api.networking.GridFlags;
+import appeng.api.networking.GridHelper;
+import appeng.api.networking.IGridNodeListener;
+import appeng.api.networking.pathing.ControllerState;
+import appeng.blockentity.networking.ControllerBlockEntity;
+import appeng.me.service.PathingService;
+
+class GridPathingTest extends AbstractGridNodeTest {
+    private GridNode controllerNode;
+    private GridNode cable;
+    private PathingService pathingService;
+
+    @BeforeEach
+    void setupNetwork() {
+        var controller = mock(ControllerBlockEntity.class);
+        when(controller.getBlockPos()).thenReturn(BlockPos.ZERO);
+        controllerNode = new GridNode(level, controller, listener,
+                Set.of(GridFlags.CANNOT_CARRY, GridFlags.DENSE_CAPACITY));
+        when(controller.getGridNode()).thenReturn(controllerNode);
+        controllerNode.markReady();
+
+        cable = makeReadyNode(GridFlags.PREFERRED);
+        GridHelper.createConnection(controllerNode, cable);
+
+        pathingService = (PathingService) controllerNode.getGrid().getPathingService();
+        runTicksUntilBooted();
+        assertThat(pathingService.getControllerState()).isEqualTo(ControllerState.CONTROLLER_ONLINE);
+    }
+
+    @Test
+    void testFullRecalculationAssignsChannels() {
+        var devices = new GridNode[10];
+        for (int i = 0; i < devices.length; i++) {
+            devices[i] = makeReadyNode(GridFlags.REQUIRE_CHANNEL);
+            GridHelper.createConnection(cable, devices[i]);
+        }
+
+        pathingService.repath();
+        runTicksUntilBooted();
+
+        // A normal cable carries 8 channels
+        assertThat(pathingService.getUsedChannels()).isEqualTo(8);
+        assertThat(cable.usedChannels()).isEqualTo(8);
+        assertThat(devices).filteredOn(GridNode::meetsChannelRequirements).hasSize(8);
+        for (var connection : cable.getConnections()) {
+            // All routes lead towards the controller
+            assertThat(connection.a() == cable || connection.a() == controllerNode).isTrue();
+        }
+    }
+
+    @Test
+    void testAttachedDeviceGetsChannelWithoutReboot() {
+        reset(listener);
+        var device = makeReadyNode(GridFlags.REQUIRE_CHANNEL);
+        GridHelper.createConnection(cable, device);
+
+        runTick(controllerNode.getGrid());
+
+        verify(listener, never()).onStateChanged(owner, cable, IGridNodeListener.State.GRID_BOOT);
+        assertThat(device.meetsChannelRequirements()).isTrue();
+        assertThat(device.usedChannels()).isEqualTo(1);
+        assertThat(pathingService.getUsedChannels()).isEqualTo(1);
+    }
+
+    @Test
+    void testRemovedDeviceReleasesChannelWithoutReboot() {
+        var first = makeReadyNode(GridFlags.REQUIRE_CHANNEL);
+        var second = makeReadyNode(GridFlags.REQUIRE_CHANNEL);
+        GridHelper.createConnection(cable, first);
+        GridHelper.createConnection(cable, second);
+        runTicksUntilBooted();
+        assertThat(pathingService.getUsedChannels()).isEqualTo(2);
+
+        reset(listener);
+        first.destroy();
+        runTick(controllerNode.getGrid());
+
+        verify(listener, never()).onStateChanged(owner, cable, IGridNodeListener.State.GRID_BOOT);
+        assertThat(pathingService.getUsedChannels()).isEqualTo(1);
+        assertThat(second.meetsChannelRequirements()).isTrue();
+        assertThat(cable.getUsedChannels()).isEqualTo(1);
+    }
+
+    @Test
+    void testReleasedChannelIsGivenToWaitingDevice() {
+        // One device more than the cable can carry channels for
+        var devices = new GridNode[9];
+        for (int i = 0; i < devices.length; i++) {
+            devices[i] = makeReadyNode(GridFlags.REQUIRE_CHANNEL);
+            GridHelper.createConnection(cable, devices[i]);
+        }
+        runTicksUntilBooted();
+        assertThat(pathingService.getUsedChannels()).isEqualTo(8);
+        var waiting = Arrays.stream(devices).filter(device -> !device.meetsChannelRequirements()).toList();
+        assertThat(waiting).hasSize(1);
+
+        // Repairing the removal locally would leave the released channel unused
+        Arrays.stream(devices).filter(GridNode::meetsChannelRequirements).findFirst().orElseThrow().destroy();
+        runTicksUntilBooted();
+
+        assertThat(pathingService.getReallocationRepaths()).isEqualTo(1);
+        assertThat(waiting.get(0).meetsChannelRequirements()).isTrue();
+        assertThat(pathingService.getUsedChannels()).isEqualTo(8);
+    }
+
+    @Test
+    void testConnectingExistingNodesReboots() {
+        var otherCable = makeReadyNode(GridFlags.PREFERRED);
+        GridHelper.createConnection(cable, otherCable);
+        runTicksUntilBooted();
+
+        // Closing a loop changes the routes through the grid
+        reset(listener);
+        GridHelper.createConnection(controllerNode, otherCable);
+        runTick(controllerNode.getGrid());
+
+        verify(listener, atLeastOnce()).onStateChanged(owner, cable, IGridNodeListener.State.GRID_BOOT);
+    }
+
+    private void runTicksUntilBooted() {
+        var ticks = 0;
+        do {
+            runTick(controllerNode.getGrid());
+        } while (pathingService.isNetworkBooting() && ++ticks < 100);
+        assertThat(pathingService.isNetworkBooting()).isFalse();
+    }
+}
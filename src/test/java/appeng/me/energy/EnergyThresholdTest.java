@@ -0,0 +1,33 @@
+package appeng.me.energy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.networking.energy.IEnergyWatcher;
+
+class EnergyThresholdTest {
+    private final EnergyThreshold threshold = new EnergyThreshold(100, mock(IEnergyWatcher.class));
+
+    @Test
+    void testEveryCrossingIsReportedWithoutHysteresis() {
+        threshold.initReportedSide(50);
+        assertThat(threshold.updateReportedSide(99, 0)).isFalse();
+        assertThat(threshold.updateReportedSide(100, 0)).isTrue();
+        assertThat(threshold.updateReportedSide(150, 0)).isFalse();
+        assertThat(threshold.updateReportedSide(99, 0)).isTrue();
+    }
+
+    @Test
+    void testFluctuationsWithinHysteresisAreNotReported() {
+        threshold.initReportedSide(50);
+        assertThat(threshold.updateReportedSide(105, 10)).isFalse();
+        assertThat(threshold.updateReportedSide(95, 10)).isFalse();
+        assertThat(threshold.updateReportedSide(110, 10)).isTrue();
+
+        // Dropping just below the threshold is not enough to report it again
+        assertThat(threshold.updateReportedSide(95, 10)).isFalse();
+        assertThat(threshold.updateReportedSide(89, 10)).isTrue();
+    }
+}
@@ -9,7 +9,12 @@
 
 import net.minecraft.nbt.CompoundTag;
 
+import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
+import appeng.api.config.PowerMultiplier;
+import appeng.api.networking.energy.IAEPowerStorage;
+import appeng.api.networking.events.GridPowerStorageStateChanged;
+import appeng.api.networking.events.GridPowerStorageStateChanged.PowerEventType;
 import appeng.me.AbstractGridNodeTest;
 import appeng.me.GridConnection;
 import appeng.me.ManagedGridNode;
@@ -89,6 +94,51 @@ void testStoredEnergyIsRemovedOnNbtReload() {
         assertThat(energyService.getStoredPower()).isCloseTo(40, TOLERANCE);
     }
 
+    @Test
+    void testExtractionsAreDebitedBeforeTheyAreSettled() {
+        var mgn = createAndInitNode();
+        var energyService = (EnergyService) mgn.getGrid().getEnergyService();
+        energyService.injectPower(20, Actionable.MODULATE);
+
+        assertThat(energyService.extractAEPower(15, Actionable.MODULATE, PowerMultiplier.ONE))
+                .isCloseTo(15, TOLERANCE);
+        // Later extractions in the same tick only see what is left
+        assertThat(energyService.extractAEPower(10, Actionable.SIMULATE, PowerMultiplier.ONE))
+                .isCloseTo(5, TOLERANCE);
+        energyService.refreshPower();
+        assertThat(energyService.getStoredPower()).isCloseTo(5, TOLERANCE);
+
+        // Injecting settles the debited power first, so the storage has room for it
+        assertThat(energyService.injectPower(20, Actionable.MODULATE)).isCloseTo(0, TOLERANCE);
+        energyService.refreshPower();
+        assertThat(energyService.getStoredPower()).isCloseTo(25, TOLERANCE);
+    }
+
+    @Test
+    void testPowerLostBeforeSettlingIsDebitedLater() {
+        var provider = new LimitedPowerStorage(100);
+        var node = makeNode();
+        node.setIdlePowerUsage(0);
+        node.addService(IAEPowerStorage.class, provider);
+        node.markReady();
+        var energyService = (EnergyService) node.getGrid().getEnergyService();
+
+        assertThat(energyService.extractAEPower(80, Actionable.MODULATE, PowerMultiplier.ONE))
+                .isCloseTo(80, TOLERANCE);
+        // The provider loses power to something else before the extraction is drained from it
+        provider.stored = 50;
+        energyService.onServerEndTick();
+        assertThat(provider.stored).isCloseTo(0, TOLERANCE);
+
+        // The power that could not be drained is still owed once the provider is refilled
+        provider.stored = 100;
+        node.getGrid().postEvent(new GridPowerStorageStateChanged(provider, PowerEventType.PROVIDE_POWER));
+        assertThat(energyService.extractAEPower(100, Actionable.SIMULATE, PowerMultiplier.ONE))
+                .isCloseTo(70, TOLERANCE);
+        energyService.onServerEndTick();
+        assertThat(provider.stored).isCloseTo(70, TOLERANCE);
+    }
+
     @NotNull
     private ManagedGridNode createAndInitNode() {
         return createAndInitNode(null);
@@ -104,4 +154,48 @@ private ManagedGridNode createAndInitNode(@Nullable CompoundTag tag) {
         return mgn;
     }
 
+    /**
+     * A provider whose stored power can be changed by the test.
+     */
+    private static class LimitedPowerStorage implements IAEPowerStorage {
+        private double stored;
+
+        LimitedPowerStorage(double stored) {
+            this.stored = stored;
+        }
+
+        @Override
+        public double injectAEPower(double amt, Actionable mode) {
+            return amt;
+        }
+
+        @Override
+        public double getAEMaxPower() {
+            return stored;
+        }
+
+        @Override
+        public double getAECurrentPower() {
+            return stored;
+        }
+
+        @Override
+        public boolean isAEPublicPowerStorage() {
+            return true;
+        }
+
+        @Override
+        public AccessRestriction getPowerFlow() {
+            return AccessRestriction.READ;
+        }
+
+        @Override
+        public double extractAEPower(double amt, Actionable mode, PowerMultiplier usePowerMultiplier) {
+            var extracted = Math.min(amt, stored);
+            if (mode == Actionable.MODULATE) {
+                stored -= extracted;
+            }
+            return extracted;
+        }
+    }
 }
@@ -0,0 +1,139 @@
+package appeng.me.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.Items;
+
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.KeyCounter;
+import appeng.api.storage.MEStorage;
+import appeng.core.AEConfig;
+import appeng.util.BootstrapMinecraft;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@BootstrapMinecraft
+class StorageServiceTest {
+    private static final AEItemKey STICK = AEItemKey.of(Items.STICK);
+    private static final AEItemKey STONE = AEItemKey.of(Items.STONE);
+
+    @Mock
+    MockedStatic<AEConfig> config;
+
+    private final StorageService service = new StorageService();
+    private final SimpleStorage storage = new SimpleStorage();
+
+    @BeforeEach
+    void setUp() {
+        var instance = mock(AEConfig.class);
+        when(instance.isIncrementalStorageCache()).thenReturn(true);
+        when(instance.getStorageCacheRebuildInterval()).thenReturn(200);
+        config.when(AEConfig::instance).thenReturn(instance);
+
+        service.addGlobalStorageProvider(mounts -> mounts.mount(storage));
+    }
+
+    @Test
+    void testStoragesThatDoNotReportChangesAreReadOnEveryUpdate() {
+        storage.stacks.add(STICK, 5);
+        assertThat(service.getCachedInventory().get(STICK)).isEqualTo(5);
+
+        // The storage does not report this change, and the next full rebuild is still far away
+        storage.stacks.add(STICK, 3);
+        service.onServerEndTick();
+        assertThat(service.getCachedInventory().get(STICK)).isEqualTo(8);
+
+        storage.stacks.remove(STICK, 8);
+        service.onServerEndTick();
+        assertThat(service.getCachedInventory().get(STICK)).isZero();
+    }
+
+    @Test
+    void testChangeLogReportsKeysChangedSinceVersion() {
+        var initialVersion = service.getCachedInventoryVersion();
+        storage.stacks.add(STICK, 5);
+        service.onServerEndTick();
+        var stickVersion = service.getCachedInventoryVersion();
+        storage.stacks.add(STONE, 5);
+        service.onServerEndTick();
+
+        assertThat(getChanges(initialVersion)).containsExactlyInAnyOrder(STICK, STONE);
+        assertThat(getChanges(stickVersion)).containsExactly(STONE);
+        assertThat(getChanges(service.getCachedInventoryVersion())).isEmpty();
+    }
+
+    @Test
+    void testOldVersionsAreDroppedFromChangeLog() {
+        var initialVersion = service.getCachedInventoryVersion();
+        for (int i = 0; i < 150; i++) {
+            storage.stacks.add(STICK, 1);
+            service.onServerEndTick();
+        }
+
+        assertThat(service.getCachedInventoryChanges(initialVersion, key -> {
+        })).isFalse();
+        assertThat(getChanges(service.getCachedInventoryVersion() - 1)).containsExactly(STICK);
+    }
+
+    @Test
+    void testSnapshotIsNotChangedByCacheUpdates() {
+        storage.stacks.add(STICK, 5);
+        var snapshot = service.getCachedInventorySnapshot();
+        assertThat(snapshot.get(STICK)).isEqualTo(5);
+
+        storage.stacks.add(STICK, 3);
+        service.onServerEndTick();
+        assertThat(service.getCachedInventory().get(STICK)).isEqualTo(8);
+        assertThat(service.getCachedInventory()).isNotSameAs(snapshot);
+        assertThat(snapshot.get(STICK)).isEqualTo(5);
+    }
+
+    @Test
+    void testReleasedSnapshotIsNotCopied() {
+        storage.stacks.add(STICK, 5);
+        var snapshot = service.getCachedInventorySnapshot();
+        service.releaseCachedInventorySnapshot(snapshot);
+
+        // Nobody reads the snapshot anymore, so the cache is updated in place
+        storage.stacks.add(STICK, 3);
+        service.onServerEndTick();
+        assertThat(service.getCachedInventory()).isSameAs(snapshot);
+        assertThat(snapshot.get(STICK)).isEqualTo(8);
+    }
+
+    private List<AEKey> getChanges(long sinceVersion) {
+        var changes = new ArrayList<AEKey>();
+        assertThat(service.getCachedInventoryChanges(sinceVersion, changes::add)).isTrue();
+        return changes;
+    }
+
+    /**
+     * A storage that does not report changes to its content.
+     */
+    private static class SimpleStorage implements MEStorage {
+        private final KeyCounter stacks = new KeyCounter();
+
+        @Override
+        public void getAvailableStacks(KeyCounter out) {
+            out.addAll(stacks);
+        }
+
+        @Override
+        public Component getDescription() {
+            return Component.literal("Simple Storage");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package appeng.me.service.helpers;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.crafting.execution.CraftingCpuLogic;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class CraftingCpuSchedulerTest {
+    private final CraftingCpuScheduler scheduler = new CraftingCpuScheduler();
+
+    /**
+     * How many more patterns the provider shared by all CPUs accepts this tick.
+     */
+    private int providerCapacity;
+
+    @Test
+    void testCpusSharingProviderBothPush() {
+        var first = makeCpu();
+        var second = makeCpu();
+        providerCapacity = 6;
+
+        tick(first, 8, second, 8);
+
+        // Neither CPU can take the entire provider for itself
+        verify(first).endTick(3);
+        verify(second).endTick(3);
+    }
+
+    @Test
+    void testSharesFollowCoProcessors() {
+        // One co-processor, and seven co-processors
+        var small = makeCpu();
+        var large = makeCpu();
+        providerCapacity = 5;
+
+        tick(small, 2, large, 8);
+
+        // Each round, the larger CPU may push four times as many patterns
+        verify(small, atLeastOnce()).executeCrafting(eq(1), any(), any(), any());
+        verify(large, atLeastOnce()).executeCrafting(eq(4), any(), any(), any());
+        verify(small).endTick(1);
+        verify(large).endTick(4);
+    }
+
+    private void tick(CraftingCpuLogic first, int firstBudget, CraftingCpuLogic second, int secondBudget) {
+        scheduler.schedule(List.of(
+                new CraftingCpuScheduler.ScheduledCpu(first, null, firstBudget),
+                new CraftingCpuScheduler.ScheduledCpu(second, null, secondBudget)), null, null);
+    }
+
+    private CraftingCpuLogic makeCpu() {
+        var logic = mock(CraftingCpuLogic.class);
+        when(logic.executeCrafting(anyInt(), any(), any(), any())).thenAnswer(invocation -> {
+            int pushed = Math.min(invocation.<Integer>getArgument(0), providerCapacity);
+            providerCapacity -= pushed;
+            return pushed;
+        });
+        return logic;
+    }
+}
@@ -0,0 +1,126 @@
+package appeng.me.service.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.ticking.IGridTickable;
+import appeng.api.networking.ticking.TickingRequest;
+
+class TickWheelTest {
+    private final TickWheel wheel = new TickWheel(0);
+
+    @Test
+    void testTrackersAreReturnedWhenDue() {
+        var soon = makeTracker(3, 0);
+        var later = makeTracker(100, 0);
+        var muchLater = makeTracker(50_000, 0);
+        wheel.schedule(soon);
+        wheel.schedule(later);
+        wheel.schedule(muchLater);
+
+        assertThat(tickUntil(2)).isEmpty();
+        assertThat(tickUntil(3)).containsExactly(soon);
+        assertThat(tickUntil(99)).isEmpty();
+        assertThat(tickUntil(100)).containsExactly(later);
+        assertThat(tickUntil(49_999)).isEmpty();
+        assertThat(tickUntil(50_000)).containsExactly(muchLater);
+        assertThat(wheel.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testOverdueTrackersAreReturnedImmediately() {
+        tickUntil(10);
+        var overdue = makeTracker(5, 0);
+        wheel.schedule(overdue);
+
+        assertThat(wheel.pollDue(10)).isSameAs(overdue);
+    }
+
+    @Test
+    void testRescheduleAndRemove() {
+        var tracker = makeTracker(10, 0);
+        var removed = makeTracker(10, 0);
+        wheel.schedule(tracker);
+        wheel.schedule(removed);
+
+        tracker.setTickOnNextTick();
+        wheel.schedule(tracker);
+        assertThat(wheel.remove(removed)).isTrue();
+        assertThat(wheel.remove(removed)).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        assertThat(tickUntil(1)).containsExactly(tracker);
+        assertThat(tickUntil(10)).isEmpty();
+        assertThat(wheel.contains(tracker)).isFalse();
+    }
+
+    /**
+     * Random churn must tick exactly the same trackers per tick as a plain scan of all scheduled trackers.
+     */
+    @Test
+    void testMatchesNaiveScheduling() {
+        var random = new Random(1234);
+        var trackers = new ArrayList<TickTracker>();
+        for (int i = 0; i < 200; i++) {
+            var tracker = makeTracker(1 + random.nextInt(5000), 0);
+            trackers.add(tracker);
+            wheel.schedule(tracker);
+        }
+
+        var scheduled = new ArrayList<>(trackers);
+        for (long tick = 1; tick < 20_000; tick++) {
+            var expected = new ArrayList<TickTracker>();
+            for (var tracker : scheduled) {
+                if (tracker.getNextTick() <= tick) {
+                    expected.add(tracker);
+                }
+            }
+            scheduled.removeAll(expected);
+
+            var actual = tickUntil(tick);
+            assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+
+            for (var tracker : actual) {
+                tracker.setLastTick(tick);
+                tracker.setCurrentRate(1 + random.nextInt(5000));
+                wheel.schedule(tracker);
+                scheduled.add(tracker);
+            }
+
+            // Alert or remove some trackers
+            var tracker = trackers.get(random.nextInt(trackers.size()));
+            if (random.nextBoolean()) {
+                tracker.setTickOnNextTick();
+                wheel.schedule(tracker);
+                if (!scheduled.contains(tracker)) {
+                    scheduled.add(tracker);
+                }
+            } else if (wheel.remove(tracker)) {
+                scheduled.remove(tracker);
+            }
+        }
+    }
+
+    private List<TickTracker> tickUntil(long tick) {
+        var result = new ArrayList<TickTracker>();
+        TickTracker tracker;
+        while ((tracker = wheel.pollDue(tick)) != null) {
+            result.add(tracker);
+        }
+        return result;
+    }
+
+    private static TickTracker makeTracker(int rate, long currentTick) {
+        var tracker = new TickTracker(new TickingRequest(1, 100_000, false), mock(IGridNode.class),
+                mock(IGridTickable.class), currentTick);
+        tracker.setCurrentRate(rate);
+        return tracker;
+    }
+}
@@ -0,0 +1,49 @@
+package appeng.me.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.items.ItemStackHandler;
+
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKeyType;
+import appeng.api.stacks.KeyCounter;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class CompositeStorageTest {
+    private static final AEItemKey STONE = AEItemKey.of(Items.STONE);
+
+    private final ItemStackHandler handler = new ItemStackHandler(ExternalInventoryCache.SLOTS_PER_UPDATE * 2);
+    private final CompositeStorage storage = new CompositeStorage(
+            Map.of(AEKeyType.items(), ExternalStorageFacade.of(handler)));
+
+    @Test
+    void testStorageThatIsNotTickedReadsEverySlot() {
+        handler.setStackInSlot(handler.getSlots() - 1, new ItemStack(Items.STONE, 5));
+
+        // Pattern providers read their targets once, without ever ticking them
+        assertThat(getAvailable().get(STONE)).isEqualTo(5);
+    }
+
+    @Test
+    void testTickedStoragePollsIncrementally() {
+        handler.setStackInSlot(handler.getSlots() - 1, new ItemStack(Items.STONE, 5));
+
+        storage.onTick();
+        assertThat(getAvailable().get(STONE)).isZero();
+        storage.onTick();
+        assertThat(getAvailable().get(STONE)).isEqualTo(5);
+    }
+
+    private KeyCounter getAvailable() {
+        var available = new KeyCounter();
+        storage.getAvailableStacks(available);
+        return available;
+    }
+}
@@ -0,0 +1,136 @@
+package appeng.me.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.items.ItemStackHandler;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.security.IActionSource;
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.KeyCounter;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class ExternalInventoryCacheTest {
+    private static final AEItemKey STICK = AEItemKey.of(Items.STICK);
+    private static final AEItemKey STONE = AEItemKey.of(Items.STONE);
+
+    @Test
+    void testSmallInventoriesArePolledCompletely() {
+        var handler = new ItemStackHandler(9);
+        var cache = ExternalInventoryCache.of(ExternalStorageFacade.of(handler));
+        assertThat(cache.update()).isFalse();
+
+        handler.setStackInSlot(8, new ItemStack(Items.STICK, 5));
+        assertThat(cache.update()).isTrue();
+        assertThat(getAvailable(cache).get(STICK)).isEqualTo(5);
+        assertThat(cache.update()).isFalse();
+
+        handler.setStackInSlot(8, new ItemStack(Items.STONE, 5));
+        assertThat(cache.update()).isTrue();
+        assertThat(getAvailable(cache).get(STICK)).isZero();
+        assertThat(getAvailable(cache).get(STONE)).isEqualTo(5);
+    }
+
+    @Test
+    void testLargeInventoriesArePolledInChunks() {
+        var handler = new ItemStackHandler(ExternalInventoryCache.SLOTS_PER_UPDATE * 2);
+        handler.setStackInSlot(0, new ItemStack(Items.STICK, 5));
+        handler.setStackInSlot(handler.getSlots() - 1, new ItemStack(Items.STONE, 5));
+        var cache = ExternalInventoryCache.of(ExternalStorageFacade.of(handler));
+
+        assertThat(cache.update()).isTrue();
+        assertThat(cache.hasPendingPolls()).isTrue();
+        assertThat(getAvailable(cache).get(STICK)).isEqualTo(5);
+        assertThat(getAvailable(cache).get(STONE)).isZero();
+
+        cache.update();
+        assertThat(getAvailable(cache).get(STONE)).isEqualTo(5);
+    }
+
+    @Test
+    void testCompleteUpdatePollsEverySlot() {
+        var handler = new ItemStackHandler(ExternalInventoryCache.SLOTS_PER_UPDATE * 2);
+        handler.setStackInSlot(handler.getSlots() - 1, new ItemStack(Items.STONE, 5));
+        var cache = ExternalInventoryCache.of(ExternalStorageFacade.of(handler));
+
+        assertThat(cache.update(true)).isTrue();
+        assertThat(cache.hasPendingPolls()).isFalse();
+        assertThat(getAvailable(cache).get(STONE)).isEqualTo(5);
+    }
+
+    @Test
+    void testInsertionTriggersRescan() {
+        var handler = new ItemStackHandler(ExternalInventoryCache.SLOTS_PER_UPDATE * 2);
+        var facade = ExternalStorageFacade.of(handler);
+        var notified = new boolean[1];
+        facade.setChangeListener(() -> notified[0] = true);
+        var cache = ExternalInventoryCache.of(facade);
+
+        // Let every region back off
+        for (int i = 0; i < ExternalInventoryCache.MAX_POLL_INTERVAL * 4; i++) {
+            cache.update();
+        }
+        assertThat(cache.hasPendingPolls()).isFalse();
+
+        facade.insert(STICK, 5, Actionable.MODULATE, IActionSource.empty());
+        assertThat(notified[0]).isTrue();
+
+        // Every region is due again, which takes two updates to poll
+        cache.update();
+        cache.update();
+        assertThat(getAvailable(cache).get(STICK)).isEqualTo(5);
+    }
+
+    @Test
+    void testSlotIndex() {
+        var handler = new ItemStackHandler(9);
+        handler.setStackInSlot(4, new ItemStack(Items.STICK, 5));
+        var facade = ExternalStorageFacade.of(handler);
+        var cache = ExternalInventoryCache.of(facade);
+        cache.update();
+
+        // Inserting tops up the slot that already holds sticks
+        assertThat(facade.insert(STICK, 3, Actionable.MODULATE, IActionSource.empty())).isEqualTo(3);
+        assertThat(handler.getStackInSlot(0).isEmpty()).isTrue();
+        assertThat(handler.getStackInSlot(4).getCount()).isEqualTo(8);
+
+        // Sticks in slots that were not polled yet are only found after the next update
+        handler.setStackInSlot(6, new ItemStack(Items.STICK, 2));
+        assertThat(facade.extract(STICK, 10, Actionable.SIMULATE, IActionSource.empty())).isEqualTo(8);
+        cache.update();
+        assertThat(facade.extract(STICK, 10, Actionable.MODULATE, IActionSource.empty())).isEqualTo(10);
+        assertThat(facade.extract(STICK, 10, Actionable.SIMULATE, IActionSource.empty())).isZero();
+    }
+
+    @Test
+    void testRefilledSlotIsIndexedAgain() {
+        var handler = new ItemStackHandler(9);
+        handler.setStackInSlot(4, new ItemStack(Items.STICK, 5));
+        var facade = ExternalStorageFacade.of(handler);
+        var cache = ExternalInventoryCache.of(facade);
+        cache.update();
+
+        // The slot is dropped from the index when the facade finds something else in it
+        handler.setStackInSlot(4, new ItemStack(Items.STONE, 5));
+        assertThat(facade.extract(STICK, 10, Actionable.SIMULATE, IActionSource.empty())).isZero();
+        assertThat(cache.getIndexedSlots(STICK)).isEmpty();
+
+        // Refilling it with the stack it held when it was last polled must still be noticed
+        handler.setStackInSlot(4, new ItemStack(Items.STICK, 5));
+        cache.update();
+        assertThat(cache.getIndexedSlots(STICK)).containsExactly(4);
+        assertThat(getAvailable(cache).get(STICK)).isEqualTo(5);
+        assertThat(facade.extract(STICK, 10, Actionable.SIMULATE, IActionSource.empty())).isEqualTo(5);
+    }
+
+    private static KeyCounter getAvailable(ExternalInventoryCache cache) {
+        var available = new KeyCounter();
+        cache.getAvailableItems(available);
+        return available;
+    }
+}
@@ -0,0 +1,178 @@
+package appeng.me.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.material.Fluids;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.security.IActionSource;
+import appeng.api.stacks.AEFluidKey;
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.AEKeyType;
+import appeng.api.stacks.KeyCounter;
+import appeng.api.storage.MEStorage;
+import appeng.me.helpers.BaseActionSource;
+import appeng.util.BootstrapMinecraft;
+import appeng.util.prioritylist.IPartitionList;
+
+@BootstrapMinecraft
+class NetworkStorageTest {
+    private static final IActionSource SRC = new BaseActionSource();
+
+    private final NetworkStorage storage = new NetworkStorage();
+
+    @Test
+    void testPartitionedStorageIsPreferred() {
+        var diamond = AEItemKey.of(Items.DIAMOND);
+        var stone = AEItemKey.of(Items.STONE);
+
+        var unfiltered = new TestStorage(AEKeyType.items(), null);
+        var partitioned = new TestStorage(AEKeyType.items(), partition(diamond));
+        storage.mount(0, unfiltered);
+        storage.mount(0, partitioned);
+
+        assertThat(storage.insert(diamond, 10, Actionable.MODULATE, SRC)).isEqualTo(10);
+        assertThat(storage.insert(stone, 5, Actionable.MODULATE, SRC)).isEqualTo(5);
+
+        assertThat(partitioned.stacks.get(diamond)).isEqualTo(10);
+        assertThat(partitioned.stacks.get(stone)).isZero();
+        assertThat(unfiltered.stacks.get(diamond)).isZero();
+        assertThat(unfiltered.stacks.get(stone)).isEqualTo(5);
+    }
+
+    @Test
+    void testHigherPriorityIsUsedFirst() {
+        var diamond = AEItemKey.of(Items.DIAMOND);
+
+        var low = new TestStorage(AEKeyType.items(), partition(diamond));
+        var high = new TestStorage(null, null);
+        storage.mount(0, low);
+        storage.mount(10, high);
+
+        assertThat(storage.insert(diamond, 10, Actionable.MODULATE, SRC)).isEqualTo(10);
+        assertThat(high.stacks.get(diamond)).isEqualTo(10);
+
+        // Extraction starts with the lowest priority
+        low.stacks.add(diamond, 5);
+        assertThat(storage.extract(diamond, 7, Actionable.MODULATE, SRC)).isEqualTo(7);
+        assertThat(low.stacks.get(diamond)).isZero();
+        assertThat(high.stacks.get(diamond)).isEqualTo(8);
+    }
+
+    @Test
+    void testStoragesOfOtherKeyTypesAreSkipped() {
+        var diamond = AEItemKey.of(Items.DIAMOND);
+        var water = AEFluidKey.of(Fluids.WATER);
+
+        var items = new TestStorage(AEKeyType.items(), null);
+        var fluids = new TestStorage(AEKeyType.fluids(), null);
+        storage.mount(0, items);
+        storage.mount(0, fluids);
+
+        assertThat(storage.insert(water, 1000, Actionable.MODULATE, SRC)).isEqualTo(1000);
+        assertThat(storage.extract(water, 1000, Actionable.MODULATE, SRC)).isEqualTo(1000);
+        assertThat(storage.insert(diamond, 1, Actionable.MODULATE, SRC)).isEqualTo(1);
+
+        assertThat(items.operations).isEqualTo(1);
+        assertThat(fluids.operations).isEqualTo(2);
+    }
+
+    @Test
+    void testUnmountedStorageIsNoLongerUsed() {
+        var diamond = AEItemKey.of(Items.DIAMOND);
+
+        var first = new TestStorage(AEKeyType.items(), partition(diamond));
+        var second = new TestStorage(AEKeyType.items(), null);
+        storage.mount(0, first);
+        storage.mount(0, second);
+
+        assertThat(storage.insert(diamond, 1, Actionable.MODULATE, SRC)).isEqualTo(1);
+        assertThat(first.stacks.get(diamond)).isEqualTo(1);
+
+        storage.unmount(first);
+
+        assertThat(storage.insert(diamond, 1, Actionable.MODULATE, SRC)).isEqualTo(1);
+        assertThat(storage.extract(diamond, 10, Actionable.MODULATE, SRC)).isEqualTo(1);
+        assertThat(first.stacks.get(diamond)).isEqualTo(1);
+    }
+
+    private static IPartitionList partition(AEKey key) {
+        var builder = IPartitionList.builder();
+        builder.add(key);
+        return builder.build();
+    }
+
+    /**
+     * Accepts everything that passes its own restrictions, and prefers keys listed in its partition list.
+     */
+    private static class TestStorage implements MEStorage, IRoutableStorage {
+        private final KeyCounter stacks = new KeyCounter();
+        @Nullable
+        private final AEKeyType keyType;
+        @Nullable
+        private final IPartitionList partitionList;
+        private int operations;
+
+        TestStorage(@Nullable AEKeyType keyType, @Nullable IPartitionList partitionList) {
+            this.keyType = keyType;
+            this.partitionList = partitionList;
+        }
+
+        @Override
+        public boolean isPreferredStorageFor(AEKey what, IActionSource source) {
+            return partitionList != null && partitionList.isListed(what);
+        }
+
+        @Override
+        public long insert(AEKey what, long amount, Actionable mode, IActionSource source) {
+            operations++;
+            if (keyType != null && !keyType.contains(what)
+                    || partitionList != null && !partitionList.isListed(what)) {
+                return 0;
+            }
+            if (mode == Actionable.MODULATE) {
+                stacks.add(what, amount);
+            }
+            return amount;
+        }
+
+        @Override
+        public long extract(AEKey what, long amount, Actionable mode, IActionSource source) {
+            operations++;
+            var extracted = Math.min(amount, stacks.get(what));
+            if (mode == Actionable.MODULATE) {
+                stacks.remove(what, extracted);
+                stacks.removeZeros();
+            }
+            return extracted;
+        }
+
+        @Override
+        public void getAvailableStacks(KeyCounter out) {
+            out.addAll(stacks);
+        }
+
+        @Override
+        public Component getDescription() {
+            return Component.literal("Test Storage");
+        }
+
+        @Nullable
+        @Override
+        public AEKeyType getRoutingKeyType() {
+            return keyType;
+        }
+
+        @Nullable
+        @Override
+        public IPartitionList getRoutingInsertFilter() {
+            return partitionList;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package appeng.menu.me.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.Items;
+
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.AEKey;
+import appeng.api.stacks.KeyCounter;
+import appeng.api.storage.MEStorage;
+import appeng.core.AEConfig;
+import appeng.me.service.StorageService;
+import appeng.util.BootstrapMinecraft;
+
+@MockitoSettings(strictness = Strictness.LENIENT)
+@BootstrapMinecraft
+class GridInventoryCursorTest {
+    private static final AEItemKey STICK = AEItemKey.of(Items.STICK);
+
+    @Mock
+    MockedStatic<AEConfig> config;
+
+    private final StorageService service = new StorageService();
+    private final KeyCounter stacks = new KeyCounter();
+    private final GridInventoryCursor cursor = new GridInventoryCursor();
+    private final ArrayList<AEKey> changes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        var instance = mock(AEConfig.class);
+        when(instance.isIncrementalStorageCache()).thenReturn(true);
+        when(instance.getStorageCacheRebuildInterval()).thenReturn(200);
+        config.when(AEConfig::instance).thenReturn(instance);
+
+        service.addGlobalStorageProvider(mounts -> mounts.mount(new MEStorage() {
+            @Override
+            public void getAvailableStacks(KeyCounter out) {
+                out.addAll(stacks);
+            }
+
+            @Override
+            public Component getDescription() {
+                return Component.literal("Storage");
+            }
+        }));
+    }
+
+    @Test
+    void testNewCursorNeedsFullUpdate() {
+        assertThat(cursor.getChanges(service, changes::add)).isFalse();
+        assertThat(cursor.isSet()).isFalse();
+    }
+
+    @Test
+    void testCursorReportsChangesSinceItWasMoved() {
+        cursor.moveTo(service);
+        stacks.add(STICK, 5);
+        service.onServerEndTick();
+
+        assertThat(cursor.getChanges(service, changes::add)).isTrue();
+        assertThat(changes).containsExactly(STICK);
+    }
+
+    @Test
+    void testCursorForAnotherGridNeedsFullUpdate() {
+        cursor.moveTo(new StorageService());
+
+        assertThat(cursor.getChanges(service, changes::add)).isFalse();
+    }
+
+    @Test
+    void testCursorBehindChangeLogNeedsFullUpdate() {
+        cursor.moveTo(service);
+        // Menus that are not updated for a long time fall behind the change log
+        for (int i = 0; i < 150; i++) {
+            stacks.add(STICK, 1);
+            service.onServerEndTick();
+        }
+
+        assertThat(cursor.getChanges(service, changes::add)).isFalse();
+        assertThat(changes).isEmpty();
+    }
+}
@@ -0,0 +1,54 @@
+package appeng.menu.me.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.world.item.Items;
+
+import appeng.api.config.SortDir;
+import appeng.api.config.SortOrder;
+import appeng.api.stacks.AEItemKey;
+import appeng.api.stacks.KeyCounter;
+import appeng.util.BootstrapMinecraft;
+
+@BootstrapMinecraft
+class MEStorageMenuTest {
+    private static final AEItemKey STICK = AEItemKey.of(Items.STICK);
+    private static final AEItemKey STONE = AEItemKey.of(Items.STONE);
+    private static final AEItemKey DIRT = AEItemKey.of(Items.DIRT);
+    private static final AEItemKey APPLE = AEItemKey.of(Items.APPLE);
+    private static final AEItemKey DIAMOND = AEItemKey.of(Items.DIAMOND);
+
+    @Test
+    void testCraftablesAndVisibleKeysComeFirst() {
+        var available = new KeyCounter();
+        available.add(STICK, 10);
+        available.add(STONE, 40);
+        available.add(DIRT, 30);
+        available.add(APPLE, 20);
+
+        var keys = MEStorageMenu.prioritizeKeys(List.of(STICK, STONE, DIRT, APPLE, DIAMOND), available,
+                Set.of(DIAMOND), SortOrder.AMOUNT, SortDir.DESCENDING, 2);
+
+        // The craftable key, the two largest stacks in order, and then the rest in any order
+        assertThat(keys).hasSize(5);
+        assertThat(keys.subList(0, 3)).containsExactly(DIAMOND, STONE, DIRT);
+        assertThat(keys.subList(3, 5)).containsExactlyInAnyOrder(STICK, APPLE);
+    }
+
+    @Test
+    void testKeysAreNotSortedIfAllOfThemArePrioritized() {
+        var available = new KeyCounter();
+        available.add(STICK, 10);
+        available.add(STONE, 40);
+
+        var keys = MEStorageMenu.prioritizeKeys(List.of(STICK, STONE), available, Set.of(), SortOrder.AMOUNT,
+                SortDir.DESCENDING, 2);
+
+        assertThat(keys).containsExactly(STICK, STONE);
+    }
+}